@@ -0,0 +1,69 @@
+package net.fabricmc.fernflower.api;
+
+import org.jetbrains.java.decompiler.struct.StructClass;
+import org.jetbrains.java.decompiler.struct.StructField;
+import org.jetbrains.java.decompiler.struct.StructMethod;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns a provider that looks up javadoc one member at a time into a {@link IFabricBulkJavadocProvider}. All members of
+ * a class are looked up together, and the result is kept while the class is written, so the given provider is entered
+ * once per class. Lookups in a provider that is not thread-safe are serialized a class at a time.
+ */
+public final class CachingJavadocProvider implements IFabricBulkJavadocProvider {
+  private final IFabricJavadocProvider provider;
+  private final boolean threadSafe;
+
+  /**
+   * Wraps a provider that is not thread-safe.
+   */
+  public CachingJavadocProvider(IFabricJavadocProvider provider) {
+    this(provider, false);
+  }
+
+  /**
+   * @param threadSafe whether the provider may be called from several threads at once
+   */
+  public CachingJavadocProvider(IFabricJavadocProvider provider, boolean threadSafe) {
+    this.provider = provider;
+    this.threadSafe = threadSafe;
+  }
+
+  @Override
+  public ClassJavadoc getClassJavadoc(StructClass structClass) {
+    if (threadSafe) {
+      return lookUp(structClass);
+    }
+    synchronized (provider) {
+      return lookUp(structClass);
+    }
+  }
+
+  private ClassJavadoc lookUp(StructClass structClass) {
+    Map<String, String> fieldDocs = new HashMap<>();
+    Map<String, String> methodDocs = new HashMap<>();
+    String classDoc = provider.getClassDoc(structClass);
+
+    for (StructField field : structClass.getFields()) {
+      String doc = provider.getFieldDoc(structClass, field);
+      if (doc != null) {
+        fieldDocs.put(InterpreterUtil.makeUniqueKey(field.getName(), field.getDescriptor()), doc);
+      }
+    }
+
+    for (StructMethod method : structClass.getMethods()) {
+      String doc = provider.getMethodDoc(structClass, method);
+      if (doc != null) {
+        methodDocs.put(InterpreterUtil.makeUniqueKey(method.getName(), method.getDescriptor()), doc);
+      }
+    }
+
+    if (classDoc == null && fieldDocs.isEmpty() && methodDocs.isEmpty()) {
+      return ClassJavadoc.EMPTY;
+    }
+    return new ClassJavadoc(classDoc, fieldDocs, methodDocs);
+  }
+}
@@ -0,0 +1,66 @@
+package net.fabricmc.fernflower.api;
+
+import org.jetbrains.java.decompiler.struct.StructClass;
+import org.jetbrains.java.decompiler.struct.StructField;
+import org.jetbrains.java.decompiler.struct.StructMethod;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A {@link IFabricJavadocProvider} that looks up the javadoc of a class together with that of all its members.
+ * {@link org.jetbrains.java.decompiler.main.ClassWriter} asks it once per written class instead of once per member.
+ * Providers that cannot look up a class at once can be wrapped in a {@link CachingJavadocProvider}.
+ */
+public interface IFabricBulkJavadocProvider extends IFabricJavadocProvider {
+  /**
+   * May be called from several threads at once.
+   */
+  ClassJavadoc getClassJavadoc(StructClass structClass);
+
+  @Override
+  default String getClassDoc(StructClass structClass) {
+    return getClassJavadoc(structClass).getClassDoc();
+  }
+
+  @Override
+  default String getFieldDoc(StructClass structClass, StructField structField) {
+    return getClassJavadoc(structClass).getFieldDoc(structField);
+  }
+
+  @Override
+  default String getMethodDoc(StructClass structClass, StructMethod structMethod) {
+    return getClassJavadoc(structClass).getMethodDoc(structMethod);
+  }
+
+  /**
+   * The javadoc of a class and its members. Members are keyed by {@link InterpreterUtil#makeUniqueKey(String, String)}
+   * of their name and descriptor; members without javadoc are left out.
+   */
+  final class ClassJavadoc {
+    public static final ClassJavadoc EMPTY = new ClassJavadoc(null, Collections.emptyMap(), Collections.emptyMap());
+
+    private final String classDoc;
+    private final Map<String, String> fieldDocs;
+    private final Map<String, String> methodDocs;
+
+    public ClassJavadoc(String classDoc, Map<String, String> fieldDocs, Map<String, String> methodDocs) {
+      this.classDoc = classDoc;
+      this.fieldDocs = fieldDocs;
+      this.methodDocs = methodDocs;
+    }
+
+    public String getClassDoc() {
+      return classDoc;
+    }
+
+    public String getFieldDoc(StructField structField) {
+      return fieldDocs.get(InterpreterUtil.makeUniqueKey(structField.getName(), structField.getDescriptor()));
+    }
+
+    public String getMethodDoc(StructMethod structMethod) {
+      return methodDocs.get(InterpreterUtil.makeUniqueKey(structMethod.getName(), structMethod.getDescriptor()));
+    }
+  }
+}
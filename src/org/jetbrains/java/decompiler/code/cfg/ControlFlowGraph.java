@@ -653,9 +653,9 @@ public class ControlFlowGraph implements CodeConstants {
         List<BasicBlock> lstNewRange;
 
         if (setBoth.size() == lstRange.size()) {
-          lstNewRange = new ArrayList<>();
-          ExceptionRangeCFG newRange = new ExceptionRangeCFG(lstNewRange,
+          ExceptionRangeCFG newRange = new ExceptionRangeCFG(new ArrayList<>(),
                                                              mapNewNodes.get(range.getHandler().id), range.getExceptionTypes());
+          lstNewRange = newRange.getProtectedRange();
           exceptions.add(newRange);
         }
         else {
@@ -718,7 +718,7 @@ public class ControlFlowGraph implements CodeConstants {
 
         DataPoint point = new DataPoint();
         point.setLocalVariables(new ArrayList<>(data.getLocalVariables()));
-        point.getStack().push(new VarType(CodeConstants.TYPE_OBJECT, 0, null));
+        point.getStack().push(VarType.of(CodeConstants.TYPE_OBJECT, 0, null));
 
         removeJsrInstructions(pool, suc, point);
       }
@@ -8,12 +8,12 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 public class ExceptionRangeCFG {
-  private final List<BasicBlock> protectedRange; // FIXME: replace with set
+  private final ProtectedRange protectedRange;
   private BasicBlock handler;
   private List<String> exceptionTypes;
 
   public ExceptionRangeCFG(List<BasicBlock> protectedRange, BasicBlock handler, List<String> exceptionType) {
-    this.protectedRange = protectedRange;
+    this.protectedRange = new ProtectedRange(protectedRange);
     this.handler = handler;
 
     if (exceptionType != null) {
@@ -61,7 +61,7 @@ public class ExceptionRangeCFG {
     this.handler = handler;
   }
 
-  public List<BasicBlock> getProtectedRange() {
+  public ProtectedRange getProtectedRange() {
     return protectedRange;
   }
 
@@ -0,0 +1,100 @@
+package org.jetbrains.java.decompiler.code.cfg;
+
+import java.util.*;
+
+/**
+ * The blocks protected by an exception range, in the order they were added. Alongside the list, the ids of the blocks are
+ * kept in a bit set, so that membership, containment and overlap of ranges are answered with word operations instead of
+ * scanning the list. Block ids are small, dense and unique within a graph, which keeps the sets compact.
+ */
+public final class ProtectedRange extends AbstractList<BasicBlock> implements RandomAccess {
+  private final List<BasicBlock> blocks;
+  private final BitSet ids = new BitSet();
+
+  public ProtectedRange() {
+    blocks = new ArrayList<>();
+  }
+
+  public ProtectedRange(Collection<BasicBlock> blocks) {
+    this.blocks = new ArrayList<>(blocks);
+    for (BasicBlock block : this.blocks) {
+      ids.set(block.id);
+    }
+  }
+
+  @Override
+  public BasicBlock get(int index) {
+    return blocks.get(index);
+  }
+
+  @Override
+  public int size() {
+    return blocks.size();
+  }
+
+  @Override
+  public BasicBlock set(int index, BasicBlock block) {
+    BasicBlock previous = blocks.set(index, block);
+    ids.set(block.id);
+    clearIfAbsent(previous);
+    return previous;
+  }
+
+  @Override
+  public void add(int index, BasicBlock block) {
+    blocks.add(index, block);
+    ids.set(block.id);
+    modCount++;
+  }
+
+  @Override
+  public BasicBlock remove(int index) {
+    BasicBlock block = blocks.remove(index);
+    clearIfAbsent(block);
+    modCount++;
+    return block;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return contains(o) && super.remove(o);
+  }
+
+  @Override
+  public void clear() {
+    blocks.clear();
+    ids.clear();
+    modCount++;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o instanceof BasicBlock && ids.get(((BasicBlock)o).id);
+  }
+
+  public boolean containsAll(ProtectedRange range) {
+    BitSet rest = (BitSet)range.ids.clone();
+    rest.andNot(ids);
+    return rest.isEmpty();
+  }
+
+  public boolean intersects(ProtectedRange range) {
+    return ids.intersects(range.ids);
+  }
+
+  /**
+   * @return a copy of the ids of the blocks
+   */
+  public BitSet getIds() {
+    return (BitSet)ids.clone();
+  }
+
+  private void clearIfAbsent(BasicBlock block) {
+    for (BasicBlock other : blocks) {
+      if (other.id == block.id) {
+        return;
+      }
+    }
+    ids.clear(block.id);
+  }
+}
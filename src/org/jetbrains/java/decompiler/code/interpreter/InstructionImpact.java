@@ -349,10 +349,10 @@ public final class InstructionImpact {
 
       if (write != null) {
         for (int type : write) {
-          stack.push(new VarType(type));
+          stack.push(VarType.of(type));
           if (type == CodeConstants.TYPE_LONG ||
               type == CodeConstants.TYPE_DOUBLE) {
-            stack.push(new VarType(CodeConstants.TYPE_GROUP2EMPTY));
+            stack.push(VarType.of(CodeConstants.TYPE_GROUP2EMPTY));
           }
         }
       }
@@ -373,7 +373,7 @@ public final class InstructionImpact {
 
     switch (instr.opcode) {
       case CodeConstants.opc_aconst_null:
-        stack.push(new VarType(CodeConstants.TYPE_NULL, 0, null));
+        stack.push(VarType.of(CodeConstants.TYPE_NULL, 0, null));
         break;
       case CodeConstants.opc_ldc:
       case CodeConstants.opc_ldc_w:
@@ -381,27 +381,27 @@ public final class InstructionImpact {
         PooledConstant constant = pool.getConstant(instr.operand(0));
         switch (constant.type) {
           case CodeConstants.CONSTANT_Integer:
-            stack.push(new VarType(CodeConstants.TYPE_INT));
+            stack.push(VarType.of(CodeConstants.TYPE_INT));
             break;
           case CodeConstants.CONSTANT_Float:
-            stack.push(new VarType(CodeConstants.TYPE_FLOAT));
+            stack.push(VarType.of(CodeConstants.TYPE_FLOAT));
             break;
           case CodeConstants.CONSTANT_Long:
-            stack.push(new VarType(CodeConstants.TYPE_LONG));
-            stack.push(new VarType(CodeConstants.TYPE_GROUP2EMPTY));
+            stack.push(VarType.of(CodeConstants.TYPE_LONG));
+            stack.push(VarType.of(CodeConstants.TYPE_GROUP2EMPTY));
             break;
           case CodeConstants.CONSTANT_Double:
-            stack.push(new VarType(CodeConstants.TYPE_DOUBLE));
-            stack.push(new VarType(CodeConstants.TYPE_GROUP2EMPTY));
+            stack.push(VarType.of(CodeConstants.TYPE_DOUBLE));
+            stack.push(VarType.of(CodeConstants.TYPE_GROUP2EMPTY));
             break;
           case CodeConstants.CONSTANT_String:
-            stack.push(new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/String"));
+            stack.push(VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/String"));
             break;
           case CodeConstants.CONSTANT_Class:
-            stack.push(new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Class"));
+            stack.push(VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Class"));
             break;
           case CodeConstants.CONSTANT_MethodHandle:
-            stack.push(new VarType(((LinkConstant)constant).descriptor));
+            stack.push(VarType.of(((LinkConstant)constant).descriptor));
             break;
         }
         break;
@@ -411,12 +411,12 @@ public final class InstructionImpact {
           stack.push(var1);
         }
         else {
-          stack.push(new VarType(CodeConstants.TYPE_OBJECT, 0, null));
+          stack.push(VarType.of(CodeConstants.TYPE_OBJECT, 0, null));
         }
         break;
       case CodeConstants.opc_aaload:
         var1 = stack.pop(2);
-        stack.push(new VarType(var1.type, var1.arrayDim - 1, var1.value));
+        stack.push(VarType.of(var1.type, var1.arrayDim - 1, var1.value));
         break;
       case CodeConstants.opc_astore:
         data.setVariable(instr.operand(0), stack.pop());
@@ -442,17 +442,17 @@ public final class InstructionImpact {
         stack.pop();
       case CodeConstants.opc_getstatic:
         ck = pool.getLinkConstant(instr.operand(0));
-        var1 = new VarType(ck.descriptor);
+        var1 = VarType.of(ck.descriptor);
         stack.push(var1);
         if (var1.stackSize == 2) {
-          stack.push(new VarType(CodeConstants.TYPE_GROUP2EMPTY));
+          stack.push(VarType.of(CodeConstants.TYPE_GROUP2EMPTY));
         }
         break;
       case CodeConstants.opc_putfield:
         stack.pop();
       case CodeConstants.opc_putstatic:
         ck = pool.getLinkConstant(instr.operand(0));
-        var1 = new VarType(ck.descriptor);
+        var1 = VarType.of(ck.descriptor);
         stack.pop(var1.stackSize);
         break;
       case CodeConstants.opc_invokevirtual:
@@ -470,18 +470,18 @@ public final class InstructionImpact {
           if (md.ret.type != CodeConstants.TYPE_VOID) {
             stack.push(md.ret);
             if (md.ret.stackSize == 2) {
-              stack.push(new VarType(CodeConstants.TYPE_GROUP2EMPTY));
+              stack.push(VarType.of(CodeConstants.TYPE_GROUP2EMPTY));
             }
           }
         }
         break;
       case CodeConstants.opc_new:
         cn = pool.getPrimitiveConstant(instr.operand(0));
-        stack.push(new VarType(CodeConstants.TYPE_OBJECT, 0, cn.getString()));
+        stack.push(VarType.of(CodeConstants.TYPE_OBJECT, 0, cn.getString()));
         break;
       case CodeConstants.opc_newarray:
         stack.pop();
-        stack.push(new VarType(arr_type[instr.operand(0) - 4], 1).resizeArrayDim(1));
+        stack.push(VarType.of(arr_type[instr.operand(0) - 4], 1).resizeArrayDim(1));
         break;
       case CodeConstants.opc_athrow:
         var1 = stack.pop();
@@ -492,7 +492,7 @@ public final class InstructionImpact {
       case CodeConstants.opc_instanceof:
         stack.pop();
         cn = pool.getPrimitiveConstant(instr.operand(0));
-        stack.push(new VarType(CodeConstants.TYPE_OBJECT, 0, cn.getString()));
+        stack.push(VarType.of(CodeConstants.TYPE_OBJECT, 0, cn.getString()));
         break;
       case CodeConstants.opc_anewarray:
       case CodeConstants.opc_multianewarray:
@@ -500,12 +500,12 @@ public final class InstructionImpact {
         stack.pop(dimensions);
         cn = pool.getPrimitiveConstant(instr.operand(0));
         if (cn.isArray) {
-          var1 = new VarType(CodeConstants.TYPE_OBJECT, 0, cn.getString());
+          var1 = VarType.of(CodeConstants.TYPE_OBJECT, 0, cn.getString());
           var1 = var1.resizeArrayDim(var1.arrayDim + dimensions);
           stack.push(var1);
         }
         else {
-          stack.push(new VarType(CodeConstants.TYPE_OBJECT, dimensions, cn.getString()));
+          stack.push(VarType.of(CodeConstants.TYPE_OBJECT, dimensions, cn.getString()));
         }
     }
   }
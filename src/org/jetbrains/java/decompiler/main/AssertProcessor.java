@@ -2,9 +2,7 @@
 package org.jetbrains.java.decompiler.main;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
-import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
-import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.rels.ClassWrapper;
 import org.jetbrains.java.decompiler.main.rels.MethodWrapper;
@@ -170,7 +168,7 @@ public final class AssertProcessor {
     Exprent ascond = null, retcond = null;
     if (throwInIf) {
       if (exprres[0] != null) {
-        ascond = new FunctionExprent(FunctionExprent.FUNCTION_BOOL_NOT, (Exprent)exprres[0], throwError.bytecode);
+        ascond = new FunctionExprent(stat.getCounters(), FunctionExprent.FUNCTION_BOOL_NOT, (Exprent)exprres[0], throwError.bytecode);
         retcond = SecondaryFunctionsHelper.propagateBoolNot(ascond);
       }
     }
@@ -185,10 +183,9 @@ public final class AssertProcessor {
       lstParams.add(throwError.getLstParameters().get(0));
     }
 
-    AssertExprent asexpr = new AssertExprent(lstParams);
+    AssertExprent asexpr = new AssertExprent(stat.getCounters(), lstParams);
 
-    Statement newstat = new BasicBlockStatement(new BasicBlock(
-      DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER)));
+    Statement newstat = new BasicBlockStatement(stat.getCounters());
     newstat.setExprents(Arrays.asList(new Exprent[]{asexpr}));
 
     Statement first = stat.getFirst();
@@ -3,6 +3,7 @@ package org.jetbrains.java.decompiler.main;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.rels.ClassWrapper;
 import org.jetbrains.java.decompiler.main.rels.MethodWrapper;
@@ -27,32 +28,35 @@ public final class ClassReference14Processor {
   private static final ExitExprent HANDLER_EXPR;
 
   static {
-    InvocationExprent invFor = new InvocationExprent();
+    // the patterns are only matched against and never end up in a method, so their ids come from a container of their own
+    CounterContainer counters = new CounterContainer();
+
+    InvocationExprent invFor = new InvocationExprent(counters);
     invFor.setName("forName");
     invFor.setClassname("java/lang/Class");
     invFor.setStringDescriptor("(Ljava/lang/String;)Ljava/lang/Class;");
     invFor.setDescriptor(MethodDescriptor.parseDescriptor("(Ljava/lang/String;)Ljava/lang/Class;"));
     invFor.setStatic(true);
-    invFor.setLstParameters(Collections.singletonList(new VarExprent(0, VarType.VARTYPE_STRING, null)));
-    BODY_EXPR = new ExitExprent(ExitExprent.EXIT_RETURN, invFor, VarType.VARTYPE_CLASS, null, null);
+    invFor.setLstParameters(Collections.singletonList(new VarExprent(counters, 0, VarType.VARTYPE_STRING, null)));
+    BODY_EXPR = new ExitExprent(counters, ExitExprent.EXIT_RETURN, invFor, VarType.VARTYPE_CLASS, null, null);
 
-    InvocationExprent ctor = new InvocationExprent();
+    InvocationExprent ctor = new InvocationExprent(counters);
     ctor.setName(CodeConstants.INIT_NAME);
     ctor.setClassname("java/lang/NoClassDefFoundError");
     ctor.setStringDescriptor("()V");
     ctor.setFunctype(InvocationExprent.TYP_INIT);
     ctor.setDescriptor(MethodDescriptor.parseDescriptor("()V"));
-    NewExprent newExpr = new NewExprent(new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/NoClassDefFoundError"), new ArrayList<>(), null);
+    NewExprent newExpr = new NewExprent(counters, new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/NoClassDefFoundError"), new ArrayList<>(), null);
     newExpr.setConstructor(ctor);
-    InvocationExprent invCause = new InvocationExprent();
+    InvocationExprent invCause = new InvocationExprent(counters);
     invCause.setName("initCause");
     invCause.setClassname("java/lang/NoClassDefFoundError");
     invCause.setStringDescriptor("(Ljava/lang/Throwable;)Ljava/lang/Throwable;");
     invCause.setDescriptor(MethodDescriptor.parseDescriptor("(Ljava/lang/Throwable;)Ljava/lang/Throwable;"));
     invCause.setInstance(newExpr);
     invCause.setLstParameters(
-      Collections.singletonList(new VarExprent(2, new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/ClassNotFoundException"), null)));
-    HANDLER_EXPR = new ExitExprent(ExitExprent.EXIT_THROW, invCause, null, null, null);
+      Collections.singletonList(new VarExprent(counters, 2, new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/ClassNotFoundException"), null)));
+    HANDLER_EXPR = new ExitExprent(counters, ExitExprent.EXIT_THROW, invCause, null, null, null);
   }
 
   public static void processClassReferences(ClassNode node) {
@@ -107,7 +111,7 @@ public final class ClassReference14Processor {
 
           String cl = isClass14Invocation(exprent, ent.getKey(), ent.getValue());
           if (cl != null) {
-            initializers.set(i, new ConstExprent(VarType.VARTYPE_CLASS, cl.replace('.', '/'), exprent.bytecode));
+            initializers.set(i, new ConstExprent(exprent.getCounters(), VarType.VARTYPE_CLASS, cl.replace('.', '/'), exprent.bytecode));
             setFound.add(ent.getKey());
           }
         }
@@ -169,7 +173,7 @@ public final class ClassReference14Processor {
       for (Exprent expr : exprent.getAllExprents()) {
         String cl = isClass14Invocation(expr, wrapper, meth);
         if (cl != null) {
-          exprent.replaceExprent(expr, new ConstExprent(VarType.VARTYPE_CLASS, cl.replace('.', '/'), expr.bytecode));
+          exprent.replaceExprent(expr, new ConstExprent(expr.getCounters(), VarType.VARTYPE_CLASS, cl.replace('.', '/'), expr.bytecode));
           found = true;
           res = true;
           break;
@@ -1,10 +1,15 @@
 // Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.java.decompiler.main;
 
+import net.fabricmc.fernflower.api.IFabricBulkJavadocProvider;
+import net.fabricmc.fernflower.api.IFabricBulkJavadocProvider.ClassJavadoc;
 import net.fabricmc.fernflower.api.IFabricJavadocProvider;
 import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.ClassMetadata;
+import org.jetbrains.java.decompiler.main.collectors.ClassMetadata.MemberKind;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.rels.ClassWrapper;
@@ -33,10 +38,27 @@ import java.util.stream.Collectors;
 public class ClassWriter {
   private final PoolInterceptor interceptor;
   private final IFabricJavadocProvider javadocProvider;
+  private final ClassMetadata metadata;
 
   public ClassWriter() {
+    this(null);
+  }
+
+  /**
+   * @param metadata receives the positions of the written classes and members, relative to the start of the buffer
+   *                 the outermost class is written to
+   */
+  public ClassWriter(ClassMetadata metadata) {
     interceptor = DecompilerContext.getPoolInterceptor();
-    javadocProvider = (IFabricJavadocProvider) DecompilerContext.getProperty(IFabricJavadocProvider.PROPERTY_NAME);
+    IFabricJavadocProvider provider = (IFabricJavadocProvider) DecompilerContext.getProperty(IFabricJavadocProvider.PROPERTY_NAME);
+    if (provider instanceof IFabricBulkJavadocProvider) {
+      // ask once per class, which includes the nested classes written along with it
+      IFabricBulkJavadocProvider bulkProvider = (IFabricBulkJavadocProvider) provider;
+      Map<StructClass, ClassJavadoc> javadocs = new HashMap<>();
+      provider = (IFabricBulkJavadocProvider) cl -> javadocs.computeIfAbsent(cl, bulkProvider::getClassJavadoc);
+    }
+    javadocProvider = provider;
+    this.metadata = metadata;
   }
 
   private static void invokeProcessors(ClassNode node) {
@@ -171,6 +193,7 @@ public class ClassWriter {
                     IFernflowerLogger.Severity.WARN,
                     ex);
                   methodWrapper.decompiledWithErrors = true;
+                  addError(cl, mt);
                   buffer.append(" // $FF: Couldn't be decompiled");
                 }
                 finally {
@@ -202,6 +225,27 @@ public class ClassWriter {
     DecompilerContext.getLogger().endWriteClass();
   }
 
+  /**
+   * Writes an anonymous or local class to a buffer of its own, recording its members with the class being written.
+   */
+  public static void nestedClassToJava(ClassNode node, TextBuffer buffer, int indent, BytecodeMappingTracer tracer) {
+    ClassMetadata metadata = DecompilerContext.getClassMetadata();
+    if (metadata == null) {
+      new ClassWriter().classToJava(node, buffer, indent, tracer);
+      return;
+    }
+
+    metadata.startNestedClass();
+    boolean written = false;
+    try {
+      new ClassWriter(metadata).classToJava(node, buffer, indent, tracer);
+      written = true;
+    }
+    finally {
+      metadata.endNestedClass(written ? buffer.toString() : null);
+    }
+  }
+
   public void classToJava(ClassNode node, TextBuffer buffer, int indent, BytecodeMappingTracer tracer) {
     ClassNode outerNode = (ClassNode)DecompilerContext.getProperty(DecompilerContext.CURRENT_CLASS_NODE);
     DecompilerContext.setProperty(DecompilerContext.CURRENT_CLASS_NODE, node);
@@ -220,6 +264,12 @@ public class ClassWriter {
 
       // write class definition
       int start_class_def = buffer.length();
+      int classMember = -1;
+      if (metadata != null) {
+        ClassNode parent = node.type == ClassNode.CLASS_ROOT ? null : node.parent;
+        classMember = metadata.startMember(MemberKind.CLASS, parent != null ? parent.classStruct.qualifiedName : null,
+                                           cl.qualifiedName, null, start_class_def);
+      }
       writeClassDefinition(node, buffer, indent);
 
       boolean hasContent = false;
@@ -256,7 +306,11 @@ public class ClassWriter {
           enumFields = false;
         }
 
+        int fieldStart = buffer.length();
         fieldToJava(wrapper, cl, fd, buffer, indent + 1, dummy_tracer); // FIXME: insert real tracer
+        if (metadata != null) {
+          metadata.addMember(MemberKind.FIELD, cl.qualifiedName, fd.getName(), fd.getDescriptor(), fieldStart, buffer.length(), -1);
+        }
 
         hasContent = true;
       }
@@ -285,8 +339,13 @@ public class ClassWriter {
           startLine++;
         }
         BytecodeMappingTracer method_tracer = new BytecodeMappingTracer(startLine);
+        int methodStart = buffer.length();
         boolean methodSkipped = !methodToJava(node, mt, i, buffer, indent + 1, method_tracer);
         if (!methodSkipped) {
+          if (metadata != null) {
+            metadata.addMember(MemberKind.METHOD, cl.qualifiedName, mt.getName(), mt.getDescriptor(), methodStart, buffer.length(),
+                               wrapper.getMethodWrapper(i).processingNanos);
+          }
           hasContent = true;
           addTracer(cl, mt, method_tracer);
           startLine = method_tracer.getCurrentSourceLine();
@@ -294,6 +353,9 @@ public class ClassWriter {
         else {
           buffer.setLength(position);
           startLine = storedLine;
+          if (metadata != null) {
+            metadata.discardNestedClasses();
+          }
         }
       }
 
@@ -323,6 +385,10 @@ public class ClassWriter {
       if (node.type != ClassNode.CLASS_ANONYMOUS) {
         buffer.appendLineSeparator();
       }
+
+      if (metadata != null) {
+        metadata.endMember(classMember, buffer.length());
+      }
     }
     finally {
       DecompilerContext.setProperty(DecompilerContext.CURRENT_CLASS_NODE, outerNode);
@@ -442,6 +508,13 @@ public class ClassWriter {
     return (flags & (CodeConstants.ACC_SYNTHETIC | CodeConstants.ACC_MANDATED)) != 0;
   }
   
+  private static void addError(StructClass cl, StructMethod mt) {
+    ClassMetadata classMetadata = DecompilerContext.getClassMetadata();
+    if (classMetadata != null) {
+      classMetadata.addError("Method " + cl.qualifiedName + " " + mt.getName() + " " + mt.getDescriptor() + " couldn't be decompiled");
+    }
+  }
+
   private static void addTracer(StructClass cls, StructMethod method, BytecodeMappingTracer tracer) {
     StructLineNumberTableAttribute table = method.getAttribute(StructGeneralAttribute.ATTRIBUTE_LINE_NUMBER_TABLE);
     tracer.setLineNumberTable(table);
@@ -654,7 +727,12 @@ public class ClassWriter {
       if (attr != null) {
         PrimitiveConstant constant = cl.getPool().getPrimitiveConstant(attr.getIndex());
         buffer.append(" = ");
-        buffer.append(new ConstExprent(fieldType, constant.value, null).toJava(indent, tracer));
+        buffer.append(new ConstExprent(DecompilerContext.getCounterContainer(), fieldType, constant.value, null).toJava(indent, tracer));
+      }
+      else if (isInitializerOmitted(wrapper)) {
+        // a stub has to assign the constant, which is left to the omitted static initializer
+        buffer.append(" = ");
+        buffer.append(getDefaultValue(fieldType));
       }
     }
 
@@ -744,6 +822,10 @@ public class ClassWriter {
       if (!methodWrapper.decompiledWithErrors) {
         if (root != null) { // check for existence
           try {
+            for (String comment : root.getComments()) {
+              appendComment(buffer, comment, indent);
+              tracer.incrementCurrentSourceLine();
+            }
             buffer.append(root.toJava(indent, tracer));
           }
           catch (Throwable t) {
@@ -755,6 +837,7 @@ public class ClassWriter {
       }
 
       if (methodWrapper.decompiledWithErrors) {
+        addError(classWrapper.getClassStruct(), mt);
         buffer.appendIndent(indent);
         buffer.append("// $FF: Couldn't be decompiled");
         buffer.appendLineSeparator();
@@ -925,7 +1008,14 @@ public class ClassWriter {
 
         int index = isEnum && init ? 3 : thisVar ? 1 : 0;
         int start = isEnum && init ? 2 : 0;
-        boolean hasDescriptor = descriptor != null;
+        int visibleParameters = 0;
+        for (int i = start; i < md.params.length; i++) {
+          if (mask == null || mask.get(i) == null) {
+            visibleParameters++;
+          }
+        }
+        // the signature does not cover synthetic parameters, which are not all known for a constructor without a body
+        boolean hasDescriptor = descriptor != null && descriptor.parameterTypes.size() == visibleParameters;
         //mask should now have the Outer.this in it... so this *shouldn't* be nessasary.
         //if (init && !isEnum && ((node.access & CodeConstants.ACC_STATIC) == 0) && node.type == ClassNode.CLASS_MEMBER)
         //    index++;
@@ -1029,8 +1119,28 @@ public class ClassWriter {
 
         RootStatement root = methodWrapper.root;
 
-        if (root != null && !methodWrapper.decompiledWithErrors) { // check for existence
+        if (methodWrapper.bodyOmitted) {
+          String superCall = init && !isEnum ? getStubSuperCall(cl) : null;
+          hideMethod = clInit || dInit ||
+                       superCall == null && !hasFinalInstanceFields(cl) && hideConstructor(node, init, throwsExceptions, paramCount, flags);
+          if (superCall != null) {
+            buffer.appendIndent(indent + 1);
+            buffer.append(superCall);
+            buffer.appendLineSeparator();
+            tracer.incrementCurrentSourceLine();
+          }
+          buffer.appendIndent(indent + 1);
+          buffer.append("throw new RuntimeException(\"Stub!\");");
+          buffer.appendLineSeparator();
+          tracer.incrementCurrentSourceLine();
+        }
+        else if (root != null && !methodWrapper.decompiledWithErrors) { // check for existence
           try {
+            for (String comment : root.getComments()) {
+              appendComment(buffer, comment, indent + 1);
+              tracer.incrementCurrentSourceLine();
+            }
+
             // to restore in case of an exception
             BytecodeMappingTracer codeTracer = new BytecodeMappingTracer(tracer.getCurrentSourceLine());
             TextBuffer code = root.toJava(indent + 1, codeTracer);
@@ -1051,6 +1161,7 @@ public class ClassWriter {
         }
 
         if (methodWrapper.decompiledWithErrors) {
+          addError(cl, mt);
           buffer.appendIndent(indent + 1);
           buffer.append("// $FF: Couldn't be decompiled");
           buffer.appendLineSeparator();
@@ -1075,6 +1186,111 @@ public class ClassWriter {
     return !hideMethod;
   }
 
+  private static boolean isInitializerOmitted(ClassWrapper wrapper) {
+    MethodWrapper clInit = wrapper.getMethodWrapper(CodeConstants.CLINIT_NAME, "()V");
+    return clInit != null && clInit.bodyOmitted;
+  }
+
+  private static String getDefaultValue(VarType type) {
+    CounterContainer counters = DecompilerContext.getCounterContainer();
+    ConstExprent value = ExprProcessor.getDefaultArrayValue(counters, type);
+    if (type.type != CodeConstants.TYPE_OBJECT && type.arrayDim == 0) {
+      value = new ConstExprent(counters, type, value.getValue(), null);
+    }
+    return value.toJava(0, BytecodeMappingTracer.DUMMY).toString();
+  }
+
+  /**
+   * A stub constructor has to call a constructor of the superclass when the superclass has no constructor without
+   * parameters, which would be called implicitly. The call is only known when the superclass is loaded and, if it is an
+   * inner class, shares the enclosing instance of the class.
+   *
+   * @return the call with the default values of the parameters, or null if none is written
+   */
+  private static String getStubSuperCall(StructClass cl) {
+    StructClass superClass = cl.superClass == null ? null : DecompilerContext.getStructContext().getClass(cl.superClass.getString());
+    if (superClass == null) {
+      return null;
+    }
+
+    // the enclosing instance of an inner superclass is passed implicitly
+    String superOuter = getInnerClassOuter(superClass);
+    if (superOuter != null && !superOuter.equals(getInnerClassOuter(cl))) {
+      return null;
+    }
+
+    int first = superOuter != null ? 1 : 0;
+    List<VarType[]> constructors = new ArrayList<>();
+    VarType[] params = null;
+    for (StructMethod mt : superClass.getMethods()) {
+      if (CodeConstants.INIT_NAME.equals(mt.getName()) && !mt.isSynthetic()) {
+        VarType[] mtParams = MethodDescriptor.parseDescriptor(mt.getDescriptor()).params;
+        if (mtParams.length == first) {
+          return null;
+        }
+        if (params == null || !mt.hasModifier(CodeConstants.ACC_PRIVATE)) {
+          params = mtParams;
+        }
+        constructors.add(mtParams);
+      }
+    }
+    if (params == null) {
+      return null;
+    }
+
+    // a null argument is only casted to select among constructors of the same arity, as the parameter type may be generic
+    int arity = params.length;
+    boolean castNull = constructors.stream().filter(mtParams -> mtParams.length == arity).count() > 1;
+
+    StringBuilder call = new StringBuilder("super(");
+    for (int i = first; i < params.length; i++) {
+      if (i > first) {
+        call.append(", ");
+      }
+      if (params[i].type == CodeConstants.TYPE_BOOLEAN && params[i].arrayDim == 0) {
+        call.append("false");
+      }
+      else if (params[i].type == CodeConstants.TYPE_INT && params[i].arrayDim == 0) {
+        call.append('0');
+      }
+      else if (params[i].type == CodeConstants.TYPE_OBJECT || params[i].arrayDim > 0) {
+        if (castNull) {
+          call.append('(').append(ExprProcessor.getCastTypeName(params[i])).append(')');
+        }
+        call.append("null");
+      }
+      else {
+        call.append('(').append(ExprProcessor.getCastTypeName(params[i])).append(")0");
+      }
+    }
+    return call.append(");").toString();
+  }
+
+  // an implicit constructor does not assign the final fields, which are left to the stub constructor
+  private static boolean hasFinalInstanceFields(StructClass cl) {
+    for (StructField fd : cl.getFields()) {
+      if (fd.hasModifier(CodeConstants.ACC_FINAL) && !fd.hasModifier(CodeConstants.ACC_STATIC)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the enclosing class of an inner member class, or null if the class is no inner member class
+   */
+  private static String getInnerClassOuter(StructClass cl) {
+    StructInnerClassesAttribute attr = cl.getAttribute(StructGeneralAttribute.ATTRIBUTE_INNER_CLASSES);
+    if (attr != null) {
+      for (StructInnerClassesAttribute.Entry entry : attr.getEntries()) {
+        if (cl.qualifiedName.equals(entry.innerName)) {
+          return (entry.accessFlags & CodeConstants.ACC_STATIC) == 0 ? entry.enclosingName : null;
+        }
+      }
+    }
+    return null;
+  }
+
   private static boolean hideConstructor(ClassNode node, boolean init, boolean throwsExceptions, int paramCount, int methodAccessFlags) {
     if (!init || throwsExceptions || paramCount > 0 || !DecompilerContext.getOption(IFernflowerPreferences.HIDE_DEFAULT_CONSTRUCTOR)) {
       return false;
@@ -5,11 +5,13 @@ import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.code.Instruction;
 import org.jetbrains.java.decompiler.code.InstructionSequence;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeSourceMapper;
+import org.jetbrains.java.decompiler.main.collectors.ClassMetadata;
 import org.jetbrains.java.decompiler.main.collectors.ImportCollector;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.extern.IIdentifierRenamer;
 import org.jetbrains.java.decompiler.main.rels.ClassWrapper;
+import org.jetbrains.java.decompiler.main.rels.FailedMethodCache;
 import org.jetbrains.java.decompiler.main.rels.LambdaProcessor;
 import org.jetbrains.java.decompiler.main.rels.MethodWrapper;
 import org.jetbrains.java.decompiler.main.rels.NestedClassProcessor;
@@ -32,6 +34,7 @@ import java.io.IOException;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntUnaryOperator;
 
 public class ClassesProcessor implements CodeConstants {
   public static final int AVERAGE_CLASS_SIZE = 16 * 1024;
@@ -39,6 +42,7 @@ public class ClassesProcessor implements CodeConstants {
   private final StructContext context;
   private final Map<String, ClassNode> mapRootClasses = new ConcurrentHashMap<>();
   private final Set<String> whitelist = new HashSet<>();
+  private final FailedMethodCache failedMethods = new FailedMethodCache();
 
   private static class Inner {
     private String simpleName;
@@ -64,6 +68,10 @@ public class ClassesProcessor implements CodeConstants {
     this.context = context;
   }
 
+  public FailedMethodCache getFailedMethods() {
+    return failedMethods;
+  }
+
   public void addWhitelist(String prefix) {
     this.whitelist.add(prefix);
   }
@@ -365,37 +373,36 @@ public class ClassesProcessor implements CodeConstants {
   }
 
   public void writeClass(StructClass cl, TextBuffer buffer) throws IOException {
+    AnalyzedClass analyzed = analyzeClass(cl);
+    if (analyzed != null) {
+      analyzed.write(buffer);
+    }
+  }
+
+  /**
+   * Decompiles the methods of a top level class and of its nested classes, the part of {@link #writeClass} that does
+   * not produce any text. The class is written by {@link AnalyzedClass#write}, which may run on another thread, but has
+   * to run with the same current context, as the context holds the state of the class between the two steps.
+   *
+   * @return the class to write, or null if the class is not a top level one
+   */
+  public AnalyzedClass analyzeClass(StructClass cl) throws IOException {
     ClassNode root = mapRootClasses.get(cl.qualifiedName);
     if (root.type != ClassNode.CLASS_ROOT) {
-      return;
+      return null;
     }
 
-    boolean packageInfo = cl.isSynthetic() && "package-info".equals(root.simpleName);
-    boolean moduleInfo = cl.hasModifier(CodeConstants.ACC_MODULE) && cl.hasAttribute(StructGeneralAttribute.ATTRIBUTE_MODULE);
-
     DecompilerContext.getLogger().startReadingClass(cl.qualifiedName);
+    boolean analyzed = false;
     try {
-      ImportCollector importCollector = new ImportCollector(root);
-      DecompilerContext.startClass(importCollector);
+      AnalyzedClass result = new AnalyzedClass(root);
+      DecompilerContext.startClass(result.importCollector, result.metadata);
 
-      if (packageInfo) {
-        ClassWriter.packageInfoToJava(cl, buffer);
-
-        importCollector.writeImports(buffer, false);
-      }
-      else if (moduleInfo) {
-        TextBuffer moduleBuffer = new TextBuffer(AVERAGE_CLASS_SIZE);
-        ClassWriter.moduleInfoToJava(cl, moduleBuffer);
-
-        importCollector.writeImports(buffer, true);
-
-        buffer.append(moduleBuffer);
-      }
-      else {
+      if (!result.packageInfo && !result.moduleInfo) {
         new LambdaProcessor().processClass(root);
 
         // add simple class names to implicit import
-        addClassNameToImport(root, importCollector);
+        addClassNameToImport(root, result.importCollector);
 
         // build wrappers for all nested classes (that's where actual processing takes place)
         initWrappers(root);
@@ -403,38 +410,103 @@ public class ClassesProcessor implements CodeConstants {
         new NestedClassProcessor().processClass(root, root);
 
         new NestedMemberAccess().propagateMemberAccess(root);
+      }
+
+      analyzed = true;
+      return result;
+    }
+    finally {
+      if (!analyzed) {
+        destroyWrappers(root);
+      }
+      DecompilerContext.getLogger().endReadingClass();
+    }
+  }
 
-        TextBuffer classBuffer = new TextBuffer(AVERAGE_CLASS_SIZE);
-        new ClassWriter().classToJava(root, classBuffer, 0, null);
+  /**
+   * A top level class whose methods are decompiled, waiting to be written. It holds the processed method bodies of the
+   * class until it is written or discarded.
+   */
+  public static final class AnalyzedClass {
+    private final ClassNode root;
+    private final boolean packageInfo;
+    private final boolean moduleInfo;
+    private final ImportCollector importCollector;
+    private final ClassMetadata metadata;
+
+    private AnalyzedClass(ClassNode root) {
+      StructClass cl = root.classStruct;
+      this.root = root;
+      this.packageInfo = cl.isSynthetic() && "package-info".equals(root.simpleName);
+      this.moduleInfo = cl.hasModifier(CodeConstants.ACC_MODULE) && cl.hasAttribute(StructGeneralAttribute.ATTRIBUTE_MODULE);
+      this.importCollector = new ImportCollector(root);
+      this.metadata = new ClassMetadata(cl.qualifiedName);
+    }
 
-        int index = cl.qualifiedName.lastIndexOf('/');
-        if (index >= 0) {
-          String packageName = cl.qualifiedName.substring(0, index).replace('/', '.');
-          buffer.append("package ").append(packageName).append(';').appendLineSeparator().appendLineSeparator();
-        }
+    public void write(TextBuffer buffer) throws IOException {
+      StructClass cl = root.classStruct;
+      try {
+        if (packageInfo) {
+          ClassWriter.packageInfoToJava(cl, buffer);
 
-        importCollector.writeImports(buffer, true);
+          importCollector.writeImports(buffer, false);
 
-        int offsetLines = buffer.countLines();
+          metadata.finish(null, 0, IntUnaryOperator.identity(), importCollector, null);
+        }
+        else if (moduleInfo) {
+          TextBuffer moduleBuffer = new TextBuffer(AVERAGE_CLASS_SIZE);
+          ClassWriter.moduleInfoToJava(cl, moduleBuffer);
+
+          importCollector.writeImports(buffer, true);
 
-        buffer.append(classBuffer);
+          buffer.append(moduleBuffer);
 
-        if (DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
-          BytecodeSourceMapper mapper = DecompilerContext.getBytecodeSourceMapper();
-          mapper.addTotalOffset(offsetLines);
-          if (DecompilerContext.getOption(IFernflowerPreferences.DUMP_ORIGINAL_LINES)) {
-            buffer.dumpOriginalLineNumbers(mapper.getOriginalLinesMapping());
+          metadata.finish(null, 0, IntUnaryOperator.identity(), importCollector, null);
+        }
+        else {
+          TextBuffer classBuffer = new TextBuffer(AVERAGE_CLASS_SIZE);
+          new ClassWriter(metadata).classToJava(root, classBuffer, 0, null);
+
+          int index = cl.qualifiedName.lastIndexOf('/');
+          if (index >= 0) {
+            String packageName = cl.qualifiedName.substring(0, index).replace('/', '.');
+            buffer.append("package ").append(packageName).append(';').appendLineSeparator().appendLineSeparator();
           }
-          if (DecompilerContext.getOption(IFernflowerPreferences.UNIT_TEST_MODE)) {
-            buffer.appendLineSeparator();
-            mapper.dumpMapping(buffer, true);
+
+          importCollector.writeImports(buffer, true);
+
+          int offsetLines = buffer.countLines();
+          int contentOffset = buffer.length();
+
+          buffer.append(classBuffer);
+
+          BytecodeSourceMapper mapper = null;
+          if (DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
+            mapper = DecompilerContext.getBytecodeSourceMapper();
+            mapper.addTotalOffset(offsetLines);
+            if (DecompilerContext.getOption(IFernflowerPreferences.DUMP_ORIGINAL_LINES)) {
+              buffer.dumpOriginalLineNumbers(mapper.getOriginalLinesMapping());
+            }
+            if (DecompilerContext.getOption(IFernflowerPreferences.UNIT_TEST_MODE)) {
+              buffer.appendLineSeparator();
+              mapper.dumpMapping(buffer, true);
+            }
           }
+
+          // dumped original line numbers move the text that follows them
+          metadata.finish(classBuffer, contentOffset, buffer.getOutputOffsets(), importCollector, mapper);
         }
       }
+      finally {
+        discard();
+      }
     }
-    finally {
+
+    /**
+     * Releases the processed method bodies of a class that is not going to be written.
+     */
+    public void discard() {
       destroyWrappers(root);
-      DecompilerContext.getLogger().endReadingClass();
     }
   }
 
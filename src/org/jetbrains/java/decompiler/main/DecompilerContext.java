@@ -2,10 +2,12 @@
 package org.jetbrains.java.decompiler.main;
 
 import org.jetbrains.java.decompiler.main.collectors.BytecodeSourceMapper;
+import org.jetbrains.java.decompiler.main.collectors.ClassMetadata;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.collectors.ImportCollector;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.main.rels.ProcessingBudget;
 import org.jetbrains.java.decompiler.modules.decompiler.vars.VarProcessor;
 import org.jetbrains.java.decompiler.main.extern.IVariableNamingFactory;
 import org.jetbrains.java.decompiler.modules.renamer.PoolInterceptor;
@@ -22,6 +24,7 @@ public class DecompilerContext {
   public static final String CURRENT_METHOD_WRAPPER = "CURRENT_METHOD_WRAPPER";
   public static final String CURRENT_VAR_PROCESSOR = "CURRENT_VAR_PROCESSOR";
   public static final String RENAMER_FACTORY = "RENAMER_FACTORY";
+  public static final String PASS_STATISTICS = "PASS_STATISTICS";
 
   public final Map<String, Object> properties;
   public final IFernflowerLogger logger;
@@ -33,6 +36,8 @@ public class DecompilerContext {
   private VarProcessor varProcessor;
   private CounterContainer counterContainer;
   private BytecodeSourceMapper bytecodeSourceMapper;
+  private ClassMetadata classMetadata;
+  private ProcessingBudget processingBudget;
 
   public DecompilerContext(Map<String, Object> properties,
                            IFernflowerLogger logger,
@@ -68,15 +73,33 @@ public class DecompilerContext {
     currentContext.set(context);
   }
 
+  /**
+   * Creates a context for processing a single method on another thread. It shares the class level state and the counters
+   * with this context, but is a context of its own, so that the creating thread moving on to the next method does not
+   * change the state the method is processed with.
+   */
+  public DecompilerContext forMethod(VarProcessor varProcessor) {
+    DecompilerContext context = new DecompilerContext(properties, logger, structContext, classProcessor, poolInterceptor, renamerFactory);
+    context.importCollector = importCollector;
+    context.bytecodeSourceMapper = bytecodeSourceMapper;
+    context.classMetadata = classMetadata;
+    context.processingBudget = processingBudget;
+    context.varProcessor = varProcessor;
+    context.counterContainer = counterContainer;
+    return context;
+  }
+
   public static void setProperty(String key, Object value) {
     getCurrentContext().properties.put(key, value);
   }
 
-  public static void startClass(ImportCollector importCollector) {
+  public static void startClass(ImportCollector importCollector, ClassMetadata classMetadata) {
     DecompilerContext context = getCurrentContext();
     context.importCollector = importCollector;
     context.counterContainer = new CounterContainer();
     context.bytecodeSourceMapper = new BytecodeSourceMapper();
+    context.classMetadata = classMetadata;
+    context.processingBudget = new ProcessingBudget();
   }
 
   public static void startMethod(VarProcessor varProcessor) {
@@ -137,4 +160,12 @@ public class DecompilerContext {
   public static BytecodeSourceMapper getBytecodeSourceMapper() {
     return getCurrentContext().bytecodeSourceMapper;
   }
+
+  public static ClassMetadata getClassMetadata() {
+    return getCurrentContext().classMetadata;
+  }
+
+  public static ProcessingBudget getProcessingBudget() {
+    return getCurrentContext().processingBudget;
+  }
 }
@@ -33,7 +33,7 @@ public final class EnumProcessor {
           wrapper.getHiddenMembers().add(InterpreterUtil.makeUniqueKey(name, descriptor));
         }
       }
-      else if (CodeConstants.INIT_NAME.equals(name)) {
+      else if (CodeConstants.INIT_NAME.equals(name) && method.root != null) {
         Statement firstData = Statements.findFirstData(method.root);
         if (firstData != null && !firstData.getExprents().isEmpty()) {
           Exprent exprent = firstData.getExprents().get(0);
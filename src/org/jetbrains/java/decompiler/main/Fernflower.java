@@ -2,6 +2,8 @@
 package org.jetbrains.java.decompiler.main;
 
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
+import org.jetbrains.java.decompiler.main.collectors.ClassMetadata;
+import org.jetbrains.java.decompiler.main.collectors.PassStatistics;
 import org.jetbrains.java.decompiler.main.extern.*;
 import org.jetbrains.java.decompiler.modules.renamer.ConverterHelper;
 import org.jetbrains.java.decompiler.modules.renamer.IdentifierConverter;
@@ -18,26 +20,17 @@ import java.io.File;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class Fernflower implements IDecompiledData {
   private final StructContext structContext;
   private final ClassesProcessor classProcessor;
   private final IIdentifierRenamer helper;
   private final IdentifierConverter converter;
+  private final PassStatistics passStatistics = new PassStatistics();
 
   public Fernflower(IBytecodeProvider provider, IResultSaver saver, Map<String, Object> customProperties, IFernflowerLogger logger) {
-    Map<String, Object> properties = new HashMap<>(IFernflowerPreferences.DEFAULTS);
-    if (customProperties != null) {
-      properties.putAll(customProperties);
-    }
-
-    String level = (String)properties.get(IFernflowerPreferences.LOG_LEVEL);
-    if (level != null) {
-      try {
-        logger.setSeverity(IFernflowerLogger.Severity.valueOf(level.toUpperCase(Locale.ENGLISH)));
-      }
-      catch (IllegalArgumentException ignore) { }
-    }
+    Map<String, Object> properties = createProperties(customProperties, logger);
 
     structContext = new StructContext(saver, this, new LazyLoader(provider));
     classProcessor = new ClassesProcessor(structContext);
@@ -53,6 +46,41 @@ public class Fernflower implements IDecompiledData {
       converter = null;
     }
 
+    IVariableNamingFactory renamerFactory = createNamingFactory(properties, logger);
+
+    properties.put(DecompilerContext.PASS_STATISTICS, passStatistics);
+
+    DecompilerContext context = new DecompilerContext(properties, logger, structContext, classProcessor, interceptor, renamerFactory);
+    DecompilerContext.setCurrentContext(context);
+
+    String vendor = System.getProperty("java.vendor", "missing vendor");
+    String javaVersion = System.getProperty("java.version", "missing java version");
+    String jvmVersion = System.getProperty("java.vm.version", "missing jvm version");
+    logger.writeMessage(String.format("JVM info: %s - %s - %s", vendor, javaVersion, jvmVersion), IFernflowerLogger.Severity.INFO);
+
+    if (DecompilerContext.getOption(IFernflowerPreferences.INCLUDE_ENTIRE_CLASSPATH)) {
+      ClasspathScanner.addAllClasspath(structContext);
+    }
+  }
+
+  static Map<String, Object> createProperties(Map<String, Object> customProperties, IFernflowerLogger logger) {
+    Map<String, Object> properties = new HashMap<>(IFernflowerPreferences.DEFAULTS);
+    if (customProperties != null) {
+      properties.putAll(customProperties);
+    }
+
+    String level = (String)properties.get(IFernflowerPreferences.LOG_LEVEL);
+    if (level != null) {
+      try {
+        logger.setSeverity(IFernflowerLogger.Severity.valueOf(level.toUpperCase(Locale.ENGLISH)));
+      }
+      catch (IllegalArgumentException ignore) { }
+    }
+
+    return properties;
+  }
+
+  static IVariableNamingFactory createNamingFactory(Map<String, Object> properties, IFernflowerLogger logger) {
     IVariableNamingFactory renamerFactory = null;
     String factoryClazz = (String) properties.get(DecompilerContext.RENAMER_FACTORY);
     if (factoryClazz != null) {
@@ -69,18 +97,7 @@ public class Fernflower implements IDecompiledData {
         renamerFactory = new IdentityRenamerFactory();
       }
     }
-
-    DecompilerContext context = new DecompilerContext(properties, logger, structContext, classProcessor, interceptor, renamerFactory);
-    DecompilerContext.setCurrentContext(context);
-
-    String vendor = System.getProperty("java.vendor", "missing vendor");
-    String javaVersion = System.getProperty("java.version", "missing java version");
-    String jvmVersion = System.getProperty("java.vm.version", "missing jvm version");
-    logger.writeMessage(String.format("JVM info: %s - %s - %s", vendor, javaVersion, jvmVersion), IFernflowerLogger.Severity.INFO);
-
-    if (DecompilerContext.getOption(IFernflowerPreferences.INCLUDE_ENTIRE_CLASSPATH)) {
-      ClasspathScanner.addAllClasspath(structContext);
-    }
+    return renamerFactory;
   }
 
   private static IIdentifierRenamer loadHelper(String className, IFernflowerLogger logger) {
@@ -113,6 +130,8 @@ public class Fernflower implements IDecompiledData {
     classProcessor.loadClasses(helper);
 
     structContext.saveContext();
+
+    passStatistics.writeSummary(DecompilerContext.getLogger());
   }
 
   public void addWhitelist(String prefix) {
@@ -140,15 +159,41 @@ public class Fernflower implements IDecompiledData {
 
   @Override
   public String getClassContent(StructClass cl) {
+    return prepareClassContent(cl).get();
+  }
+
+  @Override
+  public Supplier<String> prepareClassContent(StructClass cl) {
+    ClassesProcessor.AnalyzedClass analyzed;
     try {
-      TextBuffer buffer = new TextBuffer(ClassesProcessor.AVERAGE_CLASS_SIZE);
-      buffer.append(DecompilerContext.getProperty(IFernflowerPreferences.BANNER).toString());
-      classProcessor.writeClass(cl, buffer);
-      return buffer.toString();
+      analyzed = classProcessor.analyzeClass(cl);
     }
     catch (Throwable t) {
-      DecompilerContext.getLogger().writeMessage("Class " + cl.qualifiedName + " couldn't be fully decompiled.", t);
-      return null;
+      reportFailure(cl, t);
+      return () -> null;
+    }
+
+    return () -> {
+      try {
+        TextBuffer buffer = new TextBuffer(ClassesProcessor.AVERAGE_CLASS_SIZE);
+        buffer.append(DecompilerContext.getProperty(IFernflowerPreferences.BANNER).toString());
+        if (analyzed != null) {
+          analyzed.write(buffer);
+        }
+        return buffer.toString();
+      }
+      catch (Throwable t) {
+        reportFailure(cl, t);
+        return null;
+      }
+    };
+  }
+
+  private static void reportFailure(StructClass cl, Throwable t) {
+    DecompilerContext.getLogger().writeMessage("Class " + cl.qualifiedName + " couldn't be fully decompiled.", t);
+    ClassMetadata metadata = DecompilerContext.getClassMetadata();
+    if (metadata != null && metadata.getClassName().equals(cl.qualifiedName)) {
+      metadata.addError("Class " + cl.qualifiedName + " couldn't be fully decompiled: " + t);
     }
   }
 }
\ No newline at end of file
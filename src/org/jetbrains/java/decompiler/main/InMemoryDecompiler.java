@@ -0,0 +1,122 @@
+package org.jetbrains.java.decompiler.main;
+
+import org.jetbrains.java.decompiler.main.extern.IBytecodeProvider;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.main.extern.IVariableNamingFactory;
+import org.jetbrains.java.decompiler.struct.StructClass;
+import org.jetbrains.java.decompiler.struct.StructContext;
+import org.jetbrains.java.decompiler.struct.lazy.LazyLoader;
+import org.jetbrains.java.decompiler.util.ClasspathScanner;
+import org.jetbrains.java.decompiler.util.DataInputFullStream;
+import org.jetbrains.java.decompiler.util.TextBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Decompiles single classes held in memory, on demand. Libraries are added once and stay loaded between requests, so a
+ * request only has to read and process its own classes. Requests may be made from any number of threads at once.
+ * <p>
+ * Entity renaming is not supported, since it needs all classes up front.
+ */
+public class InMemoryDecompiler {
+  private final Map<String, Object> properties;
+  private final IFernflowerLogger logger;
+  private final IVariableNamingFactory renamerFactory;
+  private final StructContext structContext;
+  // libraries may only be added while no request is running
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  public InMemoryDecompiler(IBytecodeProvider provider, Map<String, Object> customProperties, IFernflowerLogger logger) {
+    this.properties = Fernflower.createProperties(customProperties, logger);
+    this.logger = logger;
+    this.renamerFactory = Fernflower.createNamingFactory(properties, logger);
+    this.structContext = new StructContext(null, null, new LazyLoader(provider));
+
+    if ("1".equals(properties.get(IFernflowerPreferences.INCLUDE_ENTIRE_CLASSPATH))) {
+      DecompilerContext previous = enterContext(structContext);
+      try {
+        ClasspathScanner.addAllClasspath(structContext);
+      }
+      finally {
+        DecompilerContext.setCurrentContext(previous);
+      }
+    }
+  }
+
+  public void addLibrary(File library) {
+    lock.writeLock().lock();
+    DecompilerContext previous = enterContext(structContext);
+    try {
+      structContext.addSpace(library, false);
+    }
+    finally {
+      DecompilerContext.setCurrentContext(previous);
+      lock.writeLock().unlock();
+    }
+  }
+
+  public String decompile(byte[] classFile) throws IOException {
+    return decompile(classFile, Collections.emptyList());
+  }
+
+  /**
+   * @param nestedClassFiles the nested classes of the class, written as part of it; classes that are not nested in it
+   *                         are ignored
+   * @return the source of the class, or null if it could not be decompiled
+   * @throws IOException if one of the class files cannot be read
+   */
+  public String decompile(byte[] classFile, Collection<byte[]> nestedClassFiles) throws IOException {
+    lock.readLock().lock();
+    StructContext context = new StructContext(structContext);
+    DecompilerContext previous = enterContext(context);
+    try {
+      StructClass cl = readClass(classFile);
+      context.addClass(cl);
+      for (byte[] nestedClassFile : nestedClassFiles) {
+        context.addClass(readClass(nestedClassFile));
+      }
+
+      try {
+        ClassesProcessor classProcessor = DecompilerContext.getClassProcessor();
+        classProcessor.loadClasses(null);
+
+        TextBuffer buffer = new TextBuffer(ClassesProcessor.AVERAGE_CLASS_SIZE);
+        buffer.append(DecompilerContext.getProperty(IFernflowerPreferences.BANNER).toString());
+        classProcessor.writeClass(cl, buffer);
+        return buffer.toString();
+      }
+      catch (Throwable t) {
+        DecompilerContext.getLogger().writeMessage("Class " + cl.qualifiedName + " couldn't be fully decompiled.", t);
+        return null;
+      }
+    }
+    finally {
+      DecompilerContext.setCurrentContext(previous);
+      lock.readLock().unlock();
+    }
+  }
+
+  private static StructClass readClass(byte[] classFile) throws IOException {
+    // without a loader the class keeps its constant pool and code, as it is not backed by a file
+    try (DataInputFullStream in = new DataInputFullStream(classFile)) {
+      return StructClass.create(in, true, null);
+    }
+  }
+
+  /**
+   * Makes a new context for the given classes current on this thread.
+   *
+   * @return the context to restore afterwards
+   */
+  private DecompilerContext enterContext(StructContext context) {
+    DecompilerContext previous = DecompilerContext.getCurrentContext();
+    DecompilerContext.setCurrentContext(new DecompilerContext(
+      new HashMap<>(properties), logger, context, new ClassesProcessor(context), null, renamerFactory));
+    return previous;
+  }
+}
@@ -92,6 +92,25 @@ public class BytecodeSourceMapper {
     this.offset_total += offset_total;
   }
 
+  /**
+   * Bytecode offset to decompiled line (1-based) per class and method.
+   */
+  public Map<String, Map<String, Map<Integer, Integer>>> getBytecodeLineTable() {
+    Map<String, Map<String, Map<Integer, Integer>>> res = new LinkedHashMap<>();
+    for (Entry<String, Map<String, Map<Integer, Integer>>> class_entry : mapping.entrySet()) {
+      Map<String, Map<Integer, Integer>> class_res = new LinkedHashMap<>();
+      for (Entry<String, Map<Integer, Integer>> method_entry : class_entry.getValue().entrySet()) {
+        Map<Integer, Integer> method_res = new TreeMap<>();
+        for (Entry<Integer, Integer> entry : method_entry.getValue().entrySet()) {
+          method_res.put(entry.getKey(), entry.getValue() + offset_total + 1);
+        }
+        class_res.put(method_entry.getKey(), method_res);
+      }
+      res.put(class_entry.getKey(), class_res);
+    }
+    return res;
+  }
+
   /**
    * Original to decompiled line mapping.
    */
@@ -0,0 +1,292 @@
+package org.jetbrains.java.decompiler.main.collectors;
+
+import org.jetbrains.java.decompiler.util.TextBuffer;
+
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Describes the output of a single top level class: where its members are in the decompiled source, which imports were
+ * written, which methods could not be decompiled and how long it took. It is filled while the class is written, so
+ * consumers do not have to parse the source again to find the members.
+ */
+public class ClassMetadata {
+  public enum MemberKind {CLASS, FIELD, METHOD}
+
+  private final String className;
+  private final long startNanos = System.nanoTime();
+  private final List<Member> members = new ArrayList<>();
+  private final Deque<NestedClass> nestedClasses = new ArrayDeque<>();
+  private final List<String> errors = new ArrayList<>();
+  private List<Member> currentMembers = members;
+  private List<NestedClass> pendingNestedClasses;
+  private ImportCollector importCollector;
+  private BytecodeSourceMapper bytecodeSourceMapper;
+  private long processingNanos = -1;
+
+  public ClassMetadata(String className) {
+    this.className = className;
+  }
+
+  public void addMember(MemberKind kind, String owner, String name, String descriptor, int start, int end, long processingNanos) {
+    Member member = new Member(kind, owner, name, descriptor, start);
+    member.end = end;
+    member.processingNanos = processingNanos;
+    attachNestedClasses(member);
+    currentMembers.add(member);
+  }
+
+  /**
+   * Adds a member whose end is not known yet, so that it is listed before the members it encloses.
+   *
+   * @return the index to hand to {@link #endMember} once the member is written
+   */
+  public int startMember(MemberKind kind, String owner, String name, String descriptor, int start) {
+    currentMembers.add(new Member(kind, owner, name, descriptor, start));
+    return currentMembers.size() - 1;
+  }
+
+  public void endMember(int index, int end) {
+    Member member = currentMembers.get(index);
+    member.end = end;
+    attachNestedClasses(member);
+  }
+
+  /**
+   * Starts collecting the members of an anonymous or local class, which is written to a buffer of its own. Their offsets
+   * are relative to that buffer until {@link #finish} finds its text in the member the class is declared in.
+   */
+  public void startNestedClass() {
+    nestedClasses.push(new NestedClass(currentMembers, pendingNestedClasses));
+    currentMembers = nestedClasses.peek().members;
+    pendingNestedClasses = null;
+  }
+
+  /**
+   * @param text the text of the buffer the class was written to, or null if writing it failed
+   */
+  public void endNestedClass(String text) {
+    NestedClass nested = nestedClasses.pop();
+    currentMembers = nested.outerMembers;
+    pendingNestedClasses = nested.outerPending;
+    if (text != null && !nested.members.isEmpty()) {
+      nested.text = text;
+      if (pendingNestedClasses == null) {
+        pendingNestedClasses = new ArrayList<>();
+      }
+      pendingNestedClasses.add(nested);
+    }
+  }
+
+  /**
+   * Drops the nested classes written since the last member, when the member they belong to is left out of the source.
+   */
+  public void discardNestedClasses() {
+    pendingNestedClasses = null;
+  }
+
+  private void attachNestedClasses(Member member) {
+    if (pendingNestedClasses != null) {
+      if (member.nested == null) {
+        member.nested = pendingNestedClasses;
+      }
+      else {
+        member.nested.addAll(pendingNestedClasses);
+      }
+      pendingNestedClasses = null;
+    }
+  }
+
+  public void addError(String message) {
+    errors.add(message);
+  }
+
+  /**
+   * Called once the class is written; places the members of nested classes within the members they are declared in, and
+   * moves the recorded member offsets by the length of the text (banner, package and imports) that was put in front of
+   * the class body.
+   *
+   * @param classBuffer   the buffer the class body was written to, or null if it has no members
+   * @param outputOffsets maps offsets in the content as written to offsets in the saved content
+   */
+  public void finish(TextBuffer classBuffer,
+                     int contentOffset,
+                     IntUnaryOperator outputOffsets,
+                     ImportCollector importCollector,
+                     BytecodeSourceMapper bytecodeSourceMapper) {
+    boolean hasNested = false;
+    for (Member member : members) {
+      hasNested |= member.nested != null;
+    }
+    String content = hasNested ? classBuffer.toString() : null;
+
+    List<Member> written = new ArrayList<>(members.size());
+    for (Member member : members) {
+      collectMembers(member, 0, content, written);
+    }
+    for (Member member : written) {
+      member.start = outputOffsets.applyAsInt(member.start + contentOffset);
+      member.end = outputOffsets.applyAsInt(member.end + contentOffset);
+    }
+    members.clear();
+    members.addAll(written);
+
+    this.importCollector = importCollector;
+    this.bytecodeSourceMapper = bytecodeSourceMapper;
+    processingNanos = System.nanoTime() - startNanos;
+  }
+
+  private static void collectMembers(Member member, int offset, String content, List<Member> result) {
+    member.start += offset;
+    member.end += offset;
+    result.add(member);
+
+    if (member.nested != null) {
+      // nested classes are written in order, and their text is copied to the member unchanged
+      int from = member.start;
+      for (NestedClass nested : member.nested) {
+        int position = find(content, nested.text, from, member.end);
+        if (position < 0) {
+          position = find(content, nested.text, member.start, member.end);
+        }
+        if (position >= 0) {
+          for (Member nestedMember : nested.members) {
+            collectMembers(nestedMember, position, content, result);
+          }
+          from = position + nested.text.length();
+        }
+      }
+      member.nested = null;
+    }
+  }
+
+  private static int find(String content, String text, int from, int to) {
+    int position = content.indexOf(text, from);
+    return position >= 0 && position + text.length() <= to ? position : -1;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  /**
+   * Classes, fields and methods in the order they appear in the source. Anonymous and local classes and their members
+   * follow the member they are declared in, within its range.
+   */
+  public List<Member> getMembers() {
+    return Collections.unmodifiableList(members);
+  }
+
+  public List<String> getImports() {
+    return importCollector != null ? importCollector.getImports() : Collections.emptyList();
+  }
+
+  public List<String> getErrors() {
+    return Collections.unmodifiableList(errors);
+  }
+
+  /**
+   * Bytecode offset to source line (1-based) per method of this class and its nested classes, keyed by class name and
+   * method name and descriptor. Empty unless bytecode to source mapping is enabled.
+   */
+  public Map<String, Map<String, Map<Integer, Integer>>> getLineTable() {
+    return bytecodeSourceMapper != null ? bytecodeSourceMapper.getBytecodeLineTable() : Collections.emptyMap();
+  }
+
+  /**
+   * Original to decompiled line mapping, see {@link BytecodeSourceMapper#getOriginalLinesMapping()}; null unless
+   * bytecode to source mapping is enabled.
+   */
+  public int[] getOriginalLinesMapping() {
+    return bytecodeSourceMapper != null ? bytecodeSourceMapper.getOriginalLinesMapping() : null;
+  }
+
+  /**
+   * @return wall time spent on the class in nanoseconds, or -1 if it was not written completely
+   */
+  public long getProcessingNanos() {
+    return processingNanos;
+  }
+
+  public static final class Member {
+    private final MemberKind kind;
+    private final String owner;
+    private final String name;
+    private final String descriptor;
+    private int start;
+    private int end;
+    private long processingNanos = -1;
+    private List<NestedClass> nested;
+
+    private Member(MemberKind kind, String owner, String name, String descriptor, int start) {
+      this.kind = kind;
+      this.owner = owner;
+      this.name = name;
+      this.descriptor = descriptor;
+      this.start = start;
+    }
+
+    public MemberKind getKind() {
+      return kind;
+    }
+
+    /**
+     * @return the qualified name of the declaring class, or null for the top level class
+     */
+    public String getOwner() {
+      return owner;
+    }
+
+    /**
+     * @return the member name, or the qualified name for classes
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the descriptor, or null for classes
+     */
+    public String getDescriptor() {
+      return descriptor;
+    }
+
+    /**
+     * @return offset of the first character of the member in the saved content
+     */
+    public int getStart() {
+      return start;
+    }
+
+    /**
+     * @return offset after the last character of the member in the saved content
+     */
+    public int getEnd() {
+      return end;
+    }
+
+    /**
+     * @return time spent decompiling a method in nanoseconds, or -1 for other members
+     */
+    public long getProcessingNanos() {
+      return processingNanos;
+    }
+
+    @Override
+    public String toString() {
+      return kind + " " + name + (descriptor != null ? " " + descriptor : "") + " [" + start + ", " + end + ")";
+    }
+  }
+
+  private static final class NestedClass {
+    private final List<Member> members = new ArrayList<>();
+    private final List<Member> outerMembers;
+    private final List<NestedClass> outerPending;
+    private String text;
+
+    private NestedClass(List<Member> outerMembers, List<NestedClass> outerPending) {
+      this.outerMembers = outerMembers;
+      this.outerPending = outerPending;
+    }
+  }
+}
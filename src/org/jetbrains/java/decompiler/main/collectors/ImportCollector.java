@@ -123,8 +123,8 @@ public class ImportCollector {
     // 2) class with the same short name in the default package
     // 3) inner class with the same short name in the current class, a super class, or an implemented interface
     boolean existsDefaultClass =
-      (context.getClass(currentPackageSlash + shortName) != null && !packageName.equals(currentPackagePoint)) || // current package
-      (context.getClass(shortName) != null && !currentPackagePoint.isEmpty());
+      (context.hasClass(currentPackageSlash, shortName) && !packageName.equals(currentPackagePoint)) || // current package
+      (context.hasClass("", shortName) && !currentPackagePoint.isEmpty());
 
     ClassNode currCls = (ClassNode)DecompilerContext.getProperty(DecompilerContext.CURRENT_CLASS_NODE);
     String mapKey = currCls == null ? "" : currCls.classStruct.qualifiedName;
@@ -132,7 +132,7 @@ public class ImportCollector {
     if (!existsDefaultClass && innerClassNames.containsKey(shortName) && !innerClassNames.get(shortName).equals(fullName)) {
       // if the class being accessed is also an inner class
       // attempt to import the outer class and reference OuterClass.InnerClass
-      if (context.getClass(packageName.replace('.', '/') + "$" + shortName) != null) {
+      if (context.hasMemberClass(packageName.replace('.', '/'), shortName)) {
         lastDot = fullName.lastIndexOf(".", lastDot - 1);
         if (lastDot >= 0) {
           result = fullName.substring(lastDot + 1);
@@ -175,6 +175,13 @@ public class ImportCollector {
     }
   }
 
+  /**
+   * @return the imports written by {@link #writeImports}, as qualified names
+   */
+  public List<String> getImports() {
+    return packImports();
+  }
+
   private List<String> packImports() {
     return mapSimpleNames.entrySet().stream()
       .filter(ent ->
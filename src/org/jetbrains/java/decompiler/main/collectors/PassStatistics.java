@@ -0,0 +1,72 @@
+package org.jetbrains.java.decompiler.main.collectors;
+
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+
+import java.util.*;
+
+/**
+ * Collects the methods whose fixpoint loops needed an unusual number of iterations over the whole run, so that they can
+ * be reported as outliers once the run is done. Methods below the threshold are not recorded at all.
+ */
+public class PassStatistics {
+  // more iterations in all loops of a method together than any method of a common library needs
+  private static final int OUTLIER_ITERATIONS = 100;
+  private static final int MAX_OUTLIERS = 10;
+
+  private final PriorityQueue<Entry> outliers = new PriorityQueue<>(Comparator.comparingInt(e -> e.iterations));
+  private final List<String> capped = new ArrayList<>();
+  private int outlierCount;
+
+  public void record(String method, Map<String, Integer> iterations, List<String> cappedPasses) {
+    int total = 0;
+    for (int count : iterations.values()) {
+      total += count;
+    }
+    if (total < OUTLIER_ITERATIONS && cappedPasses.isEmpty()) {
+      return;
+    }
+
+    synchronized (this) {
+      for (String pass : cappedPasses) {
+        capped.add(method + " (" + pass + ")");
+      }
+
+      if (total >= OUTLIER_ITERATIONS) {
+        outlierCount++;
+        outliers.add(new Entry(method, total, iterations.toString()));
+        if (outliers.size() > MAX_OUTLIERS) {
+          outliers.poll();
+        }
+      }
+    }
+  }
+
+  public synchronized void writeSummary(IFernflowerLogger logger) {
+    if (outlierCount > 0 && logger.accepts(IFernflowerLogger.Severity.TRACE)) {
+      logger.writeMessage(outlierCount + " methods needed " + OUTLIER_ITERATIONS + " or more pass iterations, the most:",
+                          IFernflowerLogger.Severity.TRACE);
+
+      List<Entry> sorted = new ArrayList<>(outliers);
+      sorted.sort(Comparator.comparingInt((Entry e) -> e.iterations).reversed());
+      for (Entry entry : sorted) {
+        logger.writeMessage("  " + entry.method + ": " + entry.iterations + " " + entry.detail, IFernflowerLogger.Severity.TRACE);
+      }
+    }
+
+    for (String method : capped) {
+      logger.writeMessage("Iteration limit reached in " + method, IFernflowerLogger.Severity.WARN);
+    }
+  }
+
+  private static final class Entry {
+    private final String method;
+    private final int iterations;
+    private final String detail;
+
+    private Entry(String method, int iterations, String detail) {
+      this.method = method;
+      this.iterations = iterations;
+      this.detail = detail;
+    }
+  }
+}
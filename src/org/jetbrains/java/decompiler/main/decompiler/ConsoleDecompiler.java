@@ -6,7 +6,9 @@ import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.Fernflower;
 import org.jetbrains.java.decompiler.main.extern.IBytecodeProvider;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.extern.IResultSaver;
+import org.jetbrains.java.decompiler.main.extern.IResumableResultSaver;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
 
 import java.io.*;
@@ -22,7 +24,7 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
-public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
+public class ConsoleDecompiler implements IBytecodeProvider, IResumableResultSaver {
   @SuppressWarnings("UseOfSystemOutOrSystemErr")
   public static void main(String[] args) {
     List<String> params = new ArrayList<String>();
@@ -111,6 +113,22 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
     }
 
     PrintStreamLogger logger = new PrintStreamLogger(System.out);
+
+    int processes = Integer.parseInt((String)mapOptions.getOrDefault(IFernflowerPreferences.WORKER_PROCESSES, "1"));
+    if (processes > 1 && destination.isDirectory() && !mapOptions.containsKey(IFernflowerPreferences.SHARD)) {
+      try {
+        if (!"1".equals(mapOptions.get(IFernflowerPreferences.RESUME))) {
+          ResumeJournal.clear(destination);
+        }
+        new ShardCoordinator(args, processes, mapOptions.containsKey(IFernflowerPreferences.THREADS), logger).runWorkers();
+      }
+      catch (IOException | InterruptedException ex) {
+        logger.writeMessage("Cannot run worker processes, the remaining classes are decompiled here", ex);
+      }
+      // collects the classes staged by the workers
+      mapOptions.put(IFernflowerPreferences.RESUME, "1");
+    }
+
     ConsoleDecompiler decompiler = new ConsoleDecompiler(destination, mapOptions, logger);
 
     for (File library : libraries) {
@@ -145,27 +163,74 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
   private final Fernflower engine;
   private final Map<String, ZipOutputStream> mapArchiveStreams = new HashMap<>();
   private final Map<String, Set<String>> mapArchiveEntries = new HashMap<>();
+  private final Map<String, Object> options;
+  private final int worker;
+  // the input of the run, which the resume journal is only valid for
+  private final List<File> sources = new ArrayList<>();
+  private final List<File> libraries = new ArrayList<>();
+  private final List<String> whitelist = new ArrayList<>();
+  private ResumeJournal journal;
+  // a worker process only stages its classes in the journal, archives are written by the process that started it
+  private boolean stageOnly;
 
   protected ConsoleDecompiler(File destination, Map<String, Object> options, IFernflowerLogger logger) {
     root = destination;
     engine = new Fernflower(this, root.isDirectory() ? this : new SingleFileSaver(destination), options, logger);
+    this.options = options != null ? new HashMap<>(options) : Collections.emptyMap();
+
+    Object shard = this.options.get(IFernflowerPreferences.SHARD);
+    worker = shard != null ? Integer.parseInt(shard.toString().substring(0, shard.toString().indexOf('/'))) : -1;
   }
 
   public void addSource(File source) {
+    sources.add(source);
     engine.addSource(source);
   }
 
   public void addLibrary(File library) {
+    libraries.add(library);
     engine.addLibrary(library);
   }
 
   public void addWhitelist(String prefix) {
+    whitelist.add(prefix);
     engine.addWhitelist(prefix);
   }
 
+  private void openJournal() {
+    if (!root.isDirectory() || !"1".equals(options.get(IFernflowerPreferences.RESUME))) {
+      return;
+    }
+
+    IFernflowerLogger logger = DecompilerContext.getLogger();
+    try {
+      journal = new ResumeJournal(root, worker, ResumeJournal.getFingerprint(options, sources, libraries, whitelist));
+      stageOnly = worker >= 0;
+      if (journal.hasDiscarded()) {
+        logger.writeMessage("Discarded the resume journal of a run with other options or input", IFernflowerLogger.Severity.INFO);
+      }
+      if (journal.getSavedCount() > 0) {
+        logger.writeMessage("Resuming, " + journal.getSavedCount() + " classes already saved", IFernflowerLogger.Severity.INFO);
+      }
+    }
+    catch (IOException ex) {
+      logger.writeMessage("Cannot open resume journal in " + root, ex);
+    }
+  }
+
   public void decompileContext() {
     try {
+      openJournal();
       engine.decompileContext();
+
+      if (journal != null && !stageOnly) {
+        try {
+          journal.finish();
+        }
+        catch (IOException ex) {
+          DecompilerContext.getLogger().writeMessage("Cannot remove resume journal", IFernflowerLogger.Severity.WARN);
+        }
+      }
     }
     finally {
       engine.clearContext();
@@ -209,6 +274,10 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
 
   @Override
   public void copyFile(String source, String path, String entryName) {
+    if (stageOnly) {
+      return;
+    }
+
     try {
       InterpreterUtil.copyFile(new File(source), new File(getAbsolutePath(path), entryName));
     }
@@ -225,11 +294,33 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
     }
     catch (IOException ex) {
       DecompilerContext.getLogger().writeMessage("Cannot write class file " + file, ex);
+      return;
+    }
+    setSaved(path, null, entryName, content);
+  }
+
+  @Override
+  public String getSavedClass(String path, String archiveName, String qualifiedName, String entryName) {
+    return journal != null ? journal.getSaved(path, archiveName, entryName) : null;
+  }
+
+  private void setSaved(String path, String archiveName, String entryName, String content) {
+    if (journal != null) {
+      try {
+        journal.setSaved(path, archiveName, entryName, content);
+      }
+      catch (IOException ex) {
+        DecompilerContext.getLogger().writeMessage("Cannot update resume journal for " + entryName, ex);
+      }
     }
   }
 
   @Override
   public void createArchive(String path, String archiveName, Manifest manifest) {
+    if (stageOnly) {
+      return;
+    }
+
     File file = new File(getAbsolutePath(path), archiveName);
     try {
       if (!(file.createNewFile() || file.isFile())) {
@@ -252,6 +343,10 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
 
   @Override
   public void copyEntry(String source, String path, String archiveName, String entryName) {
+    if (stageOnly) {
+      return;
+    }
+
     String file = new File(getAbsolutePath(path), archiveName).getPath();
 
     if (!checkEntry(entryName, file)) {
@@ -276,6 +371,13 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
 
   @Override
   public synchronized void saveClassEntry(String path, String archiveName, String qualifiedName, String entryName, String content) {
+    if (stageOnly) {
+      if (content != null) {
+        setSaved(path, archiveName, entryName, content);
+      }
+      return;
+    }
+
     String file = new File(getAbsolutePath(path), archiveName).getPath();
 
     if (!checkEntry(entryName, file)) {
@@ -287,6 +389,7 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
       out.putNextEntry(new ZipEntry(entryName));
       if (content != null) {
         out.write(content.getBytes(StandardCharsets.UTF_8));
+        setSaved(path, archiveName, entryName, content);
       }
     }
     catch (IOException ex) {
@@ -308,6 +411,10 @@ public class ConsoleDecompiler implements IBytecodeProvider, IResultSaver {
 
   @Override
   public void closeArchive(String path, String archiveName) {
+    if (stageOnly) {
+      return;
+    }
+
     String file = new File(getAbsolutePath(path), archiveName).getPath();
     try {
       mapArchiveEntries.remove(file);
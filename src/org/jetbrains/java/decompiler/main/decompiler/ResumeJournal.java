@@ -0,0 +1,220 @@
+package org.jetbrains.java.decompiler.main.decompiler;
+
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Records the classes saved to a destination folder, so that an interrupted run can be resumed without decompiling them
+ * again. The journal is appended to after each class is completely written. Classes saved to archives are also kept as
+ * separate files, since an archive that was not closed cannot be read back; the archives are then written anew from
+ * them. Everything is removed once a run completes.
+ * <p>
+ * A journal starts with a fingerprint of the options and the input files of the run that wrote it. A journal with another
+ * fingerprint is discarded, so that a run with other options or changed input does not take over classes saved before.
+ * <p>
+ * Worker processes sharing a destination (see {@link ShardCoordinator}) each append to a journal file of their own, and
+ * all of them are read back.
+ */
+class ResumeJournal {
+  private static final String DIRECTORY = ".fernflower-resume";
+  private static final String JOURNAL = "journal";
+  private static final String HEADER = "#fingerprint ";
+  // options that change how a run is carried out, but not what it writes
+  private static final Set<String> RUN_OPTIONS = new HashSet<>(Arrays.asList(
+    IFernflowerPreferences.LOG_LEVEL, IFernflowerPreferences.THREADS, IFernflowerPreferences.ANALYSIS_THREADS,
+    IFernflowerPreferences.TEXT_THREADS, IFernflowerPreferences.SAVE_QUEUE_SIZE, IFernflowerPreferences.RESUME,
+    IFernflowerPreferences.WORKER_PROCESSES, IFernflowerPreferences.SHARD));
+
+  private final File root;
+  private final File directory;
+  private final Set<String> saved = new HashSet<>();
+  private final Writer journal;
+  private boolean discarded;
+
+  /**
+   * @param worker      the index of the worker process this journal is written by, or -1 outside of worker processes
+   * @param fingerprint the fingerprint of the run, see {@link #getFingerprint}
+   */
+  ResumeJournal(File root, int worker, String fingerprint) throws IOException {
+    this.root = root;
+    this.directory = new File(root, DIRECTORY);
+    if (!(directory.mkdirs() || directory.isDirectory())) {
+      throw new IOException("Cannot create directory " + directory);
+    }
+
+    String header = HEADER + fingerprint;
+    File[] files = directory.listFiles((dir, name) -> name.startsWith(JOURNAL));
+    if (files != null) {
+      for (File file : files) {
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+          continue;  // just created by another worker, which is about to write its header
+        }
+        if (lines.get(0).equals(header)) {
+          saved.addAll(lines.subList(1, lines.size()));
+        }
+        else {
+          // the classes staged for it are overwritten when they are saved again, and removed with the journal
+          Files.deleteIfExists(file.toPath());
+          discarded = true;
+        }
+      }
+    }
+
+    File file = new File(directory, worker < 0 ? JOURNAL : JOURNAL + '.' + worker);
+    boolean empty = file.length() == 0;
+    journal = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    if (empty) {
+      journal.write(header);
+      journal.write('\n');
+      journal.flush();
+    }
+  }
+
+  /**
+   * @return a digest of the options that change the output and of the paths, sizes and modification times of the input
+   * files; the files of a directory are included one by one
+   */
+  static String getFingerprint(Map<String, Object> options, List<File> sources, List<File> libraries, List<String> whitelist)
+    throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+
+    for (Map.Entry<String, Object> option : new TreeMap<>(options).entrySet()) {
+      if (!RUN_OPTIONS.contains(option.getKey())) {
+        out.writeUTF(option.getKey());
+        out.writeUTF(String.valueOf(option.getValue()));
+      }
+    }
+    out.writeInt(sources.size());
+    for (File source : sources) {
+      writeFiles(out, source);
+    }
+    out.writeInt(libraries.size());
+    for (File library : libraries) {
+      writeFiles(out, library);
+    }
+    out.writeInt(whitelist.size());
+    for (String prefix : whitelist) {
+      out.writeUTF(prefix);
+    }
+    out.flush();
+
+    try {
+      return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray()));
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void writeFiles(DataOutputStream out, File file) throws IOException {
+    out.writeUTF(file.getAbsolutePath());
+    File[] children = file.listFiles();
+    out.writeBoolean(children != null);
+    if (children != null) {
+      Arrays.sort(children);
+      out.writeInt(children.length);
+      for (File child : children) {
+        writeFiles(out, child);
+      }
+    }
+    else {
+      out.writeLong(file.length());
+      out.writeLong(file.lastModified());
+    }
+  }
+
+  /**
+   * @return whether journals written with another fingerprint were found and discarded
+   */
+  boolean hasDiscarded() {
+    return discarded;
+  }
+
+  int getSavedCount() {
+    return saved.size();
+  }
+
+  /**
+   * @return the source saved by an earlier run, or null if there is none or it cannot be read
+   */
+  synchronized String getSaved(String path, String archiveName, String entryName) {
+    if (!saved.contains(getKey(path, archiveName, entryName))) {
+      return null;
+    }
+
+    try {
+      return new String(Files.readAllBytes(getFile(path, archiveName, entryName).toPath()), StandardCharsets.UTF_8);
+    }
+    catch (IOException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Records a class whose source was written; a class saved to an archive is written to a separate file first.
+   */
+  synchronized void setSaved(String path, String archiveName, String entryName, String content) throws IOException {
+    String key = getKey(path, archiveName, entryName);
+    if (saved.contains(key)) {
+      return;
+    }
+
+    if (archiveName != null) {
+      File file = getFile(path, archiveName, entryName);
+      File parent = file.getParentFile();
+      if (!(parent.mkdirs() || parent.isDirectory())) {
+        throw new IOException("Cannot create directory " + parent);
+      }
+      Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    journal.write(key);
+    journal.write('\n');
+    journal.flush();
+    saved.add(key);
+  }
+
+  /**
+   * Removes the journal after a completed run.
+   */
+  synchronized void finish() throws IOException {
+    journal.close();
+    delete(directory);
+  }
+
+  /**
+   * Removes the journal left by an earlier run, if any.
+   */
+  static void clear(File root) throws IOException {
+    delete(new File(root, DIRECTORY));
+  }
+
+  private File getFile(String path, String archiveName, String entryName) {
+    if (archiveName == null) {
+      return new File(new File(root, path), entryName);
+    }
+    return new File(new File(new File(directory, path), archiveName), entryName);
+  }
+
+  private static String getKey(String path, String archiveName, String entryName) {
+    return path + '\t' + (archiveName == null ? "" : archiveName) + '\t' + entryName;
+  }
+
+  private static void delete(File file) throws IOException {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        delete(child);
+      }
+    }
+    Files.deleteIfExists(file.toPath());
+  }
+}
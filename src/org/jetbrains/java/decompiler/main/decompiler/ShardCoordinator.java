@@ -0,0 +1,100 @@
+package org.jetbrains.java.decompiler.main.decompiler;
+
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a console run between several worker processes on the same machine, each a JVM of its own with its own heap.
+ * Every worker reads the same sources and libraries, but decompiles only its share of the classes and stages the
+ * results in the resume journal of the destination (see {@link ResumeJournal}). The coordinating process then makes a
+ * resumed run over the whole input, which writes the staged classes in the same order as a single process would, and
+ * decompiles whatever a worker did not deliver.
+ */
+class ShardCoordinator {
+  private static final String[] WORKER_OPTIONS = {
+    IFernflowerPreferences.WORKER_PROCESSES, IFernflowerPreferences.SHARD, IFernflowerPreferences.RESUME};
+
+  private final String[] args;
+  private final int processes;
+  private final boolean threadsSet;
+  private final IFernflowerLogger logger;
+
+  /**
+   * @param args the command line, options first and the destination last
+   */
+  ShardCoordinator(String[] args, int processes, boolean threadsSet, IFernflowerLogger logger) {
+    this.args = args;
+    this.processes = processes;
+    this.threadsSet = threadsSet;
+    this.logger = logger;
+  }
+
+  /**
+   * Starts the worker processes and waits until all of them have exited.
+   */
+  void runWorkers() throws IOException, InterruptedException {
+    List<Process> workers = new ArrayList<>();
+    try {
+      for (int i = 0; i < processes; i++) {
+        ProcessBuilder builder = new ProcessBuilder(getCommand(i));
+        builder.inheritIO();
+        workers.add(builder.start());
+      }
+
+      for (int i = 0; i < processes; i++) {
+        int exitCode = workers.get(i).waitFor();
+        if (exitCode != 0) {
+          logger.writeMessage("Worker process " + i + " exited with code " + exitCode + ", its remaining classes are decompiled here",
+                              IFernflowerLogger.Severity.WARN);
+        }
+      }
+    }
+    finally {
+      for (Process worker : workers) {
+        worker.destroy();
+      }
+    }
+  }
+
+  private List<String> getCommand(int shard) {
+    List<String> command = new ArrayList<>();
+    command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+    for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      // heap and system settings are passed on, debugger and agent settings are not
+      if (argument.startsWith("-X") && !argument.startsWith("-Xrun") && !argument.startsWith("-Xdebug") || argument.startsWith("-D")) {
+        command.add(argument);
+      }
+    }
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(ConsoleDecompiler.class.getName());
+
+    command.add("-" + IFernflowerPreferences.RESUME + "=1");
+    command.add("-" + IFernflowerPreferences.SHARD + "=" + shard + "/" + processes);
+    if (!threadsSet) {
+      int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / processes);
+      command.add("-" + IFernflowerPreferences.THREADS + "=" + threads);
+    }
+    for (String arg : args) {
+      if (!isWorkerOption(arg)) {
+        command.add(arg);
+      }
+    }
+    return command;
+  }
+
+  private static boolean isWorkerOption(String arg) {
+    for (String option : WORKER_OPTIONS) {
+      if (arg.startsWith("-" + option + "=")) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
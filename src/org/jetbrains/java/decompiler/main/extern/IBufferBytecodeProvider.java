@@ -0,0 +1,43 @@
+package org.jetbrains.java.decompiler.main.extern;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bytecode provider that can hand out class files without copying them, for callers that already hold them in memory
+ * or in mapped files. When a provider implements this, it is preferred over {@link #getBytecode}.
+ */
+public interface IBufferBytecodeProvider extends IBytecodeProvider {
+  /**
+   * @return a buffer positioned at the start of the class file and limited to its end. It is only read from and may be
+   * read-only; it must not be changed by the provider afterwards, as it may be kept for the whole run
+   */
+  ByteBuffer getBytecodeBuffer(String externalPath, String internalPath) throws IOException;
+
+  /**
+   * Fetches several entries of the same archive at once.
+   *
+   * @return the buffers by internal path; entries that could not be found are left out
+   */
+  default Map<String, ByteBuffer> getBytecodeBuffers(String externalPath, List<String> internalPaths) throws IOException {
+    Map<String, ByteBuffer> buffers = new HashMap<>();
+    for (String internalPath : internalPaths) {
+      ByteBuffer buffer = getBytecodeBuffer(externalPath, internalPath);
+      if (buffer != null) {
+        buffers.put(internalPath, buffer);
+      }
+    }
+    return buffers;
+  }
+
+  @Override
+  default byte[] getBytecode(String externalPath, String internalPath) throws IOException {
+    ByteBuffer buffer = getBytecodeBuffer(externalPath, internalPath).duplicate();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+}
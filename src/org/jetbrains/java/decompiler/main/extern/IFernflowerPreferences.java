@@ -38,15 +38,30 @@ public interface IFernflowerPreferences {
   String INCLUDE_ENTIRE_CLASSPATH = "iec";
   String EXPLICIT_GENERIC_ARGUMENTS = "ega";
   String INLINE_SIMPLE_LAMBDAS = "isl";
+  String OMIT_METHOD_BODIES = "omb";
+  String METHOD_BODY_FILTER = "mbf";
 
   String LOG_LEVEL = "log";
   String MAX_PROCESSING_METHOD = "mpm";
+  String MAX_PASS_ITERATIONS = "mpi";
+  String MAX_METHOD_ALLOCATION = "mma";
+  String MAX_METHOD_TIME = "mmt";
+  String MAX_CLASS_ALLOCATION = "mca";
+  String MAX_CLASS_TIME = "mct";
+  String MAX_SPLIT_INSTRUCTIONS = "mns";
   String RENAME_ENTITIES = "ren";
   String USER_RENAMER_CLASS = "urc";
   String NEW_LINE_SEPARATOR = "nls";
   String INDENT_STRING = "ind";
   String BANNER = "ban";
   String THREADS = "thr";
+  String ANALYSIS_THREADS = "ath";
+  String TEXT_THREADS = "tth";
+  String SAVE_QUEUE_SIZE = "sqs";
+  String RESUME = "rsm";
+  String WORKER_PROCESSES = "wrk";
+  // "<index>/<count>": the share of the classes decompiled by a worker process, set by the process that started it
+  String SHARD = "shd";
 
   String DUMP_ORIGINAL_LINES = "__dump_original_lines__";
   String UNIT_TEST_MODE = "__unit_test_mode__";
@@ -95,9 +110,17 @@ public interface IFernflowerPreferences {
     defaults.put(INCLUDE_ENTIRE_CLASSPATH, "0");
     defaults.put(EXPLICIT_GENERIC_ARGUMENTS, "0");
     defaults.put(INLINE_SIMPLE_LAMBDAS, "1");
+    defaults.put(OMIT_METHOD_BODIES, "0");
+    defaults.put(METHOD_BODY_FILTER, "");
 
     defaults.put(LOG_LEVEL, IFernflowerLogger.Severity.INFO.name());
     defaults.put(MAX_PROCESSING_METHOD, "0");
+    defaults.put(MAX_PASS_ITERATIONS, "1000");
+    defaults.put(MAX_METHOD_ALLOCATION, "0");
+    defaults.put(MAX_METHOD_TIME, "0");
+    defaults.put(MAX_CLASS_ALLOCATION, "0");
+    defaults.put(MAX_CLASS_TIME, "0");
+    defaults.put(MAX_SPLIT_INSTRUCTIONS, "10000");
     defaults.put(RENAME_ENTITIES, "0");
     defaults.put(NEW_LINE_SEPARATOR, (InterpreterUtil.IS_WINDOWS ? "0" : "1"));
     defaults.put(INDENT_STRING, "   ");
@@ -105,6 +128,12 @@ public interface IFernflowerPreferences {
     defaults.put(UNIT_TEST_MODE, "0");
     defaults.put(DUMP_ORIGINAL_LINES, "0");
     defaults.put(THREADS, String.valueOf(Runtime.getRuntime().availableProcessors()));
+    defaults.put(ANALYSIS_THREADS, "0");
+    defaults.put(TEXT_THREADS, "0");
+    defaults.put(SAVE_QUEUE_SIZE, "64");
+    defaults.put(RESUME, "0");
+    defaults.put(WORKER_PROCESSES, "1");
+    defaults.put(SHARD, "0/1");
     defaults.put(USE_JAD_VARNAMING, "0");
     defaults.put(SKIP_EXTRA_FILES, "0");
     defaults.put(WARN_INCONSISTENT_INNER_CLASSES, "1");
@@ -0,0 +1,13 @@
+package org.jetbrains.java.decompiler.main.extern;
+
+/**
+ * A result saver that remembers the classes it saved in an earlier run which did not complete. Such classes are not
+ * decompiled again; the remembered source is passed to the saver like a freshly decompiled one.
+ */
+public interface IResumableResultSaver extends IResultSaver {
+  /**
+   * @param archiveName the archive the class is saved to, or null when it is saved to a folder
+   * @return the source saved by an earlier run, or null if the class has to be decompiled
+   */
+  String getSavedClass(String path, String archiveName, String qualifiedName, String entryName);
+}
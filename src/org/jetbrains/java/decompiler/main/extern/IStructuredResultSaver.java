@@ -0,0 +1,17 @@
+package org.jetbrains.java.decompiler.main.extern;
+
+import org.jetbrains.java.decompiler.main.collectors.ClassMetadata;
+
+/**
+ * A result saver that receives, next to the source of each class, a {@link ClassMetadata} describing it. When the
+ * saver implements this interface, {@link #saveClass} is called instead of {@link #saveClassFile} and
+ * {@link #saveClassEntry}.
+ */
+public interface IStructuredResultSaver extends IResultSaver {
+  /**
+   * @param archiveName the archive the class is saved to, or null when it is saved to a folder
+   * @param content     the source, or null if the class could not be decompiled
+   * @param metadata    the metadata of the class, or null if decompilation failed before it was collected
+   */
+  void saveClass(String path, String archiveName, String qualifiedName, String entryName, String content, ClassMetadata metadata);
+}
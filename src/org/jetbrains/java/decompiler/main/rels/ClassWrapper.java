@@ -40,6 +40,9 @@ public class ClassWrapper {
 
     int maxSec = Integer.parseInt(DecompilerContext.getProperty(IFernflowerPreferences.MAX_PROCESSING_METHOD).toString());
     boolean testMode = DecompilerContext.getOption(IFernflowerPreferences.UNIT_TEST_MODE);
+    FailedMethodCache failedMethods = DecompilerContext.getClassProcessor().getFailedMethods();
+    MethodBodyFilter bodyFilter = MethodBodyFilter.fromOptions();
+    ClassNode node = bodyFilter.isEmpty() ? null : DecompilerContext.getClassProcessor().getMapRootClasses().get(classStruct.qualifiedName);
 
     for (StructMethod mt : classStruct.getMethods()) {
       DecompilerContext.getLogger().startMethod(mt.getName() + " " + mt.getDescriptor());
@@ -50,18 +53,30 @@ public class ClassWrapper {
 
       VarNamesCollector vc = varProc.getVarNamesCollector();
       CounterContainer counter = DecompilerContext.getCounterContainer();
+      ProcessingBudget budget = DecompilerContext.getProcessingBudget();
 
       RootStatement root = null;
+      boolean bodyOmitted = node != null && mt.containsCode() && !bodyFilter.isBodyNeeded(node, mt);
 
       boolean isError = false;
+      long startNanos = System.nanoTime();
 
       try {
-        if (mt.containsCode()) {
-          if (maxSec == 0 || testMode) {
-            root = MethodProcessorRunnable.codeToJava(classStruct, mt, md, varProc);
+        if (mt.containsCode() && !bodyOmitted) {
+          FailedMethodCache.Failure failure = failedMethods.get(classStruct, mt);
+
+          if (failure != null) {
+            mt.releaseResources();
+            String message = "Method " + mt.getName() + " " + mt.getDescriptor() + " couldn't be decompiled. It has the same code as " +
+                             failure.getMethod() + ", which failed: " + failure.getReason();
+            DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.WARN);
+            isError = true;
+          }
+          else if (maxSec == 0 || testMode) {
+            root = MethodProcessorRunnable.codeToJava(classStruct, mt, md, varProc, counter, budget);
           }
           else {
-            MethodProcessorRunnable mtProc = new MethodProcessorRunnable(classStruct, mt, md, varProc, DecompilerContext.getCurrentContext());
+            MethodProcessorRunnable mtProc = new MethodProcessorRunnable(classStruct, mt, md, varProc, counter, budget, DecompilerContext.getCurrentContext());
 
             Thread mtThread = new Thread(mtProc, "Java decompiler");
             long stopAt = System.currentTimeMillis() + maxSec * 1000L;
@@ -98,7 +113,7 @@ public class ClassWrapper {
 
           int paramCount = 0;
           if (thisVar) {
-            varProc.getThisVars().put(new VarVersionPair(0, 0), classStruct.qualifiedName);
+            varProc.getThisVars().put(VarVersionPair.toLong(0, 0), classStruct.qualifiedName);
             paramCount = 1;
           }
           paramCount += md.params.length;
@@ -121,14 +136,24 @@ public class ClassWrapper {
           }
         }
       }
+      catch (ProcessingBudget.ExceededException e) {
+        String message = "Method " + mt.getName() + " " + mt.getDescriptor() + " couldn't be decompiled. " + e.getMessage();
+        DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.WARN);
+        isError = true;
+      }
       catch (Throwable t) {
         String message = "Method " + mt.getName() + " " + mt.getDescriptor() + " couldn't be decompiled.";
         DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.WARN, t);
+        if (t instanceof Exception && !(t instanceof InterruptedException)) {
+          failedMethods.put(classStruct, mt, md, varProc, t.toString());
+        }
         isError = true;
       }
 
       MethodWrapper methodWrapper = new MethodWrapper(root, varProc, mt, counter);
       methodWrapper.decompiledWithErrors = isError;
+      methodWrapper.bodyOmitted = bodyOmitted;
+      methodWrapper.processingNanos = System.nanoTime() - startNanos;
 
       methods.addWithKey(methodWrapper, InterpreterUtil.makeUniqueKey(mt.getName(), mt.getDescriptor()));
 
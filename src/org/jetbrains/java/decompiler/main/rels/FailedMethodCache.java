@@ -0,0 +1,286 @@
+package org.jetbrains.java.decompiler.main.rels;
+
+import org.jetbrains.java.decompiler.code.CodeConstants;
+import org.jetbrains.java.decompiler.code.ExceptionHandler;
+import org.jetbrains.java.decompiler.code.Instruction;
+import org.jetbrains.java.decompiler.code.InstructionSequence;
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.modules.decompiler.vars.VarProcessor;
+import org.jetbrains.java.decompiler.modules.decompiler.vars.VarTypeProcessor;
+import org.jetbrains.java.decompiler.modules.decompiler.vars.VarVersionPair;
+import org.jetbrains.java.decompiler.struct.StructClass;
+import org.jetbrains.java.decompiler.struct.StructMethod;
+import org.jetbrains.java.decompiler.struct.attr.StructGeneralAttribute;
+import org.jetbrains.java.decompiler.struct.attr.StructGenericSignatureAttribute;
+import org.jetbrains.java.decompiler.struct.consts.ConstantPool;
+import org.jetbrains.java.decompiler.struct.consts.LinkConstant;
+import org.jetbrains.java.decompiler.struct.consts.PooledConstant;
+import org.jetbrains.java.decompiler.struct.consts.PrimitiveConstant;
+import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
+import org.jetbrains.java.decompiler.struct.gen.VarType;
+import org.jetbrains.java.decompiler.util.BoundedCache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Remembers the methods of a run that could not be decompiled, by the content of their code, so that methods with the
+ * same code are not processed again only to fail the same way. Obfuscators and code generators copy the same bodies
+ * into many classes, and the methods that fail are the ones that cost the most, often after trying
+ * every pass there is.
+ * <p>
+ * A method is keyed by its instructions with the constant pool operands replaced by the constants they resolve to, its
+ * exception table, descriptor, access flags and bytecode version. The name of the declaring class is part of the key
+ * unless the method is static and its code does not mention the class, as processing may depend on the class otherwise.
+ * Methods whose processing reads more than that are not cached: those using bootstrap methods and those with local
+ * variable tables. A failure is only remembered if it left no variable names or modifiers behind that would show in the
+ * header of the method, so that a method skipped for a cached failure is written exactly as if it had failed itself.
+ * Failures must not depend on anything but the code, so exceeded processing limits are never cached by the callers:
+ * the time a method takes depends on the load of the machine, and the memory it allocates on the state of the JIT and
+ * of the heap, so whether an identical method exceeds a limit would depend on the order the methods are processed in.
+ * <p>
+ * Building a key reads the whole code of a method, so it is only built for the methods that share the descriptor, the
+ * access flags and the code length with a method that failed.
+ * <p>
+ * Only failures are cached. A decompiled method is not reused for another method with the same code, as its statements
+ * are bound to the variables of the method and are changed further by the processing of the class it belongs to.
+ */
+public final class FailedMethodCache {
+  private static final int CAPACITY = 4096;
+
+  private final BoundedCache<Long, Boolean> failedShapes = new BoundedCache<>(CAPACITY);
+  private final BoundedCache<String, Failure> failures = new BoundedCache<>(CAPACITY);
+
+  private static long getShape(StructMethod mt) {
+    long shape = mt.getDescriptor().hashCode();
+    shape = shape * 31 + mt.getAccessFlags();
+    shape = shape * 31 + mt.getLocalVariables();
+    return shape * 31 + mt.getCodeLength();
+  }
+
+  /**
+   * @return the key of the code of the method, or null if failures of the method are not cached
+   */
+  private static String getKey(StructClass cl, StructMethod mt) throws IOException {
+    if (!mt.containsCode() ||
+        mt.hasAttribute(StructGeneralAttribute.ATTRIBUTE_LOCAL_VARIABLE_TABLE) ||
+        mt.hasAttribute(StructGeneralAttribute.ATTRIBUTE_LOCAL_VARIABLE_TYPE_TABLE)) {
+      return null;
+    }
+
+    mt.expandData(cl);
+    InstructionSequence seq = mt.getInstructionSequence();
+    ConstantPool pool = cl.getPool();
+
+    KeyBuilder key = new KeyBuilder(cl.qualifiedName);
+    key.writeInt(mt.getBytecodeVersion());
+    key.writeInt(mt.getAccessFlags());
+    key.writeInt(mt.getLocalVariables());
+    key.writeString(mt.getName().startsWith("<") ? mt.getName() : "");
+    key.writeName(mt.getDescriptor());
+
+    StructGenericSignatureAttribute signature = mt.getAttribute(StructGeneralAttribute.ATTRIBUTE_SIGNATURE);
+    key.writeName(signature != null && DecompilerContext.getOption(IFernflowerPreferences.DECOMPILE_GENERIC_SIGNATURES) ?
+                  signature.getSignature() : "");
+
+    key.writeInt(seq.length());
+    for (int i = 0; i < seq.length(); i++) {
+      Instruction instr = seq.getInstr(i);
+      if (instr.opcode == CodeConstants.opc_invokedynamic) {
+        return null;
+      }
+
+      key.writeInt(instr.opcode);
+      key.writeInt(instr.wide ? 1 : 0);
+      key.writeInt(instr.operandsCount());
+      for (int j = 0; j < instr.operandsCount(); j++) {
+        if (j == 0 && usesPool(instr.opcode)) {
+          if (!key.writeConstant(pool.getConstant(instr.operand(0)), pool, instr.operand(0))) {
+            return null;
+          }
+        }
+        else {
+          key.writeInt(instr.operand(j));
+        }
+      }
+    }
+
+    key.writeInt(seq.getExceptionTable().getHandlers().size());
+    for (ExceptionHandler handler : seq.getExceptionTable().getHandlers()) {
+      key.writeInt(handler.from);
+      key.writeInt(handler.to);
+      key.writeInt(handler.handler);
+      key.writeName(handler.exceptionClass == null ? "" : handler.exceptionClass);
+    }
+
+    return key.build(!mt.hasModifier(CodeConstants.ACC_STATIC));
+  }
+
+  private static boolean usesPool(int opcode) {
+    switch (opcode) {
+      case CodeConstants.opc_ldc:
+      case CodeConstants.opc_ldc_w:
+      case CodeConstants.opc_ldc2_w:
+      case CodeConstants.opc_getstatic:
+      case CodeConstants.opc_putstatic:
+      case CodeConstants.opc_getfield:
+      case CodeConstants.opc_putfield:
+      case CodeConstants.opc_invokevirtual:
+      case CodeConstants.opc_invokespecial:
+      case CodeConstants.opc_invokestatic:
+      case CodeConstants.opc_invokeinterface:
+      case CodeConstants.opc_new:
+      case CodeConstants.opc_anewarray:
+      case CodeConstants.opc_checkcast:
+      case CodeConstants.opc_instanceof:
+      case CodeConstants.opc_multianewarray:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return the failure of a method with the same code as the given one, or null if none is known
+   */
+  public Failure get(StructClass cl, StructMethod mt) throws IOException {
+    if (!mt.containsCode() || failedShapes.get(getShape(mt), k -> null) == null) {
+      return null;
+    }
+    String key = getKey(cl, mt);
+    return key == null ? null : failures.get(key, k -> null);
+  }
+
+  /**
+   * Remembers that the method could not be decompiled, unless the variable processor of the method shows traces of the
+   * failed processing.
+   */
+  public void put(StructClass cl, StructMethod mt, MethodDescriptor md, VarProcessor varProc, String reason) {
+    int slots = mt.hasModifier(CodeConstants.ACC_STATIC) ? 0 : 1;
+    for (VarType param : md.params) {
+      slots += param.stackSize;
+    }
+    for (int index = 0; index < slots; index++) {
+      VarVersionPair pair = new VarVersionPair(index, 0);
+      if (varProc.getVarName(pair) != null || varProc.getVarFinal(pair) == VarTypeProcessor.VAR_EXPLICIT_FINAL) {
+        return;
+      }
+    }
+
+    String key;
+    try {
+      key = getKey(cl, mt);
+    }
+    catch (IOException e) {
+      return;
+    }
+    if (key == null) {
+      return;
+    }
+
+    Failure failure = new Failure(cl.qualifiedName + "." + mt.getName() + mt.getDescriptor(), reason);
+    failures.get(key, k -> failure);
+    failedShapes.get(getShape(mt), k -> Boolean.TRUE);
+  }
+
+  public static final class Failure {
+    private final String method;
+    private final String reason;
+
+    private Failure(String method, String reason) {
+      this.method = method;
+      this.reason = reason;
+    }
+
+    /**
+     * @return the qualified name and descriptor of the method that failed first
+     */
+    public String getMethod() {
+      return method;
+    }
+
+    public String getReason() {
+      return reason;
+    }
+  }
+
+  private static final class KeyBuilder {
+    private final String className;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private boolean mentionsClass;
+
+    private KeyBuilder(String className) {
+      this.className = className;
+    }
+
+    private void writeInt(int value) throws IOException {
+      out.writeInt(value);
+    }
+
+    private void writeString(String value) throws IOException {
+      out.writeInt(value.length());
+      out.writeChars(value);
+    }
+
+    private void writeName(String name) throws IOException {
+      mentionsClass |= name.contains(className);
+      writeString(name);
+    }
+
+    /**
+     * @return false if the constant is of a kind whose processing depends on more than the constant itself
+     */
+    private boolean writeConstant(PooledConstant constant, ConstantPool pool, int index) throws IOException {
+      if (constant == null) {
+        return false;
+      }
+
+      out.writeInt(constant.type);
+      switch (constant.type) {
+        case CodeConstants.CONSTANT_Integer:
+        case CodeConstants.CONSTANT_Float:
+        case CodeConstants.CONSTANT_Long:
+        case CodeConstants.CONSTANT_Double:
+          writeString(String.valueOf(((PrimitiveConstant)constant).value));
+          return true;
+        case CodeConstants.CONSTANT_String:
+        case CodeConstants.CONSTANT_Class:
+        case CodeConstants.CONSTANT_MethodType:
+          writeName(pool.getPrimitiveConstant(index).getString());
+          return true;
+        case CodeConstants.CONSTANT_Fieldref:
+        case CodeConstants.CONSTANT_Methodref:
+        case CodeConstants.CONSTANT_InterfaceMethodref:
+        case CodeConstants.CONSTANT_MethodHandle:
+          LinkConstant link = pool.getLinkConstant(index);
+          writeInt(link.type == CodeConstants.CONSTANT_MethodHandle ? link.index1 : 0);
+          writeName(link.classname);
+          writeName(link.elementname);
+          writeName(link.descriptor);
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    private String build(boolean dependsOnClass) throws IOException {
+      if (dependsOnClass || mentionsClass) {
+        writeString(className);
+      }
+      out.flush();
+
+      try {
+        return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray()));
+      }
+      catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
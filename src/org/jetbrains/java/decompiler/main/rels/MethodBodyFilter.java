@@ -0,0 +1,136 @@
+package org.jetbrains.java.decompiler.main.rels;
+
+import org.jetbrains.java.decompiler.code.CodeConstants;
+import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.struct.StructClass;
+import org.jetbrains.java.decompiler.struct.StructMethod;
+import org.jetbrains.java.decompiler.struct.attr.StructEnclosingMethodAttribute;
+import org.jetbrains.java.decompiler.struct.attr.StructGeneralAttribute;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which method bodies are decompiled, for output that only needs the signatures of a class or a few of its
+ * methods. The bodies of the other methods are not processed at all and are written as stubs.
+ * <p>
+ * The filter is a comma separated list of patterns, in which {@code *} matches any sequence of characters. A pattern
+ * containing a parenthesis is matched against the name and descriptor of a method, as in {@code get*()I}, any other
+ * pattern against the name alone. The static initializer of an enumeration is always decompiled, as it declares the
+ * constants of the enumeration. Unless all bodies are omitted, the patterns only select among the methods of top level
+ * and member classes. The body of a lambda and the methods of a class declared in a method body are decompiled along
+ * with the enclosing body, and other synthetic methods and the methods of synthetic classes always, as the bodies
+ * selected may be written with their help.
+ */
+public final class MethodBodyFilter {
+  private final boolean omitAll;
+  private final List<Pattern> names = new ArrayList<>();
+  private final List<Pattern> signatures = new ArrayList<>();
+
+  private MethodBodyFilter(boolean omitAll, String filter) {
+    this.omitAll = omitAll;
+
+    for (String pattern : filter.split(",")) {
+      pattern = pattern.trim();
+      if (!pattern.isEmpty()) {
+        (pattern.indexOf('(') >= 0 ? signatures : names).add(toRegex(pattern));
+      }
+    }
+  }
+
+  public static MethodBodyFilter fromOptions() {
+    Object filter = DecompilerContext.getProperty(IFernflowerPreferences.METHOD_BODY_FILTER);
+    return new MethodBodyFilter(DecompilerContext.getOption(IFernflowerPreferences.OMIT_METHOD_BODIES),
+                                filter == null ? "" : filter.toString());
+  }
+
+  private static Pattern toRegex(String pattern) {
+    StringBuilder regex = new StringBuilder();
+    int start = 0;
+    for (int star = pattern.indexOf('*'); star >= 0; star = pattern.indexOf('*', start)) {
+      regex.append(Pattern.quote(pattern.substring(start, star))).append(".*");
+      start = star + 1;
+    }
+    regex.append(Pattern.quote(pattern.substring(start)));
+    return Pattern.compile(regex.toString());
+  }
+
+  /**
+   * @return whether all method bodies are decompiled
+   */
+  public boolean isEmpty() {
+    return !omitAll && names.isEmpty() && signatures.isEmpty();
+  }
+
+  public boolean isBodyNeeded(ClassNode node, StructMethod mt) {
+    StructClass cl = node.classStruct;
+    if (isEmpty() || CodeConstants.CLINIT_NAME.equals(mt.getName()) && cl.hasModifier(CodeConstants.ACC_ENUM)) {
+      return true;
+    }
+    if (omitAll) {
+      return false;
+    }
+
+    // the body of a lambda is written within the method creating it
+    String key = InterpreterUtil.makeUniqueKey(mt.getName(), mt.getDescriptor());
+    for (ClassNode nested : node.nested) {
+      if (nested.type == ClassNode.CLASS_LAMBDA && !nested.lambdaInformation.is_method_reference &&
+          key.equals(nested.lambdaInformation.content_method_key)) {
+        StructMethod enclosing = cl.getMethod(nested.enclosingMethod);
+        return enclosing != null && isBodyNeeded(node, enclosing);
+      }
+    }
+
+    if (cl.isSynthetic() || mt.isSynthetic()) {
+      return true;
+    }
+    if (node.type == ClassNode.CLASS_ANONYMOUS || node.type == ClassNode.CLASS_LOCAL) {
+      return isEnclosingBodyNeeded(cl);
+    }
+
+    for (Pattern pattern : names) {
+      if (pattern.matcher(mt.getName()).matches()) {
+        return true;
+      }
+    }
+    if (!signatures.isEmpty()) {
+      String signature = mt.getName() + mt.getDescriptor();
+      for (Pattern pattern : signatures) {
+        if (pattern.matcher(signature).matches()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A class declared in a method body is only decompiled along with that body, as its processing depends on the one of
+   * the body. Without an enclosing method the class is declared in an initializer, which may be any constructor, so it is
+   * decompiled along with any of them.
+   */
+  private boolean isEnclosingBodyNeeded(StructClass cl) {
+    StructEnclosingMethodAttribute attr = cl.getAttribute(StructGeneralAttribute.ATTRIBUTE_ENCLOSING_METHOD);
+    ClassNode enclosing = attr == null ? null : DecompilerContext.getClassProcessor().getMapRootClasses().get(attr.getClassName());
+    if (enclosing == null) {
+      return false;
+    }
+
+    if (attr.getMethodName() != null) {
+      StructMethod method = enclosing.classStruct.getMethod(attr.getMethodName(), attr.getMethodDescriptor());
+      return method != null && isBodyNeeded(enclosing, method);
+    }
+
+    for (StructMethod method : enclosing.classStruct.getMethods()) {
+      if ((CodeConstants.INIT_NAME.equals(method.getName()) || CodeConstants.CLINIT_NAME.equals(method.getName())) &&
+          isBodyNeeded(enclosing, method)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
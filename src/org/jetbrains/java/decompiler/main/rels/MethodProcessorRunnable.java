@@ -6,6 +6,7 @@ import org.jetbrains.java.decompiler.code.InstructionSequence;
 import org.jetbrains.java.decompiler.code.cfg.ControlFlowGraph;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
+import org.jetbrains.java.decompiler.main.collectors.PassStatistics;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.modules.code.DeadCodeHelper;
@@ -24,6 +25,11 @@ import org.jetbrains.java.decompiler.struct.StructMethod;
 import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class MethodProcessorRunnable implements Runnable {
   public final Object lock = new Object();
@@ -32,6 +38,8 @@ public class MethodProcessorRunnable implements Runnable {
   private final StructMethod method;
   private final MethodDescriptor methodDescriptor;
   private final VarProcessor varProc;
+  private final CounterContainer counters;
+  private final ProcessingBudget budget;
   private final DecompilerContext parentContext;
 
   private volatile RootStatement root;
@@ -42,11 +50,15 @@ public class MethodProcessorRunnable implements Runnable {
                                  StructMethod method,
                                  MethodDescriptor methodDescriptor,
                                  VarProcessor varProc,
+                                 CounterContainer counters,
+                                 ProcessingBudget budget,
                                  DecompilerContext parentContext) {
     this.klass = klass;
     this.method = method;
     this.methodDescriptor = methodDescriptor;
     this.varProc = varProc;
+    this.counters = counters;
+    this.budget = budget;
     this.parentContext = parentContext;
   }
 
@@ -56,8 +68,8 @@ public class MethodProcessorRunnable implements Runnable {
     root = null;
 
     try {
-      DecompilerContext.setCurrentContext(parentContext);
-      root = codeToJava(klass, method, methodDescriptor, varProc);
+      DecompilerContext.setCurrentContext(parentContext.forMethod(varProc));
+      root = codeToJava(klass, method, methodDescriptor, varProc, counters, budget);
     }
     catch (Throwable t) {
       error = t;
@@ -72,9 +84,20 @@ public class MethodProcessorRunnable implements Runnable {
     }
   }
 
-  public static RootStatement codeToJava(StructClass cl, StructMethod mt, MethodDescriptor md, VarProcessor varProc) throws IOException {
+  /**
+   * @param counters the id counters of the method, handed to every statement and exprent created for it
+   * @param budget the limits of the class the method belongs to, checked between the passes
+   */
+  public static RootStatement codeToJava(StructClass cl,
+                                         StructMethod mt,
+                                         MethodDescriptor md,
+                                         VarProcessor varProc,
+                                         CounterContainer counters,
+                                         ProcessingBudget budget) throws IOException {
     boolean isInitializer = CodeConstants.CLINIT_NAME.equals(mt.getName()); // for now static initializer only
 
+    PassIterations iterations = new PassIterations(cl, mt, budget);
+
     mt.expandData(cl);
     InstructionSequence seq = mt.getInstructionSequence();
     ControlFlowGraph graph = new ControlFlowGraph(seq);
@@ -110,7 +133,9 @@ public class MethodProcessorRunnable implements Runnable {
 
     DeadCodeHelper.mergeBasicBlocks(graph);
 
-    DecompilerContext.getCounterContainer().setCounter(CounterContainer.VAR_COUNTER, mt.getLocalVariables());
+    iterations.checkBudget();
+
+    counters.setCounter(CounterContainer.VAR_COUNTER, mt.getLocalVariables());
 
     if (ExceptionDeobfuscator.hasObfuscatedExceptions(graph)) {
       DecompilerContext.getLogger().writeMessage("Heavily obfuscated exception ranges found!", IFernflowerLogger.Severity.WARN);
@@ -120,11 +145,13 @@ public class MethodProcessorRunnable implements Runnable {
       ExceptionDeobfuscator.insertDummyExceptionHandlerBlocks(graph, mt.getBytecodeVersion());
     }
 
-    RootStatement root = DomHelper.parseGraph(graph, mt);
+    RootStatement root = DomHelper.parseGraph(graph, mt, counters);
+
+    iterations.checkBudget();
 
     FinallyProcessor fProc = new FinallyProcessor(md, varProc);
-    while (fProc.iterateGraph(cl, mt, root, graph)) {
-      root = DomHelper.parseGraph(graph, mt);
+    while (iterations.next("finally") && fProc.iterateGraph(cl, mt, root, graph)) {
+      root = DomHelper.parseGraph(graph, mt, counters);
     }
 
     // remove synchronized exception handler
@@ -137,27 +164,34 @@ public class MethodProcessorRunnable implements Runnable {
 
     ClearStructHelper.clearStatements(root);
 
-    ExprProcessor proc = new ExprProcessor(md, varProc);
+    iterations.checkBudget();
+
+    ExprProcessor proc = new ExprProcessor(md, varProc, counters);
     proc.processStatement(root, cl);
 
     SequenceHelper.condenseSequences(root);
 
     StackVarsProcessor stackProc = new StackVarsProcessor();
 
-    do {
+    while (iterations.next("stack vars")) {
       stackProc.simplifyStackVars(root, mt, cl);
       varProc.setVarVersions(root);
+
+      if (!new PPandMMHelper(varProc).findPPandMM(root)) {
+        break;
+      }
     }
-    while (new PPandMMHelper(varProc).findPPandMM(root));
 
     if (cl.isVersion(CodeConstants.BYTECODE_JAVA_9)) {
       ConcatenationHelper.simplifyStringConcat(root);
     }
 
-    while (true) {
+    // every iteration starts from a consistent structure, so stopping at the limit keeps the best one found so far
+    while (iterations.next("main")) {
       LabelHelper.cleanUpEdges(root);
 
-      while (true) {
+      iterations.restart("loops and ifs");
+      while (iterations.next("loops and ifs")) {
         if (EliminateLoopsHelper.eliminateLoops(root, cl)) {
           continue;
         }
@@ -216,6 +250,8 @@ public class MethodProcessorRunnable implements Runnable {
 
     ExitHelper.removeRedundantReturns(root);
 
+    iterations.checkBudget();
+
     SecondaryFunctionsHelper.identifySecondaryFunctions(root, varProc);
 
     cleanSynchronizedVar(root);
@@ -231,6 +267,8 @@ public class MethodProcessorRunnable implements Runnable {
 
     mt.releaseResources();
 
+    iterations.finish(root);
+
     return root;
   }
 
@@ -244,6 +282,71 @@ public class MethodProcessorRunnable implements Runnable {
     return finished;
   }
 
+  /**
+   * Counts the iterations of the fixpoint loops in {@link #codeToJava} and stops them once
+   * {@link IFernflowerPreferences#MAX_PASS_ITERATIONS} is exceeded, as some methods make the passes oscillate forever.
+   * Every iteration also checks the processing budget.
+   */
+  private static final class PassIterations {
+    private final String method;
+    private final int limit;
+    private final ProcessingBudget.Method budget;
+    // iterations of each loop over the whole method, and of the current run of each loop
+    private final Map<String, Integer> counts = new LinkedHashMap<>();
+    private final Map<String, Integer> runCounts = new HashMap<>();
+    private final List<String> capped = new ArrayList<>();
+
+    private PassIterations(StructClass cl, StructMethod mt, ProcessingBudget budget) {
+      this.method = cl.qualifiedName + "." + mt.getName() + mt.getDescriptor();
+      Object limit = DecompilerContext.getProperty(IFernflowerPreferences.MAX_PASS_ITERATIONS);
+      this.limit = limit == null ? 0 : Integer.parseInt(limit.toString());
+      this.budget = budget.startMethod(method);
+    }
+
+    private void checkBudget() {
+      budget.check();
+    }
+
+    /**
+     * Starts a new run of a loop nested in another one, which is limited on its own.
+     */
+    private void restart(String loop) {
+      runCounts.remove(loop);
+    }
+
+    /**
+     * @return whether another iteration of the given loop may be started
+     */
+    private boolean next(String loop) {
+      budget.check();
+
+      int count = runCounts.merge(loop, 1, Integer::sum);
+      if (limit <= 0 || count <= limit) {
+        counts.merge(loop, 1, Integer::sum);
+        return true;
+      }
+
+      runCounts.put(loop, limit);
+      if (!capped.contains(loop)) {
+        capped.add(loop);
+        String message = "Method " + method + " did not settle after " + limit + " iterations of " + loop + ", keeping current structure";
+        DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.WARN);
+      }
+      return false;
+    }
+
+    private void finish(RootStatement root) {
+      for (String loop : capped) {
+        root.addComment("Iteration limit of " + loop + " reached (" + limit + "), the structure of this method may be incomplete");
+      }
+
+      PassStatistics statistics = (PassStatistics)DecompilerContext.getProperty(DecompilerContext.PASS_STATISTICS);
+      if (statistics != null) {
+        statistics.record(method, counts, capped);
+      }
+    }
+  }
+
   public static void cleanSynchronizedVar(Statement stat) {
     for (Statement st : stat.getStats()) {
       cleanSynchronizedVar(st);
@@ -23,6 +23,8 @@ public class MethodWrapper {
   public DirectGraph graph;
   public List<VarVersionPair> synthParameters;
   public boolean decompiledWithErrors;
+  public boolean bodyOmitted;
+  public long processingNanos;
 
   public MethodWrapper(RootStatement root, VarProcessor varproc, StructMethod methodStruct, CounterContainer counter) {
     this.root = root;
@@ -2,7 +2,6 @@
 package org.jetbrains.java.decompiler.main.rels;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
-import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
@@ -33,6 +32,7 @@ import org.jetbrains.java.decompiler.util.InterpreterUtil;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.stream.Stream;
 
 public class NestedClassProcessor {
   public void processClass(ClassNode root, ClassNode node) {
@@ -80,7 +80,7 @@ public class NestedClassProcessor {
 
         if (child.type == ClassNode.CLASS_LOCAL && child.enclosingMethod != null) {
           MethodWrapper enclosingMethodWrapper = node.getWrapper().getMethods().getWithKey(child.enclosingMethod);
-          if(enclosingMethodWrapper != null) { // e.g. in case of switch-on-enum. FIXME: some proper handling of multiple enclosing classes 
+          if(enclosingMethodWrapper != null && enclosingMethodWrapper.root != null) { // e.g. in case of switch-on-enum. FIXME: some proper handling of multiple enclosing classes 
             setLocalClassDefinition(enclosingMethodWrapper, child);
           }
         }
@@ -204,9 +204,8 @@ public class NestedClassProcessor {
     }
   }*/
 
-  private Statement getNewEmptyStatement() {
-    BasicBlockStatement bstat = new BasicBlockStatement(new BasicBlock(
-      DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER)));
+  private Statement getNewEmptyStatement(CounterContainer counters) {
+    BasicBlockStatement bstat = new BasicBlockStatement(counters);
     bstat.setExprents(new ArrayList<Exprent>());
     return bstat;
   }
@@ -218,6 +217,9 @@ public class NestedClassProcessor {
 
     MethodWrapper method = parent.getWrapper().getMethods().getWithKey(child.lambdaInformation.content_method_key);
     MethodWrapper enclosingMethod = parent.getWrapper().getMethods().getWithKey(child.enclosingMethod);
+    if (method.root == null || enclosingMethod.root == null) { // not decompiled
+      return;
+    }
 
     MethodDescriptor md_lambda = MethodDescriptor.parseDescriptor(child.lambdaInformation.method_descriptor);
     MethodDescriptor md_content = MethodDescriptor.parseDescriptor(child.lambdaInformation.content_method_descriptor);
@@ -232,7 +234,7 @@ public class NestedClassProcessor {
 
     // this pointer
     if (!is_static_lambda_content && DecompilerContext.getOption(IFernflowerPreferences.LAMBDA_TO_ANONYMOUS_CLASS)) {
-      method.varproc.getThisVars().put(new VarVersionPair(0, 0), parent_class_name);
+      method.varproc.getThisVars().put(VarVersionPair.toLong(0, 0), parent_class_name);
       method.varproc.setVarName(new VarVersionPair(0, 0), parent.simpleName + ".this");
     }
 
@@ -339,7 +341,10 @@ public class NestedClassProcessor {
 
         boolean hasEnclosing = !setEnclosing.isEmpty() && insertNestedClass(root, child);
 
-        if (!hasEnclosing) {
+        // a class declared in an omitted method body is not referenced, as the body is not written
+        boolean bodyOmitted = Stream.concat(node.getWrapper().getMethods().stream(), child.getWrapper().getMethods().stream())
+          .anyMatch(method -> method.bodyOmitted);
+        if (!hasEnclosing && !bodyOmitted) {
           if (child.type == ClassNode.CLASS_ANONYMOUS) {
             String message = "Unreferenced anonymous class " + child.classStruct.qualifiedName + "!";
             DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.WARN);
@@ -392,12 +397,19 @@ public class NestedClassProcessor {
 
         Map<String, List<VarFieldPair>> mask = getMaskLocalVars(nd.getWrapper());
         if (mask.isEmpty()) {
-          String message = "Nested class " + nd.classStruct.qualifiedName + " has no constructor!";
-          DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.WARN);
+          // constructors are only missing by mistake if their bodies were not omitted on purpose
+          if (nd.getWrapper().getMethods().stream().noneMatch(method -> method.bodyOmitted)) {
+            String message = "Nested class " + nd.classStruct.qualifiedName + " has no constructor!";
+            DecompilerContext.getLogger().writeMessage(message, IFernflowerLogger.Severity.WARN);
+          }
         }
         else {
           mapVarMasks.put(nd.classStruct.qualifiedName, mask);
         }
+
+        if (nd.type == ClassNode.CLASS_MEMBER) {
+          setOmittedConstructorMasks(nd);
+        }
       }
     }
 
@@ -586,7 +598,7 @@ public class NestedClassProcessor {
                 if (varLVT != null) {
                   varLVT = varLVT.rename(varName);
                 }
-                method.varproc.getThisVars().put(newVar, parent.classStruct.qualifiedName);
+                method.varproc.getThisVars().put(newVar.toLong(), parent.classStruct.qualifiedName);
               }
 
               mapNewNames.put(newVar, varName);
@@ -630,7 +642,7 @@ public class NestedClassProcessor {
               if (varLVT != null) {
                 varLVT = varLVT.rename(varName);
               }
-              method.varproc.getThisVars().put(newVar, classNode.parent.classStruct.qualifiedName);
+              method.varproc.getThisVars().put(newVar.toLong(), classNode.parent.classStruct.qualifiedName);
             }
 
             mapNewNames.put(newVar, varName);
@@ -702,7 +714,7 @@ public class NestedClassProcessor {
               if (mapParamsToNewVars.containsKey(varIndex)) {
                 VarVersionPair newVar = mapParamsToNewVars.get(varIndex);
                 method.varproc.getExternalVars().add(newVar);
-                VarExprent ret = new VarExprent(newVar.var, method.varproc.getVarType(newVar), method.varproc, exprent.bytecode);
+                VarExprent ret = new VarExprent(method.counter, newVar.var, method.varproc.getVarType(newVar), method.varproc, exprent.bytecode);
                 LocalVariable lvt = method.varproc.getVarLVT(newVar);
                 if (lvt != null) {
                   ret.setLVT(lvt);
@@ -718,7 +730,7 @@ public class NestedClassProcessor {
                 //        mapFieldsToNewVars.containsKey(key)) {
                 VarVersionPair newVar = mapFieldsToNewVars.get(key);
                 method.varproc.getExternalVars().add(newVar);
-                VarExprent ret = new VarExprent(newVar.var, method.varproc.getVarType(newVar), method.varproc, exprent.bytecode);
+                VarExprent ret = new VarExprent(method.counter, newVar.var, method.varproc.getVarType(newVar), method.varproc, exprent.bytecode);
                 LocalVariable lvt = method.varproc.getVarLVT(newVar);
                 if (lvt != null) {
                   ret.setLVT(lvt);
@@ -748,6 +760,23 @@ public class NestedClassProcessor {
     }
   }
 
+  /**
+   * The parameters of a constructor without a body are not known to be assigned to synthetic fields, except for the
+   * enclosing instance, which is always the first parameter of a constructor of a non-static member class.
+   */
+  private static void setOmittedConstructorMasks(ClassNode node) {
+    for (MethodWrapper method : node.getWrapper().getMethods()) {
+      if (method.bodyOmitted && CodeConstants.INIT_NAME.equals(method.methodStruct.getName())) {
+        MethodDescriptor md = MethodDescriptor.parseDescriptor(method.methodStruct.getDescriptor());
+        if (md.params.length > 0) {
+          List<VarVersionPair> mask = new ArrayList<>(Collections.nCopies(md.params.length, null));
+          mask.set(0, new VarVersionPair(-1, 0));
+          method.synthParameters = mask;
+        }
+      }
+    }
+  }
+
   private static Map<String, List<VarFieldPair>> getMaskLocalVars(ClassWrapper wrapper) {
     Map<String, List<VarFieldPair>> mapMasks = new HashMap<>();
 
@@ -939,7 +968,7 @@ public class NestedClassProcessor {
       addIndex++;
     }
 
-    VarExprent var = new VarExprent(method.counter.getCounterAndIncrement(CounterContainer.VAR_COUNTER), classType, method.varproc);
+    VarExprent var = new VarExprent(method.counter, method.counter.getCounterAndIncrement(CounterContainer.VAR_COUNTER), classType, method.varproc);
     var.setDefinition(true);
     var.setClassDef(true);
 
@@ -1034,12 +1063,9 @@ public class NestedClassProcessor {
   }
 
   private static boolean searchForClass(Exprent exprent, VarType classType) {
-    List<Exprent> lst = exprent.getAllExprents(true);
-    lst.add(exprent);
-
     String classname = classType.value;
 
-    for (Exprent expr : lst) {
+    return !exprent.walk(expr -> {
       boolean res = false;
 
       switch (expr.type) {
@@ -1068,12 +1094,8 @@ public class NestedClassProcessor {
           }
       }
 
-      if (res) {
-        return true;
-      }
-    }
-
-    return false;
+      return !res;
+    });
   }
 
   private static class VarFieldPair {
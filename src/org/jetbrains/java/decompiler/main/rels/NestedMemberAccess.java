@@ -363,7 +363,7 @@ public class NestedMemberAccess {
           }
 
           int index = methdest.counter.getCounterAndIncrement(CounterContainer.VAR_COUNTER);
-          VarExprent ret = new VarExprent(index, var.getVarType(), methdest.varproc);
+          VarExprent ret = new VarExprent(methdest.counter, index, var.getVarType(), methdest.varproc);
           methdest.varproc.setVarName(new VarVersionPair(index, 0), varname);
 
           retexprent = ret;
@@ -0,0 +1,140 @@
+package org.jetbrains.java.decompiler.main.rels;
+
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the memory allocated and the time spent while processing the methods of a top level class, together with its
+ * nested classes, and while processing each single method. The limits are checked between the passes of method
+ * processing; processing a method that exceeds one is aborted with {@link ExceededException}, and the method is written
+ * as not decompiled. Once a class limit is exceeded, the remaining methods of the class are not processed at all.
+ * <p>
+ * Allocated memory is measured with the allocation counters of {@link ThreadMXBean}, if the JVM supports them.
+ */
+public class ProcessingBudget {
+  private static final long MEGABYTE = 1024L * 1024L;
+  private static final long SECOND = 1_000_000_000L;
+
+  private static final com.sun.management.ThreadMXBean THREADS = getThreadMXBean();
+
+  private final long maxMethodBytes;
+  private final long maxMethodNanos;
+  private final long maxClassBytes;
+  private final long maxClassNanos;
+  private final long classStart = System.nanoTime();
+  private final AtomicLong classBytes = new AtomicLong();
+
+  public ProcessingBudget() {
+    boolean measureAllocation = THREADS != null;
+    maxMethodBytes = measureAllocation ? getLimit(IFernflowerPreferences.MAX_METHOD_ALLOCATION) * MEGABYTE : 0;
+    maxMethodNanos = getLimit(IFernflowerPreferences.MAX_METHOD_TIME) * SECOND;
+    maxClassBytes = measureAllocation ? getLimit(IFernflowerPreferences.MAX_CLASS_ALLOCATION) * MEGABYTE : 0;
+    maxClassNanos = getLimit(IFernflowerPreferences.MAX_CLASS_TIME) * SECOND;
+  }
+
+  private static long getLimit(String option) {
+    Object value = DecompilerContext.getProperty(option);
+    return value == null ? 0 : Long.parseLong(value.toString());
+  }
+
+  /**
+   * Starts measuring a method that is processed on the current thread.
+   */
+  public Method startMethod(String method) {
+    Method budget = new Method(method);
+    budget.check();
+    return budget;
+  }
+
+  public final class Method {
+    private final String method;
+    private final long threadId = Thread.currentThread().getId();
+    private final long startNanos = System.nanoTime();
+    private final long startBytes;
+    private long lastBytes;
+
+    private Method(String method) {
+      this.method = method;
+      this.startBytes = this.lastBytes = maxMethodBytes > 0 || maxClassBytes > 0 ? THREADS.getThreadAllocatedBytes(threadId) : 0;
+    }
+
+    /**
+     * @throws ExceededException if a limit of the method or of its class is exceeded
+     */
+    public void check() {
+      long now = System.nanoTime();
+      if (maxMethodNanos > 0 && now - startNanos > maxMethodNanos) {
+        throw new ExceededException("Method " + method + " exceeded the processing time limit of " + maxMethodNanos / SECOND + " s", false, true);
+      }
+      if (maxClassNanos > 0 && now - classStart > maxClassNanos) {
+        throw new ExceededException("Class processing time limit of " + maxClassNanos / SECOND + " s exceeded at method " + method, true, true);
+      }
+
+      if (maxMethodBytes > 0 || maxClassBytes > 0) {
+        long bytes = THREADS.getThreadAllocatedBytes(threadId);
+        long total = classBytes.addAndGet(bytes - lastBytes);
+        lastBytes = bytes;
+
+        if (maxMethodBytes > 0 && bytes - startBytes > maxMethodBytes) {
+          throw new ExceededException("Method " + method + " exceeded the allocation limit of " + maxMethodBytes / MEGABYTE + " MB");
+        }
+        if (maxClassBytes > 0 && total > maxClassBytes) {
+          throw new ExceededException("Class allocation limit of " + maxClassBytes / MEGABYTE + " MB exceeded at method " + method, true);
+        }
+      }
+    }
+  }
+
+  public static class ExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean classLimit;
+    private final boolean timeLimit;
+
+    public ExceededException(String message) {
+      this(message, false);
+    }
+
+    public ExceededException(String message, boolean classLimit) {
+      this(message, classLimit, false);
+    }
+
+    public ExceededException(String message, boolean classLimit, boolean timeLimit) {
+      super(message);
+      this.classLimit = classLimit;
+      this.timeLimit = timeLimit;
+    }
+
+    /**
+     * @return whether a limit of the class was exceeded rather than one of the method
+     */
+    public boolean isClassLimit() {
+      return classLimit;
+    }
+
+    /**
+     * @return whether a time limit was exceeded rather than an allocation limit
+     */
+    public boolean isTimeLimit() {
+      return timeLimit;
+    }
+  }
+
+  private static com.sun.management.ThreadMXBean getThreadMXBean() {
+    try {
+      ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)bean;
+        if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+          return threads;
+        }
+      }
+    }
+    catch (LinkageError | SecurityException ignore) { }
+    return null;
+  }
+}
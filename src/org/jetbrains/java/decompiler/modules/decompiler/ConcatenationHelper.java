@@ -90,7 +90,7 @@ public final class ConcatenationHelper {
           // Make single variable concat nicer by appending the string at the end
           int index = parameters.size() == 1 ? 1 : 0;
 
-          parameters.add(index, new ConstExprent(VarType.VARTYPE_STRING, "", expr.bytecode));
+          parameters.add(index, new ConstExprent(expr.getCounters(), VarType.VARTYPE_STRING, "", expr.bytecode));
         }
 
         if (parameters.size() >= 2) {
@@ -149,7 +149,7 @@ public final class ConcatenationHelper {
     }
 
     if (first2str == 0) {
-      lstOperands.add(0, new ConstExprent(VarType.VARTYPE_STRING, "", expr.bytecode));
+      lstOperands.add(0, new ConstExprent(expr.getCounters(), VarType.VARTYPE_STRING, "", expr.bytecode));
     }
 
     // remove redundant String.valueOf
@@ -178,7 +178,7 @@ public final class ConcatenationHelper {
     Exprent func = lstOperands.get(0);
 
     for (int i = 1; i < lstOperands.size(); i++) {
-      func = new FunctionExprent(FunctionExprent.FUNCTION_STR_CONCAT, Arrays.asList(func, lstOperands.get(i)), bytecode);
+      func = new FunctionExprent(func.getCounters(), FunctionExprent.FUNCTION_STR_CONCAT, Arrays.asList(func, lstOperands.get(i)), bytecode);
     }
 
     return func;
@@ -205,7 +205,7 @@ public final class ConcatenationHelper {
             // Detected a special tag, flush all accumulated characters
             // as a constant first:
             if (acc.length() > 0) {
-              res.add(new ConstExprent(VarType.VARTYPE_STRING, acc.toString(), expr.bytecode));
+              res.add(new ConstExprent(expr.getCounters(), VarType.VARTYPE_STRING, acc.toString(), expr.bytecode));
               acc.setLength(0);
             }
             if (c == TAG_CONST) {
@@ -224,7 +224,7 @@ public final class ConcatenationHelper {
 
         // Flush the remaining characters as constant:
         if (acc.length() > 0) {
-          res.add(new ConstExprent(VarType.VARTYPE_STRING, acc.toString(), expr.bytecode));
+          res.add(new ConstExprent(expr.getCounters(), VarType.VARTYPE_STRING, acc.toString(), expr.bytecode));
         }
 
         return res;
@@ -5,9 +5,12 @@ import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
 import org.jetbrains.java.decompiler.code.cfg.ControlFlowGraph;
 import org.jetbrains.java.decompiler.code.cfg.ExceptionRangeCFG;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.modules.decompiler.decompose.FastExtendedPostdominanceHelper;
 import org.jetbrains.java.decompiler.modules.decompiler.deobfuscator.IrreducibleCFGDeobfuscator;
+import org.jetbrains.java.decompiler.modules.decompiler.deobfuscator.IrreducibleCFGDeobfuscator.SplittingBudget;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.*;
 import org.jetbrains.java.decompiler.struct.StructMethod;
 import org.jetbrains.java.decompiler.util.DotExporter;
@@ -21,20 +24,20 @@ import java.util.*;
 public final class DomHelper {
 
 
-  private static RootStatement graphToStatement(ControlFlowGraph graph) {
+  private static RootStatement graphToStatement(ControlFlowGraph graph, CounterContainer counters) {
 
     VBStyleCollection<Statement, Integer> stats = new VBStyleCollection<>();
     VBStyleCollection<BasicBlock, Integer> blocks = graph.getBlocks();
 
     for (BasicBlock block : blocks) {
-      stats.addWithKey(new BasicBlockStatement(block), block.id);
+      stats.addWithKey(new BasicBlockStatement(block, counters), block.id);
     }
 
     BasicBlock firstblock = graph.getFirst();
     // head statement
     Statement firstst = stats.getWithKey(firstblock.id);
     // dummy exit statement
-    DummyExitStatement dummyexit = new DummyExitStatement();
+    DummyExitStatement dummyexit = new DummyExitStatement(counters);
 
     Statement general;
     if (stats.size() > 1 || firstblock.isSuccessor(firstblock)) { // multiple basic blocks or an infinite loop of one block
@@ -191,11 +194,13 @@ public final class DomHelper {
     return ret;
   }
 
-  public static RootStatement parseGraph(ControlFlowGraph graph, StructMethod mt) {
+  public static RootStatement parseGraph(ControlFlowGraph graph, StructMethod mt, CounterContainer counters) {
 
-    RootStatement root = graphToStatement(graph);
+    RootStatement root = graphToStatement(graph, counters);
 
-    if (!processStatement(root, new LinkedHashMap<>())) {
+    SplittingBudget budget = new SplittingBudget(
+      Long.parseLong(DecompilerContext.getProperty(IFernflowerPreferences.MAX_SPLIT_INSTRUCTIONS).toString()));
+    if (!processStatement(root, new LinkedHashMap<>(), budget)) {
       DotExporter.toDotFile(graph, mt, "parseGraphFail", true);
       throw new RuntimeException("parsing failure!");
     }
@@ -291,7 +296,7 @@ public final class DomHelper {
     }
   }
 
-  private static boolean processStatement(Statement general, HashMap<Integer, Set<Integer>> mapExtPost) {
+  private static boolean processStatement(Statement general, HashMap<Integer, Set<Integer>> mapExtPost, SplittingBudget budget) {
 
     if (general.type == Statement.TYPE_ROOT) {
       Statement stat = general.getFirst();
@@ -299,7 +304,7 @@ public final class DomHelper {
         return true;
       }
       else {
-        boolean complete = processStatement(stat, mapExtPost);
+        boolean complete = processStatement(stat, mapExtPost, budget);
         if (complete) {
           // replace general purpose statement with simple one
           general.replaceStatement(stat, stat.getFirst());
@@ -324,7 +329,12 @@ public final class DomHelper {
 
           // take care of irreducible control flow graphs
           if (IrreducibleCFGDeobfuscator.isStatementIrreducible(general)) {
-            if (!IrreducibleCFGDeobfuscator.splitIrreducibleNode(general)) {
+            if (!IrreducibleCFGDeobfuscator.splitIrreducibleNode(general, budget)) {
+              if (budget.isExceeded()) {
+                DecompilerContext.getLogger().writeMessage("Irreducible statement cannot be decomposed within " + budget.getLimit() +
+                                                           " duplicated instructions!", IFernflowerLogger.Severity.ERROR);
+                return false;
+              }
               DecompilerContext.getLogger().writeMessage("Irreducible statement cannot be decomposed!", IFernflowerLogger.Severity.ERROR);
               break;
             }
@@ -361,7 +371,7 @@ public final class DomHelper {
             Statement stat = findGeneralStatement(general, forceall, mapExtPost);
 
             if (stat != null) {
-              boolean complete = processStatement(stat, general.getFirst() == stat ? mapExtPost : new HashMap<>());
+              boolean complete = processStatement(stat, general.getFirst() == stat ? mapExtPost : new HashMap<>(), budget);
 
               if (complete) {
                 // replace general purpose statement with simple one
@@ -1,9 +1,6 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.java.decompiler.modules.decompiler;
 
-import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
-import org.jetbrains.java.decompiler.main.DecompilerContext;
-import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.ExitExprent;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.Exprent;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.*;
@@ -86,8 +83,7 @@ public final class ExitHelper {
           StatEdge ifedge = ifst.getIfEdge();
           dest = isExitEdge(ifedge);
           if (dest != null) {
-            BasicBlockStatement bstat = new BasicBlockStatement(new BasicBlock(
-              DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER)));
+            BasicBlockStatement bstat = new BasicBlockStatement(ifst.getCounters());
             bstat.setExprents(DecHelper.copyExprentList(dest.getExprents()));
 
             ifst.getFirst().removeSuccessor(ifedge);
@@ -121,8 +117,7 @@ public final class ExitHelper {
         if (dest != null) {
           stat.removeSuccessor(destedge);
 
-          BasicBlockStatement bstat = new BasicBlockStatement(new BasicBlock(
-            DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER)));
+          BasicBlockStatement bstat = new BasicBlockStatement(stat.getCounters());
           bstat.setExprents(DecHelper.copyExprentList(dest.getExprents()));
 
           StatEdge oldexitedge = dest.getAllSuccessorEdges().get(0);
@@ -8,6 +8,7 @@ import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.*;
 import org.jetbrains.java.decompiler.modules.decompiler.sforms.DirectGraph;
 import org.jetbrains.java.decompiler.modules.decompiler.sforms.DirectNode;
@@ -97,10 +98,12 @@ public class ExprProcessor implements CodeConstants {
 
   private final MethodDescriptor methodDescriptor;
   private final VarProcessor varProcessor;
+  private final CounterContainer counters;
 
-  public ExprProcessor(MethodDescriptor md, VarProcessor varProc) {
+  public ExprProcessor(MethodDescriptor md, VarProcessor varProc, CounterContainer counters) {
     methodDescriptor = md;
     varProcessor = varProc;
+    this.counters = counters;
   }
 
   public void processStatement(RootStatement root, StructClass cl) {
@@ -295,35 +298,35 @@ public class ExprProcessor implements CodeConstants {
 
       switch (instr.opcode) {
         case opc_aconst_null:
-          pushEx(stack, exprlist, new ConstExprent(VarType.VARTYPE_NULL, null, bytecode_offsets));
+          pushEx(stack, exprlist, new ConstExprent(counters, VarType.VARTYPE_NULL, null, bytecode_offsets));
           break;
         case opc_bipush:
         case opc_sipush:
-          pushEx(stack, exprlist, new ConstExprent(instr.operand(0), true, bytecode_offsets));
+          pushEx(stack, exprlist, new ConstExprent(counters, instr.operand(0), true, bytecode_offsets));
           break;
         case opc_lconst_0:
         case opc_lconst_1:
-          pushEx(stack, exprlist, new ConstExprent(VarType.VARTYPE_LONG, (long)(instr.opcode - opc_lconst_0), bytecode_offsets));
+          pushEx(stack, exprlist, new ConstExprent(counters, VarType.VARTYPE_LONG, (long)(instr.opcode - opc_lconst_0), bytecode_offsets));
           break;
         case opc_fconst_0:
         case opc_fconst_1:
         case opc_fconst_2:
-          pushEx(stack, exprlist, new ConstExprent(VarType.VARTYPE_FLOAT, (float)(instr.opcode - opc_fconst_0), bytecode_offsets));
+          pushEx(stack, exprlist, new ConstExprent(counters, VarType.VARTYPE_FLOAT, (float)(instr.opcode - opc_fconst_0), bytecode_offsets));
           break;
         case opc_dconst_0:
         case opc_dconst_1:
-          pushEx(stack, exprlist, new ConstExprent(VarType.VARTYPE_DOUBLE, (double)(instr.opcode - opc_dconst_0), bytecode_offsets));
+          pushEx(stack, exprlist, new ConstExprent(counters, VarType.VARTYPE_DOUBLE, (double)(instr.opcode - opc_dconst_0), bytecode_offsets));
           break;
         case opc_ldc:
         case opc_ldc_w:
         case opc_ldc2_w:
           PooledConstant cn = pool.getConstant(instr.operand(0));
           if (cn instanceof PrimitiveConstant) {
-            pushEx(stack, exprlist, new ConstExprent(consts[cn.type - CONSTANT_Integer], ((PrimitiveConstant)cn).value, bytecode_offsets));
+            pushEx(stack, exprlist, new ConstExprent(counters, consts[cn.type - CONSTANT_Integer], ((PrimitiveConstant)cn).value, bytecode_offsets));
           }
           else if (cn instanceof LinkConstant) {
             //TODO: for now treat Links as Strings
-            pushEx(stack, exprlist, new ConstExprent(VarType.VARTYPE_STRING, ((LinkConstant)cn).elementname, bytecode_offsets));
+            pushEx(stack, exprlist, new ConstExprent(counters, VarType.VARTYPE_STRING, ((LinkConstant)cn).elementname, bytecode_offsets));
           }
           break;
         case opc_iload:
@@ -331,7 +334,7 @@ public class ExprProcessor implements CodeConstants {
         case opc_fload:
         case opc_dload:
         case opc_aload:
-          VarExprent varExprent = new VarExprent(instr.operand(0), varTypes[instr.opcode - opc_iload], varProcessor, bytecode_offsets);
+          VarExprent varExprent = new VarExprent(counters, instr.operand(0), varTypes[instr.opcode - opc_iload], varProcessor, bytecode_offsets);
           varProcessor.findLVT(varExprent, bytecode_offset + instr.length);
           pushEx(stack, exprlist, varExprent);
           break;
@@ -354,7 +357,7 @@ public class ExprProcessor implements CodeConstants {
             case opc_daload:
               vartype = VarType.VARTYPE_DOUBLE;
           }
-          pushEx(stack, exprlist, new ArrayExprent(arr, index, arrTypes[instr.opcode - opc_iaload], bytecode_offsets), vartype);
+          pushEx(stack, exprlist, new ArrayExprent(counters, arr, index, arrTypes[instr.opcode - opc_iaload], bytecode_offsets), vartype);
           break;
         case opc_istore:
         case opc_lstore:
@@ -366,9 +369,9 @@ public class ExprProcessor implements CodeConstants {
           if (bytecode_offsets != null) { //TODO: Figure out why this nulls in some cases
             bytecode_offsets.set(bytecode_offset, bytecode_offset + instr.length);
           }
-          varExprent = new VarExprent(varindex, varTypes[instr.opcode - opc_istore], varProcessor, bytecode_offsets);
+          varExprent = new VarExprent(counters, varindex, varTypes[instr.opcode - opc_istore], varProcessor, bytecode_offsets);
           varProcessor.findLVT(varExprent, bytecode_offset + instr.length);
-          AssignmentExprent assign = new AssignmentExprent(varExprent, expr, bytecode_offsets);
+          AssignmentExprent assign = new AssignmentExprent(counters, varExprent, expr, bytecode_offsets);
           exprlist.add(assign);
           break;
         case opc_iastore:
@@ -383,7 +386,7 @@ public class ExprProcessor implements CodeConstants {
           Exprent index_store = stack.pop();
           Exprent arr_store = stack.pop();
           AssignmentExprent arrassign =
-            new AssignmentExprent(new ArrayExprent(arr_store, index_store, arrTypes[instr.opcode - opc_iastore], bytecode_offsets), value,
+            new AssignmentExprent(counters, new ArrayExprent(counters, arr_store, index_store, arrTypes[instr.opcode - opc_iastore], bytecode_offsets), value,
                                   bytecode_offsets);
           exprlist.add(arrassign);
           break;
@@ -407,7 +410,7 @@ public class ExprProcessor implements CodeConstants {
         case opc_lrem:
         case opc_frem:
         case opc_drem:
-          pushEx(stack, exprlist, new FunctionExprent(func1[(instr.opcode - opc_iadd) / 4], stack, bytecode_offsets));
+          pushEx(stack, exprlist, new FunctionExprent(counters, func1[(instr.opcode - opc_iadd) / 4], stack, bytecode_offsets));
           break;
         case opc_ishl:
         case opc_lshl:
@@ -421,20 +424,20 @@ public class ExprProcessor implements CodeConstants {
         case opc_lor:
         case opc_ixor:
         case opc_lxor:
-          pushEx(stack, exprlist, new FunctionExprent(func2[(instr.opcode - opc_ishl) / 2], stack, bytecode_offsets));
+          pushEx(stack, exprlist, new FunctionExprent(counters, func2[(instr.opcode - opc_ishl) / 2], stack, bytecode_offsets));
           break;
         case opc_ineg:
         case opc_lneg:
         case opc_fneg:
         case opc_dneg:
-          pushEx(stack, exprlist, new FunctionExprent(FunctionExprent.FUNCTION_NEG, stack, bytecode_offsets));
+          pushEx(stack, exprlist, new FunctionExprent(counters, FunctionExprent.FUNCTION_NEG, stack, bytecode_offsets));
           break;
         case opc_iinc:
-          VarExprent vevar = new VarExprent(instr.operand(0), VarType.VARTYPE_INT, varProcessor, bytecode_offsets);
+          VarExprent vevar = new VarExprent(counters, instr.operand(0), VarType.VARTYPE_INT, varProcessor, bytecode_offsets);
           varProcessor.findLVT(vevar, bytecode_offset + instr.length);
-          exprlist.add(new AssignmentExprent(vevar, new FunctionExprent(
+          exprlist.add(new AssignmentExprent(counters, vevar, new FunctionExprent(counters, 
             instr.operand(1) < 0 ? FunctionExprent.FUNCTION_SUB : FunctionExprent.FUNCTION_ADD, Arrays
-            .asList(vevar.copy(), new ConstExprent(VarType.VARTYPE_INT, Math.abs(instr.operand(1)), null)),
+            .asList(vevar.copy(), new ConstExprent(counters, VarType.VARTYPE_INT, Math.abs(instr.operand(1)), null)),
             bytecode_offsets), bytecode_offsets));
           break;
         case opc_i2l:
@@ -452,14 +455,14 @@ public class ExprProcessor implements CodeConstants {
         case opc_i2b:
         case opc_i2c:
         case opc_i2s:
-          pushEx(stack, exprlist, new FunctionExprent(func3[instr.opcode - opc_i2l], stack, bytecode_offsets));
+          pushEx(stack, exprlist, new FunctionExprent(counters, func3[instr.opcode - opc_i2l], stack, bytecode_offsets));
           break;
         case opc_lcmp:
         case opc_fcmpl:
         case opc_fcmpg:
         case opc_dcmpl:
         case opc_dcmpg:
-          pushEx(stack, exprlist, new FunctionExprent(func4[instr.opcode - opc_lcmp], stack, bytecode_offsets));
+          pushEx(stack, exprlist, new FunctionExprent(counters, func4[instr.opcode - opc_lcmp], stack, bytecode_offsets));
           break;
         case opc_ifeq:
         case opc_ifne:
@@ -467,7 +470,7 @@ public class ExprProcessor implements CodeConstants {
         case opc_ifge:
         case opc_ifgt:
         case opc_ifle:
-          exprlist.add(new IfExprent(negIfs[func5[instr.opcode - opc_ifeq]], stack, bytecode_offsets));
+          exprlist.add(new IfExprent(counters, negIfs[func5[instr.opcode - opc_ifeq]], stack, bytecode_offsets));
           break;
         case opc_if_icmpeq:
         case opc_if_icmpne:
@@ -477,15 +480,15 @@ public class ExprProcessor implements CodeConstants {
         case opc_if_icmple:
         case opc_if_acmpeq:
         case opc_if_acmpne:
-          exprlist.add(new IfExprent(negIfs[func6[instr.opcode - opc_if_icmpeq]], stack, bytecode_offsets));
+          exprlist.add(new IfExprent(counters, negIfs[func6[instr.opcode - opc_if_icmpeq]], stack, bytecode_offsets));
           break;
         case opc_ifnull:
         case opc_ifnonnull:
-          exprlist.add(new IfExprent(negIfs[func7[instr.opcode - opc_ifnull]], stack, bytecode_offsets));
+          exprlist.add(new IfExprent(counters, negIfs[func7[instr.opcode - opc_ifnull]], stack, bytecode_offsets));
           break;
         case opc_tableswitch:
         case opc_lookupswitch:
-          exprlist.add(new SwitchExprent(stack.pop(), bytecode_offsets));
+          exprlist.add(new SwitchExprent(counters, stack.pop(), bytecode_offsets));
           break;
         case opc_ireturn:
         case opc_lreturn:
@@ -494,34 +497,34 @@ public class ExprProcessor implements CodeConstants {
         case opc_areturn:
         case opc_return:
         case opc_athrow:
-          exprlist.add(new ExitExprent(instr.opcode == opc_athrow ? ExitExprent.EXIT_THROW : ExitExprent.EXIT_RETURN,
+          exprlist.add(new ExitExprent(counters, instr.opcode == opc_athrow ? ExitExprent.EXIT_THROW : ExitExprent.EXIT_RETURN,
                                        instr.opcode == opc_return ? null : stack.pop(),
                                        instr.opcode == opc_athrow ? null : methodDescriptor.ret,
                                        bytecode_offsets, methodDescriptor));
           break;
         case opc_monitorenter:
         case opc_monitorexit:
-          exprlist.add(new MonitorExprent(func8[instr.opcode - opc_monitorenter], stack.pop(), bytecode_offsets));
+          exprlist.add(new MonitorExprent(counters, func8[instr.opcode - opc_monitorenter], stack.pop(), bytecode_offsets));
           break;
         case opc_checkcast:
         case opc_instanceof:
-          stack.push(new ConstExprent(new VarType(pool.getPrimitiveConstant(instr.operand(0)).getString(), true), null, null));
+          stack.push(new ConstExprent(counters, VarType.of(pool.getPrimitiveConstant(instr.operand(0)).getString(), true), null, null));
         case opc_arraylength:
-          pushEx(stack, exprlist, new FunctionExprent(mapConsts.get(instr.opcode), stack, bytecode_offsets));
+          pushEx(stack, exprlist, new FunctionExprent(counters, mapConsts.get(instr.opcode), stack, bytecode_offsets));
           break;
         case opc_getstatic:
         case opc_getfield:
           pushEx(stack, exprlist,
-                 new FieldExprent(pool.getLinkConstant(instr.operand(0)), instr.opcode == opc_getstatic ? null : stack.pop(),
+                 new FieldExprent(counters, pool.getLinkConstant(instr.operand(0)), instr.opcode == opc_getstatic ? null : stack.pop(),
                                   bytecode_offsets));
           break;
         case opc_putstatic:
         case opc_putfield:
           Exprent valfield = stack.pop();
           Exprent exprfield =
-            new FieldExprent(pool.getLinkConstant(instr.operand(0)), instr.opcode == opc_putstatic ? null : stack.pop(),
+            new FieldExprent(counters, pool.getLinkConstant(instr.operand(0)), instr.opcode == opc_putstatic ? null : stack.pop(),
                              bytecode_offsets);
-          exprlist.add(new AssignmentExprent(exprfield, valfield, bytecode_offsets));
+          exprlist.add(new AssignmentExprent(counters, exprfield, valfield, bytecode_offsets));
           break;
         case opc_invokevirtual:
         case opc_invokespecial:
@@ -536,7 +539,7 @@ public class ExprProcessor implements CodeConstants {
               bootstrap_arguments = bootstrap.getMethodArguments(invoke_constant.index1);
             }
 
-            InvocationExprent exprinv = new InvocationExprent(instr.opcode, invoke_constant, bootstrap_arguments, stack, bytecode_offsets);
+            InvocationExprent exprinv = new InvocationExprent(counters, instr.opcode, invoke_constant, bootstrap_arguments, stack, bytecode_offsets);
             if (exprinv.getDescriptor().ret.type == CodeConstants.TYPE_VOID) {
               exprlist.add(exprinv);
             }
@@ -549,14 +552,14 @@ public class ExprProcessor implements CodeConstants {
         case opc_anewarray:
         case opc_multianewarray:
           int dimensions = (instr.opcode == opc_new) ? 0 : (instr.opcode == opc_anewarray) ? 1 : instr.operand(1);
-          VarType arrType = new VarType(pool.getPrimitiveConstant(instr.operand(0)).getString(), true);
+          VarType arrType = VarType.of(pool.getPrimitiveConstant(instr.operand(0)).getString(), true);
           if (instr.opcode != opc_multianewarray) {
             arrType = arrType.resizeArrayDim(arrType.arrayDim + dimensions);
           }
-          pushEx(stack, exprlist, new NewExprent(arrType, stack, dimensions, bytecode_offsets));
+          pushEx(stack, exprlist, new NewExprent(counters, arrType, stack, dimensions, bytecode_offsets));
           break;
         case opc_newarray:
-          pushEx(stack, exprlist, new NewExprent(new VarType(arrTypeIds[instr.operand(0) - 4], 1), stack, 1, bytecode_offsets));
+          pushEx(stack, exprlist, new NewExprent(counters, VarType.of(arrTypeIds[instr.operand(0) - 4], 1), stack, 1, bytecode_offsets));
           break;
         case opc_dup:
           pushEx(stack, exprlist, stack.getByOffset(-1).copy());
@@ -660,10 +663,10 @@ public class ExprProcessor implements CodeConstants {
 
   private void pushEx(ExprentStack stack, List<Exprent> exprlist, Exprent exprent, VarType vartype) {
     int varindex = VarExprent.STACK_BASE + stack.size();
-    VarExprent var = new VarExprent(varindex, vartype == null ? exprent.getExprType() : vartype, varProcessor);
+    VarExprent var = new VarExprent(counters, varindex, vartype == null ? exprent.getExprType() : vartype, varProcessor);
     var.setStack(true);
 
-    exprlist.add(new AssignmentExprent(var, exprent, null));
+    exprlist.add(new AssignmentExprent(counters, var, exprent, null));
     stack.push(var.copy());
   }
 
@@ -675,16 +678,16 @@ public class ExprProcessor implements CodeConstants {
 
     for (int i = -1; i >= offset; i--) {
       Exprent varex = stack.pop();
-      VarExprent varnew = new VarExprent(base + i + 1, varex.getExprType(), varProcessor);
+      VarExprent varnew = new VarExprent(counters, base + i + 1, varex.getExprType(), varProcessor);
       varnew.setStack(true);
-      exprlist.add(new AssignmentExprent(varnew, varex, null));
+      exprlist.add(new AssignmentExprent(counters, varnew, varex, null));
       lst.add(0, (VarExprent)varnew.copy());
     }
 
     Exprent exprent = lst.get(lst.size() + copyoffset).copy();
-    VarExprent var = new VarExprent(base + offset, exprent.getExprType(), varProcessor);
+    VarExprent var = new VarExprent(counters, base + offset, exprent.getExprType(), varProcessor);
     var.setStack(true);
-    exprlist.add(new AssignmentExprent(var, exprent, null));
+    exprlist.add(new AssignmentExprent(counters, var, exprent, null));
     lst.add(0, (VarExprent)var.copy());
 
     for (VarExprent expr : lst) {
@@ -744,10 +747,10 @@ public class ExprProcessor implements CodeConstants {
 
   public static PrimitiveExprsList getExpressionData(VarExprent var) {
     PrimitiveExprsList prlst = new PrimitiveExprsList();
-    VarExprent vartmp = new VarExprent(VarExprent.STACK_BASE, var.getExprType(), var.getProcessor());
+    VarExprent vartmp = new VarExprent(var.getCounters(), VarExprent.STACK_BASE, var.getExprType(), var.getProcessor());
     vartmp.setStack(true);
 
-    prlst.getLstExprents().add(new AssignmentExprent(vartmp, var.copy(), null));
+    prlst.getLstExprents().add(new AssignmentExprent(var.getCounters(), vartmp, var.copy(), null));
     prlst.getStack().push(vartmp.copy());
     return prlst;
   }
@@ -858,22 +861,22 @@ public class ExprProcessor implements CodeConstants {
     return buf;
   }
 
-  public static ConstExprent getDefaultArrayValue(VarType arrType) {
+  public static ConstExprent getDefaultArrayValue(CounterContainer counters, VarType arrType) {
     ConstExprent defaultVal;
     if (arrType.type == CodeConstants.TYPE_OBJECT || arrType.arrayDim > 0) {
-      defaultVal = new ConstExprent(VarType.VARTYPE_NULL, null, null);
+      defaultVal = new ConstExprent(counters, VarType.VARTYPE_NULL, null, null);
     }
     else if (arrType.type == CodeConstants.TYPE_FLOAT) {
-      defaultVal = new ConstExprent(VarType.VARTYPE_FLOAT, 0f, null);
+      defaultVal = new ConstExprent(counters, VarType.VARTYPE_FLOAT, 0f, null);
     }
     else if (arrType.type == CodeConstants.TYPE_LONG) {
-      defaultVal = new ConstExprent(VarType.VARTYPE_LONG, 0L, null);
+      defaultVal = new ConstExprent(counters, VarType.VARTYPE_LONG, 0L, null);
     }
     else if (arrType.type == CodeConstants.TYPE_DOUBLE) {
-      defaultVal = new ConstExprent(VarType.VARTYPE_DOUBLE, 0d, null);
+      defaultVal = new ConstExprent(counters, VarType.VARTYPE_DOUBLE, 0d, null);
     }
     else { // integer types
-      defaultVal = new ConstExprent(0, true, null);
+      defaultVal = new ConstExprent(counters, 0, true, null);
     }
     return defaultVal;
   }
@@ -905,7 +908,7 @@ public class ExprProcessor implements CodeConstants {
           exprent = invocationExprent.getLstParameters().get(0);
           int paramType = invocationExprent.getDescriptor().params[0].type;
           if (exprent.type == Exprent.EXPRENT_CONST && ((ConstExprent) exprent).getConstType().type != paramType) {
-            leftType = new VarType(paramType);
+            leftType = VarType.of(paramType);
           }
         }
       }
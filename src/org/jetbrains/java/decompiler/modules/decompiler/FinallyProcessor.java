@@ -71,7 +71,7 @@ public class FinallyProcessor {
           fin.setFinally(true);
 
           Integer var = finallyBlockIDs.get(handler.id);
-          fin.setMonitor(var == null ? null : new VarExprent(var, VarType.VARTYPE_INT, varProcessor));
+          fin.setMonitor(var == null ? null : new VarExprent(fin.getCounters(), var, VarType.VARTYPE_INT, varProcessor));
         }
         else {
           Record inf = getFinallyInformation(cl, mt, root, fin);
@@ -84,7 +84,7 @@ public class FinallyProcessor {
               finallyBlockIDs.put(handler.id, null);
             }
             else {
-              int varIndex = DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.VAR_COUNTER);
+              int varIndex = root.getCounters().getCounterAndIncrement(CounterContainer.VAR_COUNTER);
               insertSemaphore(graph, getAllBasicBlocks(fin.getFirst()), head, handler, varIndex, inf, bytecodeVersion);
 
               finallyBlockIDs.put(handler.id, varIndex);
@@ -132,7 +132,7 @@ public class FinallyProcessor {
         firstcode = 2;
     }
 
-    ExprProcessor proc = new ExprProcessor(methodDescriptor, varProcessor);
+    ExprProcessor proc = new ExprProcessor(methodDescriptor, varProcessor, root.getCounters());
     proc.processStatement(root, cl);
 
     SSAConstructorSparseEx ssa = new SSAConstructorSparseEx();
@@ -491,10 +491,11 @@ public class FinallyProcessor {
     });
 
     List<Area> lstAreas = new ArrayList<>();
+    BlockFingerprints fingerprints = new BlockFingerprints();
 
     for (BasicBlock start : starts) {
 
-      Area arr = compareSubgraphsEx(graph, start, catchBlocks, first, finallytype, mapLast, skippedFirst);
+      Area arr = compareSubgraphsEx(graph, start, catchBlocks, first, finallytype, mapLast, skippedFirst, fingerprints);
       if (arr == null) {
         return false;
       }
@@ -557,7 +558,8 @@ public class FinallyProcessor {
                                   BasicBlock startCatch,
                                   int finallytype,
                                   Map<BasicBlock, Boolean> mapLast,
-                                  boolean skippedFirst) {
+                                  boolean skippedFirst,
+                                  BlockFingerprints fingerprints) {
     class BlockStackEntry {
       public final BasicBlock blockCatch;
       public final BasicBlock blockSample;
@@ -591,7 +593,7 @@ public class FinallyProcessor {
       boolean isTrueLastBlock = isLastBlock && mapLast.get(blockCatch);
 
       if (!compareBasicBlocksEx(graph, blockCatch, blockSample, (isFirstBlock ? 1 : 0) | (isTrueLastBlock ? 2 : 0), finallytype,
-                                entry.lstStoreVars)) {
+                                entry.lstStoreVars, fingerprints)) {
         return null;
       }
 
@@ -761,36 +763,40 @@ public class FinallyProcessor {
                                        BasicBlock sample,
                                        int type,
                                        int finallytype,
-                                       List<int[]> lstStoreVars) {
+                                       List<int[]> lstStoreVars,
+                                       BlockFingerprints fingerprints) {
     InstructionSequence seqPattern = pattern.getSeq();
     InstructionSequence seqSample = sample.getSeq();
 
-    if (type != 0) {
-      seqPattern = seqPattern.clone();
+    // the compared instructions of the pattern are [from, to)
+    int from = 0;
+    int to = seqPattern.length();
 
-      if ((type & 1) > 0) { // first
-        if (finallytype > 0) {
-          seqPattern.removeInstruction(0);
-        }
+    if ((type & 1) > 0) { // first
+      if (finallytype > 0) {
+        from = Math.min(1, to);
       }
+    }
 
-      if ((type & 2) > 0) { // last
-        if (finallytype == 0 || finallytype == 2) {
-          seqPattern.removeLast();
-        }
+    if ((type & 2) > 0) { // last
+      if (finallytype == 0 || finallytype == 2) {
+        to = Math.max(from, to - 1);
+      }
 
-        if (finallytype == 2) {
-          seqPattern.removeLast();
-        }
+      if (finallytype == 2) {
+        to = Math.max(from, to - 1);
       }
     }
 
-    if (seqPattern.length() > seqSample.length()) {
+    int patternLength = to - from;
+
+    if (patternLength > seqSample.length() ||
+        fingerprints.get(pattern, from, to) != fingerprints.get(sample, 0, patternLength)) {
       return false;
     }
 
-    for (int i = 0; i < seqPattern.length(); i++) {
-      Instruction instrPattern = seqPattern.getInstr(i);
+    for (int i = 0; i < patternLength; i++) {
+      Instruction instrPattern = seqPattern.getInstr(from + i);
       Instruction instrSample = seqSample.getInstr(i);
 
       // compare instructions with respect to jumps
@@ -799,10 +805,10 @@ public class FinallyProcessor {
       }
     }
 
-    if (seqPattern.length() < seqSample.length()) { // split in two blocks
+    if (patternLength < seqSample.length()) { // split in two blocks
       SimpleInstructionSequence seq = new SimpleInstructionSequence();
       LinkedList<Integer> oldOffsets = new LinkedList<>();
-      for (int i = seqSample.length() - 1; i >= seqPattern.length(); i--) {
+      for (int i = seqSample.length() - 1; i >= patternLength; i--) {
         seq.addInstruction(0, seqSample.getInstr(i), -1);
         oldOffsets.addFirst(sample.getOldOffset(i));
         seqSample.removeInstruction(i);
@@ -874,6 +880,61 @@ public class FinallyProcessor {
     return true;
   }
 
+  /**
+   * Hashes of the instruction sequences of basic blocks, equal for any two sequences that {@link #equalInstructions}
+   * may match: operands that it maps between variables or ignores are left out. A pattern block is compared with many
+   * samples, so most samples that do not match are rejected by their hashes alone.
+   * <p>
+   * The hashes of a block are kept for all prefixes of its sequence, so they stay valid while samples are split.
+   */
+  private static final class BlockFingerprints {
+    private static final int BASE = 31;
+
+    private final Map<BasicBlock, int[]> prefixes = new HashMap<>();
+    private int[] powers = {1};
+
+    /**
+     * @return the hash of the instructions [from, to) of the block
+     */
+    private int get(BasicBlock block, int from, int to) {
+      int[] prefix = prefixes.get(block);
+      if (prefix == null || prefix.length <= to) {
+        InstructionSequence seq = block.getSeq();
+        prefix = new int[seq.length() + 1];
+        for (int i = 0; i < seq.length(); i++) {
+          prefix[i + 1] = prefix[i] * BASE + hash(seq.getInstr(i));
+        }
+        prefixes.put(block, prefix);
+      }
+      return prefix[to] - prefix[from] * power(to - from);
+    }
+
+    private int power(int exponent) {
+      if (exponent >= powers.length) {
+        int length = powers.length;
+        powers = Arrays.copyOf(powers, Math.max(exponent + 1, length * 2));
+        for (int i = length; i < powers.length; i++) {
+          powers[i] = powers[i - 1] * BASE;
+        }
+      }
+      return powers[exponent];
+    }
+
+    private static int hash(Instruction instr) {
+      int hash = instr.opcode * 2 + (instr.wide ? 1 : 0);
+      hash = hash * BASE + instr.operandsCount();
+
+      if (instr.group != CodeConstants.GROUP_JUMP &&
+          instr.opcode != CodeConstants.opc_aload && instr.opcode != CodeConstants.opc_astore) {
+        for (int i = 0; i < instr.operandsCount(); i++) {
+          hash = hash * BASE + instr.operand(i);
+        }
+      }
+
+      return hash;
+    }
+  }
+
   private static void deleteArea(ControlFlowGraph graph, Area area) {
     BasicBlock start = area.start;
     BasicBlock next = area.next;
@@ -24,17 +24,32 @@ public final class IfHelper {
     boolean res = false;
 
     if (stat.getExprents() == null) {
+      ProcessedStatements processed = new ProcessedStatements();
+
       while (true) {
         boolean changed = false;
 
         for (Statement st : stat.getStats()) {
-          res |= mergeAllIfsRec(st, setReorderedIfs);
+          // nothing to do for children left untouched since the last sweep
+          if (processed.isUnchanged(st)) {
+            continue;
+          }
+
+          int stamp = processed.begin(st);
+          boolean childChanged = mergeAllIfsRec(st, setReorderedIfs);
+          res |= childChanged;
 
           // collapse composed if's
           if (mergeIfs(st, setReorderedIfs)) {
+            st.markModified();
+            stat.markModified();
             changed = true;
             break;
           }
+
+          if (!childChanged) {
+            processed.setUnchanged(st, stamp);
+          }
         }
 
         res |= changed;
@@ -171,7 +186,7 @@ public final class IfHelper {
             lstOperands.add(statexpr.getCondition());
             lstOperands.add(ifchild.getHeadexprent().getCondition());
 
-            statexpr.setCondition(new FunctionExprent(FunctionExprent.FUNCTION_CADD, lstOperands, null));
+            statexpr.setCondition(new FunctionExprent(statexpr.getCounters(), FunctionExprent.FUNCTION_CADD, lstOperands, null));
             statexpr.addBytecodeOffsets(ifchild.getHeadexprent().bytecode);
 
             return true;
@@ -221,8 +236,8 @@ public final class IfHelper {
 
             List<Exprent> lstOperands = new ArrayList<>();
             lstOperands.add(statexpr.getCondition());
-            lstOperands.add(new FunctionExprent(FunctionExprent.FUNCTION_BOOL_NOT, ifchild.getHeadexprent().getCondition(), null));
-            statexpr.setCondition(new FunctionExprent(FunctionExprent.FUNCTION_CADD, lstOperands, null));
+            lstOperands.add(new FunctionExprent(statexpr.getCounters(), FunctionExprent.FUNCTION_BOOL_NOT, ifchild.getHeadexprent().getCondition(), null));
+            statexpr.setCondition(new FunctionExprent(statexpr.getCounters(), FunctionExprent.FUNCTION_CADD, lstOperands, null));
             statexpr.addBytecodeOffsets(ifchild.getHeadexprent().bytecode);
 
             return true;
@@ -276,13 +291,13 @@ public final class IfHelper {
             lstOperands.add(firstif.getHeadexprent().getCondition());
 
             if (path == 2) {
-              lstOperands.set(0, new FunctionExprent(FunctionExprent.FUNCTION_BOOL_NOT, lstOperands.get(0), null));
+              lstOperands.set(0, new FunctionExprent(statexpr.getCounters(), FunctionExprent.FUNCTION_BOOL_NOT, lstOperands.get(0), null));
             }
 
             lstOperands.add(statexpr.getCondition());
 
             statexpr
-              .setCondition(new FunctionExprent(path == 1 ? FunctionExprent.FUNCTION_COR : FunctionExprent.FUNCTION_CADD, lstOperands, null));
+              .setCondition(new FunctionExprent(statexpr.getCounters(), path == 1 ? FunctionExprent.FUNCTION_COR : FunctionExprent.FUNCTION_CADD, lstOperands, null));
 
             if (secondif.getFirst().getExprents().isEmpty() &&
                 !firstif.getFirst().getExprents().isEmpty()) {
@@ -324,7 +339,7 @@ public final class IfHelper {
           // negate the if condition
           IfExprent statexpr = firstif.getHeadexprent();
           statexpr
-            .setCondition(new FunctionExprent(FunctionExprent.FUNCTION_BOOL_NOT, statexpr.getCondition(), null));
+            .setCondition(new FunctionExprent(statexpr.getCounters(), FunctionExprent.FUNCTION_BOOL_NOT, statexpr.getCondition(), null));
 
           return true;
         }
@@ -506,7 +521,7 @@ public final class IfHelper {
 
       // negate the if condition
       IfExprent statexpr = ifstat.getHeadexprent();
-      statexpr.setCondition(new FunctionExprent(FunctionExprent.FUNCTION_BOOL_NOT, statexpr.getCondition(), null));
+      statexpr.setCondition(new FunctionExprent(statexpr.getCounters(), FunctionExprent.FUNCTION_BOOL_NOT, statexpr.getCondition(), null));
 
       if (noelsestat) {
         StatEdge ifedge = ifstat.getIfEdge();
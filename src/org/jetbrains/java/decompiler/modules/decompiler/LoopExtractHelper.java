@@ -30,12 +30,18 @@ public final class LoopExtractHelper {
   private static int extractLoopsRec(Statement stat) {
 
     boolean res = false;
+    ProcessedStatements processed = new ProcessedStatements();
 
     while (true) {
 
       boolean updated = false;
 
       for (Statement st : stat.getStats()) {
+        if (processed.isUnchanged(st)) {
+          continue;
+        }
+
+        int stamp = processed.begin(st);
         int extr = extractLoopsRec(st);
         res |= (extr != 0);
 
@@ -43,6 +49,10 @@ public final class LoopExtractHelper {
           updated = true;
           break;
         }
+
+        if (extr == 0) {
+          processed.setUnchanged(st, stamp);
+        }
       }
 
       if (!updated) {
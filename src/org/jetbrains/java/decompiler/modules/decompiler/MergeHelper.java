@@ -1,9 +1,7 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.java.decompiler.modules.decompiler;
 
-import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
-import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.ArrayExprent;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.AssignmentExprent;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.Exprent;
@@ -20,21 +18,34 @@ import java.util.Set;
 
 public final class MergeHelper {
   public static void enhanceLoops(Statement root) {
-    while (enhanceLoopsRec(root)) /**/;
+    // subsequent sweeps only descend into the parts of the tree changed by the previous ones
+    ProcessedStatements processed = new ProcessedStatements();
+    while (enhanceLoopsRec(root, processed)) /**/;
     SequenceHelper.condenseSequences(root);
   }
 
-  private static boolean enhanceLoopsRec(Statement stat) {
+  private static boolean enhanceLoopsRec(Statement stat, ProcessedStatements processed) {
     boolean res = false;
 
     for (Statement st : stat.getStats()) {
       if (st.getExprents() == null) {
-        res |= enhanceLoopsRec(st);
+        // loops starting the statement take their initializer from the one preceding it
+        Statement preceding = getPrecedingStatement(st);
+        if (!processed.isUnchanged(st, preceding)) {
+          int stamp = processed.begin(st);
+          if (enhanceLoopsRec(st, processed)) {
+            res = true;
+          }
+          else {
+            processed.setUnchanged(st, stamp, preceding);
+          }
+        }
       }
     }
 
-    if (stat.type == Statement.TYPE_DO) {
-      res |= enhanceLoop((DoStatement)stat);
+    if (stat.type == Statement.TYPE_DO && enhanceLoop((DoStatement)stat)) {
+      stat.markModified();
+      res = true;
     }
 
     return res;
@@ -181,8 +192,7 @@ public final class MergeHelper {
 
               // remove empty if statement as it is now part of the loop
               if (firstif == stat.getFirst()) {
-                BasicBlockStatement bstat = new BasicBlockStatement(new BasicBlock(
-                  DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER)));
+                BasicBlockStatement bstat = new BasicBlockStatement(stat.getCounters());
                 bstat.setExprents(new ArrayList<>());
                 stat.replaceStatement(firstif, bstat);
               }
@@ -225,8 +235,7 @@ public final class MergeHelper {
               }
 
               if (firstif.getIfstat() == null) {
-                BasicBlockStatement bstat = new BasicBlockStatement(new BasicBlock(
-                  DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER)));
+                BasicBlockStatement bstat = new BasicBlockStatement(stat.getCounters());
                 bstat.setExprents(new ArrayList<>());
 
                 ifedge.setSource(bstat);
@@ -322,34 +331,16 @@ public final class MergeHelper {
     boolean hasinit = false;
 
     // search for an initializing exprent
-    Statement current = stat;
-    while (true) {
-      Statement parent = current.getParent();
-      if (parent == null) {
-        break;
-      }
-
-      if (parent.type == Statement.TYPE_SEQUENCE) {
-        if (current == parent.getFirst()) {
-          current = parent;
-        }
-        else {
-          preData = current.getNeighbours(StatEdge.TYPE_REGULAR, Statement.DIRECTION_BACKWARD).get(0);
-          // we're not a basic block, so we can't dive inside for exprents
-          if (preData.type != Statement.TYPE_BASICBLOCK) break;
-          preData = getLastDirectData(preData);
-          if (preData != null && !preData.getExprents().isEmpty()) {
-            initDoExprent = preData.getExprents().get(preData.getExprents().size() - 1);
-            if (initDoExprent.type == Exprent.EXPRENT_ASSIGNMENT) {
-              hasinit = true;
-            }
-          }
-          break;
+    preData = getPrecedingStatement(stat);
+    // we're not a basic block, so we can't dive inside for exprents
+    if (preData != null && preData.type == Statement.TYPE_BASICBLOCK) {
+      preData = getLastDirectData(preData);
+      if (preData != null && !preData.getExprents().isEmpty()) {
+        initDoExprent = preData.getExprents().get(preData.getExprents().size() - 1);
+        if (initDoExprent.type == Exprent.EXPRENT_ASSIGNMENT) {
+          hasinit = true;
         }
       }
-      else {
-        break;
-      }
     }
 
     if (hasinit || issingle) {  // FIXME: issingle sufficient?
@@ -363,6 +354,7 @@ public final class MergeHelper {
       stat.setLooptype(DoStatement.LOOP_FOR);
       if (hasinit) {
         Exprent exp = preData.getExprents().remove(preData.getExprents().size() - 1);
+        preData.markModified();
         if (stat.getInitExprent() != null) {
           exp.addBytecodeOffsets(stat.getInitExprent().bytecode);
         }
@@ -391,8 +383,7 @@ public final class MergeHelper {
   private static void removeLastEmptyStatement(DoStatement dostat, Statement stat) {
 
     if (stat == dostat.getFirst()) {
-      BasicBlockStatement bstat = new BasicBlockStatement(new BasicBlock(
-        DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER)));
+      BasicBlockStatement bstat = new BasicBlockStatement(dostat.getCounters());
       bstat.setExprents(new ArrayList<>());
       dostat.replaceStatement(stat, bstat);
     }
@@ -409,6 +400,27 @@ public final class MergeHelper {
 
       // parent is a sequence statement
       stat.getParent().getStats().removeWithKey(stat.id);
+      stat.getParent().markModified();
+    }
+  }
+
+  /**
+   * @return the statement preceding the given one in the closest enclosing sequence it does not start, or null if it
+   * starts every sequence up to the closest enclosing statement of another type
+   */
+  static Statement getPrecedingStatement(Statement stat) {
+    Statement current = stat;
+    while (true) {
+      Statement parent = current.getParent();
+      if (parent == null || parent.type != Statement.TYPE_SEQUENCE) {
+        return null;
+      }
+
+      if (current != parent.getFirst()) {
+        List<Statement> predecessors = current.getNeighbours(StatEdge.TYPE_REGULAR, Statement.DIRECTION_BACKWARD);
+        return predecessors.isEmpty() ? null : predecessors.get(0);
+      }
+      current = parent;
     }
   }
 
@@ -433,37 +445,20 @@ public final class MergeHelper {
     Exprent lastExprent = null;
 
     // search for an initializing exprent
-    Statement current = stat;
-    while (true) {
-      Statement parent = current.getParent();
-      if (parent == null) {
-        break;
-      }
-
-      if (parent.type == Statement.TYPE_SEQUENCE) {
-        if (current == parent.getFirst()) {
-          current = parent;
-        }
-        else {
-          preData = current.getNeighbours(StatEdge.TYPE_REGULAR, Statement.DIRECTION_BACKWARD).get(0);
-          preData = getLastDirectData(preData);
-          if (preData != null && !preData.getExprents().isEmpty()) {
-            int size = preData.getExprents().size();
-            for (int x = 0; x < initExprents.length; x++) {
-              if (size > x) {
-                 Exprent exprent = preData.getExprents().get(size - 1 - x);
-                 if (exprent.type == Exprent.EXPRENT_ASSIGNMENT) {
-                   initExprents[x] = (AssignmentExprent)exprent;
-                 }
-              }
-            }
+    preData = getPrecedingStatement(stat);
+    if (preData != null) {
+      preData = getLastDirectData(preData);
+      if (preData != null && !preData.getExprents().isEmpty()) {
+        int size = preData.getExprents().size();
+        for (int x = 0; x < initExprents.length; x++) {
+          if (size > x) {
+             Exprent exprent = preData.getExprents().get(size - 1 - x);
+             if (exprent.type == Exprent.EXPRENT_ASSIGNMENT) {
+               initExprents[x] = (AssignmentExprent)exprent;
+             }
           }
-          break;
         }
       }
-      else {
-        break;
-      }
     }
 
     firstData = getFirstDirectData(stat.getFirst());
@@ -523,6 +518,7 @@ public final class MergeHelper {
         stat.setIncExprent(holder.getInstance());
         preData.getExprents().remove(initExprents[0]);
         firstData.getExprents().remove(firstDoExprent);
+        preData.markModified();
 
         if (initExprents[1] != null && initExprents[1].getLeft().type == Exprent.EXPRENT_VAR &&
             holder.getInstance().type == Exprent.EXPRENT_VAR) {
@@ -593,6 +589,7 @@ public final class MergeHelper {
         preData.getExprents().remove(initExprents[1]);
         firstData.getExprents().remove(firstDoExprent);
         lastData.getExprents().remove(lastExprent);
+        preData.markModified();
 
         if (initExprents[2] != null && initExprents[2].getLeft().type == Exprent.EXPRENT_VAR) {
           VarExprent copy = (VarExprent)initExprents[2].getLeft();
@@ -132,7 +132,7 @@ public class PPandMMHelper {
 
             VarType condtype = left.getExprType();
             if (exprsEqual(left, econd) && (midlayer == null || midlayer.equals(condtype))) {
-              FunctionExprent ret = new FunctionExprent(
+              FunctionExprent ret = new FunctionExprent(func.getCounters(),
                 func.getFuncType() == FunctionExprent.FUNCTION_ADD ? FunctionExprent.FUNCTION_PPI : FunctionExprent.FUNCTION_MMI,
                 econd, func.bytecode);
               ret.setImplicitType(condtype);
@@ -178,10 +178,7 @@ public class PPandMMHelper {
     graph.iterateExprents(new DirectGraph.ExprentIterator() {
       @Override
       public int processExprent(Exprent exprent) {
-        List<Exprent> lst = exprent.getAllExprents(true);
-        lst.add(exprent);
-
-        for (Exprent expr : lst) {
+        exprent.walk(expr -> {
           if (expr.type == Exprent.EXPRENT_VAR) {
             VarExprent var = (VarExprent)expr;
             if (var.getIndex() == oldVVP.var && var.getVersion() == oldVVP.version) {
@@ -189,7 +186,8 @@ public class PPandMMHelper {
               var.setVersion(newVVP.version);
             }
           }
-        }
+          return true;
+        });
 
         return 0;
       }
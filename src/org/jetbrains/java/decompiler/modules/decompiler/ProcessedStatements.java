@@ -0,0 +1,63 @@
+package org.jetbrains.java.decompiler.modules.decompiler;
+
+import org.jetbrains.java.decompiler.modules.decompiler.stats.Statement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the statements a pass has already run over without changing anything, together with the modification
+ * stamp at the time. When the pass restarts its iteration, such a statement only has to be revisited if it, or
+ * something below it, was modified in the meantime. A pass that also reads a statement outside the subtree, such as
+ * the one preceding it, names it as a dependency, and the statement is revisited if the dependency was modified or
+ * replaced by another one as well.
+ * <p>
+ * The stamps only cover restarts within a single run of a pass. Exprents are rewritten in place by other passes without
+ * stamping their statements, so a statement cannot be skipped by a later run of the same pass.
+ */
+final class ProcessedStatements {
+  private Map<Statement, Visit> unchanged;
+
+  /**
+   * @return the stamp to hand to {@link #setUnchanged} once the statement has been processed
+   */
+  int begin(Statement stat) {
+    return stat.startModificationEpoch();
+  }
+
+  void setUnchanged(Statement stat, int stamp) {
+    setUnchanged(stat, stamp, null);
+  }
+
+  void setUnchanged(Statement stat, int stamp, Statement dependency) {
+    if (unchanged == null) {
+      unchanged = new HashMap<>();
+    }
+    unchanged.put(stat, new Visit(stamp, dependency));
+  }
+
+  boolean isUnchanged(Statement stat) {
+    return isUnchanged(stat, null);
+  }
+
+  boolean isUnchanged(Statement stat, Statement dependency) {
+    if (unchanged == null) {
+      return false;
+    }
+    Visit visit = unchanged.get(stat);
+    return visit != null &&
+           visit.dependency == dependency &&
+           !stat.isModifiedSince(visit.stamp) &&
+           (dependency == null || !dependency.isModifiedSince(visit.stamp));
+  }
+
+  private static final class Visit {
+    private final int stamp;
+    private final Statement dependency;
+
+    private Visit(int stamp, Statement dependency) {
+      this.stamp = stamp;
+      this.dependency = dependency;
+    }
+  }
+}
@@ -2,7 +2,6 @@
 package org.jetbrains.java.decompiler.modules.decompiler;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
-import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.*;
 import org.jetbrains.java.decompiler.modules.decompiler.stats.IfStatement;
@@ -120,6 +119,8 @@ public final class SecondaryFunctionsHelper {
   }
 
   private static Exprent identifySecondaryFunctions(Exprent exprent, boolean statement_level, VarProcessor varProc) {
+    CounterContainer counters = exprent.getCounters();
+
     if (exprent.type == Exprent.EXPRENT_FUNCTION) {
       FunctionExprent fexpr = (FunctionExprent)exprent;
 
@@ -176,12 +177,12 @@ public final class SecondaryFunctionsHelper {
                   boolean trueForNan = oneForNan == trueForOne;
                   if (trueForNan) {
                     List<Exprent> operands = new ArrayList<>();
-                    operands.add(new FunctionExprent(funcsnot[desttype - FunctionExprent.FUNCTION_EQ],
+                    operands.add(new FunctionExprent(counters, funcsnot[desttype - FunctionExprent.FUNCTION_EQ],
                       funcexpr.getLstOperands(), funcexpr.bytecode));
-                    return new FunctionExprent(FunctionExprent.FUNCTION_BOOL_NOT, operands, funcexpr.bytecode);
+                    return new FunctionExprent(counters, FunctionExprent.FUNCTION_BOOL_NOT, operands, funcexpr.bytecode);
                   }
                 }
-                return new FunctionExprent(desttype, funcexpr.getLstOperands(), funcexpr.bytecode);
+                return new FunctionExprent(counters, desttype, funcexpr.getLstOperands(), funcexpr.bytecode);
               }
             }
           }
@@ -228,7 +229,7 @@ public final class SecondaryFunctionsHelper {
                 if (val == -1) {
                   List<Exprent> lstBitNotOperand = new ArrayList<>();
                   lstBitNotOperand.add(lstOperands.get(1 - i));
-                  return new FunctionExprent(FunctionExprent.FUNCTION_BIT_NOT, lstBitNotOperand, fexpr.bytecode);
+                  return new FunctionExprent(counters, FunctionExprent.FUNCTION_BIT_NOT, lstBitNotOperand, fexpr.bytecode);
                 }
               }
             }
@@ -249,7 +250,7 @@ public final class SecondaryFunctionsHelper {
                   else {
                     List<Exprent> lstNotOperand = new ArrayList<>();
                     lstNotOperand.add(lstOperands.get(1 - i));
-                    return new FunctionExprent(FunctionExprent.FUNCTION_BOOL_NOT, lstNotOperand, fexpr.bytecode);
+                    return new FunctionExprent(counters, FunctionExprent.FUNCTION_BOOL_NOT, lstNotOperand, fexpr.bytecode);
                   }
                 }
               }
@@ -259,10 +260,10 @@ public final class SecondaryFunctionsHelper {
             if (lstOperands.get(0).type == Exprent.EXPRENT_CONST) {
               int val = ((ConstExprent)lstOperands.get(0)).getIntValue();
               if (val == 0) {
-                return new ConstExprent(VarType.VARTYPE_BOOLEAN, 1, fexpr.bytecode);
+                return new ConstExprent(counters, VarType.VARTYPE_BOOLEAN, 1, fexpr.bytecode);
               }
               else {
-                return new ConstExprent(VarType.VARTYPE_BOOLEAN, 0, fexpr.bytecode);
+                return new ConstExprent(counters, VarType.VARTYPE_BOOLEAN, 0, fexpr.bytecode);
               }
             }
             break;
@@ -278,7 +279,7 @@ public final class SecondaryFunctionsHelper {
                   cexpr2.getExprType().type == CodeConstants.TYPE_BOOLEAN) {
 
                 if (cexpr1.getIntValue() == 0 && cexpr2.getIntValue() != 0) {
-                  return new FunctionExprent(FunctionExprent.FUNCTION_BOOL_NOT, lstOperands.get(0), fexpr.bytecode);
+                  return new FunctionExprent(counters, FunctionExprent.FUNCTION_BOOL_NOT, lstOperands.get(0), fexpr.bytecode);
                 }
                 else if (cexpr1.getIntValue() != 0 && cexpr2.getIntValue() == 0) {
                   return lstOperands.get(0);
@@ -291,25 +292,25 @@ public final class SecondaryFunctionsHelper {
           case FunctionExprent.FUNCTION_FCMPG:
           case FunctionExprent.FUNCTION_DCMPL:
           case FunctionExprent.FUNCTION_DCMPG:
-            int var = DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.VAR_COUNTER);
+            int var = counters.getCounterAndIncrement(CounterContainer.VAR_COUNTER);
             VarType type = lstOperands.get(0).getExprType();
 
-            FunctionExprent iff = new FunctionExprent(FunctionExprent.FUNCTION_IIF, Arrays.asList(
-              new FunctionExprent(FunctionExprent.FUNCTION_LT, Arrays.asList(new VarExprent(var, type, varProc),
-                ConstExprent.getZeroConstant(type.type)), null),
-              new ConstExprent(VarType.VARTYPE_INT, -1, null),
-              new ConstExprent(VarType.VARTYPE_INT, 1, null)), null);
+            FunctionExprent iff = new FunctionExprent(counters, FunctionExprent.FUNCTION_IIF, Arrays.asList(
+              new FunctionExprent(counters, FunctionExprent.FUNCTION_LT, Arrays.asList(new VarExprent(counters, var, type, varProc),
+                ConstExprent.getZeroConstant(counters, type.type)), null),
+              new ConstExprent(counters, VarType.VARTYPE_INT, -1, null),
+              new ConstExprent(counters, VarType.VARTYPE_INT, 1, null)), null);
 
-            FunctionExprent head = new FunctionExprent(FunctionExprent.FUNCTION_EQ, Arrays.asList(
-              new AssignmentExprent(new VarExprent(var, type, varProc),
-                                    new FunctionExprent(FunctionExprent.FUNCTION_SUB, Arrays.asList(lstOperands.get(0), lstOperands.get(1)), null),
+            FunctionExprent head = new FunctionExprent(counters, FunctionExprent.FUNCTION_EQ, Arrays.asList(
+              new AssignmentExprent(counters, new VarExprent(counters, var, type, varProc),
+                                    new FunctionExprent(counters, FunctionExprent.FUNCTION_SUB, Arrays.asList(lstOperands.get(0), lstOperands.get(1)), null),
                                     null),
-              ConstExprent.getZeroConstant(type.type)), null);
+              ConstExprent.getZeroConstant(counters, type.type)), null);
 
             varProc.setVarType(new VarVersionPair(var, 0), type);
 
-            return new FunctionExprent(FunctionExprent.FUNCTION_IIF, Arrays.asList(
-              head, new ConstExprent(VarType.VARTYPE_INT, 0, null), iff), fexpr.bytecode);
+            return new FunctionExprent(counters, FunctionExprent.FUNCTION_IIF, Arrays.asList(
+              head, new ConstExprent(counters, VarType.VARTYPE_INT, 0, null), iff), fexpr.bytecode);
         }
         break;
       case Exprent.EXPRENT_ASSIGNMENT: // check for conditional assignment
@@ -399,7 +400,7 @@ public final class SecondaryFunctionsHelper {
             case FunctionExprent.FUNCTION_COR:
               List<Exprent> operands = fparam.getLstOperands();
               for (int i = 0; i < operands.size(); i++) {
-                Exprent newparam = new FunctionExprent(FunctionExprent.FUNCTION_BOOL_NOT, operands.get(i), operands.get(i).bytecode);
+                Exprent newparam = new FunctionExprent(exprent.getCounters(), FunctionExprent.FUNCTION_BOOL_NOT, operands.get(i), operands.get(i).bytecode);
 
                 Exprent retparam = propagateBoolNot(newparam);
                 operands.set(i, retparam == null ? newparam : retparam);
@@ -4,6 +4,7 @@ package org.jetbrains.java.decompiler.modules.decompiler;
 import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.rels.ClassWrapper;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.*;
@@ -229,7 +230,7 @@ public class SimplifyExprentsHelper {
                   if (init.type == Exprent.EXPRENT_CONST) {
                     ConstExprent cinit = (ConstExprent)init;
                     VarType arrType = newExpr.getNewType().decreaseArrayDim();
-                    ConstExprent defaultVal = ExprProcessor.getDefaultArrayValue(arrType);
+                    ConstExprent defaultVal = ExprProcessor.getDefaultArrayValue(newExpr.getCounters(), arrType);
 
                     if (cinit.equals(defaultVal)) {
                       Exprent tempExpr = aas.getRight();
@@ -315,7 +316,7 @@ public class SimplifyExprentsHelper {
             List<Exprent> lstRet = new ArrayList<>();
 
             VarType arrayType = newExpr.getNewType().decreaseArrayDim();
-            ConstExprent defaultVal = ExprProcessor.getDefaultArrayValue(arrayType);
+            ConstExprent defaultVal = ExprProcessor.getDefaultArrayValue(newExpr.getCounters(), arrayType);
             for (int j = 0; j < size; j++) {
               lstRet.add(defaultVal.copy());
             }
@@ -387,7 +388,7 @@ public class SimplifyExprentsHelper {
       if (asf.getLeft().type == Exprent.EXPRENT_VAR && ass.getRight().type == Exprent.EXPRENT_VAR &&
           asf.getLeft().equals(ass.getRight()) && ((VarExprent)asf.getLeft()).isStack()) {
         if (ass.getLeft().type != Exprent.EXPRENT_VAR || !((VarExprent)ass.getLeft()).isStack()) {
-          asf.setRight(new AssignmentExprent(ass.getLeft(), asf.getRight(), ass.bytecode));
+          asf.setRight(new AssignmentExprent(ass.getCounters(), ass.getLeft(), asf.getRight(), ass.bytecode));
           return true;
         }
       }
@@ -446,7 +447,7 @@ public class SimplifyExprentsHelper {
 
             if (left.type != Exprent.EXPRENT_VAR && left.equals(econd)) {
               int type = func.getFuncType() == FunctionExprent.FUNCTION_ADD ? FunctionExprent.FUNCTION_PPI : FunctionExprent.FUNCTION_MMI;
-              FunctionExprent ret = new FunctionExprent(type, econd, func.bytecode);
+              FunctionExprent ret = new FunctionExprent(func.getCounters(), type, econd, func.bytecode);
               ret.setImplicitType(VarType.VARTYPE_INT);
               return ret;
             }
@@ -514,7 +515,7 @@ public class SimplifyExprentsHelper {
         (af.getLeft().getExprentUse() & Exprent.MULTIPLE_USES) != 0) {
       int type = func.getFuncType() == FunctionExprent.FUNCTION_ADD ? FunctionExprent.FUNCTION_IPP : FunctionExprent.FUNCTION_IMM;
 
-      FunctionExprent ret = new FunctionExprent(type, af.getRight(), func.bytecode);
+      FunctionExprent ret = new FunctionExprent(func.getCounters(), type, af.getRight(), func.bytecode);
       ret.setImplicitType(VarType.VARTYPE_INT);
 
       af.setRight(ret);
@@ -681,7 +682,7 @@ public class SimplifyExprentsHelper {
         ClassNode lambda_class = DecompilerContext.getClassProcessor().getMapRootClasses().get(lambda_class_name);
 
         if (lambda_class != null) { // real lambda class found, replace invocation with an anonymous class
-          NewExprent newExpr = new NewExprent(new VarType(lambda_class_name, true), null, 0, in.bytecode);
+          NewExprent newExpr = new NewExprent(in.getCounters(), new VarType(lambda_class_name, true), null, 0, in.bytecode);
           newExpr.setConstructor(in);
           // note: we don't set the instance to null with in.setInstance(null) like it is done for a common constructor invocation
           // lambda can also be a reference to a virtual method (e.g. String x; ...(x::toString);)
@@ -722,6 +723,7 @@ public class SimplifyExprentsHelper {
       IfStatement statement = (IfStatement)stat;
       Exprent ifHeadExpr = statement.getHeadexprent();
       BitSet ifHeadExprBytecode = (ifHeadExpr == null ? null : ifHeadExpr.bytecode);
+      CounterContainer counters = statement.getCounters();
 
       if (statement.iftype == IfStatement.IFTYPE_IFELSE) {
         Statement ifStatement = statement.getIfstat();
@@ -758,7 +760,7 @@ public class SimplifyExprentsHelper {
                   List<Exprent> data = new ArrayList<>(statement.getFirst().getExprents());
 
                   List<Exprent> operands = Arrays.asList(statement.getHeadexprent().getCondition(), ifAssign.getRight(), elseAssign.getRight());
-                  data.add(new AssignmentExprent(ifVar, new FunctionExprent(FunctionExprent.FUNCTION_IIF, operands, ifHeadExprBytecode), ifHeadExprBytecode));
+                  data.add(new AssignmentExprent(counters, ifVar, new FunctionExprent(counters, FunctionExprent.FUNCTION_IIF, operands, ifHeadExprBytecode), ifHeadExprBytecode));
                   statement.setExprents(data);
 
                   if (statement.getAllSuccessorEdges().isEmpty()) {
@@ -798,11 +800,11 @@ public class SimplifyExprentsHelper {
 
               List<Exprent> data = new ArrayList<>(statement.getFirst().getExprents());
 
-              data.add(new ExitExprent(ifExit.getExitType(), new FunctionExprent(FunctionExprent.FUNCTION_IIF,
-                                                                               Arrays.asList(
-                                                                                 statement.getHeadexprent().getCondition(),
-                                                                                 ifExit.getValue(),
-                                                                                 elseExit.getValue()), ifHeadExprBytecode), ifExit.getRetType(), ifHeadExprBytecode, ifExit.getMethodDescriptor()));
+              data.add(new ExitExprent(counters, ifExit.getExitType(), new FunctionExprent(counters, FunctionExprent.FUNCTION_IIF,
+                                                                                         Arrays.asList(
+                                                                                           statement.getHeadexprent().getCondition(),
+                                                                                           ifExit.getValue(),
+                                                                                           elseExit.getValue()), ifHeadExprBytecode), ifExit.getRetType(), ifHeadExprBytecode, ifExit.getMethodDescriptor()));
               statement.setExprents(data);
 
               StatEdge retEdge = ifStatement.getAllSuccessorEdges().get(0);
@@ -832,7 +834,7 @@ public class SimplifyExprentsHelper {
       AssignmentExprent assignment = (AssignmentExprent)class14Builder.getVariableValue("$assignfield$");
       FieldExprent fieldExpr = (FieldExprent)class14Builder.getVariableValue("$field$");
 
-      assignment.replaceExprent(assignment.getRight(), new ConstExprent(VarType.VARTYPE_CLASS, class_name, null));
+      assignment.replaceExprent(assignment.getRight(), new ConstExprent(stat.getCounters(), VarType.VARTYPE_CLASS, class_name, null));
 
       List<Exprent> data = new ArrayList<>(stat.getFirst().getExprents());
 
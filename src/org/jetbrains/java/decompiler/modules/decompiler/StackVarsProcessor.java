@@ -92,14 +92,12 @@ public class StackVarsProcessor {
   }
 
   private static void setExprentVersionsToNull(Exprent exprent) {
-    List<Exprent> lst = exprent.getAllExprents(true);
-    lst.add(exprent);
-
-    for (Exprent expr : lst) {
+    exprent.walk(expr -> {
       if (expr.type == Exprent.EXPRENT_VAR) {
         ((VarExprent)expr).setVersion(0);
       }
-    }
+      return true;
+    });
   }
 
   private boolean iterateStatements(RootStatement root, SSAUConstructorSparseEx ssa) {
@@ -390,19 +388,7 @@ public class StackVarsProcessor {
   }
 
   private static Set<VarVersionPair> getAllVersions(Exprent exprent) {
-    Set<VarVersionPair> res = new HashSet<>();
-
-    List<Exprent> listTemp = new ArrayList<>(exprent.getAllExprents(true));
-    listTemp.add(exprent);
-
-    for (Exprent expr : listTemp) {
-      if (expr.type == Exprent.EXPRENT_VAR) {
-        VarExprent var = (VarExprent)expr;
-        res.add(new VarVersionPair(var));
-      }
-    }
-
-    return res;
+    return exprent.getAllVariables();
   }
 
   private static Object[] iterateChildExprent(Exprent exprent,
@@ -594,8 +580,8 @@ public class StackVarsProcessor {
     }
 
     // compare protected ranges
-    if (!InterpreterUtil.equalObjects(ssau.getMapVersionFirstRange().get(leftpaar),
-                                      ssau.getMapVersionFirstRange().get(usedvar))) {
+    if (!InterpreterUtil.equalObjects(ssau.getMapVersionFirstRange().get(leftpaar.toLong()),
+                                      ssau.getMapVersionFirstRange().get(usedvar.toLong()))) {
       return false;
     }
 
@@ -635,10 +621,7 @@ public class StackVarsProcessor {
     Map<Integer, Set<VarVersionPair>> map = new HashMap<>();
     SFormsFastMapDirect mapLiveVars = ssau.getLiveVarVersionsMap(leftvar);
 
-    List<Exprent> lst = exprent.getAllExprents(true);
-    lst.add(exprent);
-
-    for (Exprent expr : lst) {
+    exprent.walk(expr -> {
       if (expr.type == Exprent.EXPRENT_VAR) {
         int varindex = ((VarExprent)expr).getIndex();
         if (leftvar.var != varindex) {
@@ -669,7 +652,8 @@ public class StackVarsProcessor {
           }
         }
       }
-    }
+      return true;
+    });
 
     return map;
   }
@@ -738,7 +722,7 @@ public class StackVarsProcessor {
                   VarVersionNode next = null;
                   if (vvnode.var >= VarExprent.STACK_BASE) {
                     vvnode = vvnode.preds.iterator().next().source;
-                    VarVersionPair nextVVP = ssau.getVarAssignmentMap().get(new VarVersionPair(vvnode.var, vvnode.version));
+                    VarVersionPair nextVVP = ssau.getVarAssignmentMap().get(VarVersionPair.toLong(vvnode.var, vvnode.version));
                     next = ssau.getSsuversions().nodes.getWithKey(nextVVP);
 
                     if (nextVVP != null && nextVVP.var < 0) { // TODO check if field is final?
@@ -766,7 +750,7 @@ public class StackVarsProcessor {
                       if (roots.size() == 1) {
                         vvnode = roots.get(0);
                         vvp = new VarVersionPair(vvnode.var, vvnode.version);
-                        VarVersionPair nextVVP = ssau.getVarAssignmentMap().get(vvp);
+                        VarVersionPair nextVVP = ssau.getVarAssignmentMap().get(vvp.toLong());
                         next = ssau.getSsuversions().nodes.getWithKey(nextVVP);
                         if (nextVVP != null && nextVVP.var < 0) {
                           vvp = nextVVP;
@@ -8,6 +8,7 @@ import org.jetbrains.java.decompiler.code.SimpleInstructionSequence;
 import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
 import org.jetbrains.java.decompiler.code.cfg.ControlFlowGraph;
 import org.jetbrains.java.decompiler.code.cfg.ExceptionRangeCFG;
+import org.jetbrains.java.decompiler.code.cfg.ProtectedRange;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.modules.decompiler.decompose.GenericDominatorEngine;
@@ -23,10 +24,10 @@ public final class ExceptionDeobfuscator {
   private static final class Range {
     private final BasicBlock handler;
     private final String uniqueStr;
-    private final Set<BasicBlock> protectedRange;
+    private final BitSet protectedRange; // ids of the protected blocks
     private final ExceptionRangeCFG rangeCFG;
 
-    private Range(BasicBlock handler, String uniqueStr, Set<BasicBlock> protectedRange, ExceptionRangeCFG rangeCFG) {
+    private Range(BasicBlock handler, String uniqueStr, BitSet protectedRange, ExceptionRangeCFG rangeCFG) {
       this.handler = handler;
       this.uniqueStr = uniqueStr;
       this.protectedRange = protectedRange;
@@ -43,7 +44,7 @@ public final class ExceptionDeobfuscator {
       boolean found = false;
       for (Range arr : lstRanges) {
         if (arr.handler == range.getHandler() && InterpreterUtil.equalObjects(range.getUniqueExceptionsString(), arr.uniqueStr)) {
-          arr.protectedRange.addAll(range.getProtectedRange());
+          arr.protectedRange.or(range.getProtectedRange().getIds());
           found = true;
           break;
         }
@@ -51,7 +52,7 @@ public final class ExceptionDeobfuscator {
 
       if (!found) {
         // doesn't matter, which range chosen
-        lstRanges.add(new Range(range.getHandler(), range.getUniqueExceptionsString(), new HashSet<>(range.getProtectedRange()), range));
+        lstRanges.add(new Range(range.getHandler(), range.getUniqueExceptionsString(), range.getProtectedRange().getIds(), range));
       }
     }
 
@@ -69,25 +70,26 @@ public final class ExceptionDeobfuscator {
 
           if (firstinstr.opcode == CodeConstants.opc_pop ||
               firstinstr.opcode == CodeConstants.opc_astore) {
-            Set<BasicBlock> setrange = new HashSet<>(range.protectedRange);
+            BitSet setrange = range.protectedRange;
 
             for (Range range_super : lstRanges) { // finally or strict superset
 
               if (range != range_super) {
 
-                Set<BasicBlock> setrange_super = new HashSet<>(range_super.protectedRange);
+                BitSet setrange_super = range_super.protectedRange;
 
-                if (!setrange.contains(range_super.handler) && !setrange_super.contains(handler)
-                    && (range_super.uniqueStr == null || setrange_super.containsAll(setrange))) {
+                if (!setrange.get(range_super.handler.id) && !setrange_super.get(handler.id)
+                    && (range_super.uniqueStr == null || isSubset(setrange, setrange_super))) {
 
+                  boolean overlap;
                   if (range_super.uniqueStr == null) {
-                    setrange_super.retainAll(setrange);
+                    overlap = setrange_super.intersects(setrange);
                   }
                   else {
-                    setrange_super.removeAll(setrange);
+                    overlap = !isSubset(setrange_super, setrange);
                   }
 
-                  if (!setrange_super.isEmpty()) {
+                  if (overlap) {
 
                     BasicBlock newblock = handler;
 
@@ -145,6 +147,12 @@ public final class ExceptionDeobfuscator {
     }
   }
 
+  private static boolean isSubset(BitSet set, BitSet superset) {
+    BitSet rest = (BitSet)set.clone();
+    rest.andNot(superset);
+    return rest.isEmpty();
+  }
+
   public static void insertEmptyExceptionHandlerBlocks(ControlFlowGraph graph) {
 
     Set<BasicBlock> setVisited = new HashSet<>();
@@ -283,27 +291,35 @@ public final class ExceptionDeobfuscator {
   }
 
   public static boolean hasObfuscatedExceptions(ControlFlowGraph graph) {
-    Map<BasicBlock, Set<BasicBlock>> mapRanges = new HashMap<>();
+    // protected blocks of all ranges of a handler, as ids and as blocks
+    Map<BasicBlock, BitSet> mapRanges = new HashMap<>();
+    Map<BasicBlock, List<BasicBlock>> mapBlocks = new HashMap<>();
     for (ExceptionRangeCFG range : graph.getExceptions()) {
-      mapRanges.computeIfAbsent(range.getHandler(), k -> new HashSet<>()).addAll(range.getProtectedRange());
+      BitSet ids = mapRanges.computeIfAbsent(range.getHandler(), k -> new BitSet());
+      List<BasicBlock> blocks = mapBlocks.computeIfAbsent(range.getHandler(), k -> new ArrayList<>());
+      for (BasicBlock block : range.getProtectedRange()) {
+        if (!ids.get(block.id)) {
+          ids.set(block.id);
+          blocks.add(block);
+        }
+      }
     }
 
-    for (Entry<BasicBlock, Set<BasicBlock>> ent : mapRanges.entrySet()) {
-      Set<BasicBlock> setEntries = new HashSet<>();
-
-      for (BasicBlock block : ent.getValue()) {
-        Set<BasicBlock> setTemp = new HashSet<>(block.getPreds());
-        setTemp.removeAll(ent.getValue());
+    for (Entry<BasicBlock, BitSet> ent : mapRanges.entrySet()) {
+      BitSet ids = ent.getValue();
+      int entries = 0;
 
-        if (!setTemp.isEmpty()) {
-          setEntries.add(block);
+      for (BasicBlock block : mapBlocks.get(ent.getKey())) {
+        for (BasicBlock pred : block.getPreds()) {
+          if (!ids.get(pred.id)) {
+            entries++;
+            break;
+          }
         }
       }
 
-      if (!setEntries.isEmpty()) {
-        if (setEntries.size() > 1 /*|| ent.getValue().contains(first)*/) {
-          return true;
-        }
+      if (entries > 1 /*|| ent.getValue().contains(first)*/) {
+        return true;
       }
     }
 
@@ -354,14 +370,14 @@ public final class ExceptionDeobfuscator {
 
   private static Set<BasicBlock> getRangeEntries(ExceptionRangeCFG range) {
     Set<BasicBlock> setEntries = new HashSet<>();
-    Set<BasicBlock> setRange = new HashSet<>(range.getProtectedRange());
-
-    for (BasicBlock block : range.getProtectedRange()) {
-      Set<BasicBlock> setPreds = new HashSet<>(block.getPreds());
-      setPreds.removeAll(setRange);
+    ProtectedRange setRange = range.getProtectedRange();
 
-      if (!setPreds.isEmpty()) {
-        setEntries.add(block);
+    for (BasicBlock block : setRange) {
+      for (BasicBlock pred : block.getPreds()) {
+        if (!setRange.contains(pred)) {
+          setEntries.add(block);
+          break;
+        }
       }
     }
 
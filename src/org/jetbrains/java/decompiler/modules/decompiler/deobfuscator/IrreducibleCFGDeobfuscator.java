@@ -12,8 +12,51 @@ import java.util.Set;
 
 public final class IrreducibleCFGDeobfuscator {
 
+  /**
+   * Limits the number of instructions duplicated while splitting the nodes of a method, so that the code growth of
+   * splitting, which can be exponential in the worst case, stays bounded.
+   */
+  public static final class SplittingBudget {
+    private final long limit;
+    private long used;
+
+    /**
+     * @param limit the maximum number of duplicated instructions, 0 for no limit
+     */
+    public SplittingBudget(long limit) {
+      this.limit = limit;
+    }
+
+    public boolean isExceeded() {
+      return limit > 0 && used > limit;
+    }
+
+    public long getLimit() {
+      return limit;
+    }
+
+    private boolean tryCharge(int size) {
+      if (limit > 0 && used + size > limit) {
+        used = limit + 1;
+        return false;
+      }
+      used += size;
+      return true;
+    }
+  }
 
   public static boolean isStatementIrreducible(Statement statement) {
+    Set<Integer> core = getIrreducibleCore(statement);
+    return core != null && core.size() > 1;
+  }
+
+  /**
+   * Reduces the graph of the statement's children with the T1 and T2 transformations.
+   *
+   * @return the ids of the children left when no transformation applies, a single one if the graph is reducible, or null
+   * if the children have exception edges
+   */
+  private static Set<Integer> getIrreducibleCore(Statement statement) {
 
     class Node {
       public final Integer id;
@@ -30,7 +73,7 @@ public final class IrreducibleCFGDeobfuscator {
     // checking exceptions and creating nodes
     for (Statement stat : statement.getStats()) {
       if (!stat.getSuccessorEdges(StatEdge.TYPE_EXCEPTION).isEmpty()) {
-        return false;
+        return null;
       }
 
       mapNodes.put(stat.id, new Node(stat.id));
@@ -87,7 +130,7 @@ public final class IrreducibleCFGDeobfuscator {
         }
       }
       else { // no transformation applicable
-        return mapNodes.size() > 1; // reducible iff one node remains
+        return mapNodes.keySet(); // reducible iff one node remains
       }
     }
   }
@@ -99,7 +142,13 @@ public final class IrreducibleCFGDeobfuscator {
     int sizeCandidateForSplitting = Integer.MAX_VALUE;
     int succsCandidateForSplitting = Integer.MAX_VALUE;
 
+    // copying a node outside of the irreducible core does not make the graph any more reducible
+    Set<Integer> core = getIrreducibleCore(statement);
+
     for (Statement stat : statement.getStats()) {
+      if (core != null && !core.contains(stat.id)) {
+        continue;
+      }
 
       Set<Statement> setPreds = stat.getNeighboursSet(StatEdge.TYPE_REGULAR, Statement.DIRECTION_BACKWARD);
 
@@ -121,13 +170,21 @@ public final class IrreducibleCFGDeobfuscator {
     return candidateForSplitting;
   }
 
-  public static boolean splitIrreducibleNode(Statement statement) {
+  /**
+   * @return false if no node can be split, or if splitting the cheapest one would exceed the budget
+   */
+  public static boolean splitIrreducibleNode(Statement statement, SplittingBudget budget) {
 
     Statement splitnode = getCandidateForSplitting(statement);
     if (splitnode == null) {
       return false;
     }
 
+    // empty blocks are charged too, so that the number of splits is bounded as well
+    if (!budget.tryCharge(Math.max(1, getStatementSize(splitnode)))) {
+      return false;
+    }
+
     StatEdge enteredge = splitnode.getPredecessorEdges(StatEdge.TYPE_REGULAR).iterator().next();
 
     // copy the smallest statement
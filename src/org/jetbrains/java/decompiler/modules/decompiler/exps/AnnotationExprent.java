@@ -5,6 +5,7 @@ package org.jetbrains.java.decompiler.modules.decompiler.exps;
 
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
 import org.jetbrains.java.decompiler.util.TextBuffer;
@@ -21,8 +22,8 @@ public class AnnotationExprent extends Exprent {
   private final List<String> parNames;
   private final List<? extends Exprent> parValues;
 
-  public AnnotationExprent(String className, List<String> parNames, List<? extends Exprent> parValues) {
-    super(EXPRENT_ANNOTATION);
+  public AnnotationExprent(CounterContainer counters, String className, List<String> parNames, List<? extends Exprent> parValues) {
+    super(EXPRENT_ANNOTATION, counters);
     this.className = className;
     this.parNames = parNames;
     this.parValues = parValues;
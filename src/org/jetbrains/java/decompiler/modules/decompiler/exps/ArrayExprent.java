@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.modules.decompiler.exps;
 
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
 import org.jetbrains.java.decompiler.modules.decompiler.vars.CheckTypesResult;
 import org.jetbrains.java.decompiler.struct.gen.VarType;
@@ -11,14 +12,15 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class ArrayExprent extends Exprent {
   private Exprent array;
   private Exprent index;
   private final VarType hardType;
 
-  public ArrayExprent(Exprent array, Exprent index, VarType hardType, BitSet bytecodeOffsets) {
-    super(EXPRENT_ARRAY);
+  public ArrayExprent(CounterContainer counters, Exprent array, Exprent index, VarType hardType, BitSet bytecodeOffsets) {
+    super(EXPRENT_ARRAY, counters);
     this.array = array;
     this.index = index;
     this.hardType = hardType;
@@ -28,7 +30,7 @@ public class ArrayExprent extends Exprent {
 
   @Override
   public Exprent copy() {
-    return new ArrayExprent(array.copy(), index.copy(), hardType, bytecode);
+    return new ArrayExprent(getCounters(), array.copy(), index.copy(), hardType, bytecode);
   }
 
   @Override
@@ -74,6 +76,11 @@ public class ArrayExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return array.walk(visitor) && index.walk(visitor);
+  }
+
   @Override
   public TextBuffer toJava(int indent, BytecodeMappingTracer tracer) {
     TextBuffer res = array.toJava(indent, tracer);
@@ -5,6 +5,7 @@ package org.jetbrains.java.decompiler.modules.decompiler.exps;
 
 import org.jetbrains.java.decompiler.util.TextBuffer;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 
 import java.util.BitSet;
 import java.util.List;
@@ -13,8 +14,8 @@ public class AssertExprent extends Exprent {
 
   private final List<? extends Exprent> parameters;
 
-  public AssertExprent(List<? extends Exprent> parameters) {
-    super(EXPRENT_ASSERT);
+  public AssertExprent(CounterContainer counters, List<? extends Exprent> parameters) {
+    super(EXPRENT_ASSERT, counters);
     this.parameters = parameters;
   }
 
@@ -7,6 +7,7 @@ import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
 import org.jetbrains.java.decompiler.modules.decompiler.vars.CheckTypesResult;
 import org.jetbrains.java.decompiler.struct.StructField;
@@ -17,6 +18,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class AssignmentExprent extends Exprent {
 
@@ -40,8 +42,8 @@ public class AssignmentExprent extends Exprent {
   private Exprent right;
   private int condType = CONDITION_NONE;
 
-  public AssignmentExprent(Exprent left, Exprent right, BitSet bytecodeOffsets) {
-    super(EXPRENT_ASSIGNMENT);
+  public AssignmentExprent(CounterContainer counters, Exprent left, Exprent right, BitSet bytecodeOffsets) {
+    super(EXPRENT_ASSIGNMENT, counters);
     this.left = left;
     this.right = right;
 
@@ -86,9 +88,14 @@ public class AssignmentExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return left.walk(visitor) && right.walk(visitor);
+  }
+
   @Override
   public Exprent copy() {
-    return new AssignmentExprent(left.copy(), right.copy(), bytecode);
+    return new AssignmentExprent(getCounters(), left.copy(), right.copy(), bytecode);
   }
 
   @Override
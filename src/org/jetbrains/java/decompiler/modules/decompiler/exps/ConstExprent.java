@@ -6,6 +6,7 @@ import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
 import org.jetbrains.java.decompiler.struct.gen.generics.GenericType;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
 import org.jetbrains.java.decompiler.struct.gen.FieldDescriptor;
@@ -18,9 +19,9 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 import org.jetbrains.java.decompiler.util.TextUtil;
 
 import java.util.*;
-import java.util.Map.Entry;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 public class ConstExprent extends Exprent {
@@ -134,16 +135,16 @@ public class ConstExprent extends Exprent {
   private final Object value;
   private final boolean boolPermitted;
 
-  public ConstExprent(int val, boolean boolPermitted, BitSet bytecodeOffsets) {
-    this(guessType(val, boolPermitted), val, boolPermitted, bytecodeOffsets);
+  public ConstExprent(CounterContainer counters, int val, boolean boolPermitted, BitSet bytecodeOffsets) {
+    this(counters, guessType(val, boolPermitted), val, boolPermitted, bytecodeOffsets);
   }
 
-  public ConstExprent(VarType constType, Object value, BitSet bytecodeOffsets) {
-    this(constType, value, false, bytecodeOffsets);
+  public ConstExprent(CounterContainer counters, VarType constType, Object value, BitSet bytecodeOffsets) {
+    this(counters, constType, value, false, bytecodeOffsets);
   }
 
-  private ConstExprent(VarType constType, Object value, boolean boolPermitted, BitSet bytecodeOffsets) {
-    super(EXPRENT_CONST);
+  private ConstExprent(CounterContainer counters, VarType constType, Object value, boolean boolPermitted, BitSet bytecodeOffsets) {
+    super(EXPRENT_CONST, counters);
     this.constType = constType;
     this.value = value;
     this.boolPermitted = boolPermitted;
@@ -151,7 +152,7 @@ public class ConstExprent extends Exprent {
 
     if (constType.equals(VarType.VARTYPE_CLASS) && value != null) {
       String stringVal = value.toString();
-      List<VarType> args = Collections.singletonList(new VarType(stringVal, !stringVal.startsWith("[")));
+      List<VarType> args = Collections.singletonList(VarType.of(stringVal, !stringVal.startsWith("[")));
       this.constType = new GenericType(constType.type, constType.arrayDim, constType.value, null, args, GenericType.WILDCARD_NO);
     }
   }
@@ -190,7 +191,7 @@ public class ConstExprent extends Exprent {
 
   @Override
   public Exprent copy() {
-    return new ConstExprent(constType, value, bytecode);
+    return new ConstExprent(getCounters(), constType, value, bytecode);
   }
 
   @Override
@@ -208,6 +209,11 @@ public class ConstExprent extends Exprent {
     return new ArrayList<>();
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return true;
+  }
+
   @Override
   public TextBuffer toJava(int indent, BytecodeMappingTracer tracer) {
     boolean literal = DecompilerContext.getOption(IFernflowerPreferences.LITERALS_AS_IS);
@@ -245,10 +251,10 @@ public class ConstExprent extends Exprent {
         int intVal = (Integer)value;
         if (!literal) {
           if (intVal == Integer.MAX_VALUE) {
-            return new FieldExprent("MAX_VALUE", "java/lang/Integer", true, null, FieldDescriptor.INTEGER_DESCRIPTOR, bytecode).toJava(0, tracer);
+            return new FieldExprent(getCounters(), "MAX_VALUE", "java/lang/Integer", true, null, FieldDescriptor.INTEGER_DESCRIPTOR, bytecode).toJava(0, tracer);
           }
           else if (intVal == Integer.MIN_VALUE) {
-            return new FieldExprent("MIN_VALUE", "java/lang/Integer", true, null, FieldDescriptor.INTEGER_DESCRIPTOR, bytecode).toJava(0, tracer);
+            return new FieldExprent(getCounters(), "MIN_VALUE", "java/lang/Integer", true, null, FieldDescriptor.INTEGER_DESCRIPTOR, bytecode).toJava(0, tracer);
           }
         }
         return new TextBuffer(value.toString());
@@ -257,10 +263,10 @@ public class ConstExprent extends Exprent {
         long longVal = (Long)value;
         if (!literal) {
           if (longVal == Long.MAX_VALUE) {
-            return new FieldExprent("MAX_VALUE", "java/lang/Long", true, null, FieldDescriptor.LONG_DESCRIPTOR, bytecode).toJava(0, tracer);
+            return new FieldExprent(getCounters(), "MAX_VALUE", "java/lang/Long", true, null, FieldDescriptor.LONG_DESCRIPTOR, bytecode).toJava(0, tracer);
           }
           else if (longVal == Long.MIN_VALUE) {
-            return new FieldExprent("MIN_VALUE", "java/lang/Long", true, null, FieldDescriptor.LONG_DESCRIPTOR, bytecode).toJava(0, tracer);
+            return new FieldExprent(getCounters(), "MIN_VALUE", "java/lang/Long", true, null, FieldDescriptor.LONG_DESCRIPTOR, bytecode).toJava(0, tracer);
           }
         }
         return new TextBuffer(value.toString()).append('L');
@@ -269,7 +275,7 @@ public class ConstExprent extends Exprent {
         float floatVal = (Float)value;
         if (!literal) {
           if (Float.isNaN(floatVal)) {
-            return new FieldExprent("NaN", "java/lang/Float", true, null, FieldDescriptor.FLOAT_DESCRIPTOR, bytecode).toJava(0, tracer);
+            return new FieldExprent(getCounters(), "NaN", "java/lang/Float", true, null, FieldDescriptor.FLOAT_DESCRIPTOR, bytecode).toJava(0, tracer);
           }
           else if (UNINLINED_FLOATS.containsKey(floatVal)) {
             return UNINLINED_FLOATS.get(floatVal).apply(tracer, bytecode);
@@ -294,7 +300,7 @@ public class ConstExprent extends Exprent {
         double doubleVal = (Double)value;
         if (!literal) {
           if (Double.isNaN(doubleVal)) {
-            return new FieldExprent("NaN", "java/lang/Double", true, null, FieldDescriptor.DOUBLE_DESCRIPTOR, bytecode).toJava(0, tracer);
+            return new FieldExprent(getCounters(), "NaN", "java/lang/Double", true, null, FieldDescriptor.DOUBLE_DESCRIPTOR, bytecode).toJava(0, tracer);
           }
           else if (UNINLINED_DOUBLES.containsKey(doubleVal)) {
             return UNINLINED_DOUBLES.get(doubleVal).apply(tracer, bytecode);
@@ -335,7 +341,7 @@ public class ConstExprent extends Exprent {
         }
         else if (constType.equals(VarType.VARTYPE_CLASS)) {
           String stringVal = value.toString();
-          VarType type = new VarType(stringVal, !stringVal.startsWith("["));
+          VarType type = VarType.of(stringVal, !stringVal.startsWith("["));
           return new TextBuffer(ExprProcessor.getCastTypeName(type)).append(".class");
         }
     }
@@ -348,11 +354,11 @@ public class ConstExprent extends Exprent {
   }
 
   private static TextBuffer getDouble(BytecodeMappingTracer tracer, BitSet bytecode, String name, String className) {
-    return new FieldExprent(name, className, true, null, FieldDescriptor.DOUBLE_DESCRIPTOR, bytecode).toJava(0, tracer);
+    return new FieldExprent(DecompilerContext.getCounterContainer(), name, className, true, null, FieldDescriptor.DOUBLE_DESCRIPTOR, bytecode).toJava(0, tracer);
   }
 
   private static TextBuffer getFloat(BytecodeMappingTracer tracer, BitSet bytecode, String name, String className) {
-    return new FieldExprent(name, className, true, null, FieldDescriptor.FLOAT_DESCRIPTOR, bytecode).toJava(0, tracer);
+    return new FieldExprent(DecompilerContext.getCounterContainer(), name, className, true, null, FieldDescriptor.FLOAT_DESCRIPTOR, bytecode).toJava(0, tracer);
   }
 
   // Different JVM implementations/version display Floats and Doubles with different number of trailing zeros.
@@ -475,16 +481,16 @@ public class ConstExprent extends Exprent {
     return false;
   }
 
-  public static ConstExprent getZeroConstant(int type) {
+  public static ConstExprent getZeroConstant(CounterContainer counters, int type) {
     switch (type) {
       case CodeConstants.TYPE_INT:
-        return new ConstExprent(VarType.VARTYPE_INT, 0, null);
+        return new ConstExprent(counters, VarType.VARTYPE_INT, 0, null);
       case CodeConstants.TYPE_LONG:
-        return new ConstExprent(VarType.VARTYPE_LONG, 0L, null);
+        return new ConstExprent(counters, VarType.VARTYPE_LONG, 0L, null);
       case CodeConstants.TYPE_DOUBLE:
-        return new ConstExprent(VarType.VARTYPE_DOUBLE, 0d, null);
+        return new ConstExprent(counters, VarType.VARTYPE_DOUBLE, 0d, null);
       case CodeConstants.TYPE_FLOAT:
-        return new ConstExprent(VarType.VARTYPE_FLOAT, 0f, null);
+        return new ConstExprent(counters, VarType.VARTYPE_FLOAT, 0f, null);
     }
 
     throw new RuntimeException("Invalid argument: " + type);
@@ -550,22 +556,12 @@ public class ConstExprent extends Exprent {
       return false;
     }
 
-    for (Entry<MatchProperties, RuleValue> rule : matchNode.getRules().entrySet()) {
-      RuleValue value = rule.getValue();
-      MatchProperties key = rule.getKey();
-
-      if (key == MatchProperties.EXPRENT_CONSTTYPE) {
-        if (!value.value.equals(this.constType)) {
-          return false;
-        }
-      }
-      else if (key == MatchProperties.EXPRENT_CONSTVALUE) {
-        if (value.isVariable() && !engine.checkAndSetVariableValue(value.value.toString(), this.value)) {
-          return false;
-        }
-      }
+    RuleValue constType = matchNode.getRule(MatchProperties.EXPRENT_CONSTTYPE);
+    if (constType != null && !constType.value.equals(this.constType)) {
+      return false;
     }
 
-    return true;
+    RuleValue constValue = matchNode.getRule(MatchProperties.EXPRENT_CONSTVALUE);
+    return constValue == null || !constValue.isVariable() || engine.checkAndSetVariableValue(constValue.value.toString(), this.value);
   }
 }
@@ -5,6 +5,7 @@ import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.rels.MethodWrapper;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
 import org.jetbrains.java.decompiler.modules.decompiler.vars.CheckTypesResult;
@@ -20,6 +21,7 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class ExitExprent extends Exprent {
 
@@ -31,8 +33,8 @@ public class ExitExprent extends Exprent {
   private final VarType retType;
   private final MethodDescriptor methodDescriptor;
 
-  public ExitExprent(int exitType, Exprent value, VarType retType, BitSet bytecodeOffsets, MethodDescriptor methodDescriptor) {
-    super(EXPRENT_EXIT);
+  public ExitExprent(CounterContainer counters, int exitType, Exprent value, VarType retType, BitSet bytecodeOffsets, MethodDescriptor methodDescriptor) {
+    super(EXPRENT_EXIT, counters);
     this.exitType = exitType;
     this.value = value;
     this.retType = retType;
@@ -43,7 +45,7 @@ public class ExitExprent extends Exprent {
 
   @Override
   public Exprent copy() {
-    return new ExitExprent(exitType, value == null ? null : value.copy(), retType, bytecode, methodDescriptor);
+    return new ExitExprent(getCounters(), exitType, value == null ? null : value.copy(), retType, bytecode, methodDescriptor);
   }
 
   @Override
@@ -67,6 +69,11 @@ public class ExitExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return value == null || value.walk(visitor);
+  }
+
   @Override
   public TextBuffer toJava(int indent, BytecodeMappingTracer tracer) {
     tracer.addMapping(bytecode);
@@ -111,7 +118,7 @@ public class ExitExprent extends Exprent {
           }
 
           if (classname != null) {
-            VarType exType = new VarType(classname, true);
+            VarType exType = VarType.of(classname, true);
             TextBuffer buffer = new TextBuffer("throw ");
             ExprProcessor.getCastedExprent(value, exType, buffer, indent, false, tracer);
             return buffer;
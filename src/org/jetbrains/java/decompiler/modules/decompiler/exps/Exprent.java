@@ -22,7 +22,6 @@ import org.jetbrains.java.decompiler.struct.gen.generics.GenericType;
 import org.jetbrains.java.decompiler.struct.match.IMatchable;
 import org.jetbrains.java.decompiler.struct.match.MatchEngine;
 import org.jetbrains.java.decompiler.struct.match.MatchNode;
-import org.jetbrains.java.decompiler.struct.match.MatchNode.RuleValue;
 
 import java.util.ArrayList;
 import java.util.BitSet;
@@ -32,8 +31,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Predicate;
 
 public abstract class Exprent implements IMatchable {
   public static final int MULTIPLE_USES = 1;
@@ -60,10 +59,16 @@ public abstract class Exprent implements IMatchable {
   public final int type;
   public final int id;
   public BitSet bytecode = null;  // offsets of bytecode instructions decompiled to this exprent
+  private final CounterContainer counters;  // counters of the method this exprent belongs to
 
-  public Exprent(int type) {
+  public Exprent(int type, CounterContainer counters) {
     this.type = type;
-    this.id = DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.EXPRESSION_COUNTER);
+    this.counters = counters;
+    this.id = counters.getCounterAndIncrement(CounterContainer.EXPRESSION_COUNTER);
+  }
+
+  public CounterContainer getCounters() {
+    return counters;
   }
 
   public int getPrecedence() {
@@ -88,16 +93,7 @@ public abstract class Exprent implements IMatchable {
   }
 
   public boolean containsExprent(Exprent exprent) {
-    if (equals(exprent)) {
-      return true;
-    }
-    List<Exprent> lst = getAllExprents();
-    for (int i = lst.size() - 1; i >= 0; i--) {
-      if (lst.get(i).containsExprent(exprent)) {
-        return true;
-      }
-    }
-    return false;
+    return !walk(expr -> !expr.equals(exprent));
   }
 
   public List<Exprent> getAllExprents(boolean recursive) {
@@ -111,18 +107,51 @@ public abstract class Exprent implements IMatchable {
   }
 
   public Set<VarVersionPair> getAllVariables() {
-    List<Exprent> lstAllExprents = getAllExprents(true);
-    lstAllExprents.add(this);
-
     Set<VarVersionPair> set = new HashSet<>();
-    for (Exprent expr : lstAllExprents) {
+    walk(expr -> {
       if (expr.type == EXPRENT_VAR) {
         set.add(new VarVersionPair((VarExprent)expr));
       }
-    }
+      return true;
+    });
     return set;
   }
 
+  /**
+   * Visits this exprent and then all of its sub-exprents, depth first, without building the intermediate lists
+   * that {@link #getAllExprents(boolean)} creates. Unlike that method, the visiting order is a plain pre-order,
+   * so callers that depend on the order of the list should keep using it.
+   * The tree must not be structurally modified while it is being walked.
+   *
+   * @param visitor called for every exprent, returning false stops the walk
+   * @return false if the walk was stopped by the visitor, true otherwise
+   */
+  public final boolean walk(Predicate<Exprent> visitor) {
+    return visitor.test(this) && walkChildren(visitor);
+  }
+
+  /**
+   * Walks all sub-exprents of this exprent, but not the exprent itself.
+   * Subclasses should override this to visit their operands directly; the default goes through {@link #getAllExprents()}.
+   */
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    for (Exprent expr : getAllExprents()) {
+      if (!expr.walk(visitor)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected static boolean walkAll(List<? extends Exprent> lst, Predicate<Exprent> visitor) {
+    for (int i = 0; i < lst.size(); i++) {
+      if (!lst.get(i).walk(visitor)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public List<Exprent> getAllExprents() {
     throw new RuntimeException("not implemented");
   }
@@ -340,10 +369,10 @@ public abstract class Exprent implements IMatchable {
       return null;
     }
 
-    String position = (String)matchNode.getRuleValue(MatchProperties.EXPRENT_POSITION);
-    if (position != null) {
-      if (position.matches("-?\\d+")) {
-        return lstAllExprents.get((lstAllExprents.size() + Integer.parseInt(position)) % lstAllExprents.size()); // care for negative positions
+    if (matchNode.getPosition() != null) {
+      Integer position = matchNode.getPositionIndex();
+      if (position != null) {
+        return lstAllExprents.get((lstAllExprents.size() + position) % lstAllExprents.size()); // care for negative positions
       }
     }
     else if (index < lstAllExprents.size()) { // use 'index' parameter
@@ -359,17 +388,13 @@ public abstract class Exprent implements IMatchable {
       return false;
     }
 
-    for (Entry<MatchProperties, RuleValue> rule : matchNode.getRules().entrySet()) {
-      MatchProperties key = rule.getKey();
-      if (key == MatchProperties.EXPRENT_TYPE && this.type != (Integer)rule.getValue().value) {
-        return false;
-      }
-      if (key == MatchProperties.EXPRENT_RET && !engine.checkAndSetVariableValue((String)rule.getValue().value, this)) {
-        return false;
-      }
+    Object type = matchNode.getRuleValue(MatchProperties.EXPRENT_TYPE);
+    if (type != null && this.type != (Integer)type) {
+      return false;
     }
 
-    return true;
+    Object ret = matchNode.getRuleValue(MatchProperties.EXPRENT_RET);
+    return ret == null || engine.checkAndSetVariableValue((String)ret, this);
   }
 
   @Override
@@ -7,9 +7,9 @@ import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.rels.MethodWrapper;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
-import org.jetbrains.java.decompiler.modules.decompiler.vars.VarVersionPair;
 import org.jetbrains.java.decompiler.struct.StructClass;
 import org.jetbrains.java.decompiler.struct.StructField;
 import org.jetbrains.java.decompiler.struct.attr.StructLocalVariableTableAttribute;
@@ -30,6 +30,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public class FieldExprent extends Exprent {
   private final String name;
@@ -39,16 +40,16 @@ public class FieldExprent extends Exprent {
   private final FieldDescriptor descriptor;
   private boolean forceQualified = false;
 
-  public FieldExprent(LinkConstant cn, Exprent instance, BitSet bytecodeOffsets) {
-    this(cn.elementname, cn.classname, instance == null, instance, FieldDescriptor.parseDescriptor(cn.descriptor), bytecodeOffsets);
+  public FieldExprent(CounterContainer counters, LinkConstant cn, Exprent instance, BitSet bytecodeOffsets) {
+    this(counters, cn.elementname, cn.classname, instance == null, instance, FieldDescriptor.parseDescriptor(cn.descriptor), bytecodeOffsets);
   }
 
-  public FieldExprent(String name, String classname, boolean isStatic, Exprent instance, FieldDescriptor descriptor, BitSet bytecodeOffsets) {
-    this(name, classname, isStatic, instance, descriptor, bytecodeOffsets, false);
+  public FieldExprent(CounterContainer counters, String name, String classname, boolean isStatic, Exprent instance, FieldDescriptor descriptor, BitSet bytecodeOffsets) {
+    this(counters, name, classname, isStatic, instance, descriptor, bytecodeOffsets, false);
   }
 
-  public FieldExprent(String name, String classname, boolean isStatic, Exprent instance, FieldDescriptor descriptor, BitSet bytecodeOffsets, boolean forceQualified) {
-    super(EXPRENT_FIELD);
+  public FieldExprent(CounterContainer counters, String name, String classname, boolean isStatic, Exprent instance, FieldDescriptor descriptor, BitSet bytecodeOffsets, boolean forceQualified) {
+    super(EXPRENT_FIELD, counters);
     this.name = name;
     this.classname = classname;
     this.isStatic = isStatic;
@@ -125,9 +126,14 @@ public class FieldExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return instance == null || instance.walk(visitor);
+  }
+
   @Override
   public Exprent copy() {
-    return new FieldExprent(name, classname, isStatic, instance == null ? null : instance.copy(), descriptor, bytecode);
+    return new FieldExprent(getCounters(), name, classname, isStatic, instance == null ? null : instance.copy(), descriptor, bytecode);
   }
 
   private boolean isAmbiguous() {
@@ -158,12 +164,11 @@ public class FieldExprent extends Exprent {
 
       if (instance != null && instance.type == Exprent.EXPRENT_VAR) {
         VarExprent instVar = (VarExprent)instance;
-        VarVersionPair pair = new VarVersionPair(instVar);
 
         MethodWrapper currentMethod = (MethodWrapper)DecompilerContext.getProperty(DecompilerContext.CURRENT_METHOD_WRAPPER);
 
         if (currentMethod != null) { // FIXME: remove
-          String this_classname = currentMethod.varproc.getThisVars().get(pair);
+          String this_classname = currentMethod.varproc.getThisVars().get(instVar.getVarVersionKey());
 
           if (this_classname != null) {
             if (!classname.equals(this_classname)) { // TODO: direct comparison to the super class?
@@ -178,7 +183,7 @@ public class FieldExprent extends Exprent {
       }
       else {
         TextBuffer buff = new TextBuffer();
-        boolean casted = ExprProcessor.getCastedExprent(instance, new VarType(CodeConstants.TYPE_OBJECT, 0, classname), buff, indent, true, tracer);
+        boolean casted = ExprProcessor.getCastedExprent(instance, VarType.of(CodeConstants.TYPE_OBJECT, 0, classname), buff, indent, true, tracer);
         String res = buff.toString();
 
         if (casted || instance.getPrecedence() > getPrecedence()) {
@@ -264,7 +269,7 @@ public class FieldExprent extends Exprent {
       return false;
     }
 
-    RuleValue rule = matchNode.getRules().get(MatchProperties.EXPRENT_FIELD_NAME);
+    RuleValue rule = matchNode.getRule(MatchProperties.EXPRENT_FIELD_NAME);
     if (rule != null) {
       if (rule.isVariable()) {
         return engine.checkAndSetVariableValue((String)rule.value, this.name);
@@ -8,6 +8,7 @@ import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger.Severity;
 import org.jetbrains.java.decompiler.main.rels.MethodWrapper;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
@@ -21,6 +22,7 @@ import org.jetbrains.java.decompiler.util.ListStack;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class FunctionExprent extends Exprent {
 
@@ -193,8 +195,8 @@ public class FunctionExprent extends Exprent {
   private final List<Exprent> lstOperands;
   private boolean needsCast = true;
 
-  public FunctionExprent(int funcType, ListStack<Exprent> stack, BitSet bytecodeOffsets) {
-    this(funcType, new ArrayList<>(), bytecodeOffsets);
+  public FunctionExprent(CounterContainer counters, int funcType, ListStack<Exprent> stack, BitSet bytecodeOffsets) {
+    this(counters, funcType, new ArrayList<>(), bytecodeOffsets);
 
     if (funcType >= FUNCTION_BIT_NOT && funcType <= FUNCTION_PPI && funcType != FUNCTION_CAST && funcType != FUNCTION_INSTANCEOF) {
       lstOperands.add(stack.pop());
@@ -209,16 +211,16 @@ public class FunctionExprent extends Exprent {
     }
   }
 
-  public FunctionExprent(int funcType, List<Exprent> operands, BitSet bytecodeOffsets) {
-    super(EXPRENT_FUNCTION);
+  public FunctionExprent(CounterContainer counters, int funcType, List<Exprent> operands, BitSet bytecodeOffsets) {
+    super(EXPRENT_FUNCTION, counters);
     this.funcType = funcType;
     this.lstOperands = operands;
 
     addBytecodeOffsets(bytecodeOffsets);
   }
 
-  public FunctionExprent(int funcType, Exprent operand, BitSet bytecodeOffsets) {
-    this(funcType, new ArrayList<>(1), bytecodeOffsets);
+  public FunctionExprent(CounterContainer counters, int funcType, Exprent operand, BitSet bytecodeOffsets) {
+    this(counters, funcType, new ArrayList<>(1), bytecodeOffsets);
     lstOperands.add(operand);
   }
 
@@ -467,13 +469,18 @@ public class FunctionExprent extends Exprent {
     return new ArrayList<>(lstOperands);
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return walkAll(lstOperands, visitor);
+  }
+
   @Override
   public Exprent copy() {
     List<Exprent> lst = new ArrayList<>();
     for (Exprent expr : lstOperands) {
       lst.add(expr.copy());
     }
-    FunctionExprent func = new FunctionExprent(funcType, lst, bytecode);
+    FunctionExprent func = new FunctionExprent(getCounters(), funcType, lst, bytecode);
     func.setImplicitType(implicitType);
 
     return func;
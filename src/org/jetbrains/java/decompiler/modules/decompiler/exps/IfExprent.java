@@ -4,6 +4,7 @@
 package org.jetbrains.java.decompiler.modules.decompiler.exps;
 
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.struct.gen.VarType;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
 import org.jetbrains.java.decompiler.util.ListStack;
@@ -13,6 +14,7 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 public class IfExprent extends Exprent {
 
@@ -65,26 +67,26 @@ public class IfExprent extends Exprent {
 
   private Exprent condition;
 
-  public IfExprent(int ifType, ListStack<Exprent> stack, BitSet bytecodeOffsets) {
-    this(null, bytecodeOffsets);
+  public IfExprent(CounterContainer counters, int ifType, ListStack<Exprent> stack, BitSet bytecodeOffsets) {
+    this(counters, null, bytecodeOffsets);
 
     if (ifType <= IF_LE) {
-      stack.push(new ConstExprent(0, true, null));
+      stack.push(new ConstExprent(counters, 0, true, null));
     }
     else if (ifType <= IF_NONNULL) {
-      stack.push(new ConstExprent(VarType.VARTYPE_NULL, null, null));
+      stack.push(new ConstExprent(counters, VarType.VARTYPE_NULL, null, null));
     }
 
     if (ifType == IF_VALUE) {
       condition = stack.pop();
     }
     else {
-      condition = new FunctionExprent(FUNC_TYPES[ifType], stack, bytecodeOffsets);
+      condition = new FunctionExprent(counters, FUNC_TYPES[ifType], stack, bytecodeOffsets);
     }
   }
 
-  private IfExprent(Exprent condition, BitSet bytecodeOffsets) {
-    super(EXPRENT_IF);
+  private IfExprent(CounterContainer counters, Exprent condition, BitSet bytecodeOffsets) {
+    super(EXPRENT_IF, counters);
     this.condition = condition;
 
     addBytecodeOffsets(bytecodeOffsets);
@@ -92,7 +94,7 @@ public class IfExprent extends Exprent {
 
   @Override
   public Exprent copy() {
-    return new IfExprent(condition.copy(), bytecode);
+    return new IfExprent(getCounters(), condition.copy(), bytecode);
   }
 
   @Override
@@ -102,6 +104,11 @@ public class IfExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return condition.walk(visitor);
+  }
+
   @Override
   public TextBuffer toJava(int indent, BytecodeMappingTracer tracer) {
     tracer.addMapping(bytecode);
@@ -125,7 +132,7 @@ public class IfExprent extends Exprent {
   }
 
   public IfExprent negateIf() {
-    condition = new FunctionExprent(FunctionExprent.FUNCTION_BOOL_NOT, condition, condition.bytecode);
+    condition = new FunctionExprent(getCounters(), FunctionExprent.FUNCTION_BOOL_NOT, condition, condition.bytecode);
     return this;
   }
 
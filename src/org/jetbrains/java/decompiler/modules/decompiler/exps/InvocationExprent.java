@@ -5,6 +5,7 @@ import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.rels.MethodWrapper;
 import org.jetbrains.java.decompiler.modules.decompiler.ClasspathHelper;
@@ -30,7 +31,7 @@ import org.jetbrains.java.decompiler.util.TextUtil;
 
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 public class InvocationExprent extends Exprent {
 
@@ -46,7 +47,7 @@ public class InvocationExprent extends Exprent {
 
   private static final BitSet EMPTY_BIT_SET = new BitSet(0);
 
-  private static final VarType JAVA_NIO_BUFFER = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/nio/Buffer");
+  private static final VarType JAVA_NIO_BUFFER = VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/nio/Buffer");
 
   private String name;
   private String classname;
@@ -68,16 +69,17 @@ public class InvocationExprent extends Exprent {
   private boolean forceUnboxing = false;
   private boolean isSyntheticNullCheck = false;
 
-  public InvocationExprent() {
-    super(EXPRENT_INVOCATION);
+  public InvocationExprent(CounterContainer counters) {
+    super(EXPRENT_INVOCATION, counters);
   }
 
-  public InvocationExprent(int opcode,
+  public InvocationExprent(CounterContainer counters,
+                           int opcode,
                            LinkConstant cn,
                            List<PooledConstant> bootstrapArguments,
                            ListStack<? extends Exprent> stack,
                            BitSet bytecodeOffsets) {
-    this();
+    this(counters);
 
     name = cn.elementname;
     classname = cn.classname;
@@ -147,7 +149,7 @@ public class InvocationExprent extends Exprent {
   }
 
   private InvocationExprent(InvocationExprent expr) {
-    this();
+    this(expr.getCounters());
 
     name = expr.getName();
     classname = expr.getClassname();
@@ -482,6 +484,11 @@ public class InvocationExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return (instance == null || instance.walk(visitor)) && walkAll(lstParameters, visitor);
+  }
+
 
   @Override
   public Exprent copy() {
@@ -518,7 +525,6 @@ public class InvocationExprent extends Exprent {
 
       if (instance != null && instance.type == Exprent.EXPRENT_VAR) {
         VarExprent instVar = (VarExprent)instance;
-        VarVersionPair varPair = new VarVersionPair(instVar);
 
         VarProcessor varProc = instVar.getProcessor();
         if (varProc == null) {
@@ -530,7 +536,7 @@ public class InvocationExprent extends Exprent {
 
         String this_classname = null;
         if (varProc != null) {
-          this_classname = varProc.getThisVars().get(varPair);
+          this_classname = varProc.getThisVars().get(instVar.getVarVersionKey());
         }
 
         if (this_classname != null) {
@@ -553,7 +559,7 @@ public class InvocationExprent extends Exprent {
         else if (instance != null) {
           StructClass cl = DecompilerContext.getStructContext().getClass(classname);
 
-          VarType leftType = new VarType(CodeConstants.TYPE_OBJECT, 0, classname);
+          VarType leftType = VarType.of(CodeConstants.TYPE_OBJECT, 0, classname);
           if (!genericsMap.isEmpty() && cl != null && cl.getSignature() != null) {
             VarType _new = cl.getSignature().genericType.remap(genericsMap);
             if (_new != cl.getSignature().genericType) {
@@ -1439,28 +1445,19 @@ public class InvocationExprent extends Exprent {
       return false;
     }
 
-    for (Entry<MatchProperties, RuleValue> rule : matchNode.getRules().entrySet()) {
-      RuleValue value = rule.getValue();
+    RuleValue invClass = matchNode.getRule(MatchProperties.EXPRENT_INVOCATION_CLASS);
+    if (invClass != null && !invClass.value.equals(this.classname)) {
+      return false;
+    }
 
-      MatchProperties key = rule.getKey();
-      if (key == MatchProperties.EXPRENT_INVOCATION_PARAMETER) {
-        if (value.isVariable() && (value.parameter >= lstParameters.size() ||
-                                   !engine.checkAndSetVariableValue(value.value.toString(), lstParameters.get(value.parameter)))) {
-          return false;
-        }
-      }
-      else if (key == MatchProperties.EXPRENT_INVOCATION_CLASS) {
-        if (!value.value.equals(this.classname)) {
-          return false;
-        }
-      }
-      else if (key == MatchProperties.EXPRENT_INVOCATION_SIGNATURE) {
-        if (!value.value.equals(this.name + this.stringDescriptor)) {
-          return false;
-        }
-      }
+    RuleValue signature = matchNode.getRule(MatchProperties.EXPRENT_INVOCATION_SIGNATURE);
+    if (signature != null && !signature.value.equals(this.name + this.stringDescriptor)) {
+      return false;
     }
 
-    return true;
+    RuleValue parameter = matchNode.getRule(MatchProperties.EXPRENT_INVOCATION_PARAMETER);
+    return parameter == null || !parameter.isVariable() ||
+           parameter.parameter < lstParameters.size() &&
+           engine.checkAndSetVariableValue(parameter.value.toString(), lstParameters.get(parameter.parameter));
   }
 }
@@ -4,12 +4,14 @@
 package org.jetbrains.java.decompiler.modules.decompiler.exps;
 
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class MonitorExprent extends Exprent {
 
@@ -19,8 +21,8 @@ public class MonitorExprent extends Exprent {
   private final int monType;
   private Exprent value;
 
-  public MonitorExprent(int monType, Exprent value, BitSet bytecodeOffsets) {
-    super(EXPRENT_MONITOR);
+  public MonitorExprent(CounterContainer counters, int monType, Exprent value, BitSet bytecodeOffsets) {
+    super(EXPRENT_MONITOR, counters);
     this.monType = monType;
     this.value = value;
 
@@ -29,7 +31,7 @@ public class MonitorExprent extends Exprent {
 
   @Override
   public Exprent copy() {
-    return new MonitorExprent(monType, value.copy(), bytecode);
+    return new MonitorExprent(getCounters(), monType, value.copy(), bytecode);
   }
 
   @Override
@@ -39,6 +41,11 @@ public class MonitorExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return value.walk(visitor);
+  }
+
   @Override
   public TextBuffer toJava(int indent, BytecodeMappingTracer tracer) {
     tracer.addMapping(bytecode);
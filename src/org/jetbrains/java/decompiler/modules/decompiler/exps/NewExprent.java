@@ -17,6 +17,7 @@ import org.jetbrains.java.decompiler.struct.gen.generics.GenericMethodDescriptor
 import org.jetbrains.java.decompiler.struct.gen.generics.GenericType;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
@@ -37,6 +38,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public class NewExprent extends Exprent {
   private InvocationExprent constructor;
@@ -52,12 +54,12 @@ public class NewExprent extends Exprent {
   private List<VarType> genericArgs = new ArrayList<>();
   private VarType inferredLambdaType = null;
 
-  public NewExprent(VarType newType, ListStack<Exprent> stack, int arrayDim, BitSet bytecodeOffsets) {
-    this(newType, getDimensions(arrayDim, stack), bytecodeOffsets);
+  public NewExprent(CounterContainer counters, VarType newType, ListStack<Exprent> stack, int arrayDim, BitSet bytecodeOffsets) {
+    this(counters, newType, getDimensions(arrayDim, stack), bytecodeOffsets);
   }
 
-  public NewExprent(VarType newType, List<Exprent> lstDims, BitSet bytecodeOffsets) {
-    super(EXPRENT_NEW);
+  public NewExprent(CounterContainer counters, VarType newType, List<Exprent> lstDims, BitSet bytecodeOffsets) {
+    super(EXPRENT_NEW, counters);
     this.newType = newType;
     this.lstDims = lstDims;
 
@@ -296,6 +298,18 @@ public class NewExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    if (newType.arrayDim != 0) {
+      return walkAll(lstDims, visitor) && walkAll(lstArrayElements, visitor);
+    }
+    else if (constructor != null) {
+      Exprent instance = constructor.getInstance();
+      return (instance == null || instance.walk(visitor)) && walkAll(constructor.getLstParameters(), visitor);
+    }
+    return true;
+  }
+
   @Override
   public Exprent copy() {
     List<Exprent> lst = new ArrayList<>();
@@ -303,7 +317,7 @@ public class NewExprent extends Exprent {
       lst.add(expr.copy());
     }
 
-    NewExprent ret = new NewExprent(newType, lst, bytecode);
+    NewExprent ret = new NewExprent(getCounters(), newType, lst, bytecode);
     ret.setConstructor(constructor == null ? null : (InvocationExprent)constructor.copy());
     ret.setLstArrayElements(lstArrayElements);
     ret.setDirectArrayInit(directArrayInit);
@@ -400,7 +414,7 @@ public class NewExprent extends Exprent {
       }
       else if (!selfReference) {
         TextBuffer clsBuf = new TextBuffer();
-        new ClassWriter().classToJava(child, clsBuf, indent, tracer);
+        ClassWriter.nestedClassToJava(child, clsBuf, indent, tracer);
         buf.append(clsBuf);
         tracer.incrementCurrentSourceLine(clsBuf.countLines());
       }
@@ -526,7 +540,7 @@ public class NewExprent extends Exprent {
           VarExprent varEnclosing = (VarExprent)enclosing;
 
           StructClass current_class = ((ClassNode)DecompilerContext.getProperty(DecompilerContext.CURRENT_CLASS_NODE)).classStruct;
-          String this_classname = varEnclosing.getProcessor().getThisVars().get(new VarVersionPair(varEnclosing));
+          String this_classname = varEnclosing.getProcessor().getThisVars().get(varEnclosing.getVarVersionKey());
 
           if (!current_class.qualifiedName.equals(this_classname)) {
             isQualifiedNew = true;
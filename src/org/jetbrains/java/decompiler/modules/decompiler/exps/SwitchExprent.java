@@ -4,6 +4,7 @@
 package org.jetbrains.java.decompiler.modules.decompiler.exps;
 
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.vars.CheckTypesResult;
 import org.jetbrains.java.decompiler.struct.gen.VarType;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
@@ -12,14 +13,15 @@ import org.jetbrains.java.decompiler.util.TextBuffer;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 public class SwitchExprent extends Exprent {
 
   private Exprent value;
   private List<List<Exprent>> caseValues = new ArrayList<>();
 
-  public SwitchExprent(Exprent value, BitSet bytecodeOffsets) {
-    super(EXPRENT_SWITCH);
+  public SwitchExprent(CounterContainer counters, Exprent value, BitSet bytecodeOffsets) {
+    super(EXPRENT_SWITCH, counters);
     this.value = value;
 
     addBytecodeOffsets(bytecodeOffsets);
@@ -27,7 +29,7 @@ public class SwitchExprent extends Exprent {
 
   @Override
   public Exprent copy() {
-    SwitchExprent swExpr = new SwitchExprent(value.copy(), bytecode);
+    SwitchExprent swExpr = new SwitchExprent(getCounters(), value.copy(), bytecode);
 
     List<List<Exprent>> lstCaseValues = new ArrayList<>();
     for (List<Exprent> lst : caseValues) {
@@ -73,6 +75,11 @@ public class SwitchExprent extends Exprent {
     return lst;
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return value.walk(visitor);
+  }
+
   @Override
   public TextBuffer toJava(int indent, BytecodeMappingTracer tracer) {
     tracer.addMapping(bytecode);
@@ -6,6 +6,7 @@ import org.jetbrains.java.decompiler.main.ClassWriter;
 import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.rels.MethodWrapper;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
@@ -34,7 +35,7 @@ import org.jetbrains.java.decompiler.util.TextUtil;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 public class VarExprent extends Exprent {
   public static final int STACK_BASE = 10000;
@@ -50,12 +51,12 @@ public class VarExprent extends Exprent {
   private LocalVariable lvt = null;
   private boolean isEffectivelyFinal = false;
 
-  public VarExprent(int index, VarType varType, VarProcessor processor) {
-    this(index, varType, processor, null);
+  public VarExprent(CounterContainer counters, int index, VarType varType, VarProcessor processor) {
+    this(counters, index, varType, processor, null);
   }
 
-  public VarExprent(int index, VarType varType, VarProcessor processor, BitSet bytecode) {
-    super(EXPRENT_VAR);
+  public VarExprent(CounterContainer counters, int index, VarType varType, VarProcessor processor, BitSet bytecode) {
+    super(EXPRENT_VAR, counters);
     this.index = index;
     this.varType = varType;
     this.processor = processor;
@@ -93,9 +94,14 @@ public class VarExprent extends Exprent {
     return new ArrayList<>();
   }
 
+  @Override
+  public boolean walkChildren(Predicate<Exprent> visitor) {
+    return true;
+  }
+
   @Override
   public Exprent copy() {
-    VarExprent var = new VarExprent(index, getVarType(), processor, bytecode);
+    VarExprent var = new VarExprent(getCounters(), index, getVarType(), processor, bytecode);
     var.setDefinition(definition);
     var.setVersion(version);
     var.setClassDef(classDef);
@@ -113,7 +119,7 @@ public class VarExprent extends Exprent {
 
     if (classDef) {
       ClassNode child = DecompilerContext.getClassProcessor().getMapRootClasses().get(varType.value);
-      new ClassWriter().classToJava(child, buffer, indent, tracer);
+      ClassWriter.nestedClassToJava(child, buffer, indent, tracer);
       tracer.incrementCurrentSourceLine(buffer.countLines());
     }
     else {
@@ -137,6 +143,13 @@ public class VarExprent extends Exprent {
     return new VarVersionPair(index, version);
   }
 
+  /**
+   * @return the variable and its version packed into a key, see {@link VarVersionPair#toLong()}
+   */
+  public long getVarVersionKey() {
+    return VarVersionPair.toLong(index, version);
+  }
+
   /*
   public String getDebugName(StructMethod method) {
     StructLocalVariableTableAttribute attr = method.getLocalVariableAttr();
@@ -199,7 +212,7 @@ public class VarExprent extends Exprent {
           if (attr != null) {
             String descriptor = attr.getDescriptor(originalIndex, visibleOffset);
             if (descriptor != null) {
-              buffer.append(ExprProcessor.getCastTypeName(new VarType(descriptor)));
+              buffer.append(ExprProcessor.getCastTypeName(VarType.of(descriptor)));
               return;
             }
           }
@@ -236,23 +249,24 @@ public class VarExprent extends Exprent {
 
   public VarType getVarType() {
     if (DecompilerContext.getOption(IFernflowerPreferences.USE_DEBUG_VAR_NAMES) && lvt != null) {
-      return new VarType(lvt.getDescriptor());
+      return VarType.of(lvt.getDescriptor());
     }
 
     VarType vt = null;
     if (processor != null) {
-      String name = processor.getVarName(getVarVersionPair());
+      VarVersionPair pair = getVarVersionPair();
+      String name = processor.getVarName(pair);
       vt = Exprent.inferredLambdaTypes.get().get(name);
       if (vt == null) {
-        vt = processor.getVarType(getVarVersionPair());
-        if (processor.getThisVars().containsKey(getVarVersionPair())) {
-          String qaulName = processor.getThisVars().get(getVarVersionPair());
+        vt = processor.getVarType(pair);
+        String qaulName = processor.getThisVars().get(pair.toLong());
+        if (qaulName != null) {
           StructClass cls = DecompilerContext.getStructContext().getClass(qaulName);
           if (cls.getSignature() != null) {
             vt = cls.getSignature().genericType;
           }
           else if (vt == null) {
-            vt = new VarType(CodeConstants.TYPE_OBJECT, 0, qaulName);
+            vt = VarType.of(CodeConstants.TYPE_OBJECT, 0, qaulName);
           }
         }
       }
@@ -374,25 +388,17 @@ public class VarExprent extends Exprent {
   }
 
   public boolean isVarReferenced(Exprent exp, VarExprent... whitelist) {
-    List<Exprent> lst = exp.getAllExprents(true);
-    lst.add(exp);
-    lst = lst.stream().filter(e -> e != this && e.type == Exprent.EXPRENT_VAR &&
-      getVarVersionPair().equals(((VarExprent)e).getVarVersionPair()))
-        .collect(Collectors.toList());
-
-    for (Exprent var : lst) {
-      boolean allowed = false;
-      for (VarExprent white : whitelist) {
-        if (var == white) {
-          allowed = true;
-          break;
+    return !exp.walk(e -> {
+      if (e != this && e.type == Exprent.EXPRENT_VAR && index == ((VarExprent)e).index && version == ((VarExprent)e).version) {
+        for (VarExprent white : whitelist) {
+          if (e == white) {
+            return true;
+          }
         }
+        return false;
       }
-      if (!allowed) {
-        return true;
-      }
-    }
-    return false;
+      return true;
+    });
   }
 
   @Override
@@ -410,7 +416,7 @@ public class VarExprent extends Exprent {
       return false;
     }
 
-    RuleValue rule = matchNode.getRules().get(MatchProperties.EXPRENT_VAR_INDEX);
+    RuleValue rule = matchNode.getRule(MatchProperties.EXPRENT_VAR_INDEX);
     if (rule != null) {
       if (rule.isVariable()) {
         return engine.checkAndSetVariableValue((String)rule.value, this.index);
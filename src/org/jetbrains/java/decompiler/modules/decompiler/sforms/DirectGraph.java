@@ -114,17 +114,18 @@ public class DirectGraph {
   }
 
   public boolean iterateExprentsDeep(ExprentIterator itr) {
+    int[] res = new int[1];
     return iterateExprents(exprent -> {
-      List<Exprent> lst = exprent.getAllExprents(true);
-      lst.add(exprent);
-
-      for (Exprent expr : lst) {
-        int res = itr.processExprent(expr);
-        if (res == 1 || res == 2) {
-          return res;
+      res[0] = 0;
+      exprent.walk(expr -> {
+        int ret = itr.processExprent(expr);
+        if (ret == 1 || ret == 2) {
+          res[0] = ret;
+          return false;
         }
-      }
-      return 0;
+        return true;
+      });
+      return res[0];
     });
   }
 
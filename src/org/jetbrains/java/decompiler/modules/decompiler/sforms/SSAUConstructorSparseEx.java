@@ -15,6 +15,7 @@ import org.jetbrains.java.decompiler.util.DotExporter;
 import org.jetbrains.java.decompiler.util.FastSparseSetFactory;
 import org.jetbrains.java.decompiler.util.FastSparseSetFactory.FastSparseSet;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.jetbrains.java.decompiler.util.LongHashMap;
 import org.jetbrains.java.decompiler.util.SFormsFastMapDirect;
 import org.jetbrains.java.decompiler.util.VBStyleCollection;
 
@@ -46,10 +47,10 @@ public class SSAUConstructorSparseEx {
   private final HashMap<Integer, Integer> lastversion = new HashMap<>();
 
   // version, protected ranges (catch, finally)
-  private final HashMap<VarVersionPair, Integer> mapVersionFirstRange = new HashMap<>();
+  private final LongHashMap<Integer> mapVersionFirstRange = new LongHashMap<>();
 
   // version, version
-  private final HashMap<VarVersionPair, VarVersionPair> phantomppnodes = new HashMap<>(); // ++ and --
+  private final LongHashMap<VarVersionPair> phantomppnodes = new LongHashMap<>(); // ++ and --
 
   // node.id, version, version
   private final HashMap<String, HashMap<VarVersionPair, VarVersionPair>> phantomexitnodes =
@@ -68,7 +69,7 @@ public class SSAUConstructorSparseEx {
   private FastSparseSetFactory<Integer> factory;
 
   // track assignments for finding effectively final vars (left var, right var)
-  private HashMap<VarVersionPair, VarVersionPair> varAssignmentMap = new HashMap<>();
+  private final LongHashMap<VarVersionPair> varAssignmentMap = new LongHashMap<>();
 
   public void splitVariables(RootStatement root, StructMethod mt) {
 
@@ -308,12 +309,12 @@ public class SSAUConstructorSparseEx {
       AssignmentExprent assexpr = (AssignmentExprent)expr;
       if (assexpr.getRight().type == Exprent.EXPRENT_VAR) {
         VarVersionPair rightpaar = ((VarExprent)assexpr.getRight()).getVarVersionPair();
-        varAssignmentMap.put(varassign.getVarVersionPair(), rightpaar);
+        varAssignmentMap.put(varassign.getVarVersionKey(), rightpaar);
       }
       else if (assexpr.getRight().type == Exprent.EXPRENT_FIELD) {
         int index = mapFieldVars.get(((FieldExprent)assexpr.getRight()).id);
         VarVersionPair rightpaar = new VarVersionPair(index, 0);
-        varAssignmentMap.put(varassign.getVarVersionPair(), rightpaar);
+        varAssignmentMap.put(varassign.getVarVersionKey(), rightpaar);
       }
     }
     else if (expr.type == Exprent.EXPRENT_FUNCTION) { // MM or PP function
@@ -331,7 +332,7 @@ public class SSAUConstructorSparseEx {
             VarVersionPair varpaar = new VarVersionPair(varindex.intValue(), var.getVersion());
 
             // ssu graph
-            VarVersionPair phantomver = phantomppnodes.get(varpaar);
+            VarVersionPair phantomver = phantomppnodes.get(varpaar.toLong());
             if (phantomver == null) {
               // get next version
               Integer nextver = getNextFreeVersion(varindex, null);
@@ -352,7 +353,7 @@ public class SSAUConstructorSparseEx {
               }
               vers.add(nextver);
               createOrUpdatePhiNode(varpaar, vers, stat);
-              phantomppnodes.put(varpaar, phantomver);
+              phantomppnodes.put(varpaar.toLong(), phantomver);
             }
             if (calcLiveVars) {
               varMapToGraph(varpaar, varmap);
@@ -442,7 +443,8 @@ public class SSAUConstructorSparseEx {
     HashSet<Integer> phiVers = new HashSet<>();
 
     // take into account the corresponding mm/pp node if existing
-    int ppvers = phantomppnodes.containsKey(phivar) ? phantomppnodes.get(phivar).version : -1;
+    VarVersionPair ppvar = phantomppnodes.get(phivar.toLong());
+    int ppvers = ppvar != null ? ppvar.version : -1;
 
     // ssu graph
     VarVersionNode phinode = ssuversions.nodes.getWithKey(phivar);
@@ -522,7 +524,7 @@ public class SSAUConstructorSparseEx {
     if (stat != null) { // null iff phantom version
       Integer firstRangeId = getFirstProtectedRange(stat);
       if (firstRangeId != null) {
-        mapVersionFirstRange.put(new VarVersionPair(var, nextver), firstRangeId);
+        mapVersionFirstRange.put(VarVersionPair.toLong(var, nextver), firstRangeId);
       }
     }
 
@@ -840,7 +842,10 @@ public class SSAUConstructorSparseEx {
     return null;
   }
 
-  public HashMap<VarVersionPair, Integer> getMapVersionFirstRange() {
+  /**
+   * @return the first protected range containing the definition of each version, keyed by {@link VarVersionPair#toLong()}
+   */
+  public LongHashMap<Integer> getMapVersionFirstRange() {
     return mapVersionFirstRange;
   }
 
@@ -848,7 +853,10 @@ public class SSAUConstructorSparseEx {
     return mapFieldVars;
   }
 
-  public HashMap<VarVersionPair, VarVersionPair> getVarAssignmentMap() {
+  /**
+   * @return the variable assigned to each version, keyed by {@link VarVersionPair#toLong()}
+   */
+  public LongHashMap<VarVersionPair> getVarAssignmentMap() {
     return varAssignmentMap;
   }
 }
@@ -5,7 +5,6 @@ import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.code.Instruction;
 import org.jetbrains.java.decompiler.code.SimpleInstructionSequence;
 import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
-import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
@@ -24,16 +23,20 @@ public class BasicBlockStatement extends Statement {
   // constructors
   // *****************************************************************************
 
-  public BasicBlockStatement(BasicBlock block) {
+  public BasicBlockStatement(CounterContainer counters) {
+    this(new BasicBlock(counters.getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER)), counters);
+  }
+
+  public BasicBlockStatement(BasicBlock block, CounterContainer counters) {
+    super(counters);
 
     type = Statement.TYPE_BASICBLOCK;
 
     this.block = block;
 
     id = block.id;
-    CounterContainer coun = DecompilerContext.getCounterContainer();
-    if (id >= coun.getCounter(CounterContainer.STATEMENT_COUNTER)) {
-      coun.setCounter(CounterContainer.STATEMENT_COUNTER, id + 1);
+    if (id >= counters.getCounter(CounterContainer.STATEMENT_COUNTER)) {
+      counters.setCounter(CounterContainer.STATEMENT_COUNTER, id + 1);
     }
 
     Instruction instr = block.getLastInstruction();
@@ -64,8 +67,7 @@ public class BasicBlockStatement extends Statement {
   @Override
   public Statement getSimpleCopy() {
 
-    BasicBlock newblock = new BasicBlock(
-      DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER));
+    BasicBlock newblock = new BasicBlock(getCounters().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER));
 
     SimpleInstructionSequence seq = new SimpleInstructionSequence();
     for (int i = 0; i < block.getSeq().length(); i++) {
@@ -74,7 +76,7 @@ public class BasicBlockStatement extends Statement {
 
     newblock.setSeq(seq);
 
-    return new BasicBlockStatement(newblock);
+    return new BasicBlockStatement(newblock, getCounters());
   }
 
 
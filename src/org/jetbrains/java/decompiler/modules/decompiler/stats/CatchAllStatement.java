@@ -32,13 +32,14 @@ public final class CatchAllStatement extends Statement {
   // constructors
   // *****************************************************************************
 
-  private CatchAllStatement() {
+  private CatchAllStatement(CounterContainer counters) {
+    super(counters);
     type = Statement.TYPE_CATCHALL;
   }
 
   private CatchAllStatement(Statement head, Statement handler) {
 
-    this();
+    this(head.getCounters());
 
     first = head;
     stats.addWithKey(head, head.id);
@@ -54,8 +55,10 @@ public final class CatchAllStatement extends Statement {
       }
     }
     
-    vars.add(new VarExprent(DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.VAR_COUNTER),
-                            new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Throwable"),
+    CounterContainer counters = getCounters();
+    vars.add(new VarExprent(counters,
+                            counters.getCounterAndIncrement(CounterContainer.VAR_COUNTER),
+                            VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Throwable"),
                             DecompilerContext.getVarProcessor()));
   }
 
@@ -159,19 +162,22 @@ public final class CatchAllStatement extends Statement {
   @Override
   public Statement getSimpleCopy() {
 
-    CatchAllStatement cas = new CatchAllStatement();
+    CounterContainer counters = getCounters();
+    CatchAllStatement cas = new CatchAllStatement(counters);
 
     cas.isFinally = this.isFinally;
 
     if (this.monitor != null) {
-      cas.monitor = new VarExprent(DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.VAR_COUNTER),
+      cas.monitor = new VarExprent(counters,
+                                   counters.getCounterAndIncrement(CounterContainer.VAR_COUNTER),
                                    VarType.VARTYPE_INT,
                                    DecompilerContext.getVarProcessor());
     }
 
     if (!this.vars.isEmpty()) {
-      cas.vars.add(new VarExprent(DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.VAR_COUNTER),
-                              new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Throwable"),
+      cas.vars.add(new VarExprent(counters,
+                              counters.getCounterAndIncrement(CounterContainer.VAR_COUNTER),
+                              VarType.of(CodeConstants.TYPE_OBJECT, 0, "java/lang/Throwable"),
                               DecompilerContext.getVarProcessor()));
     }
 
@@ -34,17 +34,19 @@ public final class CatchStatement extends Statement {
   // constructors
   // *****************************************************************************
 
-  private CatchStatement() {
+  private CatchStatement(CounterContainer counters) {
+    super(counters);
     type = TYPE_TRYCATCH;
     tryType = NORMAL;
   }
 
   private CatchStatement(Statement head, Statement next, Set<Statement> setHandlers) {
-    this();
+    this(head.getCounters());
 
     first = head;
     stats.addWithKey(first, first.id);
 
+    CounterContainer counters = getCounters();
     for (StatEdge edge : head.getSuccessorEdges(StatEdge.TYPE_EXCEPTION)) {
       Statement stat = edge.getDestination();
 
@@ -52,8 +54,9 @@ public final class CatchStatement extends Statement {
         stats.addWithKey(stat, stat.id);
         exctstrings.add(new ArrayList<>(edge.getExceptions()));
         
-        vars.add(new VarExprent(DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.VAR_COUNTER),
-                                new VarType(CodeConstants.TYPE_OBJECT, 0, edge.getExceptions().get(0)),
+        vars.add(new VarExprent(counters,
+                                counters.getCounterAndIncrement(CounterContainer.VAR_COUNTER),
+                                VarType.of(CodeConstants.TYPE_OBJECT, 0, edge.getExceptions().get(0)),
                                 // FIXME: for now simply the first type. Should get the first common superclass when possible.
                                 DecompilerContext.getVarProcessor()));
       }
@@ -188,7 +191,7 @@ public final class CatchStatement extends Statement {
       List<String> exception_types = exctstrings.get(i - 1);
       if (exception_types.size() > 1) { // multi-catch, Java 7 style
         for (int exc_index = 1; exc_index < exception_types.size(); ++exc_index) {
-          VarType exc_type = new VarType(CodeConstants.TYPE_OBJECT, 0, exception_types.get(exc_index));
+          VarType exc_type = VarType.of(CodeConstants.TYPE_OBJECT, 0, exception_types.get(exc_index));
           String exc_type_name = ExprProcessor.getCastTypeName(exc_type);
 
           buf.append(exc_type_name).append(" | ");
@@ -217,12 +220,14 @@ public final class CatchStatement extends Statement {
 
   @Override
   public Statement getSimpleCopy() {
-    CatchStatement cs = new CatchStatement();
+    CounterContainer counters = getCounters();
+    CatchStatement cs = new CatchStatement(counters);
 
     for (List<String> exc : this.exctstrings) {
       cs.exctstrings.add(new ArrayList<>(exc));
-      cs.vars.add(new VarExprent(DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.VAR_COUNTER),
-                                 new VarType(CodeConstants.TYPE_OBJECT, 0, exc.get(0)),
+      cs.vars.add(new VarExprent(counters,
+                                 counters.getCounterAndIncrement(CounterContainer.VAR_COUNTER),
+                                 VarType.of(CodeConstants.TYPE_OBJECT, 0, exc.get(0)),
                                  DecompilerContext.getVarProcessor()));
     }
 
@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.modules.decompiler.stats;
 
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
 import org.jetbrains.java.decompiler.modules.decompiler.StatEdge;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.Exprent;
@@ -29,7 +30,8 @@ public final class DoStatement extends Statement {
   // constructors
   // *****************************************************************************
 
-  private DoStatement() {
+  private DoStatement(CounterContainer counters) {
+    super(counters);
     type = Statement.TYPE_DO;
     looptype = LOOP_DO;
 
@@ -40,7 +42,7 @@ public final class DoStatement extends Statement {
 
   private DoStatement(Statement head) {
 
-    this();
+    this(head.getCounters());
 
     first = head;
     stats.addWithKey(first, first.id);
@@ -183,7 +185,7 @@ public final class DoStatement extends Statement {
 
   @Override
   public Statement getSimpleCopy() {
-    return new DoStatement();
+    return new DoStatement(getCounters());
   }
 
   // *****************************************************************************
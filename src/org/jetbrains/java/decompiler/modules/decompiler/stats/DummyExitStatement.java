@@ -1,12 +1,15 @@
 // Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.java.decompiler.modules.decompiler.stats;
 
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
+
 import java.util.BitSet;
 
 public class DummyExitStatement extends Statement {
   public BitSet bytecode = null;  // offsets of bytecode instructions mapped to dummy exit
 
-  public DummyExitStatement() {
+  public DummyExitStatement(CounterContainer counters) {
+    super(counters);
     type = Statement.TYPE_DUMMYEXIT;
   }
 
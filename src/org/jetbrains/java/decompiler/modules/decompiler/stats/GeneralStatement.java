@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.modules.decompiler.stats;
 
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 
 import java.util.Collection;
@@ -15,13 +16,14 @@ public class GeneralStatement extends Statement {
   // constructors
   // *****************************************************************************
 
-  private GeneralStatement() {
+  private GeneralStatement(CounterContainer counters) {
+    super(counters);
     type = Statement.TYPE_GENERAL;
   }
 
   public GeneralStatement(Statement head, Collection<? extends Statement> statements, Statement post) {
 
-    this();
+    this(head.getCounters());
 
     first = head;
     stats.addWithKey(head, head.id);
@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.modules.decompiler.stats;
 
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.DecHelper;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
 import org.jetbrains.java.decompiler.modules.decompiler.StatEdge;
@@ -43,7 +44,8 @@ public final class IfStatement extends Statement {
   // constructors
   // *****************************************************************************
 
-  private IfStatement() {
+  private IfStatement(CounterContainer counters) {
+    super(counters);
     type = TYPE_IF;
 
     headexprent.add(null);
@@ -51,7 +53,7 @@ public final class IfStatement extends Statement {
 
   private IfStatement(Statement head, int regedges, Statement postst) {
 
-    this();
+    this(head.getCounters());
 
     first = head;
     stats.addWithKey(head, head.id);
@@ -333,7 +335,7 @@ public final class IfStatement extends Statement {
   @Override
   public Statement getSimpleCopy() {
 
-    IfStatement is = new IfStatement();
+    IfStatement is = new IfStatement(getCounters());
     is.iftype = this.iftype;
     is.negated = this.negated;
 
@@ -428,8 +430,7 @@ public final class IfStatement extends Statement {
     }
 
     if (matchNode.getType() == MatchNode.MATCHNODE_EXPRENT) {
-      String position = (String)matchNode.getRuleValue(MatchProperties.EXPRENT_POSITION);
-      if ("head".equals(position)) {
+      if ("head".equals(matchNode.getPosition())) {
         return getHeadexprent();
       }
     }
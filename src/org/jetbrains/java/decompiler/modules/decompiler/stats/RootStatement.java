@@ -6,10 +6,16 @@ import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 import org.jetbrains.java.decompiler.util.StartEndPair;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class RootStatement extends Statement {
   private final DummyExitStatement dummyExit;
+  private List<String> comments;
 
   public RootStatement(Statement head, DummyExitStatement dummyExit) {
+    super(head.getCounters());
     type = Statement.TYPE_ROOT;
 
     first = head;
@@ -28,6 +34,17 @@ public class RootStatement extends Statement {
     return dummyExit;
   }
 
+  public void addComment(String comment) {
+    if (comments == null) {
+      comments = new ArrayList<>();
+    }
+    comments.add(comment);
+  }
+
+  public List<String> getComments() {
+    return comments == null ? Collections.emptyList() : comments;
+  }
+
   @Override
   public StartEndPair getStartEndRange() {
     return StartEndPair.join(first.getStartEndRange(), dummyExit != null ? dummyExit.getStartEndRange() : null);
@@ -2,6 +2,7 @@
 package org.jetbrains.java.decompiler.modules.decompiler.stats;
 
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.DecHelper;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
 import org.jetbrains.java.decompiler.modules.decompiler.StatEdge;
@@ -18,13 +19,14 @@ public class SequenceStatement extends Statement {
   // constructors
   // *****************************************************************************
 
-  private SequenceStatement() {
+  private SequenceStatement(CounterContainer counters) {
+    super(counters);
     type = Statement.TYPE_SEQUENCE;
   }
 
   public SequenceStatement(List<? extends Statement> lst) {
 
-    this();
+    this(lst.get(0).getCounters());
 
     lastBasicType = lst.get(lst.size() - 1).getLastBasicType();
 
@@ -123,6 +125,6 @@ public class SequenceStatement extends Statement {
 
   @Override
   public Statement getSimpleCopy() {
-    return new SequenceStatement();
+    return new SequenceStatement(getCounters());
   }
 }
@@ -5,7 +5,6 @@ package org.jetbrains.java.decompiler.modules.decompiler.stats;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.code.InstructionSequence;
-import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.util.TextBuffer;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
@@ -15,12 +14,11 @@ import org.jetbrains.java.decompiler.modules.decompiler.exps.Exprent;
 import org.jetbrains.java.decompiler.struct.match.IMatchable;
 import org.jetbrains.java.decompiler.struct.match.MatchEngine;
 import org.jetbrains.java.decompiler.struct.match.MatchNode;
-import org.jetbrains.java.decompiler.struct.match.MatchNode.RuleValue;
 import org.jetbrains.java.decompiler.util.StartEndPair;
 import org.jetbrains.java.decompiler.util.VBStyleCollection;
 
 import java.util.*;
-import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 public class Statement implements IMatchable {
   public static final int STATEDGE_ALL = 0x80000000;
@@ -60,11 +58,12 @@ public class Statement implements IMatchable {
   // private fields
   // *****************************************************************************
 
-  private final Map<Integer, List<StatEdge>> mapSuccEdges = new HashMap<>();
-  private final Map<Integer, List<StatEdge>> mapPredEdges = new HashMap<>();
+  // edges and the statements on their other end, indexed by getEdgeSlot(); the arrays and lists are allocated on first use
+  private List<StatEdge>[] succEdges;
+  private List<StatEdge>[] predEdges;
 
-  private final Map<Integer, List<Statement>> mapSuccStates = new HashMap<>();
-  private final Map<Integer, List<Statement>> mapPredStates = new HashMap<>();
+  private List<Statement>[] succStates;
+  private List<Statement>[] predStates;
 
   // statement as graph
   protected final VBStyleCollection<Statement, Integer> stats = new VBStyleCollection<>();
@@ -95,13 +94,19 @@ public class Statement implements IMatchable {
 
   protected HashSet<Statement> continueSet = new HashSet<>();
 
+  // counters of the method this statement belongs to, which the statements and exprents created from it share
+  private final CounterContainer counters;
+
+  // stamp of the epoch of the last structural change to this statement or to any statement below it
+  private int modificationStamp;
+
   // *****************************************************************************
-  // initializers
+  // constructors
   // *****************************************************************************
 
-  {
-    // set statement id
-    id = DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER);
+  protected Statement(CounterContainer counters) {
+    this.counters = counters;
+    id = counters.getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER);
   }
 
   // *****************************************************************************
@@ -119,24 +124,59 @@ public class Statement implements IMatchable {
     isMonitorEnter = false;
     containsMonitorExit = false;
 
-    processMap(mapSuccEdges);
-    processMap(mapPredEdges);
-    processMap(mapSuccStates);
-    processMap(mapPredStates);
+    processSlots(succEdges);
+    processSlots(predEdges);
+    processSlots(succStates);
+    processSlots(predStates);
   }
 
-  private static <T> void processMap(Map<Integer, List<T>> map) {
-    map.remove(StatEdge.TYPE_EXCEPTION);
-
-    List<T> lst = map.get(STATEDGE_DIRECT_ALL);
-    if (lst != null) {
-      map.put(STATEDGE_ALL, new ArrayList<>(lst));
+  private static <T> void processSlots(List<T>[] slots) {
+    if (slots == null) {
+      return;
     }
-    else {
-      map.remove(STATEDGE_ALL);
+
+    slots[getEdgeSlot(StatEdge.TYPE_EXCEPTION)] = null;
+
+    List<T> lst = slots[getEdgeSlot(STATEDGE_DIRECT_ALL)];
+    slots[getEdgeSlot(STATEDGE_ALL)] = lst == null ? null : new ArrayList<>(lst);
+  }
+
+  private static final int EDGE_SLOTS = 7;
+
+  private static int getEdgeSlot(int edgetype) {
+    switch (edgetype) {
+      case StatEdge.TYPE_REGULAR:
+        return 0;
+      case StatEdge.TYPE_EXCEPTION:
+        return 1;
+      case StatEdge.TYPE_BREAK:
+        return 2;
+      case StatEdge.TYPE_CONTINUE:
+        return 3;
+      case StatEdge.TYPE_FINALLYEXIT:
+        return 4;
+      case STATEDGE_ALL:
+        return 5;
+      case STATEDGE_DIRECT_ALL:
+        return 6;
+      default:
+        throw new IllegalArgumentException("Invalid edge type: " + edgetype);
     }
   }
 
+  @SuppressWarnings("unchecked")
+  private static <T> List<T>[] newSlots() {
+    return (List<T>[])new List<?>[EDGE_SLOTS];
+  }
+
+  private List<StatEdge>[] getEdgeSlots(int direction) {
+    return direction == DIRECTION_BACKWARD ? predEdges : succEdges;
+  }
+
+  private List<Statement>[] getStateSlots(int direction) {
+    return direction == DIRECTION_BACKWARD ? predStates : succStates;
+  }
+
   public void collapseNodesToStatement(Statement stat) {
 
     Statement head = stat.getFirst();
@@ -223,6 +263,55 @@ public class Statement implements IMatchable {
       // special case switch, sorting leaf nodes
       ((SwitchStatement)stat).sortEdgesAndNodes();
     }
+
+    markModified();
+  }
+
+  /**
+   * Records a change to this statement, stamping it and its parents with the stamp of the current modification epoch.
+   * The parents of a statement already stamped in the epoch are stamped as well, so repeated changes below the same
+   * statement stop at the first one of them instead of walking up to the root each time.
+   * Changes made through the edge, parent and child accessors of this class are recorded automatically;
+   * code that edits the exprent or statement lists in place should call this itself.
+   */
+  public void markModified() {
+    int stamp = counters.getCounter(CounterContainer.MODIFICATION_COUNTER);
+    for (Statement st = this; st != null && st.modificationStamp != stamp; st = st.parent) {
+      st.modificationStamp = stamp;
+    }
+  }
+
+  // stamps the whole chain of parents, which may have changed since this statement was stamped
+  private void markModifiedChain() {
+    int stamp = counters.getCounter(CounterContainer.MODIFICATION_COUNTER);
+    for (Statement st = this; st != null; st = st.parent) {
+      st.modificationStamp = stamp;
+    }
+  }
+
+  /**
+   * Starts a new modification epoch for the method of this statement.
+   *
+   * @return the stamp of the new epoch, which every later change is stamped with at least
+   */
+  public int startModificationEpoch() {
+    counters.getCounterAndIncrement(CounterContainer.MODIFICATION_COUNTER);
+    return counters.getCounter(CounterContainer.MODIFICATION_COUNTER);
+  }
+
+  public int getModificationStamp() {
+    return modificationStamp;
+  }
+
+  public CounterContainer getCounters() {
+    return counters;
+  }
+
+  /**
+   * @return true if this statement or any statement below it changed since the given stamp was taken
+   */
+  public boolean isModifiedSince(int stamp) {
+    return modificationStamp >= stamp;
   }
 
   public void setAllParent() {
@@ -238,15 +327,34 @@ public class Statement implements IMatchable {
     }
     edge.closure = this;
     this.getLabelEdges().add(edge);
+    markModified();
   }
 
   private void addEdgeDirectInternal(int direction, StatEdge edge, int edgetype) {
-    Map<Integer, List<StatEdge>> mapEdges = direction == DIRECTION_BACKWARD ? mapPredEdges : mapSuccEdges;
-    Map<Integer, List<Statement>> mapStates = direction == DIRECTION_BACKWARD ? mapPredStates : mapSuccStates;
+    List<StatEdge>[] edges = getEdgeSlots(direction);
+    List<Statement>[] states = getStateSlots(direction);
+    if (edges == null) {
+      edges = newSlots();
+      states = newSlots();
+      if (direction == DIRECTION_BACKWARD) {
+        predEdges = edges;
+        predStates = states;
+      }
+      else {
+        succEdges = edges;
+        succStates = states;
+      }
+    }
 
-    mapEdges.computeIfAbsent(edgetype, k -> new ArrayList<>()).add(edge);
+    int slot = getEdgeSlot(edgetype);
+    if (edges[slot] == null) {
+      edges[slot] = new ArrayList<>(2);
+      states[slot] = new ArrayList<>(2);
+    }
 
-    mapStates.computeIfAbsent(edgetype, k -> new ArrayList<>()).add(direction == DIRECTION_BACKWARD ? edge.getSource() : edge.getDestination());
+    edges[slot].add(edge);
+    states[slot].add(direction == DIRECTION_BACKWARD ? edge.getSource() : edge.getDestination());
+    markModified();
   }
 
   private void addEdgeInternal(int direction, StatEdge edge) {
@@ -267,15 +375,19 @@ public class Statement implements IMatchable {
 
   private void removeEdgeDirectInternal(int direction, StatEdge edge, int edgetype) {
 
-    Map<Integer, List<StatEdge>> mapEdges = direction == DIRECTION_BACKWARD ? mapPredEdges : mapSuccEdges;
-    Map<Integer, List<Statement>> mapStates = direction == DIRECTION_BACKWARD ? mapPredStates : mapSuccStates;
+    List<StatEdge>[] edges = getEdgeSlots(direction);
+    if (edges == null) {
+      return;
+    }
 
-    List<StatEdge> lst = mapEdges.get(edgetype);
+    int slot = getEdgeSlot(edgetype);
+    List<StatEdge> lst = edges[slot];
     if (lst != null) {
       int index = lst.indexOf(edge);
       if (index >= 0) {
         lst.remove(index);
-        mapStates.get(edgetype).remove(index);
+        getStateSlots(direction)[slot].remove(index);
+        markModified();
       }
     }
   }
@@ -483,6 +595,44 @@ public class Statement implements IMatchable {
     return new ArrayList<>(stats);
   }
 
+  /**
+   * Walks every exprent of this statement and its sub-statements, including nested sub-exprents and variable
+   * definitions, in sequential order. Exprents are visited with {@link Exprent#walk(Predicate)}.
+   *
+   * @param visitor called for every exprent, returning false stops the walk
+   * @return false if the walk was stopped by the visitor, true otherwise
+   */
+  public boolean walkExprents(Predicate<Exprent> visitor) {
+    for (int i = 0; i < varDefinitions.size(); i++) {
+      if (!varDefinitions.get(i).walk(visitor)) {
+        return false;
+      }
+    }
+
+    if (exprents != null) {
+      for (int i = 0; i < exprents.size(); i++) {
+        if (!exprents.get(i).walk(visitor)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    for (Object obj : getSequentialObjects()) {
+      if (obj instanceof Statement) {
+        if (!((Statement)obj).walkExprents(visitor)) {
+          return false;
+        }
+      }
+      else if (obj instanceof Exprent) {
+        if (!((Exprent)obj).walk(visitor)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   public void initExprents() {
     // do nothing
   }
@@ -544,6 +694,7 @@ public class Statement implements IMatchable {
     }
 
     oldstat.getLabelEdges().clear();
+    markModified();
   }
 
 
@@ -617,8 +768,8 @@ public class Statement implements IMatchable {
 
   public void changeEdgeNode(int direction, StatEdge edge, Statement value) {
 
-    Map<Integer, List<StatEdge>> mapEdges = direction == DIRECTION_BACKWARD ? mapPredEdges : mapSuccEdges;
-    Map<Integer, List<Statement>> mapStates = direction == DIRECTION_BACKWARD ? mapPredStates : mapSuccStates;
+    List<StatEdge>[] edges = getEdgeSlots(direction);
+    List<Statement>[] states = getStateSlots(direction);
 
     int type = edge.getType();
 
@@ -631,14 +782,16 @@ public class Statement implements IMatchable {
     }
 
     for (int edgetype : arrtypes) {
-      List<StatEdge> lst = mapEdges.get(edgetype);
+      int slot = getEdgeSlot(edgetype);
+      List<StatEdge> lst = edges == null ? null : edges[slot];
       if (lst != null) {
         int index = lst.indexOf(edge);
         if (index >= 0) {
-          mapStates.get(edgetype).set(index, value);
+          states[slot].set(index, value);
         }
       }
     }
+    markModified();
 
     if (direction == DIRECTION_BACKWARD) {
       edge.setSource(value);
@@ -671,43 +824,28 @@ public class Statement implements IMatchable {
 
 
   private List<StatEdge> getEdges(int type, int direction) {
-
-    Map<Integer, List<StatEdge>> map = direction == DIRECTION_BACKWARD ? mapPredEdges : mapSuccEdges;
-
-    List<StatEdge> res;
-    if ((type & (type - 1)) == 0) {
-      res = map.get(type);
-      res = res == null ? new ArrayList<>() : new ArrayList<>(res);
-    }
-    else {
-      res = new ArrayList<>();
-      for (int edgetype : StatEdge.TYPES) {
-        if ((type & edgetype) != 0) {
-          List<StatEdge> lst = map.get(edgetype);
-          if (lst != null) {
-            res.addAll(lst);
-          }
-        }
-      }
-    }
-
-    return res;
+    return collectSlots(getEdgeSlots(direction), type);
   }
 
   public List<Statement> getNeighbours(int type, int direction) {
+    return collectSlots(getStateSlots(direction), type);
+  }
 
-    Map<Integer, List<Statement>> map = direction == DIRECTION_BACKWARD ? mapPredStates : mapSuccStates;
+  private static <T> List<T> collectSlots(List<T>[] slots, int type) {
+    if (slots == null || type == 0) {
+      return new ArrayList<>();
+    }
 
-    List<Statement> res;
+    List<T> res;
     if ((type & (type - 1)) == 0) {
-      res = map.get(type);
+      res = slots[getEdgeSlot(type)];
       res = res == null ? new ArrayList<>() : new ArrayList<>(res);
     }
     else {
       res = new ArrayList<>();
       for (int edgetype : StatEdge.TYPES) {
         if ((type & edgetype) != 0) {
-          List<Statement> lst = map.get(edgetype);
+          List<T> lst = slots[getEdgeSlot(edgetype)];
           if (lst != null) {
             res.addAll(lst);
           }
@@ -744,6 +882,7 @@ public class Statement implements IMatchable {
 
   public void setFirst(Statement first) {
     this.first = first;
+    markModified();
   }
 
   public Statement getPost() {
@@ -805,6 +944,7 @@ public class Statement implements IMatchable {
 
   public void setParent(Statement parent) {
     this.parent = parent;
+    markModifiedChain();
   }
 
   public Statement getTopParent() {
@@ -829,6 +969,7 @@ public class Statement implements IMatchable {
 
   public void setExprents(List<Exprent> exprents) {
     this.exprents = exprents;
+    markModified();
   }
 
   public boolean isCopied() {
@@ -887,10 +1028,10 @@ public class Statement implements IMatchable {
     int node_type = matchNode.getType();
 
     if (node_type == MatchNode.MATCHNODE_STATEMENT && !this.stats.isEmpty()) {
-      String position = (String)matchNode.getRuleValue(MatchProperties.STATEMENT_POSITION);
-      if (position != null) {
-        if (position.matches("-?\\d+")) {
-          return this.stats.get((this.stats.size() + Integer.parseInt(position)) % this.stats.size()); // care for negative positions
+      if (matchNode.getPosition() != null) {
+        Integer position = matchNode.getPositionIndex();
+        if (position != null) {
+          return this.stats.get((this.stats.size() + position) % this.stats.size()); // care for negative positions
         }
       }
       else if (index < this.stats.size()) { // use 'index' parameter
@@ -898,10 +1039,10 @@ public class Statement implements IMatchable {
       }
     }
     else if (node_type == MatchNode.MATCHNODE_EXPRENT && this.exprents != null && !this.exprents.isEmpty()) {
-      String position = (String)matchNode.getRuleValue(MatchProperties.EXPRENT_POSITION);
-      if (position != null) {
-        if (position.matches("-?\\d+")) {
-          return this.exprents.get((this.exprents.size() + Integer.parseInt(position)) % this.exprents.size()); // care for negative positions
+      if (matchNode.getPosition() != null) {
+        Integer position = matchNode.getPositionIndex();
+        if (position != null) {
+          return this.exprents.get((this.exprents.size() + position) % this.exprents.size()); // care for negative positions
         }
       }
       else if (index < this.exprents.size()) { // use 'index' parameter
@@ -918,39 +1059,32 @@ public class Statement implements IMatchable {
       return false;
     }
 
-    for (Entry<MatchProperties, RuleValue> rule : matchNode.getRules().entrySet()) {
-      switch (rule.getKey()) {
-        case STATEMENT_TYPE:
-          if (this.type != (Integer)rule.getValue().value) {
-            return false;
-          }
-          break;
-        case STATEMENT_STATSIZE:
-          if (this.stats.size() != (Integer)rule.getValue().value) {
-            return false;
-          }
-          break;
-        case STATEMENT_EXPRSIZE:
-          int exprsize = (Integer)rule.getValue().value;
-          if (exprsize == -1) {
-            if (this.exprents != null) {
-              return false;
-            }
-          }
-          else {
-            if (this.exprents == null || this.exprents.size() != exprsize) {
-              return false;
-            }
-          }
-          break;
-        case STATEMENT_RET:
-          if (!engine.checkAndSetVariableValue((String)rule.getValue().value, this)) {
-            return false;
-          }
-          break;
+    // the type first, as it rejects most statements
+    Object type = matchNode.getRuleValue(MatchProperties.STATEMENT_TYPE);
+    if (type != null && this.type != (Integer)type) {
+      return false;
+    }
+
+    Object statsize = matchNode.getRuleValue(MatchProperties.STATEMENT_STATSIZE);
+    if (statsize != null && this.stats.size() != (Integer)statsize) {
+      return false;
+    }
+
+    Object exprsize = matchNode.getRuleValue(MatchProperties.STATEMENT_EXPRSIZE);
+    if (exprsize != null) {
+      if ((Integer)exprsize == -1) {
+        if (this.exprents != null) {
+          return false;
+        }
+      }
+      else {
+        if (this.exprents == null || this.exprents.size() != (Integer)exprsize) {
+          return false;
+        }
       }
     }
 
-    return true;
+    Object ret = matchNode.getRuleValue(MatchProperties.STATEMENT_RET);
+    return ret == null || engine.checkAndSetVariableValue((String)ret, this);
   }
 }
\ No newline at end of file
@@ -6,7 +6,6 @@ import org.jetbrains.java.decompiler.main.rels.MethodWrapper;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.Exprent;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.InvocationExprent;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.VarExprent;
-import org.jetbrains.java.decompiler.modules.decompiler.vars.VarVersionPair;
 
 public final class Statements {
   public static Statement findFirstData(Statement stat) {
@@ -32,8 +31,7 @@ public final class Statements {
   public static boolean isInvocationInitConstructor(InvocationExprent inv, MethodWrapper method, ClassWrapper wrapper, boolean withThis) {
     if (inv.getFunctype() == InvocationExprent.TYP_INIT && inv.getInstance().type == Exprent.EXPRENT_VAR) {
       VarExprent instVar = (VarExprent)inv.getInstance();
-      VarVersionPair varPair = new VarVersionPair(instVar);
-      String className = method.varproc.getThisVars().get(varPair);
+      String className = method.varproc.getThisVars().get(instVar.getVarVersionKey());
       if (className != null) { // any this instance. TODO: Restrict to current class?
         return withThis || !wrapper.getClassStruct().qualifiedName.equals(inv.getClassname());
       }
@@ -2,8 +2,6 @@
 package org.jetbrains.java.decompiler.modules.decompiler.stats;
 
 import org.jetbrains.java.decompiler.code.SwitchInstruction;
-import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
-import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.DecHelper;
@@ -40,7 +38,8 @@ public final class SwitchStatement extends Statement {
   // constructors
   // *****************************************************************************
 
-  private SwitchStatement() {
+  private SwitchStatement(CounterContainer counters) {
+    super(counters);
     type = TYPE_SWITCH;
 
     headexprent.add(null);
@@ -48,7 +47,7 @@ public final class SwitchStatement extends Statement {
 
   private SwitchStatement(Statement head, Statement poststat) {
 
-    this();
+    this(head.getCounters());
 
     first = head;
     stats.addWithKey(head, head.id);
@@ -197,7 +196,7 @@ public final class SwitchStatement extends Statement {
 
   @Override
   public Statement getSimpleCopy() {
-    return new SwitchStatement();
+    return new SwitchStatement(getCounters());
   }
 
   @Override
@@ -330,7 +329,7 @@ public final class SwitchStatement extends Statement {
         int index = in == lstSuccs.size() ? 0 : in;
 
         lste.add(lstSuccs.get(index));
-        lstv.add(index == 0 ? null : new ConstExprent(values[index - 1], false, null));
+        lstv.add(index == 0 ? null : new ConstExprent(getCounters(), values[index - 1], false, null));
       }
       lstEdges.add(lste);
       lstValues.add(lstv);
@@ -339,8 +338,7 @@ public final class SwitchStatement extends Statement {
     // replace null statements with dummy basic blocks
     for (int i = 0; i < nodes.size(); i++) {
       if (nodes.get(i) == null) {
-        BasicBlockStatement bstat = new BasicBlockStatement(new BasicBlock(
-          DecompilerContext.getCounterContainer().getCounterAndIncrement(CounterContainer.STATEMENT_COUNTER)));
+        BasicBlockStatement bstat = new BasicBlockStatement(getCounters());
 
         StatEdge sample_edge = lstEdges.get(i).get(0);
 
@@ -4,6 +4,7 @@ package org.jetbrains.java.decompiler.modules.decompiler.stats;
 import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.code.cfg.BasicBlock;
 import org.jetbrains.java.decompiler.main.collectors.BytecodeMappingTracer;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.ExprProcessor;
 import org.jetbrains.java.decompiler.modules.decompiler.SequenceHelper;
 import org.jetbrains.java.decompiler.modules.decompiler.StatEdge;
@@ -24,7 +25,8 @@ public class SynchronizedStatement extends Statement {
   // constructors
   // *****************************************************************************
 
-  public SynchronizedStatement() {
+  public SynchronizedStatement(CounterContainer counters) {
+    super(counters);
     type = TYPE_SYNCRONIZED;
 
     headexprent.add(null);
@@ -32,7 +34,7 @@ public class SynchronizedStatement extends Statement {
 
   public SynchronizedStatement(Statement head, Statement body, Statement exc) {
 
-    this();
+    this(head.getCounters());
 
     first = head;
     stats.addWithKey(head, head.id);
@@ -127,7 +129,7 @@ public class SynchronizedStatement extends Statement {
 
   @Override
   public Statement getSimpleCopy() {
-    return new SynchronizedStatement();
+    return new SynchronizedStatement(getCounters());
   }
 
   @Override
@@ -28,6 +28,7 @@ import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
 import org.jetbrains.java.decompiler.struct.gen.VarType;
 import org.jetbrains.java.decompiler.struct.gen.generics.GenericMain;
 import org.jetbrains.java.decompiler.struct.gen.generics.GenericType;
+import org.jetbrains.java.decompiler.util.LongHashMap;
 import org.jetbrains.java.decompiler.util.StatementIterator;
 
 import java.util.*;
@@ -92,7 +93,7 @@ public class VarDefinitionHelper {
     if (thisvar) {
       StructClass current_class = (StructClass)DecompilerContext.getProperty(DecompilerContext.CURRENT_CLASS);
 
-      varproc.getThisVars().put(new VarVersionPair(0, 0), current_class.qualifiedName);
+      varproc.getThisVars().put(VarVersionPair.toLong(0, 0), current_class.qualifiedName);
       varproc.setVarName(new VarVersionPair(0, 0), "this");
       vc.addName("this");
     }
@@ -198,13 +199,7 @@ public class VarDefinitionHelper {
           break;
         }
         else {
-          boolean foundvar = false;
-          for (Exprent exp : expr.getAllExprents(true)) {
-            if (exp.type == Exprent.EXPRENT_VAR && ((VarExprent)exp).getIndex() == index) {
-              foundvar = true;
-              break;
-            }
-          }
+          boolean foundvar = !expr.walkChildren(exp -> exp.type != Exprent.EXPRENT_VAR || ((VarExprent)exp).getIndex() != index);
           if (foundvar) {
             break;
           }
@@ -213,7 +208,7 @@ public class VarDefinitionHelper {
       }
 
       if (!defset) {
-        VarExprent var = new VarExprent(index, varproc.getVarType(new VarVersionPair(index.intValue(), 0)), varproc);
+        VarExprent var = new VarExprent(stat.getCounters(), index, varproc.getVarType(new VarVersionPair(index.intValue(), 0)), varproc);
         var.setDefinition(true);
 
         LocalVariable lvt = findLVT(index.intValue(), stat);
@@ -425,8 +420,8 @@ public class VarDefinitionHelper {
   }
 
   private void populateTypeBounds(VarProcessor proc, Statement stat) {
-    Map<VarVersionPair, VarType> mapExprentMinTypes = varproc.getVarVersions().getTypeProcessor().getMapExprentMinTypes();
-    Map<VarVersionPair, VarType> mapExprentMaxTypes = varproc.getVarVersions().getTypeProcessor().getMapExprentMaxTypes();
+    LongHashMap<VarType> mapExprentMinTypes = varproc.getVarVersions().getTypeProcessor().getMapExprentMinTypes();
+    LongHashMap<VarType> mapExprentMaxTypes = varproc.getVarVersions().getTypeProcessor().getMapExprentMaxTypes();
     LinkedList<Statement> stack = new LinkedList<>();
     stack.add(root);
 
@@ -463,7 +458,7 @@ public class VarDefinitionHelper {
                   continue; //This is dirty, but if we don't then too many things become object...
 
               if (instance != null && instance.type == Exprent.EXPRENT_VAR) {
-                VarVersionPair key = ((VarExprent)instance).getVarVersionPair();
+                long key = ((VarExprent)instance).getVarVersionKey();
                 VarType newType = new VarType(CodeConstants.TYPE_OBJECT, 0, target);
                 VarType oldMin = mapExprentMinTypes.get(key);
                 VarType oldMax = mapExprentMaxTypes.get(key);
@@ -788,9 +783,9 @@ public class VarDefinitionHelper {
   }
 
   private VarType getMergedType(VarVersionPair from, VarVersionPair to) {
-    Map<VarVersionPair, VarType> minTypes = varproc.getVarVersions().getTypeProcessor().getMapExprentMinTypes();
-    Map<VarVersionPair, VarType> maxTypes = varproc.getVarVersions().getTypeProcessor().getMapExprentMaxTypes();
-    return getMergedType(minTypes.get(from), minTypes.get(to), maxTypes.get(from), maxTypes.get(to));
+    LongHashMap<VarType> minTypes = varproc.getVarVersions().getTypeProcessor().getMapExprentMinTypes();
+    LongHashMap<VarType> maxTypes = varproc.getVarVersions().getTypeProcessor().getMapExprentMaxTypes();
+    return getMergedType(minTypes.get(from.toLong()), minTypes.get(to.toLong()), maxTypes.get(from.toLong()), maxTypes.get(to.toLong()));
   }
 
   private VarType getMergedType(VarType fromMin, VarType toMin, VarType fromMax, VarType toMax) {
@@ -1002,10 +997,7 @@ public class VarDefinitionHelper {
     if (exprent == null) {
       return;
     }
-    List<Exprent> lst = exprent.getAllExprents(true);
-    lst.add(exprent);
-
-    for (Exprent expr : lst) {
+    exprent.walk(expr -> {
       if (expr.type == Exprent.EXPRENT_VAR) {
         VarExprent var = (VarExprent)expr;
         LocalVariable lvt = types.get(new VarVersionPair(var));
@@ -1015,7 +1007,8 @@ public class VarDefinitionHelper {
           System.currentTimeMillis();
         }
       }
-    }
+      return true;
+    });
   }
 
   //Helper classes because Java is dumb and doesn't have a Pair<K,V> class
@@ -1101,9 +1094,7 @@ public class VarDefinitionHelper {
 
   private static boolean isVarReadFirst(VarVersionPair target, Exprent exp, VarExprent... whitelist) {
     AssignmentExprent ass = exp.type == Exprent.EXPRENT_ASSIGNMENT ? (AssignmentExprent)exp : null;
-    List<Exprent> lst = exp.getAllExprents(true);
-    lst.add(exp);
-    for (Exprent ex : lst) {
+    return !exp.walk(ex -> {
       if (ex.type == Exprent.EXPRENT_VAR) {
         VarExprent var = (VarExprent)ex;
         if (var.getIndex() == target.var && var.getVersion() == target.version) {
@@ -1119,12 +1110,12 @@ public class VarDefinitionHelper {
             }
           }
           if (!allowed) {
-            return true;
+            return false;
           }
         }
       }
-    }
-    return false;
+      return true;
+    });
   }
 
   private void setNonFinal(Statement stat, Set<VarVersionPair> unInitialized) {
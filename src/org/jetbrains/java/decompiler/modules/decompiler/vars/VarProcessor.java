@@ -9,21 +9,22 @@ import org.jetbrains.java.decompiler.struct.StructMethod;
 import org.jetbrains.java.decompiler.struct.attr.StructLocalVariableTableAttribute.LocalVariable;
 import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
 import org.jetbrains.java.decompiler.struct.gen.VarType;
+import org.jetbrains.java.decompiler.util.LongHashMap;
 import org.jetbrains.java.decompiler.util.StartEndPair;
 import org.jetbrains.java.decompiler.util.TextUtil;
 
 import java.util.*;
-import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
 public class VarProcessor {
   private final VarNamesCollector varNamesCollector = new VarNamesCollector();
   private final StructMethod method;
   private final MethodDescriptor methodDescriptor;
-  private Map<VarVersionPair, String> mapVarNames = new HashMap<>();
-  private Map<VarVersionPair, LocalVariable> mapVarLVTs = new HashMap<>();
+  // keyed by packed var-version pairs, see VarVersionPair.toLong
+  private LongHashMap<String> mapVarNames = new LongHashMap<>();
+  private final LongHashMap<LocalVariable> mapVarLVTs = new LongHashMap<>();
   private VarVersionsProcessor varVersions;
-  private final Map<VarVersionPair, String> thisVars = new HashMap<>();
+  private final LongHashMap<String> thisVars = new LongHashMap<>();
   private final Set<VarVersionPair> externalVars = new HashSet<>();
 
   public VarProcessor(StructMethod mt, MethodDescriptor md) {
@@ -38,7 +39,7 @@ public class VarProcessor {
   }
 
   public void setVarDefinitions(Statement root) {
-    mapVarNames = new HashMap<>();
+    mapVarNames = new LongHashMap<>();
     new VarDefinitionHelper(root, method, this).setVarDefinitions();
   }
 
@@ -49,16 +50,16 @@ public class VarProcessor {
 
     Map<Integer, VarVersionPair> mapOriginalVarIndices = varVersions.getMapOriginalVarIndices();
 
-    List<VarVersionPair> listVars = new ArrayList<>(mapVarNames.keySet());
-    listVars.sort(Comparator.comparingInt(o -> o.var));
+    long[] listVars = mapVarNames.keys();
+    Arrays.sort(listVars);
 
     Map<String, Integer> mapNames = new HashMap<>();
 
-    for (VarVersionPair pair : listVars) {
+    for (long pair : listVars) {
       String name = mapVarNames.get(pair);
 
       boolean lvtName = false;
-      VarVersionPair key = mapOriginalVarIndices.get(pair.var);
+      VarVersionPair key = mapOriginalVarIndices.get((int)(pair >> 32));
       if (key != null) {
         String debugName = mapDebugVarNames.get(key);
         if (debugName != null && TextUtil.isValidIdentifier(debugName, method.getBytecodeVersion())) {
@@ -87,9 +88,10 @@ public class VarProcessor {
   }
 
   public void refreshVarNames(VarNamesCollector vc) {
-    Map<VarVersionPair, String> tempVarNames = new HashMap<>(mapVarNames);
-    for (Entry<VarVersionPair, String> ent : tempVarNames.entrySet()) {
-      mapVarNames.put(ent.getKey(), vc.getFreeName(ent.getValue()));
+    long[] vars = mapVarNames.keys();
+    Arrays.sort(vars);
+    for (long var : vars) {
+      mapVarNames.put(var, vc.getFreeName(mapVarNames.get(var)));
     }
   }
 
@@ -108,11 +110,16 @@ public class VarProcessor {
   }
 
   public String getVarName(VarVersionPair pair) {
-    return mapVarNames == null ? null : mapVarNames.get(pair);
+    return mapVarNames == null ? null : mapVarNames.get(pair.toLong());
   }
 
   public void setVarName(VarVersionPair pair, String name) {
-    mapVarNames.put(pair, name);
+    if (name != null) {
+      mapVarNames.put(pair.toLong(), name);
+    }
+    else {
+      mapVarNames.remove(pair.toLong());
+    }
   }
 
   public Collection<String> getVarNames() {
@@ -127,7 +134,10 @@ public class VarProcessor {
     varVersions.setVarFinal(pair, finalType);
   }
 
-  public Map<VarVersionPair, String> getThisVars() {
+  /**
+   * @return the names of the classes whose instance the variables hold, keyed by {@link VarVersionPair#toLong()}
+   */
+  public LongHashMap<String> getThisVars() {
     return thisVars;
   }
 
@@ -192,10 +202,15 @@ public class VarProcessor {
   }
 
   public void setVarLVT(VarVersionPair var, LocalVariable lvt) {
-    mapVarLVTs.put(var, lvt);
+    if (lvt != null) {
+      mapVarLVTs.put(var.toLong(), lvt);
+    }
+    else {
+      mapVarLVTs.remove(var.toLong());
+    }
   }
 
   public LocalVariable getVarLVT(VarVersionPair var) {
-    return mapVarLVTs.get(var);
+    return mapVarLVTs.get(var.toLong());
   }
 }
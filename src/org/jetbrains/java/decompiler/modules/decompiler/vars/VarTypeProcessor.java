@@ -13,11 +13,10 @@ import org.jetbrains.java.decompiler.struct.StructClass;
 import org.jetbrains.java.decompiler.struct.StructMethod;
 import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
 import org.jetbrains.java.decompiler.struct.gen.VarType;
+import org.jetbrains.java.decompiler.util.LongHashMap;
 
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 public class VarTypeProcessor {
   public static final int VAR_NON_FINAL = 1;
@@ -26,9 +25,10 @@ public class VarTypeProcessor {
 
   private final StructMethod method;
   private final MethodDescriptor methodDescriptor;
-  private final Map<VarVersionPair, VarType> mapExprentMinTypes = new HashMap<>();
-  private final Map<VarVersionPair, VarType> mapExprentMaxTypes = new HashMap<>();
-  private final Map<VarVersionPair, Integer> mapFinalVars = new HashMap<>();
+  // keyed by packed var-version pairs, see VarVersionPair.toLong; constants are keyed by their id and version -1
+  private final LongHashMap<VarType> mapExprentMinTypes = new LongHashMap<>();
+  private final LongHashMap<VarType> mapExprentMaxTypes = new LongHashMap<>();
+  private final LongHashMap<Integer> mapFinalVars = new LongHashMap<>();
 
   public VarTypeProcessor(StructMethod mt, MethodDescriptor md) {
     method = mt;
@@ -52,14 +52,14 @@ public class VarTypeProcessor {
     if (thisVar) {
       StructClass cl = (StructClass)DecompilerContext.getProperty(DecompilerContext.CURRENT_CLASS);
       VarType clType = new VarType(CodeConstants.TYPE_OBJECT, 0, cl.qualifiedName);
-      mapExprentMinTypes.put(new VarVersionPair(0, 1), clType);
-      mapExprentMaxTypes.put(new VarVersionPair(0, 1), clType);
+      mapExprentMinTypes.put(VarVersionPair.toLong(0, 1), clType);
+      mapExprentMaxTypes.put(VarVersionPair.toLong(0, 1), clType);
     }
 
     int varIndex = 0;
     for (int i = 0; i < md.params.length; i++) {
-      mapExprentMinTypes.put(new VarVersionPair(varIndex + (thisVar ? 1 : 0), 1), md.params[i]);
-      mapExprentMaxTypes.put(new VarVersionPair(varIndex + (thisVar ? 1 : 0), 1), md.params[i]);
+      mapExprentMinTypes.put(VarVersionPair.toLong(varIndex + (thisVar ? 1 : 0), 1), md.params[i]);
+      mapExprentMaxTypes.put(VarVersionPair.toLong(varIndex + (thisVar ? 1 : 0), 1), md.params[i]);
       varIndex += md.params[i].stackSize;
     }
 
@@ -80,8 +80,8 @@ public class VarTypeProcessor {
 
       if (lstVars != null) {
         for (VarExprent var : lstVars) {
-          mapExprentMinTypes.put(new VarVersionPair(var.getIndex(), 1), var.getVarType());
-          mapExprentMaxTypes.put(new VarVersionPair(var.getIndex(), 1), var.getVarType());
+          mapExprentMinTypes.put(VarVersionPair.toLong(var.getIndex(), 1), var.getVarType());
+          mapExprentMaxTypes.put(VarVersionPair.toLong(var.getIndex(), 1), var.getVarType());
         }
       }
 
@@ -91,10 +91,7 @@ public class VarTypeProcessor {
 
   private static void resetExprentTypes(DirectGraph graph) {
     graph.iterateExprents(exprent -> {
-      List<Exprent> lst = exprent.getAllExprents(true);
-      lst.add(exprent);
-
-      for (Exprent expr : lst) {
+      exprent.walk(expr -> {
         if (expr.type == Exprent.EXPRENT_VAR) {
           VarExprent ve = (VarExprent)expr;
           if (ve.getLVT() != null) {
@@ -106,10 +103,11 @@ public class VarTypeProcessor {
         else if (expr.type == Exprent.EXPRENT_CONST) {
           ConstExprent constExpr = (ConstExprent)expr;
           if (constExpr.getConstType().typeFamily == CodeConstants.TYPE_FAMILY_INTEGER) {
-            constExpr.setConstType(new ConstExprent(constExpr.getIntValue(), constExpr.isBoolPermitted(), null).getConstType());
+            constExpr.setConstType(new ConstExprent(constExpr.getCounters(), constExpr.getIntValue(), constExpr.isBoolPermitted(), null).getConstType());
           }
         }
-      }
+        return true;
+      });
       return 0;
     });
   }
@@ -129,7 +127,7 @@ public class VarTypeProcessor {
     if (exprent.type == Exprent.EXPRENT_CONST) {
       ConstExprent constExpr = (ConstExprent)exprent;
       if (constExpr.getConstType().typeFamily <= CodeConstants.TYPE_FAMILY_INTEGER) { // boolean or integer
-        VarVersionPair pair = new VarVersionPair(constExpr.id, -1);
+        long pair = VarVersionPair.toLong(constExpr.id, -1);
         if (!mapExprentMinTypes.containsKey(pair)) {
           mapExprentMinTypes.put(pair, constExpr.getConstType());
         }
@@ -167,19 +165,13 @@ public class VarTypeProcessor {
           return true;
         }
         else if (newType.typeFamily == CodeConstants.TYPE_FAMILY_INTEGER) {
-          VarType minInteger = new ConstExprent((Integer)constExpr.getValue(), false, null).getConstType();
+          VarType minInteger = new ConstExprent(constExpr.getCounters(), (Integer)constExpr.getValue(), false, null).getConstType();
           if (minInteger.isStrictSuperset(newType)) {
             newType = minInteger;
           }
         }
       case Exprent.EXPRENT_VAR:
-        VarVersionPair pair = null;
-        if (exprent.type == Exprent.EXPRENT_CONST) {
-          pair = new VarVersionPair(exprent.id, -1);
-        }
-        else if (exprent.type == Exprent.EXPRENT_VAR) {
-          pair = new VarVersionPair((VarExprent)exprent);
-        }
+        long pair = exprent.type == Exprent.EXPRENT_CONST ? VarVersionPair.toLong(exprent.id, -1) : ((VarExprent)exprent).getVarVersionKey();
 
         if (minMax == 0) { // min
           VarType currentMinType = mapExprentMinTypes.get(pair);
@@ -242,23 +234,28 @@ public class VarTypeProcessor {
     return res;
   }
 
-  public Map<VarVersionPair, VarType> getMapExprentMaxTypes() {
+  public LongHashMap<VarType> getMapExprentMaxTypes() {
     return mapExprentMaxTypes;
   }
 
-  public Map<VarVersionPair, VarType> getMapExprentMinTypes() {
+  public LongHashMap<VarType> getMapExprentMinTypes() {
     return mapExprentMinTypes;
   }
 
-  public Map<VarVersionPair, Integer> getMapFinalVars() {
+  public LongHashMap<Integer> getMapFinalVars() {
     return mapFinalVars;
   }
 
   public void setVarType(VarVersionPair pair, VarType type) {
-    mapExprentMinTypes.put(pair, type);
+    if (type != null) {
+      mapExprentMinTypes.put(pair.toLong(), type);
+    }
+    else {
+      mapExprentMinTypes.remove(pair.toLong());
+    }
   }
 
   public VarType getVarType(VarVersionPair pair) {
-    return mapExprentMinTypes.get(pair);
+    return mapExprentMinTypes.get(pair.toLong());
   }
 }
\ No newline at end of file
@@ -2,14 +2,13 @@
 package org.jetbrains.java.decompiler.modules.decompiler.vars;
 
 import org.jetbrains.java.decompiler.modules.decompiler.exps.VarExprent;
+import org.jetbrains.java.decompiler.util.LongHashMap;
 
 public class VarVersionPair {
 
   public final int var;
   public final int version;
 
-  private int hashCode = -1;
-
   public VarVersionPair(int var, int version) {
     this.var = var;
     this.version = version;
@@ -25,6 +24,22 @@ public class VarVersionPair {
     this.version = var.getVersion();
   }
 
+  /**
+   * Packs a variable and its version into one value, to be used as a key without allocating a pair. Packed keys sort
+   * by variable first.
+   */
+  public static long toLong(int var, int version) {
+    return ((long)var << 32) | (version & 0xFFFFFFFFL);
+  }
+
+  public static VarVersionPair fromLong(long key) {
+    return new VarVersionPair((int)(key >> 32), (int)key);
+  }
+
+  public long toLong() {
+    return toLong(var, version);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o == this) return true;
@@ -36,10 +51,7 @@ public class VarVersionPair {
 
   @Override
   public int hashCode() {
-    if (hashCode == -1) {
-      hashCode = this.var * 3 + this.version;
-    }
-    return hashCode;
+    return LongHashMap.hash(toLong());
   }
 
   @Override
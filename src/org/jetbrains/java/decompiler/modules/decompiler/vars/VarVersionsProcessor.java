@@ -2,7 +2,6 @@
 package org.jetbrains.java.decompiler.modules.decompiler.vars;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
-import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.ConstExprent;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.Exprent;
@@ -16,6 +15,7 @@ import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
 import org.jetbrains.java.decompiler.struct.gen.VarType;
 import org.jetbrains.java.decompiler.util.DotExporter;
 import org.jetbrains.java.decompiler.util.FastSparseSetFactory.FastSparseSet;
+import org.jetbrains.java.decompiler.util.LongHashMap;
 
 import java.util.*;
 import java.util.Map.Entry;
@@ -49,7 +49,7 @@ public class VarVersionsProcessor {
 
     eliminateNonJavaTypes(typeProcessor);
 
-    setNewVarIndices(typeProcessor, graph, previousVersionsProcessor);
+    setNewVarIndices(typeProcessor, graph, root.getCounters(), previousVersionsProcessor);
   }
 
   private static void mergePhiVersions(SSAConstructorSparseEx ssa, DirectGraph graph) {
@@ -95,10 +95,7 @@ public class VarVersionsProcessor {
 
   private static void updateVersions(DirectGraph graph, final Map<VarVersionPair, Integer> versions) {
     graph.iterateExprents(exprent -> {
-      List<Exprent> lst = exprent.getAllExprents(true);
-      lst.add(exprent);
-
-      for (Exprent expr : lst) {
+      exprent.walk(expr -> {
         if (expr.type == Exprent.EXPRENT_VAR) {
           VarExprent var = (VarExprent)expr;
           Integer version = versions.get(new VarVersionPair(var));
@@ -106,17 +103,18 @@ public class VarVersionsProcessor {
             var.setVersion(version);
           }
         }
-      }
+        return true;
+      });
 
       return 0;
     });
   }
 
   private static void eliminateNonJavaTypes(VarTypeProcessor typeProcessor) {
-    Map<VarVersionPair, VarType> mapExprentMaxTypes = typeProcessor.getMapExprentMaxTypes();
-    Map<VarVersionPair, VarType> mapExprentMinTypes = typeProcessor.getMapExprentMinTypes();
+    LongHashMap<VarType> mapExprentMaxTypes = typeProcessor.getMapExprentMaxTypes();
+    LongHashMap<VarType> mapExprentMinTypes = typeProcessor.getMapExprentMinTypes();
 
-    for (VarVersionPair paar : new ArrayList<>(mapExprentMinTypes.keySet())) {
+    for (long paar : mapExprentMinTypes.keys()) {
       VarType type = mapExprentMinTypes.get(paar);
       VarType maxType = mapExprentMaxTypes.get(paar);
 
@@ -138,12 +136,13 @@ public class VarVersionsProcessor {
   }
 
   private static void simpleMerge(VarTypeProcessor typeProcessor, DirectGraph graph, StructMethod mt) {
-    Map<VarVersionPair, VarType> mapExprentMaxTypes = typeProcessor.getMapExprentMaxTypes();
-    Map<VarVersionPair, VarType> mapExprentMinTypes = typeProcessor.getMapExprentMinTypes();
+    LongHashMap<VarType> mapExprentMaxTypes = typeProcessor.getMapExprentMaxTypes();
+    LongHashMap<VarType> mapExprentMinTypes = typeProcessor.getMapExprentMinTypes();
 
     Map<Integer, Set<Integer>> mapVarVersions = new HashMap<>();
 
-    for (VarVersionPair pair : mapExprentMinTypes.keySet()) {
+    for (long key : mapExprentMinTypes.keys()) {
+      VarVersionPair pair = VarVersionPair.fromLong(key);
       if (pair.version >= 0) {  // don't merge constants
         mapVarVersions.computeIfAbsent(pair.var, k -> new HashSet<>()).add(pair.version);
       }
@@ -161,7 +160,7 @@ public class VarVersionsProcessor {
 
         for (int i = 0; i < lstVersions.size(); i++) {
           VarVersionPair firstPair = new VarVersionPair(ent.getKey(), lstVersions.get(i));
-          VarType firstType = mapExprentMinTypes.get(firstPair);
+          VarType firstType = mapExprentMinTypes.get(firstPair.toLong());
 
           if (firstPair.var == 0 && firstPair.version == 1 && !is_method_static) {
             continue; // don't merge 'this' variable
@@ -169,29 +168,31 @@ public class VarVersionsProcessor {
 
           for (int j = i + 1; j < lstVersions.size(); j++) {
             VarVersionPair secondPair = new VarVersionPair(ent.getKey(), lstVersions.get(j));
-            VarType secondType = mapExprentMinTypes.get(secondPair);
+            VarType secondType = mapExprentMinTypes.get(secondPair.toLong());
 
             if (firstType.equals(secondType) ||
                 (firstType.equals(VarType.VARTYPE_NULL) && secondType.type == CodeConstants.TYPE_OBJECT) ||
                 (secondType.equals(VarType.VARTYPE_NULL) && firstType.type == CodeConstants.TYPE_OBJECT)) {
 
-              VarType firstMaxType = mapExprentMaxTypes.get(firstPair);
-              VarType secondMaxType = mapExprentMaxTypes.get(secondPair);
+              VarType firstMaxType = mapExprentMaxTypes.get(firstPair.toLong());
+              VarType secondMaxType = mapExprentMaxTypes.get(secondPair.toLong());
               VarType type = firstMaxType == null ? secondMaxType :
                              secondMaxType == null ? firstMaxType :
                              VarType.getCommonMinType(firstMaxType, secondMaxType);
 
-              mapExprentMaxTypes.put(firstPair, type);
+              if (type != null) {
+                mapExprentMaxTypes.put(firstPair.toLong(), type);
+              }
               mapMergedVersions.put(secondPair, firstPair.version);
-              mapExprentMaxTypes.remove(secondPair);
-              mapExprentMinTypes.remove(secondPair);
+              mapExprentMaxTypes.remove(secondPair.toLong());
+              mapExprentMinTypes.remove(secondPair.toLong());
 
               if (firstType.equals(VarType.VARTYPE_NULL)) {
-                mapExprentMinTypes.put(firstPair, secondType);
+                mapExprentMinTypes.put(firstPair.toLong(), secondType);
                 firstType = secondType;
               }
 
-              typeProcessor.getMapFinalVars().put(firstPair, VarTypeProcessor.VAR_NON_FINAL);
+              typeProcessor.getMapFinalVars().put(firstPair.toLong(), VarTypeProcessor.VAR_NON_FINAL);
 
               lstVersions.remove(j);
               //noinspection AssignmentToForLoopParameter
@@ -207,33 +208,42 @@ public class VarVersionsProcessor {
     }
   }
 
-  private void setNewVarIndices(VarTypeProcessor typeProcessor, DirectGraph graph, VarVersionsProcessor previousVersionsProcessor) {
-    final Map<VarVersionPair, VarType> mapExprentMaxTypes = typeProcessor.getMapExprentMaxTypes();
-    Map<VarVersionPair, VarType> mapExprentMinTypes = typeProcessor.getMapExprentMinTypes();
-    Map<VarVersionPair, Integer> mapFinalVars = typeProcessor.getMapFinalVars();
-
-    CounterContainer counters = DecompilerContext.getCounterContainer();
+  private void setNewVarIndices(VarTypeProcessor typeProcessor,
+                                DirectGraph graph,
+                                CounterContainer counters,
+                                VarVersionsProcessor previousVersionsProcessor) {
+    final LongHashMap<VarType> mapExprentMaxTypes = typeProcessor.getMapExprentMaxTypes();
+    LongHashMap<VarType> mapExprentMinTypes = typeProcessor.getMapExprentMinTypes();
+    LongHashMap<Integer> mapFinalVars = typeProcessor.getMapFinalVars();
 
     final Map<VarVersionPair, Integer> mapVarPaar = new HashMap<>();
     Map<Integer, VarVersionPair> mapOriginalVarIndices = new HashMap<>();
     mapOriginalVarIndices.putAll(this.mapOriginalVarIndices);
 
     // map var-version pairs on new var indexes
-    List<VarVersionPair> vvps = new ArrayList<>(mapExprentMinTypes.keySet());
-    Collections.sort(vvps, (o1, o2) -> o1.var != o2.var ?  o1.var - o2.var : o1.version - o2.version);
+    long[] vvps = mapExprentMinTypes.keys();
+    Arrays.sort(vvps);
 
-    for (VarVersionPair pair : vvps) {
+    for (long key : vvps) {
+      VarVersionPair pair = VarVersionPair.fromLong(key);
 
       if (pair.version >= 0) {
         int newIndex = pair.version == 1 ? pair.var : counters.getCounterAndIncrement(CounterContainer.VAR_COUNTER);
 
-        VarVersionPair newVar = new VarVersionPair(newIndex, 0);
+        long newVar = VarVersionPair.toLong(newIndex, 0);
 
-        mapExprentMinTypes.put(newVar, mapExprentMinTypes.get(pair));
-        mapExprentMaxTypes.put(newVar, mapExprentMaxTypes.get(pair));
+        mapExprentMinTypes.put(newVar, mapExprentMinTypes.get(key));
+        VarType maxType = mapExprentMaxTypes.get(key);
+        if (maxType != null) {
+          mapExprentMaxTypes.put(newVar, maxType);
+        }
+        else {
+          mapExprentMaxTypes.remove(newVar);
+        }
 
-        if (mapFinalVars.containsKey(pair)) {
-          mapFinalVars.put(newVar, mapFinalVars.remove(pair));
+        Integer finalType = mapFinalVars.remove(key);
+        if (finalType != null) {
+          mapFinalVars.put(newVar, finalType);
         }
 
         mapVarPaar.put(pair, newIndex);
@@ -243,10 +253,7 @@ public class VarVersionsProcessor {
 
     // set new vars
     graph.iterateExprents(exprent -> {
-      List<Exprent> lst = exprent.getAllExprents(true);
-      lst.add(exprent);
-
-      for (Exprent expr : lst) {
+      exprent.walk(expr -> {
         if (expr.type == Exprent.EXPRENT_VAR) {
           VarExprent newVar = (VarExprent)expr;
           Integer newVarIndex = mapVarPaar.get(new VarVersionPair(newVar));
@@ -256,12 +263,13 @@ public class VarVersionsProcessor {
           }
         }
         else if (expr.type == Exprent.EXPRENT_CONST) {
-          VarType maxType = mapExprentMaxTypes.get(new VarVersionPair(expr.id, -1));
+          VarType maxType = mapExprentMaxTypes.get(VarVersionPair.toLong(expr.id, -1));
           if (maxType != null && maxType.equals(VarType.VARTYPE_CHAR)) {
             ((ConstExprent)expr).setConstType(maxType);
           }
         }
-      }
+        return true;
+      });
 
       return 0;
     });
@@ -290,12 +298,12 @@ public class VarVersionsProcessor {
   }
 
   public int getVarFinal(VarVersionPair pair) {
-    Integer fin = typeProcessor.getMapFinalVars().get(pair);
+    Integer fin = typeProcessor.getMapFinalVars().get(pair.toLong());
     return fin == null ? VarTypeProcessor.VAR_FINAL : fin;
   }
 
   public void setVarFinal(VarVersionPair pair, int finalType) {
-    typeProcessor.getMapFinalVars().put(pair, finalType);
+    typeProcessor.getMapFinalVars().put(pair.toLong(), finalType);
   }
 
   public Map<Integer, VarVersionPair> getMapOriginalVarIndices() {
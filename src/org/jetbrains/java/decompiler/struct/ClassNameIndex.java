@@ -0,0 +1,46 @@
+package org.jetbrains.java.decompiler.struct;
+
+import java.util.*;
+
+/**
+ * A read-only index of class names by their simple names, which tells whether a class with a given simple name exists in
+ * a package or in an enclosing class without reading any class and without building the qualified name to look up.
+ */
+final class ClassNameIndex {
+  // simple name -> packages in internal form, each either empty or ending with a slash
+  private final Map<String, Set<String>> packages = new HashMap<>();
+  // name after a dollar sign -> internal names of the classes up to that dollar sign
+  private final Map<String, Set<String>> outerClasses = new HashMap<>();
+
+  ClassNameIndex(Collection<String> names) {
+    for (String name : names) {
+      int slash = name.lastIndexOf('/');
+      add(packages, name.substring(slash + 1), name.substring(0, slash + 1));
+
+      for (int dollar = name.indexOf('$'); dollar >= 0; dollar = name.indexOf('$', dollar + 1)) {
+        add(outerClasses, name.substring(dollar + 1), name.substring(0, dollar));
+      }
+    }
+  }
+
+  private static void add(Map<String, Set<String>> map, String key, String value) {
+    map.computeIfAbsent(key, k -> new HashSet<>(2)).add(value);
+  }
+
+  /**
+   * @param packageSlash a package in internal form, either empty or ending with a slash
+   * @return whether the class {@code packageSlash + simpleName} exists
+   */
+  boolean hasClass(String packageSlash, String simpleName) {
+    Set<String> set = packages.get(simpleName);
+    return set != null && set.contains(packageSlash);
+  }
+
+  /**
+   * @return whether the class {@code outerName + '$' + simpleName} exists
+   */
+  boolean hasMemberClass(String outerName, String simpleName) {
+    Set<String> set = outerClasses.get(simpleName);
+    return set != null && set.contains(outerName);
+  }
+}
@@ -0,0 +1,265 @@
+package org.jetbrains.java.decompiler.struct;
+
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+import org.jetbrains.java.decompiler.struct.ContextUnit.ClassResult;
+
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Decompiles the classes of an archive in stages, each with its own pool of threads: the analysis of a class, in which
+ * its methods are decompiled, and the writing of its source, which hands the result to the thread saving the classes
+ * through a {@link SaveQueue}. The classes are read before the pipeline starts, so no stage loads them.
+ * <p>
+ * An analyzed class holds all its processed method bodies until it is written, so the classes waiting to be written are
+ * limited: an analysis thread waits before it starts a class while the limit is reached. Nothing else waits on another
+ * stage, and the saving thread runs the stages that have not started yet for the class it waits for itself, so the
+ * stages cannot block each other.
+ * <p>
+ * Each class is processed with a context of its own, which holds the state of the class from one stage to the next.
+ */
+final class ClassPipeline {
+  private static final int NEW = 0;
+  private static final int ANALYZING = 1;
+  private static final int ANALYZED = 2;
+  private static final int WRITING = 3;
+  private static final int DONE = 4;
+
+  private final IDecompiledData decompiledData;
+  private final DecompilerContext rootContext;
+  private final SaveQueue<ClassResult> queue;
+  private final Stage analysis;
+  private final Stage text;
+  private final Semaphore backlog;
+  private final int backlogSize;
+  private final long start = System.nanoTime();
+
+  private final AtomicLong backlogWaitNanos = new AtomicLong();
+  private final AtomicInteger savingThreadAnalyses = new AtomicInteger();
+  private final AtomicInteger savingThreadWrites = new AtomicInteger();
+
+  ClassPipeline(IDecompiledData decompiledData, DecompilerContext rootContext, SaveQueue<ClassResult> queue,
+                int analysisThreads, int textThreads) {
+    this.decompiledData = decompiledData;
+    this.rootContext = rootContext;
+    this.queue = queue;
+    this.analysis = new Stage("analysis", analysisThreads);
+    this.text = new Stage("writing", textThreads);
+    this.backlogSize = analysisThreads + textThreads;
+    this.backlog = new Semaphore(backlogSize);
+  }
+
+  /**
+   * Queues a class for analysis.
+   *
+   * @return the task running the stages of the class that have not started yet, for {@link SaveQueue#take}
+   */
+  Runnable submit(int index, StructClass cl) {
+    Job job = new Job(index, cl);
+    analysis.executor.execute(() -> analyzeInPool(job));
+    return () -> finish(job);
+  }
+
+  private void analyzeInPool(Job job) {
+    long waitStart = System.nanoTime();
+    try {
+      backlog.acquire();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    backlogWaitNanos.addAndGet(System.nanoTime() - waitStart);
+
+    if (!job.claim(NEW, ANALYZING)) {
+      backlog.release();
+      return;
+    }
+    job.holdsPermit = true;
+    long analysisStart = System.nanoTime();
+    analyze(job);
+    analysis.record(analysisStart);
+
+    try {
+      text.executor.execute(() -> {
+        if (job.claim(ANALYZED, WRITING)) {
+          long textStart = System.nanoTime();
+          ClassResult result = write(job);
+          text.record(textStart);
+          save(job, result);
+        }
+      });
+    }
+    catch (RejectedExecutionException ignored) {
+      // the pipeline was shut down, every class has been taken by the saving thread or saving failed
+    }
+  }
+
+  private void finish(Job job) {
+    if (job.claim(NEW, ANALYZING)) {
+      savingThreadAnalyses.incrementAndGet();
+      analyze(job);
+    }
+    job.awaitEnd(ANALYZING);
+    if (job.claim(ANALYZED, WRITING)) {
+      savingThreadWrites.incrementAndGet();
+      save(job, write(job));
+    }
+  }
+
+  private void analyze(Job job) {
+    DecompilerContext previous = DecompilerContext.getCurrentContext();
+    try {
+      // the job has to end in any case, as the saving thread may wait for it
+      job.context = createContext(rootContext);
+      DecompilerContext.setCurrentContext(job.context);
+      job.source = decompiledData.prepareClassContent(job.cl);
+    }
+    catch (Throwable t) {
+      job.failure = t;
+    }
+    finally {
+      DecompilerContext.setCurrentContext(previous);
+      job.advance(ANALYZED);
+    }
+  }
+
+  private ClassResult write(Job job) {
+    ClassResult result;
+    DecompilerContext previous = DecompilerContext.getCurrentContext();
+    DecompilerContext.setCurrentContext(job.context);
+    try {
+      result = job.failure != null ? new ClassResult(job.failure) : ClassResult.create(job.cl, job.source.get());
+    }
+    catch (Throwable t) {
+      result = new ClassResult(t);
+    }
+    finally {
+      DecompilerContext.setCurrentContext(previous);
+      job.context = null;
+      job.source = null;
+      if (job.holdsPermit) {
+        backlog.release();
+      }
+      job.advance(DONE);
+    }
+    return result;
+  }
+
+  private void save(Job job, ClassResult result) {
+    try {
+      queue.put(job.index, result, result.getSize());
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  static DecompilerContext createContext(DecompilerContext rootContext) {
+    return new DecompilerContext(
+      new HashMap<>(rootContext.properties),
+      rootContext.logger,
+      rootContext.structContext,
+      rootContext.classProcessor,
+      rootContext.poolInterceptor,
+      rootContext.renamerFactory
+    );
+  }
+
+  /**
+   * Stops the threads of the pipeline once the saving thread has taken every class or has failed; the work left is
+   * either none or work no one waits for.
+   */
+  void shutdown() {
+    analysis.executor.shutdownNow();
+    text.executor.shutdownNow();
+  }
+
+  void writeSummary(IFernflowerLogger logger, String name) {
+    long elapsed = System.nanoTime() - start;
+    if (analysis.classes.get() + text.classes.get() + savingThreadAnalyses.get() + savingThreadWrites.get() == 0) {
+      return;
+    }
+
+    logger.writeMessage("Decompiled classes of " + name + ": " + analysis.describe(elapsed) + ", " + text.describe(elapsed) +
+                        ", analysis waited " + backlogWaitNanos.get() / 1_000_000 + " ms for " + backlogSize +
+                        " analyzed classes to be written, saving thread analyzed " + savingThreadAnalyses.get() +
+                        " and wrote " + savingThreadWrites.get() + " classes itself", IFernflowerLogger.Severity.INFO);
+  }
+
+  private static final class Job {
+    private final int index;
+    private final StructClass cl;
+    private int state = NEW;
+    private boolean holdsPermit;
+    private DecompilerContext context;
+    private Supplier<String> source;
+    private Throwable failure;
+
+    private Job(int index, StructClass cl) {
+      this.index = index;
+      this.cl = cl;
+    }
+
+    private synchronized boolean claim(int from, int to) {
+      if (state != from) {
+        return false;
+      }
+      state = to;
+      return true;
+    }
+
+    private synchronized void advance(int to) {
+      state = to;
+      notifyAll();
+    }
+
+    // the stage waited for runs on a pool thread that does not block, so it always ends
+    private synchronized void awaitEnd(int running) {
+      boolean interrupted = false;
+      while (state == running) {
+        try {
+          wait();
+        }
+        catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static final class Stage {
+    private final String name;
+    private final int threads;
+    private final ExecutorService executor;
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicInteger classes = new AtomicInteger();
+
+    private Stage(String name, int threads) {
+      this.name = name;
+      this.threads = threads;
+      this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    private void record(long start) {
+      busyNanos.addAndGet(System.nanoTime() - start);
+      classes.incrementAndGet();
+    }
+
+    private String describe(long elapsed) {
+      long utilization = elapsed > 0 ? 100 * busyNanos.get() / (threads * elapsed) : 0;
+      return name + " " + classes.get() + " classes on " + threads + (threads == 1 ? " thread" : " threads") +
+             " busy " + utilization + "%";
+    }
+  }
+}
@@ -2,9 +2,13 @@
 package org.jetbrains.java.decompiler.struct;
 
 import net.fabricmc.fernflower.api.IFabricResultSaver;
+import org.jetbrains.java.decompiler.main.ClassesProcessor.ClassNode;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.collectors.ClassMetadata;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 import org.jetbrains.java.decompiler.main.extern.IResultSaver;
+import org.jetbrains.java.decompiler.main.extern.IResumableResultSaver;
+import org.jetbrains.java.decompiler.main.extern.IStructuredResultSaver;
 import org.jetbrains.java.decompiler.struct.lazy.LazyLoader;
 import org.jetbrains.java.decompiler.struct.lazy.LazyLoader.Link;
 import org.jetbrains.java.decompiler.util.DataInputFullStream;
@@ -14,10 +18,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.*;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import java.util.zip.ZipFile;
@@ -28,6 +30,10 @@ public class ContextUnit {
   public static final int TYPE_JAR = 1;
   public static final int TYPE_ZIP = 2;
 
+  // fixed costs of a class and a method in bytes of code, for scheduling
+  private static final int CLASS_COST = 256;
+  private static final int METHOD_COST = 32;
+
   private final int type;
   private final boolean own;
 
@@ -52,7 +58,7 @@ public class ContextUnit {
     this.decompiledData = decompiledData;
   }
 
-  public void addClass(StructClass cl, String entryName) {
+  public synchronized void addClass(StructClass cl, String entryName) {
     classes.add(cl);
     classEntries.add(entryName);
   }
@@ -118,20 +124,38 @@ public class ContextUnit {
         }
 
         // classes
+        String[] folderEntryNames = new String[classes.size()];
+        List<Integer> folderClasses = new ArrayList<>();
         for (int i = 0; i < classes.size(); i++) {
-          StructClass cl = classes.get(i);
-          if (!cl.isOwn()) {
-            continue;
+          if (classes.get(i).isOwn()) {
+            folderEntryNames[i] = decompiledData.getClassEntryName(classes.get(i), classEntries.get(i));
+            if (folderEntryNames[i] != null) {
+              folderClasses.add(i);
+            }
           }
-          String entryName = decompiledData.getClassEntryName(cl, classEntries.get(i));
-          if (entryName != null) {
-            String content = decompiledData.getClassContent(cl);
+        }
+
+        boolean[] folderShard = selectShard(folderClasses);
+        for (int i : folderClasses) {
+          StructClass cl = classes.get(i);
+          String entryName = folderEntryNames[i];
+          if (folderShard[i]) {
+            String content = getSavedClass(filename, null, cl, entryName);
+            boolean resumed = content != null;
+            if (!resumed) {
+              content = decompiledData.getClassContent(cl);
+            }
             if (content != null) {
-              int[] mapping = null;
-              if (DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
-                mapping = DecompilerContext.getBytecodeSourceMapper().getOriginalLinesMapping();
+              if (resultSaver instanceof IStructuredResultSaver) {
+                ((IStructuredResultSaver) resultSaver).saveClass(filename, null, cl.qualifiedName, entryName, content, resumed ? null : getClassMetadata(cl));
+              }
+              else {
+                int[] mapping = null;
+                if (!resumed && DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
+                  mapping = DecompilerContext.getBytecodeSourceMapper().getOriginalLinesMapping();
+                }
+                resultSaver.saveClassFile(filename, cl.qualifiedName, entryName, content, mapping);
               }
-              resultSaver.saveClassFile(filename, cl.qualifiedName, entryName, content, mapping);
             }
           }
         }
@@ -156,57 +180,183 @@ public class ContextUnit {
           }
         }
 
-        final List<Future<?>> futures = new LinkedList<>();
-        final ExecutorService decompileExecutor = Executors.newFixedThreadPool(Integer.parseInt((String) DecompilerContext.getProperty(IFernflowerPreferences.THREADS)));
         final DecompilerContext rootContext = DecompilerContext.getCurrentContext();
 
         // classes
+        String[] entryNames = new String[classes.size()];
+        ClassResult[] savedResults = new ClassResult[classes.size()];
+        List<Runnable> tasks = new ArrayList<>(Collections.nCopies(classes.size(), null));
+        List<Integer> archiveClasses = new ArrayList<>();
         for (int i = 0; i < classes.size(); i++) {
-          StructClass cl = classes.get(i);
-          String entryName = decompiledData.getClassEntryName(cl, classEntries.get(i));
-          if (entryName != null) {
-            futures.add(decompileExecutor.submit(() -> {
-              setContext(rootContext);
-              String content = decompiledData.getClassContent(cl);
-              int[] mapping = null;
-              if (DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
-                mapping = DecompilerContext.getBytecodeSourceMapper().getOriginalLinesMapping();
-              }
-              if (resultSaver instanceof IFabricResultSaver) {
-                ((IFabricResultSaver) resultSaver).saveClassEntry(archivePath, filename, cl.qualifiedName, entryName, content, mapping);
-              } else {
-                resultSaver.saveClassEntry(archivePath, filename, cl.qualifiedName, entryName, content);
-              }
-            }));
+          entryNames[i] = decompiledData.getClassEntryName(classes.get(i), classEntries.get(i));
+          if (entryNames[i] != null) {
+            archiveClasses.add(i);
+          }
+        }
+
+        boolean[] archiveShard = selectShard(archiveClasses);
+        List<Integer> order = new ArrayList<>();
+        for (int i : archiveClasses) {
+          if (archiveShard[i]) {
+            String saved = getSavedClass(archivePath, filename, classes.get(i), entryNames[i]);
+            if (saved != null) {
+              savedResults[i] = new ClassResult(saved, null, null);
+            }
+            else {
+              order.add(i);
+            }
           }
         }
 
-        decompileExecutor.shutdown();
+        // the most expensive classes are started first, so that a big class does not start last and keep the other
+        // threads waiting; the results are still saved in archive order
+        long[] costs = new long[classes.size()];
+        for (int i : order) {
+          costs[i] = estimateCost(classes.get(i));
+        }
+        order.sort((i1, i2) -> Long.compare(costs[i2], costs[i1]));
+
+        int threads = Integer.parseInt((String)DecompilerContext.getProperty(IFernflowerPreferences.THREADS));
+        int analysisThreads = getThreads(IFernflowerPreferences.ANALYSIS_THREADS, threads);
+        int textThreads = getThreads(IFernflowerPreferences.TEXT_THREADS, Math.max(1, threads / 4));
+        long queueSize = Long.parseLong((String)DecompilerContext.getProperty(IFernflowerPreferences.SAVE_QUEUE_SIZE));
+        SaveQueue<ClassResult> queue = new SaveQueue<>(queueSize * 1024 * 1024);
+        ClassPipeline pipeline = new ClassPipeline(decompiledData, rootContext, queue, analysisThreads, textThreads);
+        for (int i : order) {
+          tasks.set(i, pipeline.submit(i, classes.get(i)));
+        }
+
+        long writerStart = System.nanoTime();
+        try {
+          for (int i = 0; i < classes.size(); i++) {
+            ClassResult result = savedResults[i];
+            if (result == null) {
+              Runnable task = tasks.get(i);
+              if (task == null) {
+                continue;
+              }
 
-        for (Future<?> future : futures) {
-          try {
-            future.get();
-          } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException(e);
+              try {
+                result = queue.take(i, task);
+              } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+              }
+              if (result.getFailure() != null) {
+                throw new RuntimeException(result.getFailure());
+              }
+            }
+
+            StructClass cl = classes.get(i);
+            if (resultSaver instanceof IStructuredResultSaver) {
+              ((IStructuredResultSaver) resultSaver).saveClass(archivePath, filename, cl.qualifiedName, entryNames[i], result.getContent(), result.getMetadata());
+            } else if (resultSaver instanceof IFabricResultSaver) {
+              ((IFabricResultSaver) resultSaver).saveClassEntry(archivePath, filename, cl.qualifiedName, entryNames[i], result.getContent(), result.getMapping());
+            } else {
+              resultSaver.saveClassEntry(archivePath, filename, cl.qualifiedName, entryNames[i], result.getContent());
+            }
           }
         }
+        finally {
+          pipeline.shutdown();
+        }
+        pipeline.writeSummary(DecompilerContext.getLogger(), filename);
+        queue.writeSummary(DecompilerContext.getLogger(), filename, System.nanoTime() - writerStart);
 
         resultSaver.closeArchive(archivePath, filename);
     }
   }
 
+  /**
+   * Picks the given classes that this process decompiles when the work is split between several processes, see
+   * {@link IFernflowerPreferences#SHARD}. Every process makes the same choice, so each class is decompiled by exactly
+   * one of them: the classes are dealt out by estimated cost, each going to the process with the least work so far.
+   */
+  private boolean[] selectShard(List<Integer> candidates) {
+    String[] shard = ((String)DecompilerContext.getProperty(IFernflowerPreferences.SHARD)).split("/");
+    int index = Integer.parseInt(shard[0]);
+    int count = Integer.parseInt(shard[1]);
+
+    boolean[] selected = new boolean[classes.size()];
+    if (count <= 1) {
+      for (int i : candidates) {
+        selected[i] = true;
+      }
+      return selected;
+    }
+
+    long[] costs = new long[classes.size()];
+    for (int i : candidates) {
+      costs[i] = estimateCost(classes.get(i));
+    }
+    List<Integer> order = new ArrayList<>(candidates);
+    order.sort((i1, i2) -> Long.compare(costs[i2], costs[i1]));
+
+    // ties start at a different process for each unit, so that small units do not all end up in the first one
+    long[] loads = new long[count];
+    int first = (filename.hashCode() & Integer.MAX_VALUE) % count;
+    for (int i : order) {
+      int target = first;
+      for (int j = 1; j < count; j++) {
+        int next = (first + j) % count;
+        if (loads[next] < loads[target]) {
+          target = next;
+        }
+      }
+      loads[target] += costs[i];
+      selected[i] = target == index;
+    }
+    return selected;
+  }
+
+  /**
+   * Estimates the work needed to decompile a class from the size of its code and the number of its methods and nested
+   * classes.
+   */
+  private static long estimateCost(StructClass cl) {
+    ClassNode node = DecompilerContext.getClassProcessor().getMapRootClasses().get(cl.qualifiedName);
+    return node != null ? estimateCost(node) : 0;
+  }
+
+  private static long estimateCost(ClassNode node) {
+    long cost = CLASS_COST;
+    for (StructMethod mt : node.classStruct.getMethods()) {
+      cost += METHOD_COST + mt.getCodeLength();
+    }
+    for (ClassNode nested : node.nested) {
+      if (nested.type != ClassNode.CLASS_LAMBDA) {
+        cost += estimateCost(nested);
+      }
+    }
+    return cost;
+  }
+
+  /**
+   * @return the source the saver kept from an earlier run, or null if the class has to be decompiled
+   */
+  private String getSavedClass(String path, String archiveName, StructClass cl, String entryName) {
+    if (resultSaver instanceof IResumableResultSaver) {
+      return ((IResumableResultSaver) resultSaver).getSavedClass(path, archiveName, cl.qualifiedName, entryName);
+    }
+    return null;
+  }
+
+  /**
+   * @return the number of threads set by the given option, or the default if the option is 0
+   */
+  private static int getThreads(String option, int defaultThreads) {
+    int threads = Integer.parseInt((String)DecompilerContext.getProperty(option));
+    return threads > 0 ? threads : Math.max(1, defaultThreads);
+  }
+
+  private static ClassMetadata getClassMetadata(StructClass cl) {
+    // the context keeps the metadata of the last class written with it
+    ClassMetadata metadata = DecompilerContext.getClassMetadata();
+    return metadata != null && metadata.getClassName().equals(cl.qualifiedName) ? metadata : null;
+  }
+
   public void setContext(DecompilerContext rootContext) {
-    DecompilerContext current = DecompilerContext.getCurrentContext();
-    if (current == null) {
-      current = new DecompilerContext(
-        new HashMap<>(rootContext.properties),
-        rootContext.logger,
-        rootContext.structContext,
-        rootContext.classProcessor,
-        rootContext.poolInterceptor,
-        rootContext.renamerFactory
-      );
-      DecompilerContext.setCurrentContext(current);
+    if (DecompilerContext.getCurrentContext() == null) {
+      DecompilerContext.setCurrentContext(ClassPipeline.createContext(rootContext));
     }
   }
 
@@ -218,6 +368,59 @@ public class ContextUnit {
     return own;
   }
 
+  static final class ClassResult {
+    private final String content;
+    private final int[] mapping;
+    private final ClassMetadata metadata;
+    private final Throwable failure;
+
+    private ClassResult(String content, int[] mapping, ClassMetadata metadata) {
+      this.content = content;
+      this.mapping = mapping;
+      this.metadata = metadata;
+      this.failure = null;
+    }
+
+    ClassResult(Throwable failure) {
+      this.content = null;
+      this.mapping = null;
+      this.metadata = null;
+      this.failure = failure;
+    }
+
+    /**
+     * Collects the result of a class from the current context, which the class was written with.
+     */
+    static ClassResult create(StructClass cl, String content) {
+      int[] mapping = null;
+      if (DecompilerContext.getOption(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING)) {
+        mapping = DecompilerContext.getBytecodeSourceMapper().getOriginalLinesMapping();
+      }
+      return new ClassResult(content, mapping, getClassMetadata(cl));
+    }
+
+    String getContent() {
+      return content;
+    }
+
+    int[] getMapping() {
+      return mapping;
+    }
+
+    ClassMetadata getMetadata() {
+      return metadata;
+    }
+
+    Throwable getFailure() {
+      return failure;
+    }
+
+    // the memory held by the result while it waits to be saved, dominated by the source text
+    long getSize() {
+      return (content != null ? 2L * content.length() : 0) + (mapping != null ? 4L * mapping.length : 0);
+    }
+  }
+
   public List<StructClass> getClasses() {
     return classes;
   }
@@ -1,9 +1,20 @@
 // Copyright 2000-2017 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.java.decompiler.struct;
 
+import java.util.function.Supplier;
+
 public interface IDecompiledData {
 
   String getClassEntryName(StructClass cl, String entryname);
 
   String getClassContent(StructClass cl);
+
+  /**
+   * Does the work of {@link #getClassContent} in two steps, so that the analysis of a class and the writing of its source
+   * can run on different threads: this call analyzes the class, the returned supplier writes it. The supplier has to be
+   * called exactly once, with the same current context as this call.
+   */
+  default Supplier<String> prepareClassContent(StructClass cl) {
+    return () -> getClassContent(cl);
+  }
 }
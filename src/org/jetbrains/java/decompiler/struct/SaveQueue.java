@@ -0,0 +1,117 @@
+package org.jetbrains.java.decompiler.struct;
+
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands decompiled classes from the worker threads to the thread writing them, which takes them in archive order. The
+ * results waiting to be written are limited by their size: a worker that finishes a class while the queue is full waits
+ * until the writer has made room, unless its class is the one the writer waits for. If the writer waits for a class
+ * that no worker has started while workers wait for room, the writer decompiles it itself, so the two sides cannot
+ * block each other.
+ */
+class SaveQueue<T> {
+  private final long capacity;
+  private final Map<Integer, Entry<T>> results = new HashMap<>();
+  private long bytes;
+  private int next = -1;
+  private int blocked;
+
+  private int maxCount;
+  private long maxBytes;
+  private long blockedNanos;
+  private long writerWaitNanos;
+  private int taken;
+
+  SaveQueue(long capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Called by a worker thread once the result with the given index is complete.
+   */
+  synchronized void put(int index, T result, long size) throws InterruptedException {
+    if (index != next && bytes > 0 && bytes + size > capacity) {
+      long start = System.nanoTime();
+      blocked++;
+      notifyAll();  // the writer may have to run the task it waits for
+      try {
+        while (index != next && bytes > 0 && bytes + size > capacity) {
+          wait();
+        }
+      }
+      finally {
+        blocked--;
+        blockedNanos += System.nanoTime() - start;
+      }
+    }
+
+    results.put(index, new Entry<>(result, size));
+    bytes += size;
+    maxCount = Math.max(maxCount, results.size());
+    maxBytes = Math.max(maxBytes, bytes);
+    notifyAll();
+  }
+
+  /**
+   * Called by the writer thread for the next result to write.
+   *
+   * @param task the task producing the result, run on this thread if the result is missing while workers are waiting
+   *             for room; it does the part of the work no worker has started yet and must put the result into this
+   *             queue even if it fails
+   */
+  T take(int index, Runnable task) throws InterruptedException {
+    long start = System.nanoTime();
+    boolean run;
+    synchronized (this) {
+      next = index;
+      notifyAll();
+      while (!results.containsKey(index) && blocked == 0) {
+        wait();
+      }
+      run = !results.containsKey(index);
+    }
+
+    if (run) {
+      task.run();  // does nothing if the task was already started elsewhere
+    }
+
+    synchronized (this) {
+      while (!results.containsKey(index)) {
+        wait();
+      }
+      Entry<T> entry = results.remove(index);
+      bytes -= entry.size;
+      taken++;
+      writerWaitNanos += System.nanoTime() - start;
+      notifyAll();
+      return entry.result;
+    }
+  }
+
+  /**
+   * @param writerNanos the time the writer spent taking and writing results
+   */
+  synchronized void writeSummary(IFernflowerLogger logger, String name, long writerNanos) {
+    if (taken == 0) {
+      return;
+    }
+
+    long utilization = writerNanos > 0 ? 100 * Math.max(0, writerNanos - writerWaitNanos) / writerNanos : 0;
+    logger.writeMessage("Saved " + taken + " classes to " + name + ": queue peak " + maxCount + " classes, " +
+                        maxBytes / 1024 + " KB of " + capacity / 1024 + " KB, writer busy " + utilization + "%, workers waited " +
+                        blockedNanos / 1_000_000 + " ms for room", IFernflowerLogger.Severity.INFO);
+  }
+
+  private static final class Entry<T> {
+    private final T result;
+    private final long size;
+
+    private Entry(T result, long size) {
+      this.result = result;
+      this.size = size;
+    }
+  }
+}
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
@@ -28,11 +29,27 @@ public class StructContext {
   private final Map<String, StructClass> ownClasses = new HashMap<>();
   private final Map<String, List<String>> abstractNames = new HashMap<>();
   private final Map<File, FileSystem> zipFiles = new HashMap<>();
+  private final StructContext parent;
+  // built on first use, dropped whenever the classes change
+  private volatile ClassNameIndex nameIndex;
 
   public StructContext(IResultSaver saver, IDecompiledData decompiledData, LazyLoader loader) {
+    this(saver, decompiledData, loader, null);
+  }
+
+  /**
+   * Creates a context for classes added with {@link #addClass(StructClass)}, which looks up all other classes in the
+   * given context. The given context is only read, so any number of such contexts can share it.
+   */
+  public StructContext(StructContext parent) {
+    this(parent.saver, parent.decompiledData, parent.loader, parent);
+  }
+
+  private StructContext(IResultSaver saver, IDecompiledData decompiledData, LazyLoader loader, StructContext parent) {
     this.saver = saver;
     this.decompiledData = decompiledData;
     this.loader = loader;
+    this.parent = parent;
 
     ContextUnit defaultUnit = new ContextUnit(ContextUnit.TYPE_FOLDER, null, "", true, saver, decompiledData);
     units.put("", defaultUnit);
@@ -41,7 +58,7 @@ public class StructContext {
   public StructClass getClass(String name) {
     ClassProvider provider = classes.get(name);
     if (provider == null) {
-      return null;
+      return parent != null ? parent.getClass(name) : null;
     }
     return provider.get();
   }
@@ -60,6 +77,7 @@ public class StructContext {
         classes.put(cl.qualifiedName, new ClassProvider(cl));
       }
     }
+    nameIndex = null;
   }
 
   public void saveContext() {
@@ -116,7 +134,7 @@ public class StructContext {
       }
 
       if (filename.endsWith(".class")) {
-        addClass(unit, null, path, filename, isOwn, () -> loader.getClassBytes(file.getAbsolutePath(), null));
+        addClass(unit, null, path, filename, isOwn, () -> loader.getClassBuffer(file.getAbsolutePath(), null));
       }
       else {
         unit.addOtherEntry(file.getAbsolutePath(), filename);
@@ -148,12 +166,19 @@ public class StructContext {
     DecompilerContext.getLogger().writeMessage("Adding Archive: " + file.getAbsolutePath(), Severity.INFO);
     FileSystem fs = getZipFileSystem(file);
     ContextUnit unit = units.computeIfAbsent(externalPath + "/" + file.getName(), k -> new ContextUnit(type, externalPath, file.getName(), isOwn, saver, decompiledData));
+    // own classes are all loaded right away, so they are fetched together if the bytecode provider supports it
+    Map<String, Path> classPaths = new LinkedHashMap<>();
     Files.walkFileTree(fs.getPath("/"), new SimpleFileVisitor<Path>() {
       @Override
       public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
         String name = path.toString().substring(1);
         if (name.endsWith(".class")) {
-          addClass(unit, name.substring(0, name.length() - 6), file.getAbsolutePath(), path.toString().substring(1), isOwn, path);
+          if (isOwn) {
+            classPaths.put(name, path);
+          }
+          else {
+            addClass(unit, name.substring(0, name.length() - 6), file.getAbsolutePath(), name, false, path);
+          }
         } else {
           if ("META-INF/MANIFEST.MF".equals(name)) {
             unit.setManifest(new Manifest(Files.newInputStream(path)));
@@ -170,10 +195,24 @@ public class StructContext {
         return FileVisitResult.CONTINUE;
       }
     });
+
+    if (!classPaths.isEmpty()) {
+      Map<String, ByteBuffer> buffers = loader.getClassBuffers(file.getAbsolutePath(), new ArrayList<>(classPaths.keySet()));
+      for (Map.Entry<String, Path> entry : classPaths.entrySet()) {
+        String name = entry.getKey();
+        ByteBuffer buffer = buffers == null ? null : buffers.get(name);
+        if (buffer != null) {
+          addClass(unit, name.substring(0, name.length() - 6), file.getAbsolutePath(), name, true, () -> buffer);
+        }
+        else {
+          addClass(unit, name.substring(0, name.length() - 6), file.getAbsolutePath(), name, true, entry.getValue());
+        }
+      }
+    }
   }
 
   private void addClass(ContextUnit unit, String name, String externalPath, String internalPath, boolean isOwn, Path path) {
-    addClass(name, isOwn, new ClassProvider(unit, externalPath, internalPath, isOwn, () -> Files.readAllBytes(path)));
+    addClass(name, isOwn, new ClassProvider(unit, externalPath, internalPath, isOwn, () -> ByteBuffer.wrap(Files.readAllBytes(path))));
   }
 
   private void addClass(ContextUnit unit, String name, String externalPath, String internalPath, boolean isOwn, ClassSupplier supplier) {
@@ -185,10 +224,25 @@ public class StructContext {
       name = provider.get().qualifiedName;
     }
     classes.put(name, provider);
+    nameIndex = null;
     if (isOwn) ownClasses.put(name, provider.get());
   }
 
+  /**
+   * Adds an own class that is already read.
+   */
+  public void addClass(StructClass cl) {
+    addClass(cl.qualifiedName, true, new ClassProvider(cl));
+  }
+
   public void addData(String path, String cls, byte[] data, boolean isOwn) throws IOException {
+    addData(path, cls, ByteBuffer.wrap(data), isOwn);
+  }
+
+  /**
+   * Adds a class file held in memory. The buffer is read in place and kept for the whole run, so it must not change.
+   */
+  public void addData(String path, String cls, ByteBuffer data, boolean isOwn) throws IOException {
     ContextUnit unit = units.get(path);
     if (unit == null) {
       unit = new ContextUnit(ContextUnit.TYPE_FOLDER, path, cls, isOwn, saver, decompiledData);
@@ -203,7 +257,36 @@ public class StructContext {
   }
 
   public boolean hasClass(String name) {
-    return classes.containsKey(name);
+    return classes.containsKey(name) || parent != null && parent.hasClass(name);
+  }
+
+  /**
+   * Tells whether the class {@code packageSlash + simpleName} exists, without reading it.
+   *
+   * @param packageSlash a package in internal form, either empty or ending with a slash
+   */
+  public boolean hasClass(String packageSlash, String simpleName) {
+    return getNameIndex().hasClass(packageSlash, simpleName) || parent != null && parent.hasClass(packageSlash, simpleName);
+  }
+
+  /**
+   * Tells whether the class {@code outerName + '$' + simpleName} exists, without reading it.
+   */
+  public boolean hasMemberClass(String outerName, String simpleName) {
+    return getNameIndex().hasMemberClass(outerName, simpleName) || parent != null && parent.hasMemberClass(outerName, simpleName);
+  }
+
+  private ClassNameIndex getNameIndex() {
+    ClassNameIndex index = nameIndex;
+    if (index == null) {
+      synchronized (classes) {
+        index = nameIndex;
+        if (index == null) {
+          nameIndex = index = new ClassNameIndex(classes.keySet());
+        }
+      }
+    }
+    return index;
   }
 
   public boolean instanceOf(String valclass, String refclass) {
@@ -267,6 +350,9 @@ public class StructContext {
 
   public String renameAbstractParameter(String className, String methodName, String descriptor, int index, String _default) {
     List<String> params = this.abstractNames.get(className + ' ' + methodName + ' ' + descriptor);
+    if (params == null && parent != null) {
+      return parent.renameAbstractParameter(className, methodName, descriptor, index, _default);
+    }
     return params != null && index < params.size() ? params.get(index) : _default;
   }
 
@@ -276,7 +362,7 @@ public class StructContext {
     private final String internalPath;
     private volatile ClassSupplier supplier;
     private final boolean own;
-    private StructClass value;
+    private volatile StructClass value;
 
     ClassProvider(ContextUnit unit, String externalPath, String internalPath, boolean own, ClassSupplier supplier) {
       this.unit = unit;
@@ -302,7 +388,7 @@ public class StructContext {
         if (supplier == null) return value;
         try {
           DecompilerContext.getLogger().writeMessage("  Loading Class: " + internalPath, Severity.INFO);
-          byte[] data = supplier.get();
+          ByteBuffer data = supplier.get();
           StructClass cl = StructClass.create(new DataInputFullStream(data), own, loader);
           unit.addClass(cl, internalPath);
           loader.addClassLink(cl.qualifiedName, new LazyLoader.Link(externalPath, internalPath, data));
@@ -319,6 +405,6 @@ public class StructContext {
   }
 
   interface ClassSupplier {
-    byte[] get() throws IOException;
+    ByteBuffer get() throws IOException;
   }
 }
@@ -374,6 +374,13 @@ public class StructMethod extends StructMember {
     return codeAndExceptions != null;
   }
 
+  /**
+   * @return the length of the code and exception table of an own method, 0 otherwise
+   */
+  public int getCodeLength() {
+    return codeAndExceptions != null ? codeAndExceptions.length : 0;
+  }
+
   public int getLocalVariables() {
     return localVariables;
   }
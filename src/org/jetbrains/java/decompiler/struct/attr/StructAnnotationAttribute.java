@@ -2,6 +2,8 @@
 package org.jetbrains.java.decompiler.struct.attr;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
 import org.jetbrains.java.decompiler.modules.decompiler.exps.*;
 import org.jetbrains.java.decompiler.struct.consts.ConstantPool;
 import org.jetbrains.java.decompiler.struct.consts.PrimitiveConstant;
@@ -56,18 +58,19 @@ public class StructAnnotationAttribute extends StructGeneralAttribute {
       values = Collections.emptyList();
     }
 
-    return new AnnotationExprent(new VarType(className).value, names, values);
+    return new AnnotationExprent(DecompilerContext.getCounterContainer(), new VarType(className).value, names, values);
   }
 
   public static Exprent parseAnnotationElement(DataInputStream data, ConstantPool pool) throws IOException {
     int tag = data.readUnsignedByte();
+    CounterContainer counters = DecompilerContext.getCounterContainer();
 
     switch (tag) {
       case 'e': // enum constant
         String className = pool.getPrimitiveConstant(data.readUnsignedShort()).getString();
         String constName = pool.getPrimitiveConstant(data.readUnsignedShort()).getString();
         FieldDescriptor descr = FieldDescriptor.parseDescriptor(className);
-        return new FieldExprent(constName, descr.type.value, true, null, descr, null);
+        return new FieldExprent(counters, constName, descr.type.value, true, null, descr, null);
 
       case 'c': // class
         String descriptor = pool.getPrimitiveConstant(data.readUnsignedShort()).getString();
@@ -108,7 +111,7 @@ public class StructAnnotationAttribute extends StructGeneralAttribute {
           default:
             throw new RuntimeException("invalid class type: " + type.type);
         }
-        return new ConstExprent(VarType.VARTYPE_CLASS, value, null);
+        return new ConstExprent(counters, VarType.VARTYPE_CLASS, value, null);
 
       case '[': // array
         List<Exprent> elements = Collections.emptyList();
@@ -129,7 +132,7 @@ public class StructAnnotationAttribute extends StructGeneralAttribute {
           newType = new VarType(elementType.type, 1, elementType.value);
         }
 
-        NewExprent newExpr = new NewExprent(newType, Collections.emptyList(), null);
+        NewExprent newExpr = new NewExprent(counters, newType, Collections.emptyList(), null);
         newExpr.setDirectArrayInit(true);
         newExpr.setLstArrayElements(elements);
         return newExpr;
@@ -141,23 +144,23 @@ public class StructAnnotationAttribute extends StructGeneralAttribute {
         PrimitiveConstant cn = pool.getPrimitiveConstant(data.readUnsignedShort());
         switch (tag) {
           case 'B':
-            return new ConstExprent(VarType.VARTYPE_BYTE, cn.value, null);
+            return new ConstExprent(counters, VarType.VARTYPE_BYTE, cn.value, null);
           case 'C':
-            return new ConstExprent(VarType.VARTYPE_CHAR, cn.value, null);
+            return new ConstExprent(counters, VarType.VARTYPE_CHAR, cn.value, null);
           case 'D':
-            return new ConstExprent(VarType.VARTYPE_DOUBLE, cn.value, null);
+            return new ConstExprent(counters, VarType.VARTYPE_DOUBLE, cn.value, null);
           case 'F':
-            return new ConstExprent(VarType.VARTYPE_FLOAT, cn.value, null);
+            return new ConstExprent(counters, VarType.VARTYPE_FLOAT, cn.value, null);
           case 'I':
-            return new ConstExprent(VarType.VARTYPE_INT, cn.value, null);
+            return new ConstExprent(counters, VarType.VARTYPE_INT, cn.value, null);
           case 'J':
-            return new ConstExprent(VarType.VARTYPE_LONG, cn.value, null);
+            return new ConstExprent(counters, VarType.VARTYPE_LONG, cn.value, null);
           case 'S':
-            return new ConstExprent(VarType.VARTYPE_SHORT, cn.value, null);
+            return new ConstExprent(counters, VarType.VARTYPE_SHORT, cn.value, null);
           case 'Z':
-            return new ConstExprent(VarType.VARTYPE_BOOLEAN, cn.value, null);
+            return new ConstExprent(counters, VarType.VARTYPE_BOOLEAN, cn.value, null);
           case 's':
-            return new ConstExprent(VarType.VARTYPE_STRING, cn.value, null);
+            return new ConstExprent(counters, VarType.VARTYPE_STRING, cn.value, null);
           default:
             throw new RuntimeException("invalid element type!");
         }
@@ -160,7 +160,7 @@ public class StructLocalVariableTableAttribute extends StructGeneralAttribute {
     }
 
     public VarType getVarType() {
-      return new VarType(descriptor);
+      return VarType.of(descriptor);
     }
     
     @Override
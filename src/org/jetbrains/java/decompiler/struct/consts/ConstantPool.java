@@ -173,7 +173,7 @@ public class ConstantPool implements NewClassNameBuilder {
 
   @Override
   public String buildNewClassname(String className) {
-    VarType vt = new VarType(className, true);
+    VarType vt = VarType.of(className, true);
 
     String newName = interceptor.getName(vt.value);
     if (newName != null) {
@@ -2,8 +2,10 @@
 package org.jetbrains.java.decompiler.struct.gen;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
+import org.jetbrains.java.decompiler.util.BoundedCache;
 
 public final class FieldDescriptor {
+  private static final BoundedCache<String, FieldDescriptor> PARSED = new BoundedCache<>(8192);
 
   public static final FieldDescriptor INTEGER_DESCRIPTOR = parseDescriptor("Ljava/lang/Integer;");
   public static final FieldDescriptor LONG_DESCRIPTOR = parseDescriptor("Ljava/lang/Long;");
@@ -14,12 +16,12 @@ public final class FieldDescriptor {
   public final String descriptorString;
 
   private FieldDescriptor(String descriptor) {
-    type = new VarType(descriptor);
+    type = VarType.of(descriptor);
     descriptorString = descriptor;
   }
 
   public static FieldDescriptor parseDescriptor(String descriptor) {
-    return new FieldDescriptor(descriptor);
+    return PARSED.get(descriptor, FieldDescriptor::new);
   }
 
   public String buildNewDescriptor(NewClassNameBuilder builder) {
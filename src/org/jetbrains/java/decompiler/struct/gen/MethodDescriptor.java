@@ -10,13 +10,14 @@ import org.jetbrains.java.decompiler.main.rels.MethodWrapper;
 import org.jetbrains.java.decompiler.modules.decompiler.vars.VarVersionPair;
 import org.jetbrains.java.decompiler.struct.StructMethod;
 import org.jetbrains.java.decompiler.struct.gen.generics.GenericMethodDescriptor;
+import org.jetbrains.java.decompiler.util.BoundedCache;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 public final class MethodDescriptor {
+  // descriptors carry mutable generic information, so only the parsed types are shared
+  private static final BoundedCache<String, MethodDescriptor> PARSED = new BoundedCache<>(8192);
+
   public final VarType[] params;
   public final VarType ret;
   private final String descriptor;
@@ -29,6 +30,11 @@ public final class MethodDescriptor {
   }
 
   public static MethodDescriptor parseDescriptor(String descriptor) {
+    MethodDescriptor parsed = PARSED.get(descriptor, MethodDescriptor::parse);
+    return new MethodDescriptor(parsed.params, parsed.ret, descriptor);
+  }
+
+  private static MethodDescriptor parse(String descriptor) {
     int parenth = descriptor.lastIndexOf(')');
     if (descriptor.length() < 2 || parenth < 0 || descriptor.charAt(0) != '(') {
       throw new IllegalArgumentException("Invalid descriptor: " + descriptor);
@@ -63,14 +69,14 @@ public final class MethodDescriptor {
 
       params = new VarType[lst.size()];
       for (int i = 0; i < lst.size(); i++) {
-        params[i] = new VarType(lst.get(i));
+        params[i] = VarType.of(lst.get(i));
       }
     }
     else {
       params = VarType.EMPTY_ARRAY;
     }
 
-    VarType ret = new VarType(descriptor.substring(parenth + 1));
+    VarType ret = VarType.of(descriptor.substring(parenth + 1));
 
     return new MethodDescriptor(params, ret, descriptor);
   }
@@ -1,14 +1,23 @@
 // Copyright 2000-2017 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.java.decompiler.struct.gen;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.struct.gen.generics.GenericType;
+import org.jetbrains.java.decompiler.util.BoundedCache;
 import org.jetbrains.java.decompiler.util.InterpreterUtil;
 
 public class VarType {  // TODO: optimize switch
 
+  // canonical instances of the types created most often, the types without array dimension that carry no class name,
+  // indexed by type, and a few common classes; the tables are filled once and never grow
+  private static final VarType[] SIMPLE_TYPES = new VarType[CodeConstants.TYPE_GENVAR + 1];
+  private static final Map<String, VarType> COMMON_CLASSES = new HashMap<>();
+  private static final BoundedCache<String, VarType> SIGNATURES = new BoundedCache<>(8192);
+  private static final BoundedCache<String, VarType> CLASS_SIGNATURES = new BoundedCache<>(8192);
+
   public static final VarType[] EMPTY_ARRAY = {};
 
   public static final VarType VARTYPE_UNKNOWN = new VarType(CodeConstants.TYPE_UNKNOWN);
@@ -33,6 +42,21 @@ public class VarType {  // TODO: optimize switch
   public static final VarType VARTYPE_SHORT_OBJ = new VarType(CodeConstants.TYPE_OBJECT, 0, "java/lang/Short");
   public static final VarType VARTYPE_VOID = new VarType(CodeConstants.TYPE_VOID);
 
+  static {
+    for (VarType type : new VarType[] {
+      VARTYPE_UNKNOWN, VARTYPE_INT, VARTYPE_FLOAT, VARTYPE_LONG, VARTYPE_DOUBLE, VARTYPE_BYTE, VARTYPE_CHAR, VARTYPE_SHORT,
+      VARTYPE_BOOLEAN, VARTYPE_BYTECHAR, VARTYPE_SHORTCHAR, VARTYPE_NULL, VARTYPE_STRING, VARTYPE_CLASS, VARTYPE_OBJECT,
+      VARTYPE_INTEGER, VARTYPE_CHARACTER, VARTYPE_BYTE_OBJ, VARTYPE_SHORT_OBJ, VARTYPE_VOID,
+      new VarType(CodeConstants.TYPE_ADDRESS), new VarType(CodeConstants.TYPE_GROUP2EMPTY)}) {
+      if (type.type == CodeConstants.TYPE_OBJECT) {
+        COMMON_CLASSES.put(type.value, type);
+      }
+      else {
+        SIMPLE_TYPES[type.type] = type;
+      }
+    }
+  }
+
   public final int type;
   public final int arrayDim;
   public final String value;
@@ -104,6 +128,47 @@ public class VarType {  // TODO: optimize switch
     this.falseBoolean = false;
   }
 
+  /**
+   * Returns the given type, as a shared instance if it is one of the common types without array dimension. As types are
+   * immutable, these can be shared freely and should be preferred over new instances wherever a type is created
+   * repeatedly.
+   */
+  public static VarType of(int type) {
+    return of(type, 0);
+  }
+
+  public static VarType of(int type, int arrayDim) {
+    return of(type, arrayDim, getChar(type));
+  }
+
+  public static VarType of(int type, int arrayDim, String value) {
+    VarType common = getCommon(type, arrayDim, value);
+    return common != null ? common : new VarType(type, arrayDim, value);
+  }
+
+  public static VarType of(String signature) {
+    return of(signature, false);
+  }
+
+  public static VarType of(String signature, boolean clType) {
+    return (clType ? CLASS_SIGNATURES : SIGNATURES).get(signature, s -> {
+      VarType type = new VarType(s, clType);
+      VarType common = getCommon(type.type, type.arrayDim, type.value);
+      return common != null ? common : type;
+    });
+  }
+
+  private static VarType getCommon(int type, int arrayDim, String value) {
+    if (arrayDim != 0) {
+      return null;
+    }
+    if (type == CodeConstants.TYPE_OBJECT) {
+      return value != null ? COMMON_CLASSES.get(value) : null;
+    }
+    VarType simple = type >= 0 && type < SIMPLE_TYPES.length ? SIMPLE_TYPES[type] : null;
+    return simple != null && InterpreterUtil.equalObjects(simple.value, value) ? simple : null;
+  }
+
   private static String getChar(int type) {
     switch (type) {
       case CodeConstants.TYPE_BYTE:
@@ -192,7 +257,7 @@ public class VarType {  // TODO: optimize switch
 
   public VarType decreaseArrayDim() {
     if (arrayDim > 0) {
-      return new VarType(type, arrayDim - 1, value);
+      return of(type, arrayDim - 1, value);
     }
     else {
       //throw new RuntimeException("array dimension equals 0!"); FIXME: investigate this case
@@ -201,6 +266,9 @@ public class VarType {  // TODO: optimize switch
   }
 
   public VarType resizeArrayDim(int newArrayDim) {
+    if (newArrayDim == arrayDim && getClass() == VarType.class) {
+      return this;
+    }
     return new VarType(type, newArrayDim, value, typeFamily, stackSize, falseBoolean);
   }
 
@@ -209,6 +277,10 @@ public class VarType {  // TODO: optimize switch
   }
 
   public VarType copy(boolean forceFalseBoolean) {
+    // types are immutable, a copy only needs a new instance to change the flag or to drop a subclass
+    if (getClass() == VarType.class && (falseBoolean || !forceFalseBoolean)) {
+      return this;
+    }
     return new VarType(type, arrayDim, value, typeFamily, stackSize, falseBoolean || forceFalseBoolean);
   }
 
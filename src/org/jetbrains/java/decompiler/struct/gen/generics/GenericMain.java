@@ -4,6 +4,7 @@ package org.jetbrains.java.decompiler.struct.gen.generics;
 import org.jetbrains.java.decompiler.code.CodeConstants;
 import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+import org.jetbrains.java.decompiler.util.BoundedCache;
 import org.jetbrains.java.decompiler.util.TextUtil;
 import org.jetbrains.java.decompiler.struct.gen.VarType;
 
@@ -11,6 +12,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 public final class GenericMain {
+  // field and method signatures are immutable once parsed and repeat a lot, class signatures are parsed once per class
+  private static final BoundedCache<String, GenericFieldDescriptor> FIELD_SIGNATURES = new BoundedCache<>(8192);
+  private static final BoundedCache<String, GenericMethodDescriptor> METHOD_SIGNATURES = new BoundedCache<>(8192);
 
   private static final String[] typeNames = {
     "byte",
@@ -57,6 +61,10 @@ public final class GenericMain {
   }
 
   public static GenericFieldDescriptor parseFieldSignature(String signature) {
+    return FIELD_SIGNATURES.get(signature, GenericMain::doParseFieldSignature);
+  }
+
+  private static GenericFieldDescriptor doParseFieldSignature(String signature) {
     try {
       return new GenericFieldDescriptor(GenericType.parse(signature));
     }
@@ -67,6 +75,10 @@ public final class GenericMain {
   }
 
   public static GenericMethodDescriptor parseMethodSignature(String signature) {
+    return METHOD_SIGNATURES.get(signature, GenericMain::doParseMethodSignature);
+  }
+
+  private static GenericMethodDescriptor doParseMethodSignature(String signature) {
     String original = signature;
     try {
       List<String> typeParameters = new ArrayList<>();
@@ -1,16 +1,19 @@
 // Copyright 2000-2021 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.java.decompiler.struct.lazy;
 
+import org.jetbrains.java.decompiler.main.extern.IBufferBytecodeProvider;
 import org.jetbrains.java.decompiler.main.extern.IBytecodeProvider;
 import org.jetbrains.java.decompiler.struct.consts.ConstantPool;
 import org.jetbrains.java.decompiler.util.DataInputFullStream;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LazyLoader {
-  private final Map<String, Link> mapClassLinks = new HashMap<>();
+  private final Map<String, Link> mapClassLinks = new ConcurrentHashMap<>();
   private final IBytecodeProvider provider;
 
   public LazyLoader(IBytecodeProvider provider) {
@@ -47,28 +50,59 @@ public class LazyLoader {
     return provider.getBytecode(externalPath, internalPath);
   }
 
+  public ByteBuffer getClassBuffer(String externalPath, String internalPath) throws IOException {
+    if (provider instanceof IBufferBytecodeProvider) {
+      return ((IBufferBytecodeProvider)provider).getBytecodeBuffer(externalPath, internalPath);
+    }
+    return ByteBuffer.wrap(provider.getBytecode(externalPath, internalPath));
+  }
+
+  /**
+   * Fetches several entries of the same archive in one call, if the provider supports it.
+   *
+   * @return the buffers by internal path, or null if the provider only hands out single entries
+   */
+  public Map<String, ByteBuffer> getClassBuffers(String externalPath, List<String> internalPaths) throws IOException {
+    if (provider instanceof IBufferBytecodeProvider) {
+      return ((IBufferBytecodeProvider)provider).getBytecodeBuffers(externalPath, internalPaths);
+    }
+    return null;
+  }
+
   public DataInputFullStream getClassStream(String externalPath, String internalPath) throws IOException {
-    return new DataInputFullStream(getClassBytes(externalPath, internalPath));
+    return new DataInputFullStream(getClassBuffer(externalPath, internalPath));
   }
 
   public DataInputFullStream getClassStream(String qualifiedClassName) throws IOException {
     Link link = mapClassLinks.get(qualifiedClassName);
-    return link == null ? null : link.data != null ? new DataInputFullStream(link.data) : getClassStream(link.externalPath, link.internalPath);
+    return link == null ? null : link.buffer != null ? new DataInputFullStream(link.buffer) : getClassStream(link.externalPath, link.internalPath);
   }
 
   public static class Link {
     public final String externalPath;
     public final String internalPath;
+    /**
+     * @deprecated the class file of a link held in memory is kept in {@link #buffer}; this is only set when the buffer
+     * wraps a whole array
+     */
+    @Deprecated
     public final byte[] data;
+    public final ByteBuffer buffer;
 
     public Link(String externalPath, String internalPath) {
-        this(externalPath, internalPath, null);
+        this(externalPath, internalPath, (ByteBuffer)null);
     }
 
     public Link(String externalPath, String internalPath, byte[] data) {
+      this(externalPath, internalPath, data == null ? null : ByteBuffer.wrap(data));
+    }
+
+    public Link(String externalPath, String internalPath, ByteBuffer buffer) {
       this.externalPath = externalPath;
       this.internalPath = internalPath;
-      this.data = data;
+      this.buffer = buffer;
+      this.data = buffer != null && buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 &&
+                  buffer.limit() == buffer.array().length ? buffer.array() : null;
     }
   }
 }
@@ -78,7 +78,8 @@ public class MatchEngine {
   }
 
   private final MatchNode rootNode;
-  private final Map<String, Object> variables = new HashMap<>();
+  // engines are shared between the threads processing methods, so the bound variables are kept per thread
+  private final ThreadLocal<Map<String, Object>> variables = ThreadLocal.withInitial(HashMap::new);
 
   public MatchEngine(String description) {
     // each line is a separate statement/exprent
@@ -179,7 +180,7 @@ public class MatchEngine {
   }
 
   public boolean match(IMatchable object) {
-    variables.clear();
+    variables.get().clear();
     return match(this.rootNode, object);
   }
 
@@ -210,17 +211,18 @@ public class MatchEngine {
   }
 
   public boolean checkAndSetVariableValue(String name, Object value) {
-    Object old_value = variables.get(name);
+    Map<String, Object> values = variables.get();
+    Object old_value = values.get(name);
     if (old_value != null) {
       return old_value.equals(value);
     }
     else {
-      variables.put(name, value);
+      values.put(name, value);
       return true;
     }
   }
 
   public Object getVariableValue(String name) {
-    return variables.get(name);
+    return variables.get().get(name);
   }
 }
\ No newline at end of file
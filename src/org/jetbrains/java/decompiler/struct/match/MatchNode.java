@@ -4,7 +4,7 @@ package org.jetbrains.java.decompiler.struct.match;
 import org.jetbrains.java.decompiler.struct.match.IMatchable.MatchProperties;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -12,15 +12,18 @@ public class MatchNode {
   public static class RuleValue {
     public final int parameter;
     public final Object value;
+    private final boolean variable;
 
     public RuleValue(int parameter, Object value) {
       this.parameter = parameter;
       this.value = value;
+
+      String strValue = value.toString();
+      this.variable = strValue.charAt(0) == '$' && strValue.charAt(strValue.length() - 1) == '$';
     }
 
     public boolean isVariable() {
-      String strValue = value.toString();
-      return (strValue.charAt(0) == '$' && strValue.charAt(strValue.length() - 1) == '$');
+      return variable;
     }
 
     public String toString() {
@@ -32,8 +35,11 @@ public class MatchNode {
   public static final int MATCHNODE_EXPRENT = 1;
 
   private final int type;
-  private final Map<MatchProperties, RuleValue> rules = new HashMap<>();
+  private final Map<MatchProperties, RuleValue> rules = new EnumMap<>(MatchProperties.class);
   private final List<MatchNode> children = new ArrayList<>();
+  // the position rule, and its index if it is a number; parsed once instead of on every match
+  private String position;
+  private Integer positionIndex;
 
   public MatchNode(int type) {
     this.type = type;
@@ -45,6 +51,11 @@ public class MatchNode {
 
   public void addRule(MatchProperties property, RuleValue value) {
     rules.put(property, value);
+
+    if (property == MatchProperties.STATEMENT_POSITION || property == MatchProperties.EXPRENT_POSITION) {
+      position = (String)value.value;
+      positionIndex = position.matches("-?\\d+") ? Integer.valueOf(position) : null;
+    }
   }
 
   public int getType() {
@@ -59,8 +70,27 @@ public class MatchNode {
     return rules;
   }
 
+  public RuleValue getRule(MatchProperties property) {
+    return rules.get(property);
+  }
+
   public Object getRuleValue(MatchProperties property) {
     RuleValue rule = rules.get(property);
     return rule == null ? null : rule.value;
   }
+
+  /**
+   * @return the value of the position rule of the node, or null if it has none
+   */
+  public String getPosition() {
+    return position;
+  }
+
+  /**
+   * @return the position of the node among the children of the matched object, negative positions counting from the
+   * end, or null if the node has no numeric position rule
+   */
+  public Integer getPositionIndex() {
+    return positionIndex;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package org.jetbrains.java.decompiler.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache holding a bounded number of entries, meant for results that are immutable and cheap enough to
+ * compute twice. Entries live in two generations: once the current one is full it becomes the old one and a fresh
+ * generation is started, while entries still in use are carried over from the old generation when they are looked up.
+ * This keeps reads lock-free and approximates least-recently-used eviction.
+ */
+public final class BoundedCache<K, V> {
+  private final int capacity;
+  private volatile Map<K, V> current = new ConcurrentHashMap<>();
+  private volatile Map<K, V> previous = new ConcurrentHashMap<>();
+
+  public BoundedCache(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * @param compute computes the value for a key that is not cached; if it returns null, nothing is cached
+   */
+  public V get(K key, Function<? super K, ? extends V> compute) {
+    Map<K, V> current = this.current;
+    V value = current.get(key);
+    if (value != null) {
+      return value;
+    }
+
+    value = previous.get(key);
+    if (value == null) {
+      value = compute.apply(key);
+      if (value == null) {
+        return null;
+      }
+    }
+
+    if (current.size() >= capacity) {
+      synchronized (this) {
+        if (this.current == current) {
+          previous = current;
+          this.current = new ConcurrentHashMap<>();
+        }
+      }
+    }
+
+    V existing = this.current.putIfAbsent(key, value);
+    return existing == null ? value : existing;
+  }
+}
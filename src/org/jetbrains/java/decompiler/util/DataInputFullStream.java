@@ -4,12 +4,18 @@ package org.jetbrains.java.decompiler.util;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 public class DataInputFullStream extends DataInputStream {
   public DataInputFullStream(byte[] bytes) {
     super(new ByteArrayInputStream(bytes));
   }
 
+  public DataInputFullStream(ByteBuffer buffer) {
+    super(new ByteBufferInputStream(buffer.duplicate()));
+  }
+
   public byte[] read(int n) throws IOException {
     return InterpreterUtil.readBytes(this, n);
   }
@@ -17,4 +23,43 @@ public class DataInputFullStream extends DataInputStream {
   public void discard(int n) throws IOException {
     InterpreterUtil.discardBytes(this, n);
   }
-}
\ No newline at end of file
+
+  // reads straight from the buffer, so that class files handed out as buffers are never copied as a whole
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      len = Math.min(len, buffer.remaining());
+      buffer.get(b, off, len);
+      return len;
+    }
+
+    @Override
+    public long skip(long n) {
+      int skipped = (int)Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package org.jetbrains.java.decompiler.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A map from primitive long keys to non-null values, with open addressing and linear probing. Keys are neither boxed
+ * nor wrapped, so lookups allocate nothing. Meant for small composite keys packed into a long, which is why the keys
+ * are mixed before probing: their low bits alone are poorly distributed.
+ */
+public final class LongHashMap<V> {
+  private static final int MIN_CAPACITY = 8;
+
+  private long[] keys;
+  private Object[] values;
+  private int size;
+
+  public LongHashMap() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  public LongHashMap(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    keys = new long[capacity];
+    values = new Object[capacity];
+  }
+
+  public LongHashMap(LongHashMap<? extends V> map) {
+    keys = map.keys.clone();
+    values = map.values.clone();
+    size = map.size;
+  }
+
+  /**
+   * The finalizer of MurmurHash3, spreading every bit of the key over the whole hash.
+   */
+  public static int hash(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return (int)key;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int index = find(key);
+    return index >= 0 ? (V)values[index] : null;
+  }
+
+  public boolean containsKey(long key) {
+    return find(key) >= 0;
+  }
+
+  /**
+   * @return the previous value of the key, or null if there was none
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Null values are not supported");
+    }
+
+    int mask = keys.length - 1;
+    int index = hash(key) & mask;
+    while (values[index] != null) {
+      if (keys[index] == key) {
+        V previous = (V)values[index];
+        values[index] = value;
+        return previous;
+      }
+      index = (index + 1) & mask;
+    }
+
+    keys[index] = key;
+    values[index] = value;
+    if (++size * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+    return null;
+  }
+
+  /**
+   * @return the removed value, or null if the key was not present
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    int index = find(key);
+    if (index < 0) {
+      return null;
+    }
+
+    V previous = (V)values[index];
+    size--;
+
+    // shift the following entries of the probe sequence back, so that no lookup stops at the freed slot
+    int mask = keys.length - 1;
+    int free = index;
+    int next = (free + 1) & mask;
+    while (values[next] != null) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - free) & mask)) {
+        keys[free] = keys[next];
+        values[free] = values[next];
+        free = next;
+      }
+      next = (next + 1) & mask;
+    }
+    values[free] = null;
+
+    return previous;
+  }
+
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  /**
+   * @return the keys, in no particular order
+   */
+  public long[] keys() {
+    long[] result = new long[size];
+    int count = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        result[count++] = keys[i];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the values, in the order of {@link #keys()}
+   */
+  @SuppressWarnings("unchecked")
+  public List<V> values() {
+    List<V> result = new ArrayList<>(size);
+    for (Object value : values) {
+      if (value != null) {
+        result.add((V)value);
+      }
+    }
+    return result;
+  }
+
+  private int find(long key) {
+    int mask = keys.length - 1;
+    int index = hash(key) & mask;
+    while (values[index] != null) {
+      if (keys[index] == key) {
+        return index;
+      }
+      index = (index + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new long[capacity];
+    values = new Object[capacity];
+
+    int mask = capacity - 1;
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null) {
+        int index = hash(oldKeys[i]) & mask;
+        while (values[index] != null) {
+          index = (index + 1) & mask;
+        }
+        keys[index] = oldKeys[i];
+        values[index] = oldValues[i];
+      }
+    }
+  }
+}
@@ -7,6 +7,7 @@ import org.jetbrains.java.decompiler.main.DecompilerContext;
 import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 
 import java.util.*;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Allows to connect text with resulting lines
@@ -130,12 +131,9 @@ public class TextBuffer {
     while ((lineEnd = myStringBuilder.indexOf(myLineSeparator, lineStart)) > 0) {
       ++count;
       sb.append(myStringBuilder.substring(lineStart, lineEnd));
-      Set<Integer> integers = myLineMapping.get(count);
-      if (integers != null) {
-        sb.append("//");
-        for (Integer integer : integers) {
-          sb.append(' ').append(integer);
-        }
+      String comment = getOriginalLinesComment(count);
+      if (comment != null) {
+        sb.append(comment);
       }
       sb.append(myLineSeparator);
       lineStart = lineEnd + length;
@@ -146,6 +144,51 @@ public class TextBuffer {
     return sb.toString();
   }
 
+  private String getOriginalLinesComment(int line) {
+    Set<Integer> integers = myLineMapping.get(line);
+    if (integers == null) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder("//");
+    for (Integer integer : integers) {
+      sb.append(' ').append(integer);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return maps offsets in the appended text to offsets in {@link #toString()}, which differ once original line numbers
+   * are added to the ends of the lines
+   */
+  public IntUnaryOperator getOutputOffsets() {
+    if (myLineMapping == null) {
+      return IntUnaryOperator.identity();
+    }
+
+    // the ends of the lines a comment is added to, and the total length of the comments up to each of them
+    int[] lineEnds = new int[myLineMapping.size()];
+    int[] shifts = new int[myLineMapping.size()];
+    int size = 0, shift = 0;
+    int lineStart = 0, lineEnd;
+    int count = 0, length = myLineSeparator.length();
+    while ((lineEnd = myStringBuilder.indexOf(myLineSeparator, lineStart)) > 0 && size < lineEnds.length) {
+      String comment = getOriginalLinesComment(++count);
+      if (comment != null) {
+        shift += comment.length();
+        lineEnds[size] = lineEnd;
+        shifts[size++] = shift;
+      }
+      lineStart = lineEnd + length;
+    }
+
+    int lines = size;
+    return offset -> {
+      int index = Arrays.binarySearch(lineEnds, 0, lines, offset);
+      int before = index >= 0 ? index : -index - 1;
+      return before > 0 ? offset + shifts[before - 1] : offset;
+    };
+  }
+
   private void appendLines(StringBuilder res, String[] srcLines, int from, int to, int requiredLineNumber) {
     if (to - from > requiredLineNumber) {
       List<String> strings = compactLines(Arrays.asList(srcLines).subList(from, to) ,requiredLineNumber);
@@ -0,0 +1,182 @@
+package net.fabricmc.fernflower.api;
+
+import net.fabricmc.fernflower.api.IFabricBulkJavadocProvider.ClassJavadoc;
+import org.jetbrains.java.decompiler.DecompilerTestFixture;
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.InMemoryDecompiler;
+import org.jetbrains.java.decompiler.main.decompiler.PrintStreamLogger;
+import org.jetbrains.java.decompiler.struct.StructClass;
+import org.jetbrains.java.decompiler.struct.StructField;
+import org.jetbrains.java.decompiler.struct.StructMethod;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CachingJavadocProviderTest {
+  private DecompilerTestFixture fixture;
+  private File classes;
+  // resolved up front, tests with a timeout run on a thread without the context
+  private StructClass cl;
+  private StructClass anonymous;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new DecompilerTestFixture();
+    fixture.setUp();
+    classes = new File(fixture.getTestDataDir(), "classes/pkg");
+    fixture.getDecompiler().addSource(new File(classes, "TestAnonymousParams.class"));
+    fixture.getDecompiler().addSource(new File(classes, "TestAnonymousParams$1.class"));
+    cl = getClass("pkg/TestAnonymousParams");
+    anonymous = getClass("pkg/TestAnonymousParams$1");
+  }
+
+  @After
+  public void tearDown() {
+    fixture.tearDown();
+    fixture = null;
+  }
+
+  @Test
+  public void testClassJavadoc() {
+    CountingProvider provider = new CountingProvider();
+    CachingJavadocProvider caching = new CachingJavadocProvider(provider);
+
+    ClassJavadoc javadoc = caching.getClassJavadoc(cl);
+    assertEquals("class pkg/TestAnonymousParams", javadoc.getClassDoc());
+    assertEquals("method foo", javadoc.getMethodDoc(cl.getMethod("foo", "(Ljava/io/InputStream;I)V")));
+    assertNull(javadoc.getMethodDoc(cl.getMethod("<init>", "()V")));
+
+    StructField field = anonymous.getFields().get(0);
+    assertEquals("field " + field.getName(), caching.getClassJavadoc(anonymous).getFieldDoc(field));
+
+    assertEquals(1, provider.classLookups.get("pkg/TestAnonymousParams").get());
+    assertEquals(1, provider.classLookups.get("pkg/TestAnonymousParams$1").get());
+  }
+
+  @Test
+  public void testEmpty() {
+    CachingJavadocProvider caching = new CachingJavadocProvider(new IFabricJavadocProvider() {
+      @Override
+      public String getClassDoc(StructClass structClass) {
+        return null;
+      }
+
+      @Override
+      public String getFieldDoc(StructClass structClass, StructField structField) {
+        return null;
+      }
+
+      @Override
+      public String getMethodDoc(StructClass structClass, StructMethod structMethod) {
+        return null;
+      }
+    });
+    assertSame(ClassJavadoc.EMPTY, caching.getClassJavadoc(cl));
+  }
+
+  @Test(timeout = 60_000)
+  public void testLookupsSerialized() throws Exception {
+    CountingProvider provider = new CountingProvider();
+    lookUpConcurrently(new CachingJavadocProvider(provider), 8);
+    assertEquals(1, provider.maxConcurrent.get());
+  }
+
+  @Test(timeout = 60_000)
+  public void testThreadSafeLookupsNotSerialized() throws Exception {
+    // each lookup waits for the other one, so they only finish if they run at the same time
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    CountingProvider provider = new CountingProvider() {
+      @Override
+      public String getClassDoc(StructClass structClass) {
+        try {
+          barrier.await(10, TimeUnit.SECONDS);
+        }
+        catch (Exception e) {
+          throw new AssertionError(e);
+        }
+        return super.getClassDoc(structClass);
+      }
+    };
+    lookUpConcurrently(new CachingJavadocProvider(provider, true), 2);
+  }
+
+  @Test
+  public void testAskedOncePerWrittenClass() throws Exception {
+    CountingProvider provider = new CountingProvider();
+    Map<String, Object> options = new HashMap<>();
+    options.put(IFabricJavadocProvider.PROPERTY_NAME, new CachingJavadocProvider(provider));
+    InMemoryDecompiler decompiler = new InMemoryDecompiler(null, options, new PrintStreamLogger(System.out));
+
+    String source = decompiler.decompile(InterpreterUtil.getBytes(new File(classes, "TestAnonymousParams.class")),
+                                         Collections.singletonList(InterpreterUtil.getBytes(new File(classes, "TestAnonymousParams$1.class"))));
+    assertNotNull(source);
+    assertTrue(source, source.contains("class pkg/TestAnonymousParams"));
+    assertTrue(source, source.contains("method foo"));
+    assertTrue(source, source.contains("method read"));
+
+    assertEquals(1, provider.classLookups.get("pkg/TestAnonymousParams").get());
+    assertEquals(1, provider.classLookups.get("pkg/TestAnonymousParams$1").get());
+  }
+
+  private void lookUpConcurrently(CachingJavadocProvider caching, int threads) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<ClassJavadoc>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> caching.getClassJavadoc(cl)));
+      }
+      for (Future<ClassJavadoc> result : results) {
+        assertEquals("class pkg/TestAnonymousParams", result.get().getClassDoc());
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static StructClass getClass(String name) {
+    StructClass cl = DecompilerContext.getStructContext().getClass(name);
+    assertNotNull(cl);
+    return cl;
+  }
+
+  private static class CountingProvider implements IFabricJavadocProvider {
+    private final Map<String, AtomicInteger> classLookups = new ConcurrentHashMap<>();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    @Override
+    public String getClassDoc(StructClass structClass) {
+      classLookups.computeIfAbsent(structClass.qualifiedName, k -> new AtomicInteger()).incrementAndGet();
+      int current = concurrent.incrementAndGet();
+      maxConcurrent.accumulateAndGet(current, Math::max);
+      try {
+        // give other lookups the chance to overlap
+        Thread.sleep(5);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      concurrent.decrementAndGet();
+      return "class " + structClass.qualifiedName;
+    }
+
+    @Override
+    public String getFieldDoc(StructClass structClass, StructField structField) {
+      return "field " + structField.getName();
+    }
+
+    @Override
+    public String getMethodDoc(StructClass structClass, StructMethod structMethod) {
+      return structMethod.getName().startsWith("<") ? null : "method " + structMethod.getName();
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.Fernflower;
+import org.jetbrains.java.decompiler.main.collectors.ClassMetadata;
+import org.jetbrains.java.decompiler.main.collectors.ClassMetadata.Member;
+import org.jetbrains.java.decompiler.main.collectors.ClassMetadata.MemberKind;
+import org.jetbrains.java.decompiler.main.decompiler.PrintStreamLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.main.extern.IStructuredResultSaver;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.*;
+import java.util.jar.Manifest;
+
+import static org.junit.Assert.*;
+
+public class ClassMetadataTest {
+  @Test
+  public void testMemberRanges() {
+    Map<String, Saved> saved = decompile(false, "TestAnonymousClass", "TestLocalClass", "TestAnonymousParams");
+    for (Saved result : saved.values()) {
+      assertMemberRanges(result);
+    }
+
+    List<Member> members = saved.get("pkg/TestLocalClass").metadata.getMembers();
+    assertEquals(Arrays.asList("CLASS pkg/TestLocalClass", "METHOD foo", "CLASS pkg/TestLocalClass$1Local", "METHOD foo",
+                               "METHOD boo", "METHOD zoo"), describe(members));
+    assertEquals("pkg/TestLocalClass", members.get(2).getOwner());
+    assertEquals("pkg/TestLocalClass$1Local", members.get(3).getOwner());
+    assertTrue(members.get(1).getStart() < members.get(2).getStart() && members.get(2).getEnd() <= members.get(1).getEnd());
+
+    members = saved.get("pkg/TestAnonymousParams").metadata.getMembers();
+    assertEquals(Arrays.asList("CLASS pkg/TestAnonymousParams", "METHOD foo", "CLASS pkg/TestAnonymousParams$1", "METHOD read"),
+                 describe(members));
+
+    // anonymous classes in field initializers, nested in the arguments of other anonymous classes and in their methods
+    members = saved.get("pkg/TestAnonymousClass").metadata.getMembers();
+    for (int i = 1; i <= 8; i++) {
+      String name = "pkg/TestAnonymousClass$" + i;
+      assertTrue(name, members.stream().anyMatch(member -> member.getKind() == MemberKind.CLASS && member.getName().equals(name)));
+    }
+    assertTrue(members.stream().anyMatch(member -> member.getName().equals("pkg/TestAnonymousClass$Inner$1")));
+  }
+
+  @Test
+  public void testMemberRangesWithOriginalLines() {
+    Map<String, Saved> saved = decompile(true, "TestAnonymousClass", "TestLocalClass", "TestAnonymousParams");
+    for (Saved result : saved.values()) {
+      assertTrue(result.content.contains("}// "));
+      assertMemberRanges(result);
+    }
+  }
+
+  @Test
+  public void testImports() {
+    ClassMetadata metadata = decompile(false, "TestAnonymousParams").get("pkg/TestAnonymousParams").metadata;
+    assertEquals(Arrays.asList("java.io.FilterInputStream", "java.io.IOException", "java.io.InputStream"), metadata.getImports());
+  }
+
+  @Test
+  public void testErrors() {
+    Saved saved = decompile(false, "TestInfiniteLoop").get("pkg/TestInfiniteLoop");
+    assertEquals(Arrays.asList("Method pkg/TestInfiniteLoop test ()V couldn't be decompiled",
+                               "Method pkg/TestInfiniteLoop testRet ()I couldn't be decompiled",
+                               "Method pkg/TestInfiniteLoop test2 ()I couldn't be decompiled",
+                               "Method pkg/TestInfiniteLoop test3 ()I couldn't be decompiled"), saved.metadata.getErrors());
+    assertTrue(saved.metadata.getProcessingNanos() >= 0);
+  }
+
+  @Test
+  public void testLineTable() {
+    Saved saved = decompile(false, "TestInfiniteLoop").get("pkg/TestInfiniteLoop");
+    Map<Integer, Integer> lines = saved.metadata.getLineTable().get("pkg/TestInfiniteLoop").get("testIf (I)I");
+    assertNotNull(lines);
+    String[] content = saved.content.split("\n");
+    assertTrue(content[lines.get(0) - 1].contains("while(var1 != 3)"));
+    assertTrue(content[lines.get(5) - 1].contains("return 1;"));
+    assertNotNull(saved.metadata.getOriginalLinesMapping());
+  }
+
+  private static void assertMemberRanges(Saved saved) {
+    Map<String, Member> classes = new HashMap<>();
+    for (Member member : saved.metadata.getMembers()) {
+      assertTrue(member.toString(), 0 <= member.getStart() && member.getStart() < member.getEnd());
+      assertTrue(member.toString(), member.getEnd() <= saved.content.length());
+
+      // without the original line numbers added to the ends of the lines
+      String text = saved.content.substring(member.getStart(), member.getEnd()).replaceAll("//( \\d+)+\n", "\n").trim();
+      switch (member.getKind()) {
+        case CLASS:
+          String name = member.getName();
+          String simpleName = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('$')) + 1).replaceAll("^\\d+", "");
+          assertTrue(member.toString(), text.contains(simpleName.isEmpty() ? "{" : simpleName));
+          assertTrue(member.toString(), text.endsWith("}"));
+          classes.put(member.getName(), member);
+          break;
+        case FIELD:
+          assertTrue(member.toString(), (" " + text).contains(" " + member.getName()));
+          break;
+        case METHOD:
+          if (!member.getName().startsWith("<")) {
+            assertTrue(member.toString(), text.contains(" " + member.getName() + "("));
+          }
+          assertTrue(member.toString(), text.endsWith("}") || text.endsWith(";"));
+          break;
+      }
+
+      if (member.getOwner() != null) {
+        Member owner = classes.get(member.getOwner());
+        assertNotNull(member.toString(), owner);
+        assertTrue(member.toString(), owner.getStart() <= member.getStart() && member.getEnd() <= owner.getEnd());
+      }
+    }
+  }
+
+  private static List<String> describe(List<Member> members) {
+    List<String> result = new ArrayList<>();
+    for (Member member : members) {
+      result.add(member.getKind() + " " + member.getName());
+    }
+    return result;
+  }
+
+  private static Map<String, Saved> decompile(boolean originalLines, String... classNames) {
+    Map<String, Object> options = new HashMap<>();
+    options.put(IFernflowerPreferences.LOG_LEVEL, "warn");
+    options.put(IFernflowerPreferences.BYTECODE_SOURCE_MAPPING, "1");
+    options.put(IFernflowerPreferences.DUMP_ORIGINAL_LINES, originalLines ? "1" : "0");
+    options.put(IFernflowerPreferences.NEW_LINE_SEPARATOR, "1");
+
+    Saver saver = new Saver();
+    Fernflower fernflower = new Fernflower((externalPath, internalPath) -> InterpreterUtil.getBytes(new File(externalPath)), saver,
+                                           options, new PrintStreamLogger(System.out));
+    try {
+      File classes = new File("testData/classes/pkg");
+      for (String className : classNames) {
+        File[] files = classes.listFiles((dir, name) -> name.equals(className + ".class") || name.startsWith(className + "$"));
+        assertNotNull(files);
+        for (File file : files) {
+          fernflower.addSource(file);
+        }
+      }
+      fernflower.decompileContext();
+    }
+    finally {
+      fernflower.clearContext();
+    }
+    return saver.saved;
+  }
+
+  private static final class Saved {
+    private final String content;
+    private final ClassMetadata metadata;
+
+    private Saved(String content, ClassMetadata metadata) {
+      this.content = content;
+      this.metadata = metadata;
+    }
+  }
+
+  private static final class Saver implements IStructuredResultSaver {
+    private final Map<String, Saved> saved = new HashMap<>();
+
+    @Override
+    public void saveClass(String path, String archiveName, String qualifiedName, String entryName, String content, ClassMetadata metadata) {
+      assertNotNull(qualifiedName, content);
+      assertNotNull(qualifiedName, metadata);
+      assertEquals(qualifiedName, metadata.getClassName());
+      saved.put(qualifiedName, new Saved(content, metadata));
+    }
+
+    @Override
+    public void saveFolder(String path) { }
+
+    @Override
+    public void copyFile(String source, String path, String entryName) { }
+
+    @Override
+    public void saveClassFile(String path, String qualifiedName, String entryName, String content, int[] mapping) {
+      fail("structured saver expected");
+    }
+
+    @Override
+    public void createArchive(String path, String archiveName, Manifest manifest) { }
+
+    @Override
+    public void saveDirEntry(String path, String archiveName, String entryName) { }
+
+    @Override
+    public void copyEntry(String source, String path, String archiveName, String entry) { }
+
+    @Override
+    public void saveClassEntry(String path, String archiveName, String qualifiedName, String entryName, String content) {
+      fail("structured saver expected");
+    }
+
+    @Override
+    public void closeArchive(String path, String archiveName) { }
+  }
+}
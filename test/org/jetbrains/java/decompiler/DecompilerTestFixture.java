@@ -22,6 +22,7 @@ public class DecompilerTestFixture {
   private File testDataDir;
   private File tempDir;
   private File targetDir;
+  private Map<String, Object> options;
   private TestConsoleDecompiler decompiler;
   private boolean cleanup = true;
 
@@ -43,7 +44,7 @@ public class DecompilerTestFixture {
     targetDir = new File(tempDir, "decompiled");
     assertThat(targetDir.mkdirs()).isTrue();
 
-    Map<String, Object> options = new HashMap<>();
+    options = new HashMap<>();
     options.put(IFernflowerPreferences.LOG_LEVEL, "warn");
     options.put(IFernflowerPreferences.DECOMPILE_GENERIC_SIGNATURES, "1");
     options.put(IFernflowerPreferences.REMOVE_SYNTHETIC, "1");
@@ -78,6 +79,10 @@ public class DecompilerTestFixture {
   public ConsoleDecompiler getDecompiler() {
     return decompiler;
   }
+
+  public Map<String, Object> getOptions() {
+    return options;
+  }
   
   public void setCleanup(boolean value) {
     this.cleanup = value;
@@ -0,0 +1,120 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.rels.FailedMethodCache;
+import org.jetbrains.java.decompiler.modules.decompiler.vars.VarProcessor;
+import org.jetbrains.java.decompiler.modules.decompiler.vars.VarVersionPair;
+import org.jetbrains.java.decompiler.struct.StructClass;
+import org.jetbrains.java.decompiler.struct.StructMethod;
+import org.jetbrains.java.decompiler.struct.gen.MethodDescriptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class FailedMethodCacheTest {
+  private DecompilerTestFixture fixture;
+  private FailedMethodCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    fixture = new DecompilerTestFixture();
+    fixture.setUp();
+    File classes = new File(fixture.getTestDataDir(), "classes/pkg");
+    fixture.getDecompiler().addSource(new File(classes, "TestSameCode.class"));
+    fixture.getDecompiler().addSource(new File(classes, "TestSameCodeCopy.class"));
+    cache = new FailedMethodCache();
+  }
+
+  @After
+  public void tearDown() {
+    fixture.tearDown();
+    fixture = null;
+  }
+
+  @Test
+  public void testStaticMethodOfOtherClass() throws IOException {
+    putFailure("pkg/TestSameCode", "sum", "([I)I");
+    assertFailure("pkg/TestSameCode.sum([I)I", "pkg/TestSameCodeCopy", "sum", "([I)I");
+  }
+
+  @Test
+  public void testInstanceMethodDependsOnClass() throws IOException {
+    putFailure("pkg/TestSameCode", "sumFromBase", "([I)I");
+    assertFailure("pkg/TestSameCode.sumFromBase([I)I", "pkg/TestSameCode", "sumFromBaseAgain", "([I)I");
+    assertNull(get("pkg/TestSameCodeCopy", "sumFromBase", "([I)I"));
+  }
+
+  @Test
+  public void testStaticMethodMentioningClassDependsOnClass() throws IOException {
+    putFailure("pkg/TestSameCode", "callHelper", "()I");
+    assertNull(get("pkg/TestSameCodeCopy", "callHelper", "()I"));
+
+    putFailure("pkg/TestSameCodeCopy", "callHelper", "()I");
+    assertFailure("pkg/TestSameCodeCopy.callHelper()I", "pkg/TestSameCodeCopy", "callHelper", "()I");
+  }
+
+  @Test
+  public void testConstantsAreResolved() throws IOException {
+    StructMethod text = getMethod("pkg/TestSameCode", "text", "()Ljava/lang/String;");
+    StructMethod copy = getMethod("pkg/TestSameCodeCopy", "text", "()Ljava/lang/String;");
+    assertNotEquals(text.getInstructionSequence().getInstr(0).operand(0), copy.getInstructionSequence().getInstr(0).operand(0));
+
+    putFailure("pkg/TestSameCode", "text", "()Ljava/lang/String;");
+    assertFailure("pkg/TestSameCode.text()Ljava/lang/String;", "pkg/TestSameCodeCopy", "text", "()Ljava/lang/String;");
+    assertNull(get("pkg/TestSameCode", "otherText", "()Ljava/lang/String;"));
+  }
+
+  @Test
+  public void testFailureWithVariableNamesIsNotCached() throws IOException {
+    StructClass cl = getClass("pkg/TestSameCode");
+    StructMethod mt = getMethod("pkg/TestSameCode", "sum", "([I)I");
+    MethodDescriptor md = MethodDescriptor.parseDescriptor(mt.getDescriptor());
+    VarProcessor varProc = new VarProcessor(mt, md);
+    varProc.setVarName(new VarVersionPair(0, 0), "values");
+    cache.put(cl, mt, md, varProc, "test failure");
+
+    assertNull(get("pkg/TestSameCode", "sum", "([I)I"));
+  }
+
+  private void putFailure(String className, String name, String descriptor) {
+    StructClass cl = getClass(className);
+    StructMethod mt = getMethod(className, name, descriptor);
+    MethodDescriptor md = MethodDescriptor.parseDescriptor(mt.getDescriptor());
+    cache.put(cl, mt, md, new VarProcessor(mt, md), "test failure");
+  }
+
+  private FailedMethodCache.Failure get(String className, String name, String descriptor) throws IOException {
+    return cache.get(getClass(className), getMethod(className, name, descriptor));
+  }
+
+  private void assertFailure(String failedMethod, String className, String name, String descriptor) throws IOException {
+    FailedMethodCache.Failure failure = get(className, name, descriptor);
+    assertNotNull(failure);
+    assertEquals(failedMethod, failure.getMethod());
+    assertEquals("test failure", failure.getReason());
+  }
+
+  private static StructClass getClass(String className) {
+    StructClass cl = DecompilerContext.getStructContext().getClass(className);
+    assertNotNull(cl);
+    return cl;
+  }
+
+  private static StructMethod getMethod(String className, String name, String descriptor) {
+    StructClass cl = getClass(className);
+    StructMethod mt = cl.getMethod(name, descriptor);
+    assertNotNull(mt);
+    try {
+      mt.expandData(cl);
+    }
+    catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return mt;
+  }
+}
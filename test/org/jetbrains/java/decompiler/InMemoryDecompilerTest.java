@@ -0,0 +1,98 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.InMemoryDecompiler;
+import org.jetbrains.java.decompiler.main.decompiler.PrintStreamLogger;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryDecompilerTest {
+  private static final String CLASS_NAME = "TestInnerClassConstructor";
+
+  private DecompilerTestFixture fixture;
+  private File classDir;
+  private byte[] classFile;
+  private List<byte[]> nestedClassFiles;
+
+  @Before
+  public void setUp() throws IOException {
+    fixture = new DecompilerTestFixture();
+    fixture.setUp();
+
+    classDir = new File(fixture.getTestDataDir(), "classes/pkg");
+    classFile = InterpreterUtil.getBytes(new File(classDir, CLASS_NAME + ".class"));
+    nestedClassFiles = new ArrayList<>();
+    File[] nestedFiles = classDir.listFiles((dir, name) -> name.startsWith(CLASS_NAME + "$"));
+    assertThat(nestedFiles).isNotNull();
+    for (File file : nestedFiles) {
+      nestedClassFiles.add(InterpreterUtil.getBytes(file));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    fixture.tearDown();
+    fixture = null;
+  }
+
+  @Test
+  public void testSameOutputAsConsoleDecompiler() throws Exception {
+    String expected = decompileWithConsoleDecompiler();
+
+    // the library holds the same classes, those handed in memory have to take precedence
+    InMemoryDecompiler decompiler = createDecompiler();
+    assertThat(decompiler.decompile(classFile, nestedClassFiles)).isEqualTo(expected);
+    assertThat(decompiler.decompile(classFile, nestedClassFiles)).isEqualTo(expected);
+  }
+
+  @Test
+  public void testConcurrentRequests() throws Exception {
+    String expected = decompileWithConsoleDecompiler();
+
+    InMemoryDecompiler decompiler = createDecompiler();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> decompiler.decompile(classFile, nestedClassFiles)));
+      }
+      for (Future<String> result : results) {
+        assertThat(result.get()).isEqualTo(expected);
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private InMemoryDecompiler createDecompiler() {
+    InMemoryDecompiler decompiler =
+      new InMemoryDecompiler(fixture.getDecompiler(), fixture.getOptions(), new PrintStreamLogger(System.out));
+    decompiler.addLibrary(classDir);
+    return decompiler;
+  }
+
+  private String decompileWithConsoleDecompiler() throws IOException {
+    File[] files = classDir.listFiles((dir, name) -> name.equals(CLASS_NAME + ".class") || name.startsWith(CLASS_NAME + "$"));
+    assertThat(files).isNotNull();
+    for (File file : files) {
+      fixture.getDecompiler().addSource(file);
+    }
+    fixture.getDecompiler().decompileContext();
+
+    File decompiled = new File(fixture.getTargetDir(), CLASS_NAME + ".java");
+    return new String(InterpreterUtil.getBytes(decompiled), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,169 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.InMemoryDecompiler;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.main.rels.ProcessingBudget;
+import org.jetbrains.java.decompiler.main.rels.ProcessingBudget.ExceededException;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class ProcessingBudgetTest {
+  private static final int MEGABYTE = 1024 * 1024;
+
+  private DecompilerTestFixture fixture;
+  // keeps the allocations of the tests reachable
+  private final List<byte[]> allocated = new ArrayList<>();
+
+  @After
+  public void tearDown() {
+    if (fixture != null) {
+      fixture.tearDown();
+      fixture = null;
+    }
+  }
+
+  @Test
+  public void testNoLimits() throws Exception {
+    ProcessingBudget budget = createBudget();
+    ProcessingBudget.Method method = budget.startMethod("foo ()V");
+    allocate(4);
+    method.check();
+  }
+
+  @Test
+  public void testMethodTimeLimit() throws Exception {
+    ProcessingBudget budget = createBudget(IFernflowerPreferences.MAX_METHOD_TIME, "1");
+    ProcessingBudget.Method method = budget.startMethod("foo ()V");
+    method.check();
+
+    Thread.sleep(1100);
+    ExceededException e = assertExceeded(method);
+    assertEquals("Method foo ()V exceeded the processing time limit of 1 s", e.getMessage());
+    assertFalse(e.isClassLimit());
+    assertTrue(e.isTimeLimit());
+
+    // the limit applies to each method on its own
+    budget.startMethod("bar ()V").check();
+  }
+
+  @Test
+  public void testClassTimeLimit() throws Exception {
+    ProcessingBudget budget = createBudget(IFernflowerPreferences.MAX_CLASS_TIME, "1");
+    budget.startMethod("foo ()V").check();
+
+    Thread.sleep(1100);
+    try {
+      budget.startMethod("bar ()V");
+      fail("class time limit not exceeded");
+    }
+    catch (ExceededException e) {
+      assertEquals("Class processing time limit of 1 s exceeded at method bar ()V", e.getMessage());
+      assertTrue(e.isClassLimit());
+      assertTrue(e.isTimeLimit());
+    }
+  }
+
+  @Test
+  public void testMethodAllocationLimit() throws Exception {
+    assumeAllocationMeasured();
+    ProcessingBudget budget = createBudget(IFernflowerPreferences.MAX_METHOD_ALLOCATION, "1");
+    ProcessingBudget.Method method = budget.startMethod("foo ()V");
+
+    allocate(2);
+    ExceededException e = assertExceeded(method);
+    assertEquals("Method foo ()V exceeded the allocation limit of 1 MB", e.getMessage());
+    assertFalse(e.isClassLimit());
+    assertFalse(e.isTimeLimit());
+
+    budget.startMethod("bar ()V").check();
+  }
+
+  @Test
+  public void testClassAllocationLimit() throws Exception {
+    assumeAllocationMeasured();
+    ProcessingBudget budget = createBudget(IFernflowerPreferences.MAX_CLASS_ALLOCATION, "3");
+    ProcessingBudget.Method first = budget.startMethod("foo ()V");
+    allocate(2);
+    first.check();
+
+    // the allocations of all methods of the class add up
+    ProcessingBudget.Method second = budget.startMethod("bar ()V");
+    allocate(2);
+    ExceededException e = assertExceeded(second);
+    assertEquals("Class allocation limit of 3 MB exceeded at method bar ()V", e.getMessage());
+    assertTrue(e.isClassLimit());
+    assertFalse(e.isTimeLimit());
+
+    try {
+      budget.startMethod("baz ()V");
+      fail("class allocation limit no longer exceeded");
+    }
+    catch (ExceededException expected) { }
+  }
+
+  @Test
+  public void testExceededMethodWrittenWithError() throws Exception {
+    assumeAllocationMeasured();
+    List<String> warnings = new ArrayList<>();
+    IFernflowerLogger logger = new IFernflowerLogger() {
+      @Override
+      public void writeMessage(String message, Severity severity) {
+        if (severity == Severity.WARN) {
+          warnings.add(message);
+        }
+      }
+
+      @Override
+      public void writeMessage(String message, Severity severity, Throwable t) {
+        writeMessage(message, severity);
+      }
+    };
+    Map<String, Object> options = new HashMap<>();
+    options.put(IFernflowerPreferences.MAX_CLASS_ALLOCATION, "1");
+    InMemoryDecompiler decompiler = new InMemoryDecompiler(null, options, logger);
+
+    File classFile = new File("testData/classes/pkg/TestPrimitives.class");
+    String source = decompiler.decompile(InterpreterUtil.getBytes(classFile));
+    assertNotNull(source);
+    assertTrue(source, source.contains("// $FF: Couldn't be decompiled"));
+    assertTrue(warnings.toString(), warnings.stream().anyMatch(
+      message -> message.matches("Method \\S+ \\S+ couldn't be decompiled\\. Class allocation limit of 1 MB exceeded at method .*")));
+  }
+
+  private ProcessingBudget createBudget(String... optionPairs) throws Exception {
+    fixture = new DecompilerTestFixture();
+    fixture.setUp(optionPairs);
+    return new ProcessingBudget();
+  }
+
+  private void allocate(int megabytes) {
+    allocated.add(new byte[megabytes * MEGABYTE]);
+  }
+
+  private static ExceededException assertExceeded(ProcessingBudget.Method method) {
+    try {
+      method.check();
+    }
+    catch (ExceededException e) {
+      return e;
+    }
+    throw new AssertionError("limit not exceeded");
+  }
+
+  private static void assumeAllocationMeasured() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean &&
+               ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported() &&
+               ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemoryEnabled());
+  }
+}
@@ -0,0 +1,219 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler;
+import org.jetbrains.java.decompiler.main.decompiler.PrintStreamLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.*;
+
+public class ResumeJournalTest {
+  private static final String JOURNAL_DIRECTORY = ".fernflower-resume";
+
+  private DecompilerTestFixture fixture;
+  private List<File> sources;
+  private Map<String, String> expected;
+
+  @Before
+  public void setUp() throws IOException {
+    fixture = new DecompilerTestFixture();
+    fixture.setUp();
+
+    File classes = new File(fixture.getTempDir(), "classes/pkg");
+    assertTrue(classes.mkdirs());
+    File[] files = new File(fixture.getTestDataDir(), "classes/pkg").listFiles((dir, name) -> name.startsWith("TestInnerClassConstructor"));
+    assertNotNull(files);
+    for (File file : files) {
+      Files.copy(file.toPath(), new File(classes, file.getName()).toPath());
+    }
+
+    sources = Arrays.asList(new File(fixture.getTestDataDir(), "bulk.jar"),
+                            new File(fixture.getTestDataDir(), "kt25937.jar"),
+                            classes.getParentFile());
+
+    File destination = newDestination("expected");
+    TestDecompiler decompiler = new TestDecompiler(destination, options(), -1);
+    decompile(decompiler);
+    expected = readOutput(destination);
+    assertEquals(0, decompiler.resumed);
+  }
+
+  @After
+  public void tearDown() {
+    fixture.tearDown();
+    fixture = null;
+  }
+
+  @Test
+  public void testResumeInterruptedRun() throws IOException {
+    File destination = newDestination("resumed");
+    int saved = interrupt(destination, options(IFernflowerPreferences.RESUME, "1"), 2);
+
+    TestDecompiler decompiler = new TestDecompiler(destination, options(IFernflowerPreferences.RESUME, "1"), -1);
+    decompile(decompiler);
+    assertEquals(saved, decompiler.resumed);
+    assertEquals(expected, readOutput(destination));
+    assertFalse(new File(destination, JOURNAL_DIRECTORY).exists());
+  }
+
+  @Test
+  public void testOtherOptionsDiscardJournal() throws IOException {
+    File destination = newDestination("options");
+    interrupt(destination, options(IFernflowerPreferences.RESUME, "1", IFernflowerPreferences.INDENT_STRING, "\t"), 2);
+
+    TestDecompiler decompiler = new TestDecompiler(destination, options(IFernflowerPreferences.RESUME, "1"), -1);
+    decompile(decompiler);
+    assertEquals(0, decompiler.resumed);
+    assertEquals(expected, readOutput(destination));
+  }
+
+  @Test
+  public void testChangedInputDiscardsJournal() throws IOException {
+    File destination = newDestination("input");
+    interrupt(destination, options(IFernflowerPreferences.RESUME, "1"), 2);
+
+    File classFile = new File(sources.get(2), "pkg/TestInnerClassConstructor.class");
+    assertTrue(classFile.setLastModified(classFile.lastModified() - 10_000));
+
+    TestDecompiler decompiler = new TestDecompiler(destination, options(IFernflowerPreferences.RESUME, "1"), -1);
+    decompile(decompiler);
+    assertEquals(0, decompiler.resumed);
+    assertEquals(expected, readOutput(destination));
+  }
+
+  @Test
+  public void testMergeShards() throws IOException {
+    File destination = newDestination("shards");
+    int staged = 0;
+    for (int shard = 0; shard < 2; shard++) {
+      TestDecompiler worker = new TestDecompiler(
+        destination, options(IFernflowerPreferences.RESUME, "1", IFernflowerPreferences.SHARD, shard + "/2"), -1);
+      decompile(worker);
+      staged += worker.saved;
+    }
+    assertTrue(new File(destination, JOURNAL_DIRECTORY).exists());
+
+    TestDecompiler decompiler = new TestDecompiler(destination, options(IFernflowerPreferences.RESUME, "1"), -1);
+    decompile(decompiler);
+    assertTrue(staged > 0);
+    assertEquals(staged, decompiler.resumed);
+    assertEquals(expected, readOutput(destination));
+    assertFalse(new File(destination, JOURNAL_DIRECTORY).exists());
+  }
+
+  /**
+   * @return the number of classes saved before the run was interrupted
+   */
+  private int interrupt(File destination, Map<String, Object> options, int interruptAfter) {
+    TestDecompiler decompiler = new TestDecompiler(destination, options, interruptAfter);
+    try {
+      decompile(decompiler);
+      fail("the run was not interrupted");
+    }
+    catch (Interrupted ignored) { }
+    assertEquals(interruptAfter, decompiler.saved);
+    assertTrue(new File(destination, JOURNAL_DIRECTORY).exists());
+    return decompiler.saved;
+  }
+
+  private void decompile(TestDecompiler decompiler) {
+    for (File source : sources) {
+      decompiler.addSource(source);
+    }
+    decompiler.decompileContext();
+  }
+
+  private File newDestination(String name) {
+    File destination = new File(fixture.getTempDir(), name);
+    assertTrue(destination.mkdirs());
+    return destination;
+  }
+
+  private Map<String, Object> options(String... optionPairs) {
+    Map<String, Object> options = new HashMap<>(fixture.getOptions());
+    for (int i = 0; i < optionPairs.length; i += 2) {
+      options.put(optionPairs[i], optionPairs[i + 1]);
+    }
+    return options;
+  }
+
+  // the sources written to the destination, with archives unpacked, by path
+  private static Map<String, String> readOutput(File destination) throws IOException {
+    Map<String, String> output = new TreeMap<>();
+    readOutput(destination, "", output);
+    return output;
+  }
+
+  private static void readOutput(File file, String path, Map<String, String> output) throws IOException {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        if (!child.getName().equals(JOURNAL_DIRECTORY)) {
+          readOutput(child, path + '/' + child.getName(), output);
+        }
+      }
+    }
+    else if (file.getName().endsWith(".jar")) {
+      try (ZipFile archive = new ZipFile(file)) {
+        for (ZipEntry entry : Collections.list(archive.entries())) {
+          output.put(path + '!' + entry.getName(), new String(InterpreterUtil.getBytes(archive, entry), StandardCharsets.UTF_8));
+        }
+      }
+    }
+    else {
+      output.put(path, new String(InterpreterUtil.getBytes(file), StandardCharsets.UTF_8));
+    }
+  }
+
+  private static final class Interrupted extends RuntimeException { }
+
+  // counts the classes saved and those taken over from an earlier run, and stops after the given number of saved classes
+  private static final class TestDecompiler extends ConsoleDecompiler {
+    private final int interruptAfter;
+    private int saved;
+    private int resumed;
+
+    private TestDecompiler(File destination, Map<String, Object> options, int interruptAfter) {
+      super(destination, options, new PrintStreamLogger(System.out));
+      this.interruptAfter = interruptAfter;
+    }
+
+    @Override
+    public synchronized String getSavedClass(String path, String archiveName, String qualifiedName, String entryName) {
+      String content = super.getSavedClass(path, archiveName, qualifiedName, entryName);
+      if (content != null) {
+        resumed++;
+      }
+      return content;
+    }
+
+    @Override
+    public void saveClassFile(String path, String qualifiedName, String entryName, String content, int[] mapping) {
+      super.saveClassFile(path, qualifiedName, entryName, content, mapping);
+      countSaved(content);
+    }
+
+    @Override
+    public synchronized void saveClassEntry(String path, String archiveName, String qualifiedName, String entryName, String content) {
+      super.saveClassEntry(path, archiveName, qualifiedName, entryName, content);
+      countSaved(content);
+    }
+
+    private synchronized void countSaved(String content) {
+      if (content != null && ++saved == interruptAfter) {
+        throw new Interrupted();
+      }
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.junit.Test;
+
+import java.io.File;
+
+public class SingleClassesBodyFilterTest extends SingleClassesTestBase {
+  @Override
+  protected String[] getDecompilerOptions() {
+    return new String[] {
+      IFernflowerPreferences.INCLUDE_ENTIRE_CLASSPATH, "0",
+      IFernflowerPreferences.METHOD_BODY_FILTER, "<init>,testLambda1,nestedLambdas,m"
+    };
+  }
+
+  @Override
+  protected File getReferenceFile(String testName) {
+    return new File(fixture.getTestDataDir(), "results/mbf/" + testName + ".dec");
+  }
+
+  @Test public void testInnerSignature() { doTest("pkg/TestInnerSignature"); }
+  @Test public void testAnonymousClass() { doTest("pkg/TestAnonymousClass"); }
+  @Test public void testEnum() { doTest("pkg/TestEnum"); }
+  @Test public void testClassLambda() { doTest("pkg/TestClassLambda"); }
+}
@@ -0,0 +1,28 @@
+package org.jetbrains.java.decompiler;
+
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.junit.Test;
+
+import java.io.File;
+
+public class SingleClassesOmitBodiesTest extends SingleClassesTestBase {
+  @Override
+  protected String[] getDecompilerOptions() {
+    return new String[] {
+      IFernflowerPreferences.INCLUDE_ENTIRE_CLASSPATH, "0",
+      IFernflowerPreferences.OMIT_METHOD_BODIES, "1"
+    };
+  }
+
+  @Override
+  protected File getReferenceFile(String testName) {
+    return new File(fixture.getTestDataDir(), "results/omb/" + testName + ".dec");
+  }
+
+  @Test public void testInnerSignature() { doTest("pkg/TestInnerSignature"); }
+  @Test public void testAnonymousClass() { doTest("pkg/TestAnonymousClass"); }
+  @Test public void testEnum() { doTest("pkg/TestEnum"); }
+  @Test public void testClassLambda() { doTest("pkg/TestClassLambda"); }
+  @Test public void testClassFields() { doTest("pkg/TestClassFields"); }
+  @Test public void testExtendingSubclass() { doTest("pkg/TestExtendingSubclass"); }
+}
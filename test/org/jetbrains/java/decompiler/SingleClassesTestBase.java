@@ -79,11 +79,15 @@ public class SingleClassesTestBase {
     String testName = classFile.getName().substring(0, classFile.getName().length() - 6);
     File decompiledFile = new File(fixture.getTargetDir(), testName + ".java");
     assertTrue(decompiledFile.isFile());
-    File referenceFile = new File(fixture.getTestDataDir(), "results/" + testName + ".dec");
+    File referenceFile = getReferenceFile(testName);
     assertTrue(referenceFile.isFile());
     assertFilesEqual(referenceFile, decompiledFile);
   }
 
+  protected File getReferenceFile(String testName) {
+    return new File(fixture.getTestDataDir(), "results/" + testName + ".dec");
+  }
+
   private static List<File> collectClasses(File classFile) {
     List<File> files = new ArrayList<>();
     files.add(classFile);
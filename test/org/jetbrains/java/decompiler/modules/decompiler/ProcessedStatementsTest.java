@@ -0,0 +1,91 @@
+package org.jetbrains.java.decompiler.modules.decompiler;
+
+import org.jetbrains.java.decompiler.main.collectors.CounterContainer;
+import org.jetbrains.java.decompiler.modules.decompiler.stats.BasicBlockStatement;
+import org.jetbrains.java.decompiler.modules.decompiler.stats.SequenceStatement;
+import org.jetbrains.java.decompiler.modules.decompiler.stats.Statement;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ProcessedStatementsTest {
+  private CounterContainer counters;
+  private BasicBlockStatement init;
+  private BasicBlockStatement loop;
+  private BasicBlockStatement rest;
+  private SequenceStatement inner;
+  private SequenceStatement outer;
+
+  // outer { init; inner { loop; rest } }
+  @Before
+  public void setUp() {
+    counters = new CounterContainer();
+    init = block();
+    loop = block();
+    rest = block();
+    inner = sequence(loop, rest);
+    outer = sequence(init, inner);
+  }
+
+  @Test
+  public void testUnchanged() {
+    ProcessedStatements processed = new ProcessedStatements();
+    assertFalse(processed.isUnchanged(inner));
+
+    processed.setUnchanged(inner, processed.begin(inner));
+    assertTrue(processed.isUnchanged(inner));
+
+    init.markModified();
+    assertTrue(processed.isUnchanged(inner));
+
+    loop.markModified();
+    assertFalse(processed.isUnchanged(inner));
+  }
+
+  @Test
+  public void testPrecedingStatement() {
+    assertSame(init, MergeHelper.getPrecedingStatement(inner));
+    assertSame(init, MergeHelper.getPrecedingStatement(loop));
+    assertSame(loop, MergeHelper.getPrecedingStatement(rest));
+    assertNull(MergeHelper.getPrecedingStatement(init));
+    assertNull(MergeHelper.getPrecedingStatement(outer));
+  }
+
+  // a loop starting a statement reads the initializer from outside of it, so changes to it must not be missed
+  @Test
+  public void testModifiedDependency() {
+    ProcessedStatements processed = new ProcessedStatements();
+    Statement preceding = MergeHelper.getPrecedingStatement(inner);
+    int stamp = processed.begin(inner);
+    processed.setUnchanged(inner, stamp, preceding);
+    assertTrue(processed.isUnchanged(inner, preceding));
+
+    init.markModified();
+    assertFalse(inner.isModifiedSince(stamp));
+    assertFalse(processed.isUnchanged(inner, preceding));
+  }
+
+  @Test
+  public void testReplacedDependency() {
+    ProcessedStatements processed = new ProcessedStatements();
+    processed.setUnchanged(inner, processed.begin(inner), MergeHelper.getPrecedingStatement(inner));
+
+    BasicBlockStatement other = block();
+    assertFalse(processed.isUnchanged(inner, other));
+    assertFalse(processed.isUnchanged(inner, null));
+  }
+
+  private BasicBlockStatement block() {
+    return new BasicBlockStatement(counters);
+  }
+
+  private static SequenceStatement sequence(Statement first, Statement second) {
+    first.addSuccessor(new StatEdge(StatEdge.TYPE_REGULAR, first, second));
+    SequenceStatement sequence = new SequenceStatement(Arrays.asList(first, second));
+    sequence.setAllParent();
+    return sequence;
+  }
+}
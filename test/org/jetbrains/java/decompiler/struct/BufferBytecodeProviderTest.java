@@ -0,0 +1,259 @@
+package org.jetbrains.java.decompiler.struct;
+
+import org.jetbrains.java.decompiler.main.Fernflower;
+import org.jetbrains.java.decompiler.main.decompiler.PrintStreamLogger;
+import org.jetbrains.java.decompiler.main.extern.IBufferBytecodeProvider;
+import org.jetbrains.java.decompiler.main.extern.IBytecodeProvider;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.main.extern.IResultSaver;
+import org.jetbrains.java.decompiler.struct.lazy.LazyLoader;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+public class BufferBytecodeProviderTest {
+  private static final List<String> CLASSES = Arrays.asList("pkg/TestSameCode", "pkg/TestSameCodeCopy");
+
+  private final File classes = new File("testData/classes");
+  private File tempDir;
+  private File jar;
+  private Map<String, String> expected;
+
+  @Before
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDirectory("buffer_provider_test_").toFile();
+    jar = new File(tempDir, "test.jar");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+      for (String name : CLASSES) {
+        out.putNextEntry(new ZipEntry(name + ".class"));
+        out.write(InterpreterUtil.getBytes(classFile(name)));
+        out.closeEntry();
+      }
+    }
+
+    // the output of the plain byte[] provider every other provider must match
+    expected = decompile((externalPath, internalPath) -> InterpreterUtil.getBytes(new File(externalPath)), classFiles());
+    assertEquals(new HashSet<>(CLASSES), expected.keySet());
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = tempDir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        assertTrue(file.delete());
+      }
+    }
+    assertTrue(tempDir.delete());
+  }
+
+  @Test
+  public void testBufferOnlyProvider() {
+    CountingProvider provider = new CountingProvider();
+    assertEquals(expected, decompile(provider, classFiles()));
+    assertEquals(CLASSES.size(), provider.singleFetches.get());
+
+    // the default batch fetch hands out the entries of an archive one by one
+    provider = new CountingProvider();
+    assertEquals(expected, decompile(provider, jar));
+    assertEquals(CLASSES.size(), provider.singleFetches.get());
+  }
+
+  @Test
+  public void testByteArrayFromBufferProvider() throws IOException {
+    String path = classFile(CLASSES.get(0)).getPath();
+    assertArrayEquals(InterpreterUtil.getBytes(new File(path)), new CountingProvider().getBytecode(path, null));
+  }
+
+  @Test
+  public void testBatchFetch() {
+    BatchingProvider provider = new BatchingProvider();
+    assertEquals(expected, decompile(provider, jar));
+
+    // all classes of the archive are fetched at once and never again
+    assertEquals(1, provider.batchFetches.get());
+    assertEquals(0, provider.singleFetches.get());
+    assertEquals(Collections.singletonList(jar.getAbsolutePath()), provider.batchArchives);
+    assertEquals(classEntries(), new HashSet<>(provider.batchEntries));
+  }
+
+  @Test
+  public void testDefaultBatchFetch() throws IOException {
+    CountingProvider provider = new CountingProvider();
+    List<String> entries = new ArrayList<>(classEntries());
+    entries.add("pkg/Missing.class");
+
+    Map<String, ByteBuffer> buffers = new LazyLoader(provider).getClassBuffers(jar.getAbsolutePath(), entries);
+    assertEquals(classEntries(), buffers.keySet());
+    assertEquals(entries.size(), provider.singleFetches.get());
+  }
+
+  @Test
+  public void testPartialBatchFetch() {
+    // entries left out of the batch are read from the archive itself
+    BatchingProvider provider = new BatchingProvider() {
+      @Override
+      public Map<String, ByteBuffer> getBytecodeBuffers(String externalPath, List<String> internalPaths) throws IOException {
+        Map<String, ByteBuffer> buffers = super.getBytecodeBuffers(externalPath, internalPaths);
+        buffers.remove(CLASSES.get(1) + ".class");
+        return buffers;
+      }
+    };
+    assertEquals(expected, decompile(provider, jar));
+    assertEquals(1, provider.batchFetches.get());
+  }
+
+  @Test
+  public void testByteArrayProvider() throws IOException {
+    AtomicInteger fetches = new AtomicInteger();
+    IBytecodeProvider provider = (externalPath, internalPath) -> {
+      fetches.incrementAndGet();
+      return InterpreterUtil.getBytes(new File(externalPath));
+    };
+
+    LazyLoader loader = new LazyLoader(provider);
+    assertNull(loader.getClassBuffers(jar.getAbsolutePath(), new ArrayList<>(classEntries())));
+    String path = classFile(CLASSES.get(0)).getPath();
+    ByteBuffer buffer = loader.getClassBuffer(path, null);
+    assertEquals(ByteBuffer.wrap(InterpreterUtil.getBytes(new File(path))), buffer);
+    assertEquals(1, fetches.get());
+
+    // without batch fetching the classes of an archive are read from the archive itself
+    fetches.set(0);
+    assertEquals(expected, decompile(provider, jar));
+    assertEquals(0, fetches.get());
+  }
+
+  private File classFile(String name) {
+    return new File(classes, name + ".class");
+  }
+
+  private File[] classFiles() {
+    return CLASSES.stream().map(this::classFile).toArray(File[]::new);
+  }
+
+  private static Set<String> classEntries() {
+    Set<String> entries = new HashSet<>();
+    for (String name : CLASSES) {
+      entries.add(name + ".class");
+    }
+    return entries;
+  }
+
+  private static Map<String, String> decompile(IBytecodeProvider provider, File... sources) {
+    Map<String, Object> options = Collections.singletonMap(IFernflowerPreferences.LOG_LEVEL, "warn");
+    Saver saver = new Saver();
+    Fernflower fernflower = new Fernflower(provider, saver, options, new PrintStreamLogger(System.out));
+    try {
+      for (File source : sources) {
+        fernflower.addSource(source);
+      }
+      fernflower.decompileContext();
+    }
+    finally {
+      fernflower.clearContext();
+    }
+    return saver.saved;
+  }
+
+  /**
+   * Hands out every class file as a read-only direct buffer that does not start at position 0, so that readers can
+   * rely on neither a backing array nor the position of the buffer.
+   */
+  private static class CountingProvider implements IBufferBytecodeProvider {
+    final AtomicInteger singleFetches = new AtomicInteger();
+
+    @Override
+    public ByteBuffer getBytecodeBuffer(String externalPath, String internalPath) throws IOException {
+      singleFetches.incrementAndGet();
+      if (internalPath == null) {
+        return toBuffer(InterpreterUtil.getBytes(new File(externalPath)));
+      }
+      try (ZipFile archive = new ZipFile(externalPath)) {
+        ZipEntry entry = archive.getEntry(internalPath);
+        return entry == null ? null : toBuffer(InterpreterUtil.getBytes(archive, entry));
+      }
+    }
+
+    static ByteBuffer toBuffer(byte[] bytes) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 32);
+      buffer.position(16);
+      buffer.put(bytes);
+      buffer.limit(buffer.position());
+      buffer.position(16);
+      return buffer.asReadOnlyBuffer();
+    }
+  }
+
+  private static class BatchingProvider extends CountingProvider {
+    private final AtomicInteger batchFetches = new AtomicInteger();
+    private final List<String> batchArchives = new ArrayList<>();
+    private final List<String> batchEntries = new ArrayList<>();
+
+    @Override
+    public Map<String, ByteBuffer> getBytecodeBuffers(String externalPath, List<String> internalPaths) throws IOException {
+      batchFetches.incrementAndGet();
+      batchArchives.add(externalPath);
+      batchEntries.addAll(internalPaths);
+      Map<String, ByteBuffer> buffers = new HashMap<>();
+      try (ZipFile archive = new ZipFile(externalPath)) {
+        for (String internalPath : internalPaths) {
+          ZipEntry entry = archive.getEntry(internalPath);
+          if (entry != null) {
+            buffers.put(internalPath, toBuffer(InterpreterUtil.getBytes(archive, entry)));
+          }
+        }
+      }
+      return buffers;
+    }
+  }
+
+  private static final class Saver implements IResultSaver {
+    private final Map<String, String> saved = new HashMap<>();
+
+    @Override
+    public void saveFolder(String path) { }
+
+    @Override
+    public void copyFile(String source, String path, String entryName) { }
+
+    @Override
+    public void saveClassFile(String path, String qualifiedName, String entryName, String content, int[] mapping) {
+      assertNotNull(qualifiedName, content);
+      saved.put(qualifiedName, content);
+    }
+
+    @Override
+    public void createArchive(String path, String archiveName, Manifest manifest) { }
+
+    @Override
+    public void saveDirEntry(String path, String archiveName, String entryName) { }
+
+    @Override
+    public void copyEntry(String source, String path, String archiveName, String entry) { }
+
+    @Override
+    public void saveClassEntry(String path, String archiveName, String qualifiedName, String entryName, String content) {
+      assertNotNull(qualifiedName, content);
+      saved.put(qualifiedName, content);
+    }
+
+    @Override
+    public void closeArchive(String path, String archiveName) { }
+  }
+}
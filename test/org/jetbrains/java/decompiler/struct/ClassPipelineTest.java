@@ -0,0 +1,148 @@
+package org.jetbrains.java.decompiler.struct;
+
+import org.jetbrains.java.decompiler.main.DecompilerContext;
+import org.jetbrains.java.decompiler.main.Fernflower;
+import org.jetbrains.java.decompiler.main.decompiler.PrintStreamLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.jetbrains.java.decompiler.struct.ContextUnit.ClassResult;
+import org.jetbrains.java.decompiler.util.InterpreterUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class ClassPipelineTest {
+  private Fernflower fernflower;
+  private DecompilerContext rootContext;
+  private List<StructClass> classes;
+
+  @Before
+  public void setUp() {
+    Map<String, Object> options = Collections.singletonMap(IFernflowerPreferences.LOG_LEVEL, "warn");
+    PrintStreamLogger logger = new PrintStreamLogger(System.out);
+    fernflower = new Fernflower((externalPath, internalPath) -> InterpreterUtil.getBytes(new File(externalPath)), null, options, logger);
+    File[] files = new File("testData/classes/pkg").listFiles((dir, name) -> name.endsWith(".class"));
+    assertNotNull(files);
+    Arrays.sort(files);
+    for (File file : files) {
+      fernflower.addSource(file);
+    }
+    rootContext = DecompilerContext.getCurrentContext();
+    classes = new ArrayList<>(DecompilerContext.getStructContext().getOwnClasses().values());
+    classes.sort(Comparator.comparing(cl -> cl.qualifiedName));
+  }
+
+  @After
+  public void tearDown() {
+    fernflower.clearContext();
+  }
+
+  @Test(timeout = 60_000)
+  public void testOrderWithZeroSizeQueue() throws Exception {
+    for (int threads = 1; threads <= 4; threads++) {
+      List<ClassResult> results = run(new TestData(-1), threads, threads);
+      for (int i = 0; i < classes.size(); i++) {
+        assertNull(results.get(i).getFailure());
+        assertEquals(classes.get(i).qualifiedName, results.get(i).getContent());
+      }
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void testFailingStages() throws Exception {
+    for (int threads = 1; threads <= 4; threads++) {
+      List<ClassResult> results = run(new TestData(3), threads, 1);
+      for (int i = 0; i < classes.size(); i++) {
+        ClassResult result = results.get(i);
+        switch (i % 3) {
+          case 0:
+            assertEquals("analysis of " + classes.get(i).qualifiedName, result.getFailure().getMessage());
+            break;
+          case 1:
+            assertEquals("writing of " + classes.get(i).qualifiedName, result.getFailure().getMessage());
+            break;
+          default:
+            assertEquals(classes.get(i).qualifiedName, result.getContent());
+        }
+      }
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void testShutdownAfterFailure() throws Exception {
+    SaveQueue<ClassResult> queue = new SaveQueue<>(0);
+    ClassPipeline pipeline = new ClassPipeline(new TestData(3), rootContext, queue, 2, 2);
+    List<Runnable> tasks = submit(pipeline);
+    try {
+      // the writer stops at the first failure, leaving the other classes to the threads of the pipeline
+      assertNotNull(queue.take(0, tasks.get(0)).getFailure());
+    }
+    finally {
+      pipeline.shutdown();
+    }
+  }
+
+  private List<ClassResult> run(IDecompiledData data, int analysisThreads, int textThreads) throws InterruptedException {
+    SaveQueue<ClassResult> queue = new SaveQueue<>(0);
+    ClassPipeline pipeline = new ClassPipeline(data, rootContext, queue, analysisThreads, textThreads);
+    try {
+      List<Runnable> tasks = submit(pipeline);
+      List<ClassResult> results = new ArrayList<>();
+      for (int i = 0; i < classes.size(); i++) {
+        results.add(queue.take(i, tasks.get(i)));
+      }
+      return results;
+    }
+    finally {
+      pipeline.shutdown();
+    }
+  }
+
+  // submits the classes in reverse order, as the most expensive classes are started first
+  private List<Runnable> submit(ClassPipeline pipeline) {
+    List<Runnable> tasks = new ArrayList<>(Collections.nCopies(classes.size(), null));
+    for (int i = classes.size() - 1; i >= 0; i--) {
+      tasks.set(i, pipeline.submit(i, classes.get(i)));
+    }
+    return tasks;
+  }
+
+  // writes the name of a class as its source, failing in analysis or writing for every class selected by failEvery
+  private final class TestData implements IDecompiledData {
+    private final int failEvery;
+
+    private TestData(int failEvery) {
+      this.failEvery = failEvery;
+    }
+
+    @Override
+    public String getClassEntryName(StructClass cl, String entryName) {
+      return entryName;
+    }
+
+    @Override
+    public String getClassContent(StructClass cl) {
+      return prepareClassContent(cl).get();
+    }
+
+    @Override
+    public Supplier<String> prepareClassContent(StructClass cl) {
+      int index = classes.indexOf(cl);
+      if (failEvery > 0 && index % failEvery == 0) {
+        throw new IllegalStateException("analysis of " + cl.qualifiedName);
+      }
+      Thread.yield();
+      return () -> {
+        if (failEvery > 0 && index % failEvery == 1) {
+          throw new IllegalStateException("writing of " + cl.qualifiedName);
+        }
+        return cl.qualifiedName;
+      };
+    }
+  }
+}
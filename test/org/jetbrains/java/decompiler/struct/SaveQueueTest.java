@@ -0,0 +1,110 @@
+package org.jetbrains.java.decompiler.struct;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class SaveQueueTest {
+  private static final int COUNT = 200;
+
+  @Test(timeout = 60_000)
+  public void testOrderWithZeroCapacity() throws Exception {
+    SaveQueue<String> queue = new SaveQueue<>(0);
+    ExecutorService workers = Executors.newFixedThreadPool(4);
+    try {
+      List<Integer> order = new ArrayList<>();
+      for (int i = 0; i < COUNT; i++) {
+        order.add(i);
+      }
+      Collections.shuffle(order, ThreadLocalRandom.current());
+
+      List<Runnable> tasks = new ArrayList<>(Collections.nCopies(COUNT, null));
+      for (int index : order) {
+        Task task = new Task(queue, index);
+        tasks.set(index, task);
+        workers.execute(task);
+      }
+
+      for (int i = 0; i < COUNT; i++) {
+        assertEquals(String.valueOf(i), queue.take(i, tasks.get(i)));
+      }
+    }
+    finally {
+      workers.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void testWriterRunsTaskWhenWorkersWaitForRoom() throws Exception {
+    SaveQueue<String> queue = new SaveQueue<>(10);
+    Thread first = new Thread(() -> put(queue, 1));
+    first.start();
+    first.join();  // the queue is full now
+    Thread second = new Thread(() -> put(queue, 2));
+    second.start();  // waits for room
+
+    AtomicBoolean ran = new AtomicBoolean();
+    assertEquals("0", queue.take(0, () -> {
+      ran.set(true);
+      put(queue, 0);
+    }));
+    assertTrue(ran.get());
+
+    assertEquals("1", queue.take(1, () -> fail("the result was put already")));
+    assertEquals("2", queue.take(2, () -> { }));  // the worker is started, it may only not have seen the room yet
+    second.join();
+  }
+
+  @Test(timeout = 60_000)
+  public void testWorkerWithNextResultDoesNotWait() throws Exception {
+    SaveQueue<String> queue = new SaveQueue<>(10);
+    put(queue, 1);
+
+    Thread writer = new Thread(() -> {
+      try {
+        queue.take(0, () -> { });
+      }
+      catch (InterruptedException ignored) { }
+    });
+    writer.start();
+
+    // the queue is full, but the result is the one the writer waits for
+    put(queue, 0);
+    writer.join();
+    assertEquals("1", queue.take(1, () -> fail("the result was put already")));
+  }
+
+  private static void put(SaveQueue<String> queue, int index) {
+    try {
+      queue.put(index, String.valueOf(index), 10);
+    }
+    catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // runs at most once, either on a worker or on the writer
+  private static final class Task implements Runnable {
+    private final SaveQueue<String> queue;
+    private final int index;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private Task(SaveQueue<String> queue, int index) {
+      this.queue = queue;
+      this.index = index;
+    }
+
+    @Override
+    public void run() {
+      if (started.compareAndSet(false, true)) {
+        put(queue, index);
+      }
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package org.jetbrains.java.decompiler.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class BoundedCacheTest {
+  private final AtomicInteger computed = new AtomicInteger();
+  private final Function<String, String> compute = key -> {
+    computed.incrementAndGet();
+    return key.toUpperCase();
+  };
+
+  @Test
+  public void testCachedUntilRollover() {
+    BoundedCache<String, String> cache = new BoundedCache<>(2);
+    assertEquals("A", cache.get("a", compute));
+    assertEquals("A", cache.get("a", compute));
+    assertEquals(1, computed.get());
+  }
+
+  @Test
+  public void testEntriesSurviveOneRollover() {
+    BoundedCache<String, String> cache = new BoundedCache<>(2);
+    cache.get("a", compute);
+    cache.get("b", compute);
+    cache.get("c", compute);  // the generation holding a and b is full, c starts a new one
+    assertEquals(3, computed.get());
+
+    assertEquals("A", cache.get("a", compute));
+    assertEquals("B", cache.get("b", compute));
+    assertEquals(3, computed.get());
+  }
+
+  @Test
+  public void testUsedEntriesAreCarriedOver() {
+    BoundedCache<String, String> cache = new BoundedCache<>(2);
+    cache.get("a", compute);
+    cache.get("b", compute);
+    cache.get("c", compute);  // a and b become the old generation
+    cache.get("a", compute);  // a is carried over into the current generation, which is now full
+    cache.get("d", compute);  // c and a become the old generation, b is dropped
+    assertEquals(4, computed.get());
+
+    cache.get("a", compute);
+    cache.get("c", compute);
+    assertEquals(4, computed.get());
+    cache.get("b", compute);
+    assertEquals(5, computed.get());
+  }
+
+  @Test
+  public void testUnusedEntriesAreDropped() {
+    BoundedCache<String, String> cache = new BoundedCache<>(2);
+    for (String key : new String[]{"a", "b", "c", "d", "e"}) {
+      cache.get(key, compute);
+    }
+    assertEquals(5, computed.get());
+    cache.get("a", compute);
+    assertEquals(6, computed.get());
+  }
+
+  @Test
+  public void testNullIsNotCached() {
+    BoundedCache<String, String> cache = new BoundedCache<>(2);
+    assertNull(cache.get("a", key -> null));
+    assertEquals("A", cache.get("a", compute));
+    assertNull(cache.get("b", key -> null));
+    assertEquals(1, computed.get());
+  }
+
+  @Test(timeout = 60_000)
+  public void testConcurrentRollover() throws Exception {
+    BoundedCache<Integer, String> cache = new BoundedCache<>(16);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        int seed = thread;
+        futures.add(executor.submit(() -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int i = 0; i < 100_000; i++) {
+            int key = (seed + random.nextInt(64)) % 64;
+            assertEquals(String.valueOf(key), cache.get(key, String::valueOf));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+}
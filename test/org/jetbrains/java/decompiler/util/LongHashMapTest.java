@@ -0,0 +1,137 @@
+package org.jetbrains.java.decompiler.util;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class LongHashMapTest {
+  private static final int CAPACITY = 256;
+
+  @Test
+  public void testPutGetRemove() {
+    LongHashMap<String> map = new LongHashMap<>();
+    assertTrue(map.isEmpty());
+    assertNull(map.put(1L, "a"));
+    assertEquals("a", map.put(1L, "b"));
+    assertEquals("b", map.get(1L));
+    assertTrue(map.containsKey(1L));
+    assertFalse(map.containsKey(2L));
+    assertEquals(1, map.size());
+    assertEquals("b", map.remove(1L));
+    assertNull(map.remove(1L));
+    assertTrue(map.isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullValue() {
+    new LongHashMap<String>().put(1L, null);
+  }
+
+  @Test
+  public void testResize() {
+    LongHashMap<Long> map = new LongHashMap<>();
+    for (long key = 0; key < 10_000; key++) {
+      map.put(key << 32 | key, key);
+    }
+    assertEquals(10_000, map.size());
+    for (long key = 0; key < 10_000; key++) {
+      assertEquals(Long.valueOf(key), map.get(key << 32 | key));
+    }
+
+    long[] keys = map.keys();
+    List<Long> values = map.values();
+    assertEquals(10_000, keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(keys[i] & 0xFFFFFFFFL, values.get(i).longValue());
+    }
+  }
+
+  @Test
+  public void testCopy() {
+    LongHashMap<String> map = new LongHashMap<>();
+    map.put(1L, "a");
+    LongHashMap<String> copy = new LongHashMap<>(map);
+    copy.put(2L, "b");
+    copy.remove(1L);
+    assertEquals("a", map.get(1L));
+    assertFalse(map.containsKey(2L));
+    assertEquals(1, copy.size());
+  }
+
+  @Test
+  public void testRemoveFromCollisionChain() {
+    // keys with the same home slot form one probe sequence; removing any of them must keep the others reachable
+    long[] keys = findCollidingKeys(0, 4);
+    for (int removed = 0; removed < keys.length; removed++) {
+      LongHashMap<Long> map = new LongHashMap<>(CAPACITY / 2);
+      for (long key : keys) {
+        map.put(key, key);
+      }
+      assertEquals(Long.valueOf(keys[removed]), map.remove(keys[removed]));
+      for (int i = 0; i < keys.length; i++) {
+        assertEquals(i == removed ? null : Long.valueOf(keys[i]), map.get(keys[i]));
+      }
+    }
+  }
+
+  @Test
+  public void testRemoveAcrossTableEnd() {
+    // the probe sequence of keys homed in the last slot continues at the start of the table
+    long[] last = findCollidingKeys(CAPACITY - 1, 3);
+    long[] first = findCollidingKeys(0, 2);
+    LongHashMap<Long> map = new LongHashMap<>(CAPACITY / 2);
+    for (long key : last) {
+      map.put(key, key);
+    }
+    for (long key : first) {
+      map.put(key, key);
+    }
+
+    map.remove(last[0]);
+    for (int i = 1; i < last.length; i++) {
+      assertEquals(Long.valueOf(last[i]), map.get(last[i]));
+    }
+    for (long key : first) {
+      assertEquals(Long.valueOf(key), map.get(key));
+    }
+
+    map.remove(first[0]);
+    map.remove(last[1]);
+    assertEquals(Long.valueOf(last[2]), map.get(last[2]));
+    assertEquals(Long.valueOf(first[1]), map.get(first[1]));
+    assertEquals(2, map.size());
+  }
+
+  @Test
+  public void testAgainstHashMap() {
+    Random random = new Random(42);
+    LongHashMap<Integer> map = new LongHashMap<>();
+    Map<Long, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 100_000; i++) {
+      long key = random.nextInt(512);
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), map.remove(key));
+      }
+      else {
+        assertEquals(expected.put(key, i), map.put(key, i));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for (long key = 0; key < 512; key++) {
+      assertEquals(expected.get(key), map.get(key));
+    }
+  }
+
+  private static long[] findCollidingKeys(int slot, int count) {
+    long[] keys = new long[count];
+    int found = 0;
+    for (long key = 0; found < count; key++) {
+      if ((LongHashMap.hash(key) & (CAPACITY - 1)) == slot) {
+        keys[found++] = key;
+      }
+    }
+    return keys;
+  }
+}
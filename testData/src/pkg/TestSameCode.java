@@ -0,0 +1,45 @@
+package pkg;
+
+public class TestSameCode {
+  private int base;
+
+  public static int sum(int[] values) {
+    int sum = 0;
+    for (int value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  public int sumFromBase(int[] values) {
+    int sum = base;
+    for (int value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  public int sumFromBaseAgain(int[] values) {
+    int sum = base;
+    for (int value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  public static String text() {
+    return "same";
+  }
+
+  public static String otherText() {
+    return "other";
+  }
+
+  public static int callHelper() {
+    return TestSameCode.helper();
+  }
+
+  static int helper() {
+    return 42;
+  }
+}
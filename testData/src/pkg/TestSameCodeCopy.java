@@ -0,0 +1,33 @@
+package pkg;
+
+public class TestSameCodeCopy {
+  private int base;
+
+  public static String padding() {
+    return "padding" + 1.5 + 2L;
+  }
+
+  public static int sum(int[] values) {
+    int sum = 0;
+    for (int value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  public int sumFromBase(int[] values) {
+    int sum = base;
+    for (int value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  public static String text() {
+    return "same";
+  }
+
+  public static int callHelper() {
+    return TestSameCode.helper();
+  }
+}